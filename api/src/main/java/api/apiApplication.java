@@ -1,9 +1,12 @@
 package api;
 
+import common.observability.ThreadingDiagnostics;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
 
 @SpringBootApplication
+@Import(ThreadingDiagnostics.class) // classe partagée (module common/), hors du scan de composants
 public class apiApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,65 @@
+package api.config;
+
+import api.service.Bulkhead;
+import api.service.BulkheadFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulkheads (app.bulkhead.*) : filtre HTTP avant Spring Security + quota de connexions
+ * par compartiment autour de la DataSource principale.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.bulkhead.enabled", havingValue = "true", matchIfMissing = true)
+public class BulkheadConfig {
+
+    @Bean
+    public FilterRegistrationBean<BulkheadFilter> bulkheadFilter(
+            BulkheadProperties properties,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry
+    ) {
+        PathPatternParser parser = new PathPatternParser();
+        List<BulkheadFilter.Route> routes = new ArrayList<>();
+        for (BulkheadProperties.Compartment c : properties.getCompartments()) {
+            if (c.getMaxConcurrent() <= 0 || c.getPaths().isEmpty()) {
+                throw new IllegalStateException("Compartiment bulkhead invalide : " + c);
+            }
+            Bulkhead bulkhead = new Bulkhead(c.getName(), c.getMaxConcurrent(), c.getQueueTimeoutMs(),
+                    c.getMaxConnections(), c.getConnectionTimeoutMs(), meterRegistry);
+            for (String path : c.getPaths()) {
+                routes.add(new BulkheadFilter.Route(parser.parse(path), bulkhead));
+            }
+        }
+
+        FilterRegistrationBean<BulkheadFilter> registration =
+                new FilterRegistrationBean<>(new BulkheadFilter(routes, objectMapper));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 10);
+        return registration;
+    }
+
+    // static : post-processeur créé avant les autres beans
+    @Bean
+    public static BeanPostProcessor bulkheadDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource ds && !(bean instanceof BulkheadDataSource)) {
+                    return new BulkheadDataSource(ds);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compartiments d'isolation (app.bulkhead.*) : chaque classe d'endpoints a sa limite de
+ * requêtes concurrentes et sa part du pool JDBC. Hors compartiment : pas de limite.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.bulkhead")
+public class BulkheadProperties {
+
+    private boolean enabled = true;
+
+    private List<Compartment> compartments = new ArrayList<>();
+
+    @Data
+    public static class Compartment {
+        private String name;
+        // patterns Spring MVC, ex: /api/me/**
+        private List<String> paths = new ArrayList<>();
+        // requêtes traitées en même temps (threads Tomcat)
+        private int maxConcurrent;
+        // attente max d'une place avant 503
+        private long queueTimeoutMs = 100;
+        // connexions JDBC simultanées (0 = pas de quota)
+        private int maxConnections;
+        // attente max d'une connexion du quota
+        private long connectionTimeoutMs = 1000;
+    }
+}
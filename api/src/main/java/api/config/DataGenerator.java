@@ -0,0 +1,443 @@
+package api.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Générateur de données synthétiques pour les tests de montée en charge : actifs, utilisateurs,
+ * alertes, favoris, positions et historique de prix, chargés par COPY (protocole pgjdbc).
+ *
+ * - reproductible : chaque ligne est tirée d'un générateur dérivé de (seed, table, index),
+ *   indépendamment de l'ordre ou du découpage en threads ;
+ * - ids explicites réservés dans les séquences avant chaque COPY (reserveIds) : les inscriptions
+ *   et les upserts du collector concurrents tirent leurs ids après la plage chargée ;
+ * - historique : marche aléatoire log-normale remontant le temps depuis current_price,
+ *   le dernier point coïncide donc avec le prix courant de l'actif ;
+ * - seuils d'alerte hors d'atteinte au prix courant (les actifs générés ne sont pas mis à jour
+ *   par le collector) : rien ne se déclenche, mais chaque passage les évalue.
+ *
+ * Lancement : profil "datagen" (DataGeneratorConfig), volumes dans app.datagen.*.
+ */
+@Slf4j
+public class DataGenerator {
+
+    public record Summary(long assets, long users, long alerts, long favorites, long holdings, long historyPoints) {}
+
+    private static final int FLUSH_CHARS = 1 << 20;
+
+    // flux indépendants par table
+    private static final int ASSETS = 1;
+    private static final int USERS = 2;
+    private static final int ALERTS = 3;
+    private static final int FAVORITES = 4;
+    private static final int HOLDINGS = 5;
+    private static final int HISTORY = 6;
+
+    private final DataSource dataSource;
+    private final DataGeneratorProperties props;
+    private final String passwordHash;
+
+    public DataGenerator(DataSource dataSource, DataGeneratorProperties props, String passwordHash) {
+        this.dataSource = dataSource;
+        this.props = props;
+        this.passwordHash = passwordHash;
+    }
+
+    public Summary generate() throws Exception {
+        validate();
+        String prefix = props.getPrefix();
+        if (props.isReset()) reset(prefix);
+
+        long assetBase = reserveIds("crypto_assets", props.getAssets());
+        long userBase = reserveIds("users", props.getUsers());
+        long roleId = userRoleId();
+        double[] prices = assetPrices();
+        // horodatage fixe (created_at, fin de l'historique) : pas de now() dans les données générées
+        Instant end = props.getHistoryEnd() != null
+                ? props.getHistoryEnd()
+                : Instant.now().truncatedTo(ChronoUnit.DAYS);
+        long endSecond = end.getEpochSecond();
+
+        long t0 = System.nanoTime();
+        long assets = copy("COPY crypto_assets (id, external_id, symbol, name, current_price, market_cap, total_volume,"
+                + " price_change_24h, image_url, market_cap_rank) FROM STDIN", rows -> {
+            for (int i = 0; i < props.getAssets(); i++) {
+                SplittableRandom rnd = rng(ASSETS, i);
+                rnd.nextDouble(); // 1er tirage = prix (assetPrices)
+                double supply = 1e6 + rnd.nextDouble() * 1e10;
+                rows.col(assetBase + i).col(prefix + "-" + i).col(prefix + i).col("Generated " + i)
+                        .col(prices[i]).col(prices[i] * supply).col(prices[i] * supply * (0.01 + rnd.nextDouble() * 0.2))
+                        .col(prices[i] * (rnd.nextDouble() - 0.5) * 0.2).nul()
+                        .col(10_000 + i).end();
+            }
+        });
+        log.info("Datagen : {} actifs", assets);
+
+        long users = copy("COPY users (id, username, email, password, enabled, balance) FROM STDIN", rows -> {
+            for (long i = 0; i < props.getUsers(); i++) {
+                SplittableRandom rnd = rng(USERS, i);
+                rows.col(userBase + i).col(prefix + "_u" + i).col(prefix + "_u" + i + "@datagen.invalid")
+                        .col(passwordHash).col(true).col(Math.round(rnd.nextDouble() * 10_000_000) / 100.0).end();
+            }
+        });
+        copy("COPY user_roles (user_id, role_id) FROM STDIN", rows -> {
+            for (long i = 0; i < props.getUsers(); i++) rows.col(userBase + i).col(roleId).end();
+        });
+        log.info("Datagen : {} utilisateurs", users);
+
+        long alerts = copy("COPY price_alerts (user_id, asset_id, threshold_high, threshold_low, active,"
+                + " created_at, updated_at) FROM STDIN", rows -> {
+            for (long i = 0; i < props.getUsers(); i++) {
+                SplittableRandom rnd = rng(ALERTS, i);
+                for (int a : pickAssets(rnd, props.getAlertsPerUser())) {
+                    double price = prices[a];
+                    double kind = rnd.nextDouble();
+                    rows.col(userBase + i).col(assetBase + a);
+                    if (kind < 0.2) rows.nul(); else rows.col(price * (1.05 + rnd.nextDouble()));
+                    if (kind > 0.8) rows.nul(); else rows.col(price * (0.5 + rnd.nextDouble() * 0.45));
+                    rows.col(rnd.nextDouble() < 0.9).ts(endSecond).ts(endSecond).end();
+                }
+            }
+        });
+        log.info("Datagen : {} alertes", alerts);
+
+        long favorites = copy("COPY user_favorites (user_id, asset_id, created_at) FROM STDIN", rows -> {
+            for (long i = 0; i < props.getUsers(); i++) {
+                SplittableRandom rnd = rng(FAVORITES, i);
+                for (int a : pickAssets(rnd, props.getFavoritesPerUser())) rows.col(userBase + i).col(assetBase + a).ts(endSecond).end();
+            }
+        });
+        long holdings = copy("COPY user_holdings (user_id, asset_id, quantity) FROM STDIN", rows -> {
+            for (long i = 0; i < props.getUsers(); i++) {
+                SplittableRandom rnd = rng(HOLDINGS, i);
+                for (int a : pickAssets(rnd, props.getHoldingsPerUser())) {
+                    double value = 10 + rnd.nextDouble() * 10_000; // 10 à 10 000 USD par position
+                    rows.col(userBase + i).col(assetBase + a).col(value / prices[a]).end();
+                }
+            }
+        });
+        log.info("Datagen : {} favoris, {} positions", favorites, holdings);
+
+        long history = history(assetBase, prices, endSecond);
+        analyze();
+
+        Summary summary = new Summary(assets, users, alerts, favorites, holdings, history);
+        log.info("Datagen terminé en {} s : {}", TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - t0), summary);
+        return summary;
+    }
+
+    private void validate() {
+        if (!props.getPrefix().matches("[a-z0-9]+")) {
+            throw new IllegalArgumentException("app.datagen.prefix doit respecter [a-z0-9]+ : " + props.getPrefix());
+        }
+        int perUser = Math.max(props.getAlertsPerUser(), Math.max(props.getFavoritesPerUser(), props.getHoldingsPerUser()));
+        if (props.getAssets() < 1 || perUser > props.getAssets()) {
+            throw new IllegalArgumentException("app.datagen.assets doit couvrir les alertes / favoris / positions par utilisateur");
+        }
+        if (props.getHistoryAssets() > props.getAssets() || props.getHistoryIntervalMinutes() < 1) {
+            throw new IllegalArgumentException("app.datagen.history-assets <= assets et history-interval-minutes >= 1");
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Historique : COPY parallèles, 1 tâche par actif
+    // ------------------------------------------------------------------
+
+    private long history(long assetBase, double[] prices, long endSecond) throws Exception {
+        int assets = props.getHistoryAssets();
+        if (assets == 0 || props.getHistoryDays() == 0) return 0;
+
+        long intervalSeconds = props.getHistoryIntervalMinutes() * 60L;
+        long points = props.getHistoryDays() * 86_400L / intervalSeconds;
+
+        AtomicLong total = new AtomicLong();
+        AtomicInteger done = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, props.getThreads()), r -> {
+            Thread t = new Thread(r, "datagen-history");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int a = 0; a < assets; a++) {
+                int asset = a;
+                tasks.add(pool.submit(() -> {
+                    total.addAndGet(copy("COPY crypto_price_history (asset_id, vs_currency, ts, price, market_cap, total_volume)"
+                            + " FROM STDIN", rows -> historyRows(rows, assetBase + asset, rng(HISTORY, asset),
+                            prices[asset], endSecond, intervalSeconds, points)));
+                    int n = done.incrementAndGet();
+                    if (n % 50 == 0 || n == assets) log.info("Datagen : historique {}/{} actifs", n, assets);
+                    return null;
+                }));
+            }
+            for (Future<?> task : tasks) task.get();
+        } finally {
+            pool.shutdownNow();
+        }
+        return total.get();
+    }
+
+    private static void historyRows(
+            Rows rows, long assetId, SplittableRandom rnd, double lastPrice,
+            long endEpochSecond, long intervalSeconds, long points
+    ) throws SQLException {
+        double supply = 1e6 + rnd.nextDouble() * 1e10;
+        double volatility = 0.0005 + rnd.nextDouble() * 0.003; // écart-type du log-rendement par intervalle
+        double baseVolume = lastPrice * supply * (0.01 + rnd.nextDouble() * 0.2);
+        double price = lastPrice;
+        for (long k = 0; k < points; k++) {
+            rows.col(assetId).col("usd").ts(endEpochSecond - k * intervalSeconds)
+                    .col(price).col(price * supply).col(baseVolume * (0.5 + rnd.nextDouble())).end();
+            price *= Math.exp(volatility * rnd.nextGaussian());
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Tirages
+    // ------------------------------------------------------------------
+
+    private double[] assetPrices() {
+        double[] prices = new double[props.getAssets()];
+        for (int i = 0; i < prices.length; i++) {
+            // log-uniforme entre 1e-4 et 1e5 USD
+            prices[i] = Math.pow(10, -4 + rng(ASSETS, i).nextDouble() * 9);
+        }
+        return prices;
+    }
+
+    /**
+     * count actifs distincts : départ biaisé vers les premiers rangs, pas constant ≤ assets / count.
+     */
+    private int[] pickAssets(SplittableRandom rnd, int count) {
+        int assets = props.getAssets();
+        int[] out = new int[count];
+        if (count == 0) return out;
+        double u = rnd.nextDouble();
+        int start = (int) (assets * u * u * u);
+        int step = 1 + rnd.nextInt(Math.max(1, assets / count));
+        for (int j = 0; j < count; j++) out[j] = (int) ((start + (long) j * step) % assets);
+        return out;
+    }
+
+    private SplittableRandom rng(int stream, long index) {
+        return new SplittableRandom(mix64(props.getSeed() * 0x9E3779B97F4A7C15L + stream * 0xBF58476D1CE4E5B9L + index));
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // ------------------------------------------------------------------
+    // SQL
+    // ------------------------------------------------------------------
+
+    private void reset(String prefix) throws SQLException {
+        String userLike = prefix + "\\_u%";
+        String assetLike = prefix + "-%";
+        try (Connection con = dataSource.getConnection()) {
+            // tables remplies ici supprimées explicitement (ne dépend pas des ON DELETE CASCADE),
+            // le reste (trades, ordres...) suit la cascade du schéma
+            for (String table : List.of("user_roles", "price_alerts", "user_favorites", "user_holdings")) {
+                update(con, "DELETE FROM " + table + " WHERE user_id IN (SELECT id FROM users WHERE username LIKE ?)", userLike);
+            }
+            for (String table : List.of("price_alerts", "user_favorites", "user_holdings", "crypto_price_history")) {
+                update(con, "DELETE FROM " + table + " WHERE asset_id IN (SELECT id FROM crypto_assets WHERE external_id LIKE ?)", assetLike);
+            }
+            int users = update(con, "DELETE FROM users WHERE username LIKE ?", userLike);
+            int assets = update(con, "DELETE FROM crypto_assets WHERE external_id LIKE ?", assetLike);
+            if (users + assets > 0) log.info("Datagen : {} utilisateurs et {} actifs générés supprimés", users, assets);
+        }
+    }
+
+    private static int update(Connection con, String sql, String param) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setString(1, param);
+            return ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Réserve [base, base + count) dans la séquence de table.id et retourne base.
+     * ALTER SEQUENCE verrouille la séquence jusqu'au commit (nextval concurrents en attente) :
+     * base couvre à la fois max(id) et les valeurs déjà tirées par des transactions en cours,
+     * puis setval place la séquence après la plage.
+     */
+    private long reserveIds(String table, long count) throws SQLException {
+        try (Connection con = dataSource.getConnection(); Statement st = con.createStatement()) {
+            con.setAutoCommit(false);
+            try {
+                String seq;
+                try (ResultSet rs = st.executeQuery("SELECT pg_get_serial_sequence('" + table + "', 'id')")) {
+                    rs.next();
+                    seq = rs.getString(1);
+                }
+                st.execute("ALTER SEQUENCE " + seq + " INCREMENT BY 1");
+                long base;
+                try (ResultSet rs = st.executeQuery("SELECT GREATEST((SELECT COALESCE(MAX(id), 0) FROM " + table + "),"
+                        + " CASE WHEN is_called THEN last_value ELSE last_value - 1 END) + 1 FROM " + seq)) {
+                    rs.next();
+                    base = rs.getLong(1);
+                }
+                if (count > 0) {
+                    try (PreparedStatement ps = con.prepareStatement("SELECT setval(?::regclass, ?)")) {
+                        ps.setString(1, seq);
+                        ps.setLong(2, base + count - 1);
+                        ps.executeQuery().close();
+                    }
+                }
+                con.commit();
+                return base;
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private long userRoleId() throws SQLException {
+        try (Connection con = dataSource.getConnection(); Statement st = con.createStatement()) {
+            st.execute("INSERT INTO roles (name) VALUES ('ROLE_USER') ON CONFLICT (name) DO NOTHING");
+        }
+        return queryLong("SELECT id FROM roles WHERE name = 'ROLE_USER'");
+    }
+
+    private void analyze() throws SQLException {
+        try (Connection con = dataSource.getConnection(); Statement st = con.createStatement()) {
+            for (String table : List.of("crypto_assets", "users", "user_roles", "price_alerts",
+                    "user_favorites", "user_holdings", "crypto_price_history")) {
+                st.execute("ANALYZE " + table);
+            }
+        }
+    }
+
+    private long queryLong(String sql) throws SQLException {
+        try (Connection con = dataSource.getConnection(); Statement st = con.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(Rows rows) throws SQLException;
+    }
+
+    private long copy(String sql, RowWriter writer) throws SQLException {
+        try (Connection con = dataSource.getConnection()) {
+            CopyIn copyIn = con.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+            try {
+                Rows rows = new Rows(copyIn);
+                writer.write(rows);
+                rows.flush();
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) copyIn.cancelCopy();
+            }
+        }
+    }
+
+    /**
+     * Lignes au format texte de COPY (tabulation, \N = NULL), envoyées par blocs d'environ 1 Mo.
+     * Les valeurs générées ne contiennent ni tabulation, ni retour à la ligne, ni antislash.
+     */
+    static final class Rows {
+
+        private final CopyIn copyIn;
+        private final StringBuilder sb = new StringBuilder(FLUSH_CHARS + 1024);
+        private boolean first = true;
+
+        // cache du préfixe "yyyy-MM-dd " du dernier jour formaté
+        private long cachedDay = Long.MIN_VALUE;
+        private String cachedDate;
+
+        Rows(CopyIn copyIn) {
+            this.copyIn = copyIn;
+        }
+
+        private StringBuilder next() {
+            if (!first) sb.append('\t');
+            first = false;
+            return sb;
+        }
+
+        Rows col(long v) {
+            next().append(v);
+            return this;
+        }
+
+        Rows col(double v) {
+            next().append(v);
+            return this;
+        }
+
+        Rows col(boolean v) {
+            next().append(v ? 't' : 'f');
+            return this;
+        }
+
+        Rows col(String v) {
+            next().append(v);
+            return this;
+        }
+
+        Rows nul() {
+            next().append("\\N");
+            return this;
+        }
+
+        Rows ts(long epochSecond) {
+            long day = Math.floorDiv(epochSecond, 86_400L);
+            if (day != cachedDay) {
+                cachedDay = day;
+                cachedDate = LocalDate.ofEpochDay(day) + " ";
+            }
+            int secondOfDay = (int) Math.floorMod(epochSecond, 86_400L);
+            StringBuilder b = next().append(cachedDate);
+            two(b, secondOfDay / 3600).append(':');
+            two(b, secondOfDay / 60 % 60).append(':');
+            two(b, secondOfDay % 60).append("+00");
+            return this;
+        }
+
+        private static StringBuilder two(StringBuilder b, int v) {
+            if (v < 10) b.append('0');
+            return b.append(v);
+        }
+
+        void end() throws SQLException {
+            sb.append('\n');
+            first = true;
+            if (sb.length() >= FLUSH_CHARS) flush();
+        }
+
+        void flush() throws SQLException {
+            if (sb.isEmpty()) return;
+            byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            sb.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package api.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.sql.DataSource;
+
+/**
+ * Profil "datagen" : génère les volumes app.datagen.* au démarrage puis arrête l'application.
+ *   java -jar api.jar --spring.profiles.active=datagen --app.datagen.users=1000000
+ * JVM dédiée (make datagen : pod éphémère) : pas de serveur HTTP, ni workers @Scheduled
+ * (@Profile("!datagen")), beans paresseux (cf. application.yml).
+ */
+@Slf4j
+@Configuration
+@Profile("datagen")
+public class DataGeneratorConfig {
+
+    @Bean
+    CommandLineRunner generateData(
+            DataSource dataSource,
+            DataGeneratorProperties props,
+            PasswordEncoder passwordEncoder,
+            ConfigurableApplicationContext context
+    ) {
+        return args -> {
+            int code = 0;
+            try {
+                new DataGenerator(dataSource, props, passwordEncoder.encode(props.getPassword())).generate();
+            } catch (Exception e) {
+                log.error("Datagen en échec", e);
+                code = 1;
+            }
+            int exitCode = code;
+            System.exit(SpringApplication.exit(context, () -> exitCode));
+        };
+    }
+}
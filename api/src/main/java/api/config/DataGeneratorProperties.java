@@ -0,0 +1,48 @@
+package api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Volumes du générateur de données synthétiques (app.datagen.*), cf. DataGenerator.
+ * À seed et history-end égaux, le contenu généré est identique d'un run à l'autre.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.datagen")
+public class DataGeneratorProperties {
+
+    private long seed = 42;
+
+    // préfixe des lignes générées ([a-z0-9]+) : <prefix>_u<i> pour les users, <prefix>-<i> pour les actifs
+    private String prefix = "gen";
+
+    // supprime d'abord les lignes générées par un run précédent (même préfixe)
+    private boolean reset = true;
+
+    private long users = 100_000;
+
+    // mot de passe commun des utilisateurs générés (haché une seule fois)
+    private String password = "GenUser1!";
+
+    private int assets = 1_000;
+
+    // nombres exacts par utilisateur (actifs distincts, biaisés vers les premiers rangs)
+    private int alertsPerUser = 3;
+    private int favoritesPerUser = 5;
+    private int holdingsPerUser = 4;
+
+    // historique : pour les history-assets premiers actifs générés, history-days jours jusqu'à history-end
+    private int historyAssets = 100;
+    private int historyDays = 30;
+    private int historyIntervalMinutes = 1;
+
+    // fin de l'historique (défaut : début du jour UTC courant)
+    private Instant historyEnd;
+
+    // connexions COPY en parallèle pour l'historique
+    private int threads = 4;
+}
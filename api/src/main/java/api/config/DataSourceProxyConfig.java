@@ -0,0 +1,58 @@
+package api.config;
+
+import common.observability.QueryInspector;
+import com.zaxxer.hikari.HikariDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import net.ttddyy.observation.tracing.DataSourceObservationListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Un proxy datasource-proxy autour de chaque pool Hikari (DataSource auto-configurée, ou primaire
+ * et réplique, cf. ReadReplicaConfig), partagé par ses listeners : QueryInspector
+ * (app.query-inspection.*) et spans JDBC (cf. TracingConfig).
+ *
+ * Sous le LazyConnectionDataSourceProxy de la réplique : le listener de spans lit les métadonnées
+ * de la connexion dès son obtention, ce qui fixerait la cible avant le read-only de la transaction.
+ */
+@Configuration
+public class DataSourceProxyConfig {
+
+    // static : post-processeur créé avant les autres beans ; les listeners sont résolus à l'enveloppement
+    @Bean
+    public static PoolProxyPostProcessor dataSourceProxyPostProcessor(
+            ObjectProvider<QueryInspector> inspector,
+            ObjectProvider<DataSourceObservationListener> tracing
+    ) {
+        return new PoolProxyPostProcessor(inspector, tracing);
+    }
+
+    // avant BulkheadConfig : le proxy enveloppe le pool lui-même, pas le BulkheadDataSource
+    // (type de retour du @Bean : Ordered doit être visible avant l'instanciation)
+    record PoolProxyPostProcessor(
+            ObjectProvider<QueryInspector> inspector,
+            ObjectProvider<DataSourceObservationListener> tracing
+    ) implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof HikariDataSource ds)) return bean;
+            QueryInspector queryInspector = inspector.getIfAvailable();
+            DataSourceObservationListener observationListener = tracing.getIfAvailable();
+            if (queryInspector == null && observationListener == null) return bean;
+
+            ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(beanName, ds);
+            if (queryInspector != null) builder.listener(queryInspector);
+            if (observationListener != null) builder.listener(observationListener).methodListener(observationListener);
+            return builder.build();
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -8,6 +8,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -99,6 +101,31 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(status).body(body);
     }
 
+    /* ===== PLUS DE CONNEXION JDBC (pool ou quota bulkhead) ===== */
+    @ExceptionHandler({CannotCreateTransactionException.class, CannotGetJdbcConnectionException.class})
+    public ResponseEntity<ApiError> handleNoConnection(
+            Exception ex,
+            HttpServletRequest request
+    ) {
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+
+        // WARN : surcharge attendue => pas de stacktrace
+        log.warn("No DB connection {} {} -> {}",
+                request.getMethod(),
+                request.getRequestURI(),
+                ex.getMessage()
+        );
+
+        ApiError body = ApiError.builder()
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message("Service momentanément saturé, réessayez.")
+                .path(request.getRequestURI())
+                .build();
+
+        return ResponseEntity.status(status).header("Retry-After", "1").body(body);
+    }
+
     /* ===== VRAI BUG (stacktrace) ===== */
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> handleGeneric(
@@ -0,0 +1,43 @@
+package api.config;
+
+import api.service.QueryScopeFilter;
+import common.observability.QueriesEndpoint;
+import common.observability.QueryInspectionProperties;
+import common.observability.QueryInspector;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Instrumentation des requêtes SQL (app.query-inspection.*) : listener du proxy de la DataSource
+ * principale (cf. DataSourceProxyConfig), portée par requête HTTP, endpoint /actuator/queries
+ * (port de management 8090, rôle ADMIN, cf. SecurityConfig). Métriques api.db.*.
+ * Remplace spring.jpa.show-sql (1 ligne de log par statement, sans durée ni valeurs).
+ */
+@Configuration
+@EnableConfigurationProperties(QueryInspectionProperties.class)
+@ConditionalOnProperty(name = "app.query-inspection.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryInspectionConfig {
+
+    @Bean
+    public QueryInspector queryInspector(QueryInspectionProperties properties, MeterRegistry meterRegistry) {
+        return new QueryInspector("api", properties, meterRegistry);
+    }
+
+    // juste après l'observation HTTP (http.server.requests) : couvre Spring Security et les bulkheads
+    @Bean
+    public FilterRegistrationBean<QueryScopeFilter> queryScopeFilter() {
+        FilterRegistrationBean<QueryScopeFilter> registration = new FilterRegistrationBean<>(new QueryScopeFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+
+    @Bean
+    public QueriesEndpoint queriesEndpoint(QueryInspector queryInspector, QueryInspectionProperties properties) {
+        return new QueriesEndpoint(queryInspector, properties);
+    }
+}
@@ -0,0 +1,41 @@
+package api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Budgets de requêtes par route (app.rate-limit.*), appliqués par RateLimitFilter.
+ * Les routes sont testées dans l'ordre de déclaration : la 1re qui correspond s'applique.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // nombre max de buckets en mémoire (toutes routes confondues)
+    private int maxBuckets = 100_000;
+
+    // purge des buckets pleins (inactifs)
+    private long sweepIntervalMs = 60_000;
+
+    private List<Route> routes = new ArrayList<>();
+
+    @Data
+    public static class Route {
+        private String name;
+        // null = toutes les méthodes
+        private String method;
+        // pattern Spring MVC, ex: /api/crypto/*/history
+        private String path;
+        // rafale max
+        private int capacity;
+        // jetons rendus par seconde (débit soutenu)
+        private double refillPerSecond;
+    }
+}
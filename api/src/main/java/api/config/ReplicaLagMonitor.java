@@ -0,0 +1,87 @@
+package api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mesure périodique du retard de la réplique ; au-delà de max-lag-ms (ou si elle ne répond
+ * pas), les lectures repassent sur le primaire jusqu'au rattrapage.
+ *
+ * Retard nul si la réplique a rejoué tout le WAL reçu : pg_last_xact_replay_timestamp()
+ * seul vieillit quand le primaire n'écrit rien.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class ReplicaLagMonitor {
+
+    private static final String LAG_SQL = """
+        SELECT CASE
+                 WHEN NOT pg_is_in_recovery() THEN 0
+                 WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                 ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+               END
+        """;
+
+    private final ReplicaRoutingDataSource routing;
+    private final JdbcTemplate replicaJdbc;
+    private final long maxLagMs;
+
+    // -1 : réplique injoignable
+    private final AtomicLong lagMs = new AtomicLong();
+
+    @Autowired
+    public ReplicaLagMonitor(
+            ReplicaRoutingDataSource routing,
+            @Qualifier("replicaDataSource") DataSource replica,
+            MeterRegistry meterRegistry,
+            @Value("${app.datasource.replica.max-lag-ms:1000}") long maxLagMs
+    ) {
+        this.routing = routing;
+        this.replicaJdbc = new JdbcTemplate(replica);
+        this.maxLagMs = maxLagMs;
+        meterRegistry.gauge("api.db.replica.lag", lagMs, AtomicLong::get);
+        meterRegistry.gauge("api.db.replica.usable", routing, r -> r.isReplicaUsable() ? 1 : 0);
+    }
+
+    @PostConstruct
+    public void start() {
+        check();
+    }
+
+    /**
+     * Une mesure ; met à jour l'aiguillage.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.check-interval-ms:1000}",
+            initialDelayString = "${app.datasource.replica.check-interval-ms:1000}")
+    public void check() {
+        long lag;
+        try {
+            Double measured = replicaJdbc.queryForObject(LAG_SQL, Double.class);
+            lag = measured == null ? 0 : Math.round(measured);
+        } catch (Exception e) {
+            log.debug("Réplique injoignable : {}", e.getMessage());
+            lag = -1;
+        }
+        lagMs.set(lag);
+
+        boolean usable = lag >= 0 && lag <= maxLagMs;
+        if (usable != routing.isReplicaUsable()) {
+            if (usable) log.info("Réplique rattrapée (retard {} ms) : lectures sur la réplique", lag);
+            else log.warn("Réplique {} : lectures sur le primaire",
+                    lag < 0 ? "injoignable" : "en retard de " + lag + " ms");
+        }
+        routing.setReplicaUsable(usable);
+    }
+}
@@ -0,0 +1,57 @@
+package api.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Aiguillage primaire / réplique au moment où la connexion est prise
+ * (derrière un LazyConnectionDataSourceProxy : après le début de transaction).
+ *
+ * - transaction read-only (@Transactional(readOnly = true) des services de lecture, méthodes
+ *   CRUD de lecture des repositories Spring Data appelées hors transaction) -> réplique ;
+ * - tout le reste, et toute lecture si la réplique est en retard / injoignable -> primaire ;
+ * - onPrimary(...) force le primaire (lecture de ce qu'on vient d'écrire).
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private volatile boolean replicaUsable = true;
+
+    /**
+     * Exécute action sur le primaire, même dans des transactions read-only.
+     * Sans réplique configurée : simple appel.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) FORCE_PRIMARY.remove();
+            else FORCE_PRIMARY.set(previous);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicaUsable
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && FORCE_PRIMARY.get() == null) {
+            return Target.REPLICA;
+        }
+        return Target.PRIMARY;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    public void setReplicaUsable(boolean replicaUsable) {
+        this.replicaUsable = replicaUsable;
+    }
+}
@@ -0,0 +1,41 @@
+package api.config;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * TaskScheduler des workers périodiques (@Scheduled : journal des trades, carnet d'ordres,
+ * achats récurrents, classement, flux SSE, purges...).
+ *
+ * - pool de spring.task.scheduling.pool.size threads, ~1 par tâche : une reconstruction longue
+ *   ne retarde pas le group commit du journal des trades ;
+ * - seul @EnableScheduling de l'api : toute méthode @Scheduled en dépend ;
+ * - threads virtuels si spring.threads.virtual.enabled et JRE 21 (images Docker ; sur le JRE 17
+ *   de build, le flag est ignoré, cf. ThreadingDiagnostics). Le SimpleAsyncTaskScheduler
+ *   de Spring Boot exécute toutes les tâches fixedDelay en série sur son unique thread : on garde
+ *   un ThreadPoolTaskScheduler dont les threads sont virtuels ;
+ * - 1 observation / span par exécution (tasks.scheduled.execution, cf. TracingConfig) ;
+ * - rien n'est planifié sous le profil datagen (JVM de chargement, cf. DataGeneratorConfig).
+ */
+@Configuration
+@EnableScheduling
+@Profile("!datagen")
+public class SchedulingConfig {
+
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder, Environment environment) {
+        ThreadPoolTaskScheduler scheduler = builder.build();
+        if (Threading.VIRTUAL.isActive(environment)) {
+            scheduler.setThreadFactory(
+                    new VirtualThreadTaskExecutor(scheduler.getThreadNamePrefix()).getVirtualThreadFactory());
+        }
+        return scheduler;
+    }
+}
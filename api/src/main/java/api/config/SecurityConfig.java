@@ -1,6 +1,7 @@
 package api.config;
 
 import api.service.JwtAuthenticationFilter;
+import api.service.RateLimitFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -25,6 +26,7 @@ import java.util.List;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final AuthenticationProvider authenticationProvider;
 
     @Bean
@@ -50,14 +52,17 @@ public class SecurityConfig {
                 // ✅ Endpoints publics
                 .requestMatchers(HttpMethod.GET,
                         "/api/cryptos/**",
-                        "/api/crypto/**"
+                        "/api/crypto/**",
+                        "/api/stream/prices"
                 ).permitAll()
 
-                // ✅ Actuator health
-                .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                // ✅ Sondes (port applicatif) ; actuator health + scrape Prometheus sur le port de
+                //    management seulement (management.server.port, hors ingress)
+                .requestMatchers("/livez", "/readyz").permitAll()
+                .requestMatchers("/actuator/health", "/actuator/health/**", "/actuator/prometheus").permitAll()
 
-                // 🔒 Admin
-                .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                // 🔒 Admin (+ requêtes SQL lentes / N+1 relevées, avec valeurs liées)
+                .requestMatchers("/api/admin/**", "/actuator/queries").hasRole("ADMIN")
 
                 // 🔒 Tout le reste protégé
                 .anyRequest().authenticated()
@@ -69,7 +74,9 @@ public class SecurityConfig {
             )
 
             .authenticationProvider(authenticationProvider)
-            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+            // ✅ Rate limit après le JWT : clé = utilisateur si authentifié, sinon IP
+            .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,104 @@
+package api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import common.observability.FileSpanExporter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationPredicate;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.ObservationView;
+import io.micrometer.tracing.Tracer;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import net.ttddyy.observation.tracing.ConnectionTracingObservationHandler;
+import net.ttddyy.observation.tracing.DataSourceObservationListener;
+import net.ttddyy.observation.tracing.JdbcObservationDocumentation;
+import net.ttddyy.observation.tracing.QueryTracingObservationHandler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * Traces OpenTelemetry (Micrometer Tracing, management.tracing.* / management.otlp.tracing.*) :
+ *
+ * - span par requête HTTP (http.server.requests) et par exécution @Scheduled : auto-configurés ;
+ * - spans JDBC enfants (connexion, requête) : listener datasource-micrometer posé sur le proxy
+ *   de la DataSource (cf. DataSourceProxyConfig), seulement sous une observation existante ;
+ * - contexte de trace propagé aux exécuteurs Spring (TaskDecorator) et au pool BCrypt ;
+ * - export OTLP si management.otlp.tracing.endpoint est défini, fichier JSON si app.tracing.file.enabled.
+ *
+ * Échantillonnage : management.tracing.sampling.probability (TRACING_SAMPLING_PROBABILITY).
+ */
+@Configuration
+public class TracingConfig {
+
+    private static final Set<String> JDBC_OBSERVATIONS = Set.of("jdbc.connection", "jdbc.query");
+
+    @Bean
+    public DataSourceObservationListener dataSourceObservationListener(ObjectProvider<ObservationRegistry> registry) {
+        DataSourceObservationListener listener = new DataSourceObservationListener(registry::getObject);
+        listener.setSupportedTypes(Set.of(JdbcObservationDocumentation.CONNECTION, JdbcObservationDocumentation.QUERY));
+        return listener;
+    }
+
+    // avant le handler de tracing générique : noms et attributs de span JDBC (db.statement, ...)
+    @Bean
+    @Order(0)
+    public QueryTracingObservationHandler queryTracingObservationHandler(Tracer tracer) {
+        return new QueryTracingObservationHandler(tracer);
+    }
+
+    @Bean
+    @Order(0)
+    public ConnectionTracingObservationHandler connectionTracingObservationHandler(Tracer tracer) {
+        return new ConnectionTracingObservationHandler(tracer);
+    }
+
+    // JDBC hors requête / tick (workers de fond) : pas de trace racine par statement.
+    // Scrapes Prometheus et sondes k8s : ni span ni http.server.requests.
+    @Bean
+    public ObservationPredicate tracingNoiseFilter() {
+        return (name, context) -> {
+            if (JDBC_OBSERVATIONS.contains(name)) return traced(context.getParentObservation());
+            if (context instanceof ServerRequestObservationContext http) {
+                return !http.getCarrier().getRequestURI().startsWith("/actuator");
+            }
+            return true;
+        };
+    }
+
+    // parent noop (connexion JDBC elle-même filtrée) : le span serait une racine
+    private static boolean traced(ObservationView parent) {
+        return parent instanceof Observation observation ? !observation.isNoop() : parent != null;
+    }
+
+    // durées JDBC déjà mesurées par QueryInspector (api.db.queries) : pas de timers jdbc.* en double
+    @Bean
+    public MeterFilter jdbcObservationMetersFilter() {
+        return MeterFilter.deny(id -> JDBC_OBSERVATIONS.contains(id.getName())
+                || JDBC_OBSERVATIONS.contains(id.getName().replaceFirst("\\.active$", "")));
+    }
+
+    @Bean
+    public TaskDecorator contextPropagatingTaskDecorator() {
+        return new ContextPropagatingTaskDecorator();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.tracing.file.enabled", havingValue = "true")
+    public SpanExporter fileSpanExporter(
+            @Value("${app.tracing.file.path}") String path,
+            ObjectMapper objectMapper
+    ) throws IOException {
+        return new FileSpanExporter(Path.of(path), objectMapper);
+    }
+}
@@ -5,6 +5,7 @@ import api.dto.FundsRequest;
 import api.model.Role;
 import api.repository.RoleRepository;
 import api.repository.UserRepository;
+import api.service.LeaderboardService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -19,6 +20,7 @@ public class AdminController {
 
   private final UserRepository userRepository;
   private final RoleRepository roleRepository;
+  private final LeaderboardService leaderboardService;
 
   @PreAuthorize("hasRole('ADMIN')")
   @GetMapping("/users")
@@ -97,6 +99,7 @@ public class AdminController {
 
     user.setBalance(newBalance);
     userRepository.save(user);
+    leaderboardService.markChanged(user.getId());
 
     return AdminUserDto.builder()
         .id(user.getId())
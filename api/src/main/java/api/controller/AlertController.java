@@ -7,10 +7,13 @@ import api.model.PriceAlert;
 import api.model.User;
 import api.repository.CryptoAssetRepository;
 import api.repository.PriceAlertRepository;
+import api.service.AlertStreamService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -21,6 +24,7 @@ public class AlertController {
 
     private final PriceAlertRepository alertRepository;
     private final CryptoAssetRepository assetRepository;
+    private final AlertStreamService alertStreamService;
 
     // ==========================
     // GET : récupérer mes alertes
@@ -33,6 +37,18 @@ public class AlertController {
                 .toList();
     }
 
+    // ==========================
+    // GET : flux temps réel des alertes déclenchées (SSE, event "alert", id = id d'événement)
+    // Last-Event-ID : rejoue les événements manqués depuis la dernière connexion
+    // ==========================
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @AuthenticationPrincipal User user,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId
+    ) {
+        return alertStreamService.subscribe(user.getId(), lastEventId);
+    }
+
     // ==========================
     // POST : créer ou modifier (upsert)
     // ==========================
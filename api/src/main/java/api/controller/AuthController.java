@@ -1,11 +1,15 @@
 package api.controller;
 
 import api.dto.AuthResponse;
+import api.dto.AvailabilityResponse;
 import api.dto.LoginRequest;
 import api.dto.RegisterRequest;
+import api.exception.BusinessException;
+import api.service.AccountAvailabilityService;
 import api.service.AuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,6 +18,7 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class AuthController {
     private final AuthService authService;
+    private final AccountAvailabilityService availabilityService;
 
     @PostMapping("/register")
     public ResponseEntity<AuthResponse> register(@Valid @RequestBody RegisterRequest request) {
@@ -24,4 +29,21 @@ public class AuthController {
     public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest request) {
         return ResponseEntity.ok(authService.login(request));
     }
+
+    // Ex: GET /api/auth/availability?username=mathys&email=mathys@test.com
+    @GetMapping("/availability")
+    public AvailabilityResponse availability(
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String email
+    ) {
+        boolean hasUsername = username != null && !username.isBlank();
+        boolean hasEmail = email != null && !email.isBlank();
+        if (!hasUsername && !hasEmail) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "Paramètre username ou email requis.");
+        }
+        return AvailabilityResponse.builder()
+                .usernameAvailable(hasUsername ? availabilityService.isUsernameAvailable(username) : null)
+                .emailAvailable(hasEmail ? availabilityService.isEmailAvailable(email) : null)
+                .build();
+    }
 }
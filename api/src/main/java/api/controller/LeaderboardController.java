@@ -0,0 +1,28 @@
+package api.controller;
+
+import api.dto.LeaderboardEntryResponse;
+import api.service.LeaderboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api")
+public class LeaderboardController {
+
+    private final LeaderboardService leaderboardService;
+
+    // Ex: GET /api/leaderboard?limit=10 (max 100)
+    @GetMapping("/leaderboard")
+    public List<LeaderboardEntryResponse> getTop(@RequestParam(required = false) Integer limit) {
+        return leaderboardService.getTop(limit);
+    }
+
+    @GetMapping("/me/leaderboard")
+    public LeaderboardEntryResponse getMyRank(Authentication auth) {
+        return leaderboardService.getRank(auth.getName());
+    }
+}
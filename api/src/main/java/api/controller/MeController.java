@@ -1,6 +1,8 @@
 package api.controller;
 
+import api.service.IdempotencyService;
 import api.service.UserSpaceService;
+import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
@@ -14,7 +16,10 @@ import java.util.Map;
 @RequestMapping("/api/me")
 public class MeController {
 
+    private static final TypeReference<Map<String, Double>> BALANCE_RESPONSE = new TypeReference<>() {};
+
     private final UserSpaceService userSpaceService;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping("/balance")
     public Map<String, Double> getBalance(Authentication auth) {
@@ -22,11 +27,19 @@ public class MeController {
         return Map.of("balance", userSpaceService.getBalance(username));
     }
 
+    // Header Idempotency-Key optionnel : un retry avec la même clé ne crédite pas deux fois
     @PostMapping("/balance/add")
-    public Map<String, Double> addBalance(Authentication auth, @RequestBody AddBalanceRequest req) {
+    public Map<String, Double> addBalance(
+            Authentication auth,
+            @RequestBody AddBalanceRequest req,
+            @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey
+    ) {
         String username = auth.getName();
-        double newBalance = userSpaceService.addBalance(username, req.getAmount());
-        return Map.of("balance", newBalance);
+        String request = "POST /api/me/balance/add amount=" + req.getAmount();
+        return idempotencyService.execute(username, idempotencyKey, request, BALANCE_RESPONSE, () -> {
+            double newBalance = userSpaceService.addBalance(username, req.getAmount());
+            return Map.of("balance", newBalance);
+        });
     }
 
     @GetMapping("/favorites")
@@ -0,0 +1,36 @@
+package api.controller;
+
+import api.dto.CreateMovementAlertRequest;
+import api.dto.MovementAlertResponse;
+import api.service.MovementAlertService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/me/movement-alerts")
+public class MovementAlertController {
+
+    private final MovementAlertService movementAlertService;
+
+    @GetMapping
+    public List<MovementAlertResponse> getAlerts(Authentication auth) {
+        return movementAlertService.getAlerts(auth.getName());
+    }
+
+    // Ex: POST /api/me/movement-alerts {"externalId":"bitcoin","type":"PERCENT_MOVE","percent":5,"window":"1h"}
+    @PostMapping
+    public MovementAlertResponse create(Authentication auth, @RequestBody CreateMovementAlertRequest req) {
+        return movementAlertService.create(auth.getName(), req);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(Authentication auth, @PathVariable Long id) {
+        movementAlertService.delete(auth.getName(), id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,36 @@
+package api.controller;
+
+import api.dto.OrderResponse;
+import api.dto.PlaceOrderRequest;
+import api.service.OrderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/me/orders")
+public class OrderController {
+
+    private final OrderService orderService;
+
+    @GetMapping
+    public List<OrderResponse> getOrders(Authentication auth) {
+        return orderService.getOrders(auth.getName());
+    }
+
+    // Ex: POST /api/me/orders {"externalId":"bitcoin","type":"STOP_LOSS","quantity":0.5,"triggerPrice":55000}
+    @PostMapping
+    public OrderResponse place(Authentication auth, @RequestBody PlaceOrderRequest req) {
+        return orderService.place(auth.getName(), req);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancel(Authentication auth, @PathVariable Long id) {
+        orderService.cancel(auth.getName(), id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,36 @@
+package api.controller;
+
+import api.dto.CreateRecurringBuyRequest;
+import api.dto.RecurringBuyResponse;
+import api.service.RecurringBuyService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/me/recurring-buys")
+public class RecurringBuyController {
+
+    private final RecurringBuyService recurringBuyService;
+
+    @GetMapping
+    public List<RecurringBuyResponse> getRecurringBuys(Authentication auth) {
+        return recurringBuyService.getRecurringBuys(auth.getName());
+    }
+
+    // Ex: POST /api/me/recurring-buys {"externalId":"bitcoin","amount":50,"frequency":"DAILY"}
+    @PostMapping
+    public RecurringBuyResponse create(Authentication auth, @RequestBody CreateRecurringBuyRequest req) {
+        return recurringBuyService.create(auth.getName(), req);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(Authentication auth, @PathVariable Long id) {
+        recurringBuyService.delete(auth.getName(), id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,24 @@
+package api.controller;
+
+import api.service.PriceStreamService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.HashSet;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/stream")
+public class StreamController {
+
+    private final PriceStreamService priceStreamService;
+
+    // Ex: GET /api/stream/prices?ids=1,2,3 (event "prices" : [{"id":1,"price":...,"change24h":...}])
+    @GetMapping(value = "/prices", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter prices(@RequestParam(required = false) List<Long> ids) {
+        return priceStreamService.subscribe(ids == null ? null : new HashSet<>(ids));
+    }
+}
@@ -1,7 +1,13 @@
 package api.controller;
 
 import api.dto.HoldingResponse;
+import api.dto.PortfolioResponse;
+import api.dto.PortfolioValuePointDto;
+import api.dto.TradePageResponse;
+import api.service.IdempotencyService;
+import api.service.PortfolioService;
 import api.service.TradeService;
+import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
@@ -15,23 +21,69 @@ import java.util.Map;
 @RequestMapping("/api/me")
 public class TradeController {
 
+    private static final TypeReference<Map<String, Double>> BALANCE_RESPONSE = new TypeReference<>() {};
+
     private final TradeService tradeService;
+    private final IdempotencyService idempotencyService;
+    private final PortfolioService portfolioService;
 
     @GetMapping("/holdings")
     public List<HoldingResponse> getHoldings(Authentication auth) {
         return tradeService.getHoldings(auth.getName());
     }
 
+    // Positions valorisées au prix courant + total, variation 24h et poids
+    @GetMapping("/portfolio")
+    public PortfolioResponse getPortfolio(Authentication auth) {
+        return portfolioService.getPortfolio(auth.getName());
+    }
+
+    // Ex: GET /api/me/portfolio/history?range=7d (1d, 7d, 30d, 1y, all)
+    @GetMapping("/portfolio/history")
+    public List<PortfolioValuePointDto> getPortfolioHistory(
+            Authentication auth,
+            @RequestParam(defaultValue = "7d") String range
+    ) {
+        return portfolioService.getHistory(auth.getName(), range);
+    }
+
+    // Ex: GET /api/me/trades?limit=50&cursor=<nextCursor de la page précédente>
+    @GetMapping("/trades")
+    public TradePageResponse getTrades(
+            Authentication auth,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return tradeService.getTrades(auth.getName(), cursor, limit);
+    }
+
+    // Header Idempotency-Key optionnel : un retry avec la même clé renvoie la réponse d'origine
     @PostMapping("/trade/buy/{externalId}")
-    public Map<String, Double> buy(Authentication auth, @PathVariable String externalId, @RequestBody QtyRequest req) {
-        double newBalance = tradeService.buy(auth.getName(), externalId, req.getQty());
-        return Map.of("balance", newBalance);
+    public Map<String, Double> buy(
+            Authentication auth,
+            @PathVariable String externalId,
+            @RequestBody QtyRequest req,
+            @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey
+    ) {
+        String request = "POST /api/me/trade/buy/" + externalId + " qty=" + req.getQty();
+        return idempotencyService.execute(auth.getName(), idempotencyKey, request, BALANCE_RESPONSE, () -> {
+            double newBalance = tradeService.buy(auth.getName(), externalId, req.getQty(), idempotencyKey);
+            return Map.of("balance", newBalance);
+        });
     }
 
     @PostMapping("/trade/sell/{externalId}")
-    public Map<String, Double> sell(Authentication auth, @PathVariable String externalId, @RequestBody QtyRequest req) {
-        double newBalance = tradeService.sell(auth.getName(), externalId, req.getQty());
-        return Map.of("balance", newBalance);
+    public Map<String, Double> sell(
+            Authentication auth,
+            @PathVariable String externalId,
+            @RequestBody QtyRequest req,
+            @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey
+    ) {
+        String request = "POST /api/me/trade/sell/" + externalId + " qty=" + req.getQty();
+        return idempotencyService.execute(auth.getName(), idempotencyKey, request, BALANCE_RESPONSE, () -> {
+            double newBalance = tradeService.sell(auth.getName(), externalId, req.getQty(), idempotencyKey);
+            return Map.of("balance", newBalance);
+        });
     }
 
     @Data
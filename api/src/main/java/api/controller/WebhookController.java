@@ -0,0 +1,73 @@
+package api.controller;
+
+import api.dto.WebhookRequest;
+import api.dto.WebhookResponse;
+import api.exception.BusinessException;
+import api.model.AlertWebhook;
+import api.model.User;
+import api.repository.AlertWebhookRepository;
+import api.service.WebhookTargetValidator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Webhooks de l'utilisateur : les alertes de prix déclenchées y sont POSTées par lots
+ * (tableau JSON) par le collector, en plus de l'email. Seules les URLs publiques sont
+ * acceptées (WebhookTargetValidator).
+ */
+@RestController
+@RequestMapping("/api/me/webhooks")
+@RequiredArgsConstructor
+public class WebhookController {
+
+    private static final int MAX_WEBHOOKS_PER_USER = 5;
+
+    private final AlertWebhookRepository webhookRepository;
+    private final WebhookTargetValidator targetValidator;
+
+    @GetMapping
+    public List<WebhookResponse> getMyWebhooks(@AuthenticationPrincipal User user) {
+        return webhookRepository.findByUserIdOrderByCreatedAtDesc(user.getId())
+                .stream()
+                .map(WebhookController::toResponse)
+                .toList();
+    }
+
+    // Ex: POST /api/me/webhooks {"url":"https://example.com/hooks/crypto"}
+    @PostMapping
+    public WebhookResponse create(@AuthenticationPrincipal User user, @RequestBody WebhookRequest request) {
+        String url = targetValidator.validate(request.getUrl());
+        if (webhookRepository.countByUserId(user.getId()) >= MAX_WEBHOOKS_PER_USER) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST,
+                    "Nombre maximum de webhooks atteint (" + MAX_WEBHOOKS_PER_USER + ").");
+        }
+
+        AlertWebhook webhook = new AlertWebhook();
+        webhook.setUserId(user.getId());
+        webhook.setUrl(url);
+        webhook.setCreatedAt(Instant.now());
+        return toResponse(webhookRepository.save(webhook));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@AuthenticationPrincipal User user, @PathVariable Long id) {
+        long deleted = webhookRepository.deleteByIdAndUserId(id, user.getId());
+        return deleted > 0 ? ResponseEntity.noContent().build()
+                        : ResponseEntity.notFound().build();
+    }
+
+    private static WebhookResponse toResponse(AlertWebhook w) {
+        WebhookResponse r = new WebhookResponse();
+        r.setId(w.getId());
+        r.setUrl(w.getUrl());
+        r.setActive(w.isActive());
+        r.setCreatedAt(w.getCreatedAt().toEpochMilli());
+        return r;
+    }
+}
@@ -0,0 +1,21 @@
+package api.dto;
+
+/**
+ * Alerte déclenchée, poussée sur /api/me/alerts/stream (même format côté collector).
+ *
+ * @param source      PRICE (seuils) / MOVEMENT (variation, moyenne mobile)
+ * @param kind        HIGH / LOW (PRICE), UP / DOWN (MOVEMENT)
+ * @param externalId  null si inconnu de l'émetteur (MOVEMENT : voir assetId)
+ * @param reference   seuil franchi, ou plus bas / plus haut / moyenne de la fenêtre
+ * @param triggeredAt epoch millis
+ */
+public record AlertEventDto(
+        long alertId,
+        String source,
+        String kind,
+        Long assetId,
+        String externalId,
+        double price,
+        Double reference,
+        long triggeredAt
+) {}
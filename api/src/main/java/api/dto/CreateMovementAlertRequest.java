@@ -0,0 +1,15 @@
+package api.dto;
+
+import api.model.MovementAlertType;
+import lombok.Data;
+
+@Data
+public class CreateMovementAlertRequest {
+
+    // ex: "bitcoin"
+    private String externalId;
+
+    private MovementAlertType type; // PERCENT_MOVE / MA_CROSS
+    private Double percent;         // seuil en % (PERCENT_MOVE) ou bande autour de la moyenne (MA_CROSS)
+    private String window;          // 1h / 4h / 24h
+}
@@ -0,0 +1,17 @@
+package api.dto;
+
+import api.model.RecurringFrequency;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class CreateRecurringBuyRequest {
+
+    // ex: "bitcoin"
+    private String externalId;
+
+    private Double amount;                 // montant dépensé à chaque exécution
+    private RecurringFrequency frequency;  // HOURLY / DAILY / WEEKLY
+    private Instant startAt;               // nullable : 1re exécution immédiate
+}
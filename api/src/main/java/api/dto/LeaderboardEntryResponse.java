@@ -0,0 +1,12 @@
+package api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class LeaderboardEntryResponse {
+    private int rank;           // 1 = premier
+    private String username;
+    private double totalValue;  // solde + positions au prix courant
+}
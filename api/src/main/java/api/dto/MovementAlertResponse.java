@@ -0,0 +1,16 @@
+package api.dto;
+
+import lombok.Data;
+
+@Data
+public class MovementAlertResponse {
+    private Long id;
+    private String externalId;
+    private String symbol;
+    private String type;           // PERCENT_MOVE / MA_CROSS
+    private Double percent;
+    private String window;         // 1h / 4h / 24h
+    private boolean armed;
+    private String lastDirection;  // UP / DOWN, null si jamais déclenchée
+    private Long lastTriggeredAt;  // epoch millis
+}
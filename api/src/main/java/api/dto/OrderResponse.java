@@ -0,0 +1,17 @@
+package api.dto;
+
+import lombok.Data;
+
+@Data
+public class OrderResponse {
+    private Long id;
+    private String externalId;
+    private String symbol;
+    private String type;          // LIMIT_BUY / LIMIT_SELL / STOP_LOSS / TAKE_PROFIT
+    private String status;        // OPEN / FILLED / CANCELLED / REJECTED
+    private Double quantity;
+    private Double triggerPrice;
+    private Double fillPrice;     // prix d'exécution (FILLED)
+    private long createdAt;       // epoch millis
+    private Long closedAt;        // epoch millis, null si OPEN
+}
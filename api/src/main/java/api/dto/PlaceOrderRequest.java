@@ -0,0 +1,15 @@
+package api.dto;
+
+import api.model.OrderType;
+import lombok.Data;
+
+@Data
+public class PlaceOrderRequest {
+
+    // ex: "bitcoin"
+    private String externalId;
+
+    private OrderType type;       // LIMIT_BUY / LIMIT_SELL / STOP_LOSS / TAKE_PROFIT
+    private Double quantity;
+    private Double triggerPrice;
+}
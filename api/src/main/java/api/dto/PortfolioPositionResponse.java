@@ -0,0 +1,15 @@
+package api.dto;
+
+import lombok.Data;
+
+@Data
+public class PortfolioPositionResponse {
+    private String externalId;
+    private String name;
+    private String symbol;
+    private Double quantity;
+    private Double price;        // prix unitaire courant
+    private Double value;        // quantity * price
+    private Double change24h;    // variation de value sur 24h
+    private Double weight;       // part de value dans la valeur totale des positions (0..1)
+}
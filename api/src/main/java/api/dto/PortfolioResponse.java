@@ -0,0 +1,14 @@
+package api.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class PortfolioResponse {
+    private Double balance;          // liquidités
+    private Double totalValue;       // valeur des positions
+    private Double change24h;        // variation de totalValue sur 24h
+    private Double change24hPercent; // en %, null si valeur 24h indéterminée
+    private List<PortfolioPositionResponse> positions;
+}
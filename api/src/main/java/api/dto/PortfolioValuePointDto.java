@@ -0,0 +1,11 @@
+package api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class PortfolioValuePointDto {
+    private long ts;      // epoch millis (début de la période)
+    private double value;
+}
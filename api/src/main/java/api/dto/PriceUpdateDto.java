@@ -0,0 +1,6 @@
+package api.dto;
+
+/**
+ * Prix d'un asset poussé sur /api/stream/prices (uniquement les assets qui ont changé).
+ */
+public record PriceUpdateDto(long id, double price, double change24h) {}
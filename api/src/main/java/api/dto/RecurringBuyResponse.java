@@ -0,0 +1,15 @@
+package api.dto;
+
+import lombok.Data;
+
+@Data
+public class RecurringBuyResponse {
+    private Long id;
+    private String externalId;
+    private String symbol;
+    private Double amount;
+    private String frequency;     // HOURLY / DAILY / WEEKLY
+    private long nextRunAt;       // epoch millis
+    private Long lastRunAt;       // epoch millis, null si jamais exécuté
+    private String lastStatus;    // EXECUTED / INSUFFICIENT_FUNDS / PRICE_UNAVAILABLE
+}
@@ -0,0 +1,15 @@
+package api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradePageResponse {
+    private List<TradeResponse> items;
+    private String nextCursor; // null => dernière page
+}
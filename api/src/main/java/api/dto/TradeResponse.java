@@ -0,0 +1,18 @@
+package api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeResponse {
+    private Long id;
+    private String externalId;
+    private String symbol;
+    private String side;      // BUY / SELL
+    private Double quantity;
+    private Double price;     // prix unitaire d'exécution
+    private long ts;          // epoch millis
+}
@@ -0,0 +1,10 @@
+package api.dto;
+
+import lombok.Data;
+
+@Data
+public class WebhookRequest {
+
+    // ex: "https://example.com/hooks/crypto"
+    private String url;
+}
@@ -0,0 +1,11 @@
+package api.dto;
+
+import lombok.Data;
+
+@Data
+public class WebhookResponse {
+    private Long id;
+    private String url;
+    private boolean active;
+    private long createdAt; // epoch millis
+}
@@ -0,0 +1,34 @@
+package api.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Alerte déclenchée, journalisée pour le flux temps réel /api/me/alerts/stream.
+ * Écrite par l'instance qui a gagné le déclenchement (API ou collector), lue par toutes
+ * les instances de l'API : c'est la source d'événements partagée. Purgée après 1 jour.
+ */
+@Entity
+@Table(
+    name = "alert_events",
+    indexes = @Index(name = "idx_alert_events_created", columnList = "created_at, id")
+)
+@Data
+public class AlertEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // AlertEventDto en JSON
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
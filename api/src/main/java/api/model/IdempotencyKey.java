@@ -0,0 +1,52 @@
+package api.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Clé d'idempotence (header Idempotency-Key) et réponse mémorisée, par utilisateur.
+ * Source de vérité partagée entre instances ; le cache mémoire d'IdempotencyService est devant.
+ */
+@Entity
+@Table(
+    name = "idempotency_keys",
+    uniqueConstraints = @UniqueConstraint(
+        name = "uq_idempotency_user_key",
+        columnNames = {"username", "idem_key"}
+    ),
+    indexes = @Index(name = "idx_idempotency_expires_at", columnList = "expires_at")
+)
+@Data
+public class IdempotencyKey {
+
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+    public static final String COMPLETED = "COMPLETED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 50)
+    private String username;
+
+    @Column(name = "idem_key", nullable = false, length = 100)
+    private String idemKey;
+
+    // hash de la requête d'origine (méthode, ressource, corps)
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
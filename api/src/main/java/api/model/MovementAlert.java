@@ -0,0 +1,62 @@
+package api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Alerte relative (variation en % sur une fenêtre, croisement de moyenne mobile).
+ * Évaluée en mémoire par MovementAlertEvaluator ; la base garde l'état partagé entre
+ * instances (armed, last_direction) qui sert à ne déclencher qu'une fois.
+ */
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+    name = "movement_alerts",
+    indexes = @Index(name = "idx_movement_alerts_user", columnList = "user_id")
+)
+@Data
+public class MovementAlert {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "asset_id", nullable = false)
+    private CryptoAsset asset;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private MovementAlertType type;
+
+    // seuil (PERCENT_MOVE) ou bande d'hystérésis (MA_CROSS), en %
+    @Column(nullable = false)
+    private Double percent;
+
+    @Column(name = "window_seconds", nullable = false)
+    private Long windowSeconds;
+
+    // PERCENT_MOVE : false après déclenchement, jusqu'au réarmement
+    @Column(nullable = false)
+    private boolean armed;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "last_direction", length = 4)
+    private MovementDirection lastDirection;
+
+    @Column(name = "last_triggered_at")
+    private Instant lastTriggeredAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,17 @@
+package api.model;
+
+/**
+ * Alertes relatives (évaluées sur une fenêtre glissante de prix, cf. MovementAlertEvaluator).
+ */
+public enum MovementAlertType {
+    /**
+     * Le prix s'écarte d'au moins percent % du plus bas (hausse) ou du plus haut (baisse) de la fenêtre.
+     * Réarmée quand l'écart retombe sous la moitié du seuil (hystérésis).
+     */
+    PERCENT_MOVE,
+    /**
+     * Le prix croise la moyenne mobile de la fenêtre, avec une bande de percent % :
+     * il faut dépasser moyenne x (1 + percent %) ou passer sous moyenne x (1 - percent %).
+     */
+    MA_CROSS
+}
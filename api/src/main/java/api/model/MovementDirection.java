@@ -0,0 +1,6 @@
+package api.model;
+
+public enum MovementDirection {
+    UP,
+    DOWN
+}
@@ -0,0 +1,30 @@
+package api.model;
+
+import java.util.Arrays;
+
+/**
+ * Fenêtres glissantes disponibles pour les alertes relatives
+ * (stockées en secondes dans movement_alerts.window_seconds).
+ */
+public enum MovementWindow {
+    H1(3_600),
+    H4(14_400),
+    H24(86_400);
+
+    private final long seconds;
+
+    MovementWindow(long seconds) {
+        this.seconds = seconds;
+    }
+
+    public long seconds() {
+        return seconds;
+    }
+
+    public static MovementWindow fromSeconds(long seconds) {
+        return Arrays.stream(values())
+                .filter(w -> w.seconds == seconds)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown window: " + seconds));
+    }
+}
@@ -0,0 +1,8 @@
+package api.model;
+
+public enum OrderStatus {
+    OPEN,
+    FILLED,
+    CANCELLED,
+    REJECTED   // déclenché mais non exécutable (solde / quantité insuffisants)
+}
@@ -0,0 +1,31 @@
+package api.model;
+
+/**
+ * Types d'ordres en attente (déclenchés par le prix courant).
+ */
+public enum OrderType {
+    LIMIT_BUY(TradeSide.BUY, false),   // achat quand prix <= trigger
+    LIMIT_SELL(TradeSide.SELL, true),  // vente quand prix >= trigger
+    STOP_LOSS(TradeSide.SELL, false),  // vente quand prix <= trigger
+    TAKE_PROFIT(TradeSide.SELL, true); // vente quand prix >= trigger
+
+    private final TradeSide side;
+    private final boolean triggersOnRise;
+
+    OrderType(TradeSide side, boolean triggersOnRise) {
+        this.side = side;
+        this.triggersOnRise = triggersOnRise;
+    }
+
+    public TradeSide side() {
+        return side;
+    }
+
+    /**
+     * true : déclenché quand le prix monte jusqu'au trigger (prix >= trigger),
+     * false : quand il descend jusqu'au trigger (prix <= trigger).
+     */
+    public boolean triggersOnRise() {
+        return triggersOnRise;
+    }
+}
@@ -0,0 +1,24 @@
+package api.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Valeur du portefeuille d'un utilisateur, 1 ligne par (utilisateur, résolution, période).
+ * Pas d'id technique : la clé primaire sert aussi d'index pour lire une série.
+ * Les lignes 'h' et 'd' sont la dernière valeur (clôture) de la période.
+ */
+@Data
+@Entity
+@Table(
+    name = "portfolio_value_points",
+    indexes = @Index(name = "idx_portfolio_value_points_retention", columnList = "resolution, bucket")
+)
+public class PortfolioValuePoint {
+
+    @EmbeddedId
+    private PortfolioValuePointId id;
+
+    @Column(name = "value", nullable = false)
+    private Double value;
+}
@@ -0,0 +1,64 @@
+package api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Achat récurrent (DCA) : amount (en monnaie) de l'asset toutes les interval_seconds.
+ * Exécuté par RecurringBuyExecutor, qui réclame les lignes dues par next_run_at.
+ */
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+    name = "recurring_buys",
+    indexes = {
+        @Index(name = "idx_recurring_buys_next_run", columnList = "next_run_at"),
+        @Index(name = "idx_recurring_buys_user", columnList = "user_id")
+    }
+)
+@Data
+public class RecurringBuy {
+
+    public static final String EXECUTED = "EXECUTED";
+    public static final String INSUFFICIENT_FUNDS = "INSUFFICIENT_FUNDS";
+    public static final String PRICE_UNAVAILABLE = "PRICE_UNAVAILABLE";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "asset_id", nullable = false)
+    private CryptoAsset asset;
+
+    @Column(nullable = false)
+    private Double amount;
+
+    @Column(name = "interval_seconds", nullable = false)
+    private Long intervalSeconds;
+
+    @Column(name = "next_run_at", nullable = false)
+    private Instant nextRunAt;
+
+    @Column(nullable = false)
+    private boolean active;
+
+    @Column(name = "last_run_at")
+    private Instant lastRunAt;
+
+    @Column(name = "last_status", length = 20)
+    private String lastStatus;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,29 @@
+package api.model;
+
+import java.util.Arrays;
+
+/**
+ * Périodicité d'un achat récurrent (stockée en secondes dans recurring_buys.interval_seconds).
+ */
+public enum RecurringFrequency {
+    HOURLY(3_600),
+    DAILY(86_400),
+    WEEKLY(604_800);
+
+    private final long seconds;
+
+    RecurringFrequency(long seconds) {
+        this.seconds = seconds;
+    }
+
+    public long seconds() {
+        return seconds;
+    }
+
+    public static RecurringFrequency fromSeconds(long seconds) {
+        return Arrays.stream(values())
+                .filter(f -> f.seconds == seconds)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown interval: " + seconds));
+    }
+}
@@ -0,0 +1,60 @@
+package api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Journal des trades (append-only) : une ligne par achat/vente exécuté.
+ * Écrit en batch par TradeLedgerWriter, jamais mis à jour.
+ */
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+    name = "trades",
+    indexes = @Index(name = "idx_trades_user_ts", columnList = "user_id, ts"),
+    uniqueConstraints = @UniqueConstraint(
+        name = "uq_trades_entry",
+        columnNames = "entry_id"
+    )
+)
+@Data
+public class Trade {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "asset_id", nullable = false)
+    private Long assetId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 4)
+    private TradeSide side;
+
+    @Column(nullable = false)
+    private Double quantity;
+
+    @Column(nullable = false)
+    private Double price;
+
+    @Column(name = "ts", nullable = false)
+    private Instant ts;
+
+    @Column(name = "idempotency_key", length = 100)
+    private String idempotencyKey;
+
+    // identifiant de la ligne, attribué à l'enfilage (TradeLedgerWriter) : rejeu sans doublon
+    @Column(name = "entry_id", nullable = false, updatable = false)
+    private UUID entryId;
+}
@@ -0,0 +1,60 @@
+package api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Ordre en attente (limit / stop-loss / take-profit).
+ * Les ordres OPEN sont aussi indexés en mémoire par prix de déclenchement (OrderBook).
+ * Index partiel des ordres OPEN (rechargement du carnet) : idx_trade_orders_open, bd/init.sql.
+ */
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+    name = "trade_orders",
+    indexes = @Index(name = "idx_trade_orders_user_created", columnList = "user_id, created_at")
+)
+@Data
+public class TradeOrder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "asset_id", nullable = false)
+    private CryptoAsset asset;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OrderType type;
+
+    @Column(nullable = false)
+    private Double quantity;
+
+    @Column(name = "trigger_price", nullable = false)
+    private Double triggerPrice;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OrderStatus status;
+
+    @Column(name = "fill_price")
+    private Double fillPrice;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "closed_at")
+    private Instant closedAt;
+}
@@ -0,0 +1,6 @@
+package api.model;
+
+public enum TradeSide {
+    BUY,
+    SELL
+}
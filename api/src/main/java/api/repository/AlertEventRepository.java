@@ -0,0 +1,7 @@
+package api.repository;
+
+import api.model.AlertEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface AlertEventRepository extends JpaRepository<AlertEvent, Long> {
+}
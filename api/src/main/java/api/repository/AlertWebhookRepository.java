@@ -0,0 +1,19 @@
+package api.repository;
+
+import api.model.AlertWebhook;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface AlertWebhookRepository extends JpaRepository<AlertWebhook, Long> {
+
+    List<AlertWebhook> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    long countByUserId(Long userId);
+
+    @Modifying
+    @Transactional
+    long deleteByIdAndUserId(Long id, Long userId);
+}
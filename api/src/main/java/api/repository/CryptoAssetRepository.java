@@ -1,12 +1,30 @@
 package api.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import api.model.CryptoAsset;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface CryptoAssetRepository extends JpaRepository<CryptoAsset, Long> {
 
     // Permet de retrouver une crypto par son symbole (ex: BTC)
     Optional<CryptoAsset> findByExternalId(String externalId);
-}
\ No newline at end of file
+
+    /**
+     * Snapshot des prix courants (id, prix, variation 24h) sans charger les entités.
+     */
+    @Query(value = """
+        SELECT id AS "id", current_price AS "price", price_change_24h AS "change24h"
+        FROM crypto_assets
+        WHERE current_price IS NOT NULL
+        """, nativeQuery = true)
+    List<PriceRow> findCurrentPrices();
+
+    interface PriceRow {
+        Long getId();
+        Double getPrice();
+        Double getChange24h(); // variation absolue du prix sur 24h (CoinGecko price_change_24h)
+    }
+}
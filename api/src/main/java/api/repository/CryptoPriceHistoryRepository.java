@@ -44,6 +44,27 @@ public interface CryptoPriceHistoryRepository extends JpaRepository<CryptoPriceH
         """, nativeQuery = true)
     List<Object[]> findPriceSeries(Long assetId, String vsCurrency, Instant fromTs);
 
+    /**
+     * Points de tous les assets depuis un instant, par asset puis date croissante.
+     * Sert uniquement à amorcer les fenêtres glissantes au démarrage (MovementAlertEvaluator).
+     */
+    @Query(value = """
+        SELECT asset_id AS "assetId",
+               CAST(EXTRACT(EPOCH FROM ts) * 1000 AS BIGINT) AS "ts",
+               price AS "price"
+        FROM crypto_price_history
+        WHERE vs_currency = ?1
+          AND ts >= ?2
+        ORDER BY asset_id, ts
+        """, nativeQuery = true)
+    List<PointRow> findPointsSince(String vsCurrency, Instant fromTs);
+
+    interface PointRow {
+        Long getAssetId();
+        Long getTs();
+        Double getPrice();
+    }
+
     /**
      * Insert/Update d'un point d'historique (PostgreSQL ON CONFLICT).
      * Nécessite une contrainte UNIQUE (asset_id, vs_currency, ts) en base.
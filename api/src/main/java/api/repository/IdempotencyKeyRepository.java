@@ -0,0 +1,58 @@
+package api.repository;
+
+import api.model.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+
+    Optional<IdempotencyKey> findByUsernameAndIdemKey(String username, String idemKey);
+
+    /**
+     * Réserve la clé (statut IN_PROGRESS) en un seul statement, à appeler dans la transaction
+     * de la logique métier (cf. IdempotencyService). Une clé expirée est réutilisable.
+     * Ne renvoie rien si la clé est déjà prise (autre requête / autre instance) ; si elle est
+     * réservée par une transaction en cours, attend son commit ou son rollback.
+     */
+    @Transactional
+    @Query(value = """
+        INSERT INTO idempotency_keys (username, idem_key, fingerprint, status, created_at, expires_at)
+        VALUES (?1, ?2, ?3, 'IN_PROGRESS', NOW(), ?4)
+        ON CONFLICT (username, idem_key)
+        DO UPDATE SET
+          fingerprint = EXCLUDED.fingerprint,
+          status = 'IN_PROGRESS',
+          response_body = NULL,
+          created_at = NOW(),
+          expires_at = EXCLUDED.expires_at
+        WHERE idempotency_keys.expires_at < NOW()
+        RETURNING id
+        """, nativeQuery = true)
+    Optional<Long> claim(String username, String idemKey, String fingerprint, Instant expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+        UPDATE idempotency_keys
+        SET status = 'COMPLETED', response_body = ?2
+        WHERE id = ?1
+        """, nativeQuery = true)
+    int complete(Long id, String responseBody);
+
+    /**
+     * lock_timeout pour la fin de la transaction courante (SET LOCAL) : borne l'attente de claim()
+     * sur une clé réservée par une transaction non commitée.
+     */
+    @Query(value = "SELECT set_config('lock_timeout', ?1, true)", nativeQuery = true)
+    String setLocalLockTimeout(String timeout);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM idempotency_keys WHERE expires_at < NOW()", nativeQuery = true)
+    int purgeExpired();
+}
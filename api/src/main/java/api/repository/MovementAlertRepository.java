@@ -0,0 +1,58 @@
+package api.repository;
+
+import api.model.MovementAlert;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface MovementAlertRepository extends JpaRepository<MovementAlert, Long> {
+
+    @EntityGraph(attributePaths = "asset")
+    List<MovementAlert> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    /**
+     * Alertes par tranches (keyset sur id) pour charger l'évaluateur au démarrage.
+     */
+    @Query(value = """
+        SELECT m.id AS "id",
+               m.user_id AS "userId",
+               m.asset_id AS "assetId",
+               m.type AS "type",
+               m.percent AS "percent",
+               m.window_seconds AS "windowSeconds",
+               m.armed AS "armed",
+               m.last_direction AS "lastDirection"
+        FROM movement_alerts m
+        WHERE m.id > ?1
+        ORDER BY m.id
+        LIMIT ?2
+        """, nativeQuery = true)
+    List<AlertRow> findAfter(long afterId, int limit);
+
+    /**
+     * Suppression d'une alerte de l'utilisateur. Renvoie l'asset de l'alerte.
+     */
+    @Transactional
+    @Query(value = """
+        DELETE FROM movement_alerts
+        WHERE id = ?1
+          AND user_id = ?2
+        RETURNING asset_id
+        """, nativeQuery = true)
+    Optional<Long> deleteReturningAsset(Long id, Long userId);
+
+    interface AlertRow {
+        Long getId();
+        Long getUserId();
+        Long getAssetId();
+        String getType();
+        Double getPercent();
+        Long getWindowSeconds();
+        Boolean getArmed();
+        String getLastDirection();
+    }
+}
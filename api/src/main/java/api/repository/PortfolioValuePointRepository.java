@@ -0,0 +1,35 @@
+package api.repository;
+
+import api.model.PortfolioValuePoint;
+import api.model.PortfolioValuePointId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Lecture des séries de valeur de portefeuille (écrites par le collector à chaque tick).
+ */
+public interface PortfolioValuePointRepository extends JpaRepository<PortfolioValuePoint, PortfolioValuePointId> {
+
+    /**
+     * Série d'un utilisateur à une résolution, depuis une date. Parcours de la clé primaire
+     * (user_id, resolution, bucket) : lecture d'une plage contiguë, déjà triée.
+     */
+    @Query(value = """
+        SELECT CAST(EXTRACT(EPOCH FROM p.bucket) * 1000 AS BIGINT) AS "ts",
+               p.value AS "value"
+        FROM portfolio_value_points p
+        WHERE p.user_id = ?1
+          AND p.resolution = ?2
+          AND p.bucket >= ?3
+        ORDER BY p.bucket
+        """, nativeQuery = true)
+    List<ValuePointRow> findSeries(Long userId, String resolution, Instant from);
+
+    interface ValuePointRow {
+        Long getTs();
+        Double getValue();
+    }
+}
@@ -10,6 +10,7 @@ import java.util.Optional;
 
 public interface PriceAlertRepository extends JpaRepository<PriceAlert, Long> {
 
+    @Transactional(readOnly = true)
     List<PriceAlert> findByUserId(Long userId);
 
     Optional<PriceAlert> findByUserIdAndAsset_Id(Long userId, Long assetId);
@@ -0,0 +1,19 @@
+package api.repository;
+
+import api.model.RecurringBuy;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface RecurringBuyRepository extends JpaRepository<RecurringBuy, Long> {
+
+    @EntityGraph(attributePaths = "asset")
+    List<RecurringBuy> findByUserIdAndActiveTrueOrderByCreatedAtDesc(Long userId);
+
+    @Modifying
+    @Transactional
+    long deleteByIdAndUserId(Long id, Long userId);
+}
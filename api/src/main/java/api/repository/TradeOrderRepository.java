@@ -0,0 +1,84 @@
+package api.repository;
+
+import api.model.TradeOrder;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface TradeOrderRepository extends JpaRepository<TradeOrder, Long> {
+
+    // asset chargé dans la même requête (pas de N+1 sur la liste)
+    @EntityGraph(attributePaths = "asset")
+    List<TradeOrder> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    /**
+     * Ordres OPEN par tranches (keyset sur id) pour reconstruire le carnet au démarrage.
+     */
+    @Query(value = """
+        SELECT o.id AS "id",
+               o.user_id AS "userId",
+               o.asset_id AS "assetId",
+               o.type AS "type",
+               o.quantity AS "quantity",
+               o.trigger_price AS "triggerPrice"
+        FROM trade_orders o
+        WHERE o.status = 'OPEN'
+          AND o.id > ?1
+        ORDER BY o.id
+        LIMIT ?2
+        """, nativeQuery = true)
+    List<OpenOrderRow> findOpenAfter(long afterId, int limit);
+
+    /**
+     * Annulation atomique d'un ordre encore OPEN de l'utilisateur. Renvoie l'asset de l'ordre.
+     */
+    @Transactional
+    @Query(value = """
+        UPDATE trade_orders
+        SET status = 'CANCELLED', closed_at = NOW()
+        WHERE id = ?1
+          AND user_id = ?2
+          AND status = 'OPEN'
+        RETURNING asset_id
+        """, nativeQuery = true)
+    Optional<Long> cancel(Long orderId, Long userId);
+
+    /**
+     * Passage OPEN -> FILLED (1 seule exécution même si l'ordre est vu par plusieurs instances).
+     * Ne renvoie rien si l'ordre n'est plus OPEN (annulé entre-temps, déjà exécuté).
+     */
+    @Query(value = """
+        UPDATE trade_orders
+        SET status = 'FILLED', fill_price = ?2, closed_at = NOW()
+        WHERE id = ?1
+          AND status = 'OPEN'
+        RETURNING id
+        """, nativeQuery = true)
+    Optional<Long> markFilled(Long orderId, double fillPrice);
+
+    /**
+     * Ordre déclenché mais non exécutable (appelé juste après markFilled, même transaction).
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE trade_orders
+        SET status = 'REJECTED', fill_price = NULL, closed_at = NOW()
+        WHERE id = ?1
+          AND status = 'FILLED'
+        """, nativeQuery = true)
+    int markRejected(Long orderId);
+
+    interface OpenOrderRow {
+        Long getId();
+        Long getUserId();
+        Long getAssetId();
+        String getType();
+        Double getQuantity();
+        Double getTriggerPrice();
+    }
+}
@@ -0,0 +1,65 @@
+package api.repository;
+
+import api.model.Trade;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface TradeRepository extends JpaRepository<Trade, Long> {
+
+    /**
+     * Première page d'historique (la plus récente d'abord). S'appuie sur l'index (user_id, ts).
+     */
+    @Query(value = """
+        SELECT t.id AS "id",
+               a.external_id AS "externalId",
+               a.symbol AS "symbol",
+               t.side AS "side",
+               t.quantity AS "quantity",
+               t.price AS "price",
+               CAST(EXTRACT(EPOCH FROM t.ts) * 1000000 AS BIGINT) AS "tsMicros"
+        FROM trades t
+        JOIN users u ON u.id = t.user_id
+        JOIN crypto_assets a ON a.id = t.asset_id
+        WHERE u.username = ?1
+        ORDER BY t.ts DESC, t.id DESC
+        LIMIT ?2
+        """, nativeQuery = true)
+    List<TradeRow> findFirstPage(String username, int limit);
+
+    /**
+     * Page suivante en pagination par curseur (keyset sur (ts, id), strictement avant le curseur).
+     * Pas d'OFFSET => coût constant quelle que soit la profondeur.
+     */
+    @Query(value = """
+        SELECT t.id AS "id",
+               a.external_id AS "externalId",
+               a.symbol AS "symbol",
+               t.side AS "side",
+               t.quantity AS "quantity",
+               t.price AS "price",
+               CAST(EXTRACT(EPOCH FROM t.ts) * 1000000 AS BIGINT) AS "tsMicros"
+        FROM trades t
+        JOIN users u ON u.id = t.user_id
+        JOIN crypto_assets a ON a.id = t.asset_id
+        WHERE u.username = ?1
+          AND (t.ts, t.id) < (TIMESTAMPTZ 'epoch' + ?2 * INTERVAL '1 microsecond', ?3)
+        ORDER BY t.ts DESC, t.id DESC
+        LIMIT ?4
+        """, nativeQuery = true)
+    List<TradeRow> findPageBefore(String username, long cursorTsMicros, long cursorId, int limit);
+
+    /**
+     * Projection d'une ligne d'historique.
+     */
+    interface TradeRow {
+        Long getId();
+        String getExternalId();
+        String getSymbol();
+        String getSide();
+        Double getQuantity();
+        Double getPrice();
+        Long getTsMicros();
+    }
+}
@@ -2,11 +2,111 @@ package api.repository;
 
 import api.model.UserHolding;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface UserHoldingRepository extends JpaRepository<UserHolding, Long> {
     List<UserHolding> findByUserId(Long userId);
+
+    // positions + asset en 1 seule requête (pas de chargement lazy par ligne)
+    @Query("SELECT h FROM UserHolding h JOIN FETCH h.asset WHERE h.userId = :userId")
+    List<UserHolding> findByUserIdWithAsset(@Param("userId") Long userId);
     Optional<UserHolding> findByUserIdAndAsset_Id(Long userId, Long assetId);
+
+    /**
+     * Ajoute qty à la position d'un utilisateur (résolu par username), création si absente,
+     * en un seul statement (PostgreSQL ON CONFLICT). Nécessite la contrainte UNIQUE (user_id, asset_id).
+     * Ne renvoie rien si l'utilisateur n'existe pas.
+     */
+    @Query(value = """
+        INSERT INTO user_holdings (user_id, asset_id, quantity)
+        SELECT u.id, ?2, ?3
+        FROM users u
+        WHERE u.username = ?1
+        ON CONFLICT (user_id, asset_id)
+        DO UPDATE SET quantity = user_holdings.quantity + EXCLUDED.quantity
+        RETURNING user_id
+        """, nativeQuery = true)
+    Optional<Long> addQuantity(String username, Long assetId, double qty);
+
+    /**
+     * Décrément conditionnel atomique de la position d'un utilisateur (résolu par username).
+     * Ne renvoie rien si la position n'existe pas ou si la quantité est insuffisante.
+     */
+    @Query(value = """
+        UPDATE user_holdings h
+        SET quantity = h.quantity - ?3
+        FROM users u
+        WHERE u.username = ?1
+          AND h.user_id = u.id
+          AND h.asset_id = ?2
+          AND h.quantity >= ?3
+        RETURNING h.user_id AS "userId", h.quantity AS "quantity"
+        """, nativeQuery = true)
+    Optional<QuantityUpdate> removeQuantityIfSufficient(String username, Long assetId, double qty);
+
+    /**
+     * Variante par user_id de addQuantity (exécution des ordres en attente).
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO user_holdings (user_id, asset_id, quantity)
+        VALUES (?1, ?2, ?3)
+        ON CONFLICT (user_id, asset_id)
+        DO UPDATE SET quantity = user_holdings.quantity + EXCLUDED.quantity
+        """, nativeQuery = true)
+    int addQuantityForUser(Long userId, Long assetId, double qty);
+
+    /**
+     * Variante par user_id de removeQuantityIfSufficient. Renvoie la quantité restante.
+     */
+    @Query(value = """
+        UPDATE user_holdings
+        SET quantity = quantity - ?3
+        WHERE user_id = ?1
+          AND asset_id = ?2
+          AND quantity >= ?3
+        RETURNING quantity
+        """, nativeQuery = true)
+    Optional<Double> removeQuantityForUserIfSufficient(Long userId, Long assetId, double qty);
+
+    /**
+     * Projection (userId, quantity) renvoyée par les UPDATE ... RETURNING.
+     */
+    interface QuantityUpdate {
+        Long getUserId();
+        Double getQuantity();
+    }
+
+    /**
+     * Positions des utilisateurs d'id dans ]fromUserId, toUserId] (chargement du classement par tranches).
+     */
+    @Query(value = """
+        SELECT user_id AS "userId", asset_id AS "assetId", quantity AS "quantity"
+        FROM user_holdings
+        WHERE user_id > ?1
+          AND user_id <= ?2
+        """, nativeQuery = true)
+    List<PositionRow> findPositionsBetween(long fromUserIdExclusive, long toUserIdInclusive);
+
+    @Query(value = """
+        SELECT user_id AS "userId", asset_id AS "assetId", quantity AS "quantity"
+        FROM user_holdings
+        WHERE user_id IN (?1)
+        """, nativeQuery = true)
+    List<PositionRow> findPositionsByUserIds(Collection<Long> userIds);
+
+    /**
+     * Projection (userId, assetId, quantity) du classement.
+     */
+    interface PositionRow {
+        Long getUserId();
+        Long getAssetId();
+        Double getQuantity();
+    }
 }
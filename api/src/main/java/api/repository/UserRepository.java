@@ -2,6 +2,10 @@ package api.repository;
 
 import api.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -9,4 +13,76 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    /**
+     * Débit conditionnel atomique (1 seul statement, verrou de ligne implicite).
+     * Ne renvoie rien si le solde est insuffisant.
+     */
+    @Query(value = """
+        UPDATE users
+        SET balance = balance - ?2
+        WHERE id = ?1
+          AND balance >= ?2
+        RETURNING balance
+        """, nativeQuery = true)
+    Optional<Double> debitBalanceIfSufficient(Long userId, double amount);
+
+    /**
+     * Crédit atomique du solde + purge de la position si elle est tombée à 0
+     * (même statement, la position a été décrémentée par le statement précédent).
+     */
+    @Query(value = """
+        WITH credited AS (
+          UPDATE users
+          SET balance = balance + ?2
+          WHERE id = ?1
+          RETURNING balance
+        ), purged AS (
+          DELETE FROM user_holdings
+          WHERE user_id = ?1
+            AND asset_id = ?3
+            AND quantity <= 0
+        )
+        SELECT balance FROM credited
+        """, nativeQuery = true)
+    Optional<Double> creditBalanceAndPurgeHolding(Long userId, double amount, Long assetId);
+
+    /**
+     * Crédit atomique (dépôt) : 1 seul statement, ne réécrit pas les débits concurrents.
+     */
+    @Query(value = """
+        UPDATE users
+        SET balance = balance + ?2
+        WHERE username = ?1
+        RETURNING id AS "id", username AS "username", balance AS "balance"
+        """, nativeQuery = true)
+    Optional<BalanceRow> creditBalanceByUsername(String username, double amount);
+
+    /**
+     * Soldes par tranches (keyset sur id), pour le chargement du classement.
+     */
+    @Query(value = """
+        SELECT id AS "id", username AS "username", COALESCE(balance, 0) AS "balance"
+        FROM users
+        WHERE id > ?1
+        ORDER BY id
+        LIMIT ?2
+        """, nativeQuery = true)
+    List<BalanceRow> findBalancesAfter(long afterId, int limit);
+
+    @Query(value = """
+        SELECT id AS "id", username AS "username", COALESCE(balance, 0) AS "balance"
+        FROM users
+        WHERE id IN (?1)
+        """, nativeQuery = true)
+    List<BalanceRow> findBalancesByIds(Collection<Long> ids);
+
+    /**
+     * Projection (id, username, solde) du classement.
+     */
+    interface BalanceRow {
+        Long getId();
+        String getUsername();
+        Double getBalance();
+    }
 }
@@ -0,0 +1,154 @@
+package api.service;
+
+import api.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Disponibilité des noms d'utilisateur / emails, servie en mémoire autant que possible.
+ *
+ * - 1 filtre de Bloom par colonne, construit au démarrage (1 scan de users) et alimenté
+ *   à chaque inscription faite sur cette instance ;
+ * - inscription (isUsernameTaken / isEmailTaken) : "absent du filtre" = on tente l'insertion
+ *   sans requête, la contrainte unique tranche (409) ; "peut-être présent" = confirmé par
+ *   existsByUsername / existsByEmail ;
+ * - GET /api/auth/availability (isUsernameAvailable / isEmailAvailable) : toujours la base
+ *   (index unique). Le filtre ignore les comptes créés ailleurs (autres répliques, COPY du
+ *   datagen, perf/seed-perf-users.sql) jusqu'à la reconstruction : "absent" n'y vaut pas "libre" ;
+ * - reconstruction périodique : rattrape ces comptes et redimensionne le filtre si la table a grossi.
+ */
+@Slf4j
+@Service
+@Profile("!datagen")
+public class AccountAvailabilityService {
+
+    private record Filters(BloomFilter usernames, BloomFilter emails, long expected) {}
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final long expectedInsertions;
+    private final double fpp;
+    // hit = "absent du filtre", réponse sans requête
+    private final CacheCounters usernameCounters;
+    private final CacheCounters emailCounters;
+
+    private volatile Filters filters;
+    // filtres en cours de reconstruction : reçoivent aussi les inscriptions concurrentes
+    private volatile Filters building;
+
+    public AccountAvailabilityService(
+            UserRepository userRepository,
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.auth.availability.expected-insertions:1000000}") long expectedInsertions,
+            @Value("${app.auth.availability.fpp:0.01}") double fpp,
+            MeterRegistry meterRegistry
+    ) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+        this.usernameCounters = new CacheCounters("username-availability", meterRegistry);
+        this.emailCounters = new CacheCounters("email-availability", meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            // pas de filtre : toutes les vérifications passent par la base
+            log.warn("Chargement initial des noms d'utilisateur en échec : {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.availability.rebuild-ms:3600000}",
+            initialDelayString = "${app.auth.availability.rebuild-ms:3600000}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("Reconstruction du filtre de disponibilité en échec : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Scan complet de users dans de nouveaux filtres, puis bascule.
+     */
+    public void rebuild() {
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM users", Long.class);
+        long expected = Math.max(expectedInsertions, 2 * (count == null ? 0 : count));
+        Filters next = new Filters(new BloomFilter(expected, fpp), new BloomFilter(expected, fpp), expected);
+        building = next;
+        try {
+            jdbcTemplate.query(con -> {
+                var ps = con.prepareStatement("SELECT username, email FROM users");
+                ps.setFetchSize(10_000);
+                return ps;
+            }, rs -> {
+                next.usernames().put(rs.getString(1));
+                next.emails().put(rs.getString(2));
+            });
+            filters = next;
+        } finally {
+            building = null;
+        }
+        log.info("Filtre de disponibilité reconstruit : {} comptes, dimensionné pour {}", count, expected);
+    }
+
+    /**
+     * À appeler après l'insertion d'un compte.
+     */
+    public void recordAccount(String username, String email) {
+        Filters current = filters;
+        if (current != null) {
+            current.usernames().put(username);
+            current.emails().put(email);
+        }
+        Filters next = building;
+        if (next != null) {
+            next.usernames().put(username);
+            next.emails().put(email);
+        }
+    }
+
+    /**
+     * Pré-contrôle de l'inscription : peut répondre false pour un compte créé hors de cette
+     * instance, l'insertion échoue alors sur la contrainte unique.
+     */
+    public boolean isUsernameTaken(String username) {
+        Filters current = filters;
+        if (current != null && !current.usernames().mightContain(username)) {
+            usernameCounters.hit();
+            return false;
+        }
+        usernameCounters.miss();
+        return userRepository.existsByUsername(username);
+    }
+
+    public boolean isEmailTaken(String email) {
+        Filters current = filters;
+        if (current != null && !current.emails().mightContain(email)) {
+            emailCounters.hit();
+            return false;
+        }
+        emailCounters.miss();
+        return userRepository.existsByEmail(email);
+    }
+
+    /**
+     * Réponse exacte (GET /api/auth/availability) : jamais "libre" pour un nom déjà pris.
+     */
+    public boolean isUsernameAvailable(String username) {
+        return !userRepository.existsByUsername(username);
+    }
+
+    public boolean isEmailAvailable(String email) {
+        return !userRepository.existsByEmail(email);
+    }
+}
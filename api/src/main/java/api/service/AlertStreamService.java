@@ -0,0 +1,364 @@
+package api.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Flux SSE des alertes de l'utilisateur connecté (/api/me/alerts/stream).
+ *
+ * Source partagée entre instances : table alert_events, lue par une tâche @Scheduled
+ * (pagination sur (created_at, id), relecture d'une petite fenêtre de recouvrement pour les
+ * transactions commitées en retard, dédoublonnage par id).
+ *
+ * - abonnés par utilisateur dans des maps réparties sur des verrous (lock striping) :
+ *   connexions et envois de différents utilisateurs ne se bloquent pas ;
+ * - replay : anneau borné des derniers événements ; à la reconnexion (Last-Event-ID),
+ *   l'utilisateur reçoit ceux qu'il a manqués s'ils y sont encore ;
+ * - envoi par un petit pool, 1 envoi en cours et une file bornée par abonné.
+ */
+@Slf4j
+@Service
+@Profile("!datagen")
+public class AlertStreamService {
+
+    private static final int STRIPES = 64;
+    private static final int POLL_BATCH_SIZE = 1_000;
+    private static final int MAX_QUEUED_PER_SUBSCRIBER = 100;
+
+    private static final String POLL_SQL = """
+        SELECT id, user_id, payload, created_at
+        FROM alert_events
+        WHERE (created_at, id) > (?, ?)
+        ORDER BY created_at, id
+        LIMIT ?
+        """;
+
+    private static final String PURGE_SQL = "DELETE FROM alert_events WHERE created_at < ?";
+
+    public record Event(long id, long userId, String payload, Instant createdAt) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Executor sender;
+    private final Duration overlap;
+    private final int replaySize;
+    private final long heartbeatMs;
+    private final long timeoutMs;
+    private final Duration retention;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final ArrayDeque<Event> replay = new ArrayDeque<>();
+
+    // état du poller (passages planifiés, jamais concurrents)
+    private Instant cursor;
+    private final Map<Long, Instant> seen = new HashMap<>();
+    private long lastHeartbeat = System.currentTimeMillis();
+    private long lastPurge;
+
+    @Autowired
+    public AlertStreamService(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.alerts.stream.overlap-ms:5000}") long overlapMs,
+            @Value("${app.alerts.stream.replay-size:10000}") int replaySize,
+            @Value("${app.alerts.stream.heartbeat-ms:15000}") long heartbeatMs,
+            @Value("${app.alerts.stream.timeout-ms:1800000}") long timeoutMs,
+            @Value("${app.alerts.stream.sender-threads:2}") int senderThreads
+    ) {
+        this(jdbcTemplate, newSenderPool(senderThreads), overlapMs, replaySize, heartbeatMs, timeoutMs);
+    }
+
+    AlertStreamService(
+            JdbcTemplate jdbcTemplate, Executor sender, long overlapMs,
+            int replaySize, long heartbeatMs, long timeoutMs
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sender = sender;
+        this.overlap = Duration.ofMillis(overlapMs);
+        this.replaySize = replaySize;
+        this.heartbeatMs = heartbeatMs;
+        this.timeoutMs = timeoutMs;
+        this.retention = Duration.ofDays(1);
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe();
+        this.cursor = Instant.now();
+    }
+
+    private static ExecutorService newSenderPool(int threads) {
+        AtomicInteger n = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "alert-stream-send-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (Stripe s : stripes) {
+            s.lock.lock();
+            try {
+                s.users.values().forEach(list -> list.forEach(sub -> sub.emitter.complete()));
+            } finally {
+                s.lock.unlock();
+            }
+        }
+        if (sender instanceof ExecutorService pool) pool.shutdownNow();
+    }
+
+    /**
+     * @param lastEventId dernier événement reçu (en-tête Last-Event-ID), null à la 1re connexion
+     */
+    public SseEmitter subscribe(long userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        register(userId, emitter, lastEventId);
+        return emitter;
+    }
+
+    public Subscriber register(long userId, SseEmitter emitter, Long lastEventId) {
+        Subscriber sub = new Subscriber(userId, emitter);
+        emitter.onCompletion(() -> unregister(userId, sub));
+        emitter.onTimeout(() -> unregister(userId, sub));
+        emitter.onError(e -> unregister(userId, sub));
+
+        Stripe stripe = stripeOf(userId);
+        stripe.lock.lock();
+        try {
+            stripe.users.computeIfAbsent(userId, id -> new ArrayList<>()).add(sub);
+            // sous le verrou de l'utilisateur : pas d'événement livré entre le replay et l'abonnement
+            if (lastEventId != null) {
+                for (Event e : replayFor(userId, lastEventId)) sub.offer(e);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        schedule(sub);
+        return sub;
+    }
+
+    private void unregister(long userId, Subscriber sub) {
+        Stripe stripe = stripeOf(userId);
+        stripe.lock.lock();
+        try {
+            List<Subscriber> list = stripe.users.get(userId);
+            if (list == null) return;
+            list.remove(sub);
+            if (list.isEmpty()) stripe.users.remove(userId);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public int subscriberCount() {
+        int n = 0;
+        for (Stripe s : stripes) {
+            s.lock.lock();
+            try {
+                for (List<Subscriber> list : s.users.values()) n += list.size();
+            } finally {
+                s.lock.unlock();
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Un passage du poller : nouveaux événements depuis alert_events, livraison, heartbeat, purge.
+     * @return nombre d'événements livrés
+     */
+    public int poll() {
+        Instant fromTs = cursor.minus(overlap);
+        long fromId = 0;
+        int dispatched = 0;
+
+        while (true) {
+            List<Event> rows = jdbcTemplate.query(POLL_SQL, (rs, i) -> new Event(
+                    rs.getLong("id"),
+                    rs.getLong("user_id"),
+                    rs.getString("payload"),
+                    rs.getTimestamp("created_at").toInstant()
+            ), Timestamp.from(fromTs), fromId, POLL_BATCH_SIZE);
+
+            for (Event e : rows) {
+                if (seen.putIfAbsent(e.id(), e.createdAt()) != null) continue;
+                if (e.createdAt().isAfter(cursor)) cursor = e.createdAt();
+                dispatch(e);
+                dispatched++;
+            }
+            if (rows.size() < POLL_BATCH_SIZE) break;
+            Event last = rows.get(rows.size() - 1);
+            fromTs = last.createdAt();
+            fromId = last.id();
+        }
+
+        // ids hors de la fenêtre de recouvrement : plus jamais relus
+        Instant horizon = cursor.minus(overlap.multipliedBy(2));
+        seen.values().removeIf(ts -> ts.isBefore(horizon));
+
+        long now = System.currentTimeMillis();
+        if (now - lastHeartbeat >= heartbeatMs) {
+            lastHeartbeat = now;
+            heartbeat();
+        }
+        if (now - lastPurge >= TimeUnit.HOURS.toMillis(1)) {
+            lastPurge = now;
+            int purged = jdbcTemplate.update(PURGE_SQL, Timestamp.from(Instant.now().minus(retention)));
+            if (purged > 0) log.info("alert_events : {} événement(s) purgé(s).", purged);
+        }
+        return dispatched;
+    }
+
+    void dispatch(Event e) {
+        List<Subscriber> targets;
+        Stripe stripe = stripeOf(e.userId());
+        stripe.lock.lock();
+        try {
+            // sous le verrou de l'utilisateur (cf. register) : ni perdu ni livré 2 fois
+            synchronized (replay) {
+                replay.addLast(e);
+                if (replay.size() > replaySize) replay.pollFirst();
+            }
+
+            List<Subscriber> list = stripe.users.get(e.userId());
+            if (list == null) return;
+            for (Subscriber sub : list) sub.offer(e);
+            targets = List.copyOf(list);
+        } finally {
+            stripe.lock.unlock();
+        }
+        targets.forEach(this::schedule);
+    }
+
+    private List<Event> replayFor(long userId, long lastEventId) {
+        List<Event> out = new ArrayList<>();
+        synchronized (replay) {
+            for (Event e : replay) {
+                if (e.userId() == userId && e.id() > lastEventId) out.add(e);
+            }
+        }
+        return out;
+    }
+
+    private void heartbeat() {
+        List<Subscriber> all = new ArrayList<>();
+        for (Stripe s : stripes) {
+            s.lock.lock();
+            try {
+                s.users.values().forEach(all::addAll);
+            } finally {
+                s.lock.unlock();
+            }
+        }
+        for (Subscriber sub : all) {
+            sub.ping();
+            schedule(sub);
+        }
+    }
+
+    private void schedule(Subscriber sub) {
+        if (sub.claim()) sender.execute(sub::flush);
+    }
+
+    private Stripe stripeOf(long userId) {
+        return stripes[(int) Math.floorMod(userId, (long) STRIPES)];
+    }
+
+    @Scheduled(fixedDelayString = "${app.alerts.stream.poll-ms:500}",
+            initialDelayString = "${app.alerts.stream.poll-ms:500}")
+    public void scheduledPoll() {
+        try {
+            poll();
+        } catch (Exception e) {
+            log.error("Erreur lecture des événements d'alerte", e);
+        }
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<Long, List<Subscriber>> users = new HashMap<>();
+    }
+
+    public final class Subscriber {
+
+        private final long userId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<Event> queue = new ArrayDeque<>();
+        private boolean ping;
+        private boolean scheduled;
+        private volatile boolean closed;
+
+        Subscriber(long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        // file bornée : au-delà, les plus anciens sont abandonnés (récupérables par replay)
+        synchronized void offer(Event e) {
+            queue.addLast(e);
+            if (queue.size() > MAX_QUEUED_PER_SUBSCRIBER) queue.pollFirst();
+        }
+
+        synchronized void ping() {
+            ping = true;
+        }
+
+        synchronized boolean claim() {
+            if (closed || scheduled || (queue.isEmpty() && !ping)) return false;
+            scheduled = true;
+            return true;
+        }
+
+        void flush() {
+            while (true) {
+                Event e;
+                boolean heartbeat;
+                synchronized (this) {
+                    e = queue.pollFirst();
+                    heartbeat = e == null && ping;
+                    if (e == null && !heartbeat) {
+                        scheduled = false;
+                        return;
+                    }
+                    ping = false;
+                }
+                try {
+                    if (e != null) {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(e.id()))
+                                .name("alert")
+                                .data(e.payload(), MediaType.APPLICATION_JSON));
+                    } else {
+                        emitter.send(SseEmitter.event().comment("ping"));
+                    }
+                } catch (IOException | IllegalStateException ex) {
+                    // client parti
+                    closed = true;
+                    unregister(userId, this);
+                    emitter.completeWithError(ex);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package api.service;
+
+import api.repository.CryptoAssetRepository;
+import common.observability.QueryInspector;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Snapshot en mémoire des prix courants (crypto_assets), rafraîchi périodiquement (@Scheduled).
+ * Les lectures ne touchent pas la base : 1 seule requête par rafraîchissement,
+ * quel que soit le nombre d'utilisateurs qui valorisent leur portefeuille.
+ * La map est remplacée en bloc : un lecteur voit toujours un snapshot cohérent.
+ */
+@Slf4j
+@Component
+@Profile("!datagen")
+public class AssetPriceSnapshot {
+
+    public record Quote(double price, double change24h) {}
+
+    private final CryptoAssetRepository assetRepository;
+    private final CacheCounters counters;
+
+    private volatile Map<Long, Quote> quotes = Map.of();
+
+    public AssetPriceSnapshot(CryptoAssetRepository assetRepository, MeterRegistry meterRegistry) {
+        this.assetRepository = assetRepository;
+        this.counters = new CacheCounters("price-snapshot", meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        // 1er chargement sur le thread de démarrage : les beans qui lisent le snapshot
+        // à leur initialisation (PriceStreamService...) le trouvent rempli
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Erreur chargement initial du snapshot des prix", e);
+        }
+    }
+
+    /**
+     * Prix de l'asset dans le snapshot courant (null si inconnu ou sans prix).
+     */
+    public Quote get(Long assetId) {
+        Quote quote = quotes.get(assetId);
+        if (quote != null) counters.hit(); else counters.miss();
+        return quote;
+    }
+
+    public Map<Long, Quote> all() {
+        return quotes;
+    }
+
+    public void refresh() {
+        Map<Long, Quote> next = new HashMap<>();
+        for (CryptoAssetRepository.PriceRow row : assetRepository.findCurrentPrices()) {
+            double change = row.getChange24h() == null ? 0.0 : row.getChange24h();
+            next.put(row.getId(), new Quote(row.getPrice(), change));
+        }
+        quotes = Map.copyOf(next);
+    }
+
+    @Scheduled(fixedDelayString = "${app.prices.snapshot-refresh-ms:5000}",
+            initialDelayString = "${app.prices.snapshot-refresh-ms:5000}")
+    public void scheduledRefresh() {
+        try (QueryInspector.Scope scope = QueryInspector.open("asset-price-snapshot")) {
+            refresh();
+        } catch (Exception e) {
+            log.error("Erreur rafraîchissement du snapshot des prix", e);
+        }
+    }
+}
@@ -9,6 +9,7 @@ import api.model.User;
 import api.repository.RoleRepository;
 import api.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -24,13 +25,16 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final AccountAvailabilityService availabilityService;
 
     public AuthResponse register(RegisterRequest request) {
         // Erreurs attendues => BusinessException (pas de stacktrace, status propre)
-        if (userRepository.existsByUsername(request.getUsername())) {
+        // Filtre en mémoire d'abord : un nom libre ne coûte aucune requête, un nom pris
+        // échoue avant le hash BCrypt
+        if (availabilityService.isUsernameTaken(request.getUsername())) {
             throw new BusinessException(HttpStatus.CONFLICT, "Ce nom d'utilisateur est déjà pris.");
         }
-        if (userRepository.existsByEmail(request.getEmail())) {
+        if (availabilityService.isEmailTaken(request.getEmail())) {
             throw new BusinessException(HttpStatus.CONFLICT, "Cet email est déjà utilisé.");
         }
 
@@ -47,7 +51,17 @@ public class AuthService {
 
         user.getRoles().add(userRole);
 
-        userRepository.save(user);
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException ex) {
+            // Pris entre-temps (ou sur une autre réplique) : la contrainte unique tranche
+            availabilityService.recordAccount(request.getUsername(), request.getEmail());
+            throw new BusinessException(HttpStatus.CONFLICT,
+                    userRepository.existsByUsername(request.getUsername())
+                            ? "Ce nom d'utilisateur est déjà pris."
+                            : "Cet email est déjà utilisé.");
+        }
+        availabilityService.recordAccount(user.getUsername(), user.getEmail());
 
         var jwtToken = jwtService.generateToken(user);
         return AuthResponse.builder()
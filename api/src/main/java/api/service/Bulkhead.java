@@ -0,0 +1,87 @@
+package api.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Un compartiment : permis de requêtes (pris par BulkheadFilter) et permis de connexions JDBC
+ * (pris par BulkheadDataSource). Le compartiment courant est porté par le thread de la requête.
+ */
+public final class Bulkhead {
+
+    private static final ThreadLocal<Bulkhead> CURRENT = new ThreadLocal<>();
+
+    private final String name;
+    private final Semaphore requests;
+    private final long queueTimeoutMs;
+    private final Semaphore connections; // null = pas de quota
+    private final long connectionTimeoutMs;
+    private final Counter rejectedRequests;
+    private final Counter rejectedConnections;
+
+    public Bulkhead(
+            String name,
+            int maxConcurrent,
+            long queueTimeoutMs,
+            int maxConnections,
+            long connectionTimeoutMs,
+            MeterRegistry meterRegistry
+    ) {
+        this.name = name;
+        this.requests = new Semaphore(maxConcurrent, true);
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.connections = maxConnections > 0 ? new Semaphore(maxConnections, true) : null;
+        this.connectionTimeoutMs = connectionTimeoutMs;
+        this.rejectedRequests = Counter.builder("api.bulkhead.rejected")
+                .tag("compartment", name).tag("resource", "request")
+                .register(meterRegistry);
+        this.rejectedConnections = Counter.builder("api.bulkhead.rejected")
+                .tag("compartment", name).tag("resource", "connection")
+                .register(meterRegistry);
+        meterRegistry.gauge("api.bulkhead.active", Tags.of("compartment", name),
+                this, b -> maxConcurrent - b.requests.availablePermits());
+    }
+
+    public static Bulkhead current() {
+        return CURRENT.get();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Entrée dans le compartiment (attente bornée) ; le thread y reste jusqu'à exit().
+     */
+    boolean tryEnter() throws InterruptedException {
+        if (!requests.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS)) {
+            rejectedRequests.increment();
+            return false;
+        }
+        CURRENT.set(this);
+        return true;
+    }
+
+    void exit() {
+        CURRENT.remove();
+        requests.release();
+    }
+
+    /**
+     * Permis de connexion JDBC ; false si le quota reste plein au-delà du délai.
+     */
+    public boolean tryAcquireConnection() throws InterruptedException {
+        if (connections == null) return true;
+        if (connections.tryAcquire(connectionTimeoutMs, TimeUnit.MILLISECONDS)) return true;
+        rejectedConnections.increment();
+        return false;
+    }
+
+    public void releaseConnection() {
+        if (connections != null) connections.release();
+    }
+}
@@ -0,0 +1,101 @@
+package api.service;
+
+import api.dto.ApiError;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Cloisonnement par classe d'endpoints, avant Spring Security (le chargement de l'utilisateur
+ * du JWT compte dans le coût de /api/me/*) : une requête entre dans son compartiment ou
+ * reçoit un 503 après queue-timeout-ms, sans jamais attendre derrière une autre classe.
+ *
+ * Les flux SSE rendent leur place dès le passage en asynchrone.
+ */
+@Slf4j
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    public record Route(PathPattern pattern, Bulkhead bulkhead) {}
+
+    private final List<Route> routes;
+    private final ObjectMapper objectMapper;
+
+    public BulkheadFilter(List<Route> routes, ObjectMapper objectMapper) {
+        this.routes = routes;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        Bulkhead bulkhead = match(request);
+        if (bulkhead == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        boolean entered;
+        try {
+            entered = bulkhead.tryEnter();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            entered = false;
+        }
+        if (!entered) {
+            log.debug("Bulkhead {} plein : {} {} -> 503", bulkhead.name(), request.getMethod(), request.getRequestURI());
+            reject(request, response);
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            bulkhead.exit();
+        }
+    }
+
+    private Bulkhead match(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (Route r : routes) {
+            if (r.pattern().matches(path)) return r.bulkhead();
+        }
+        return null;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        ApiError body = ApiError.builder()
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message("Service momentanément saturé, réessayez.")
+                .path(request.getRequestURI())
+                .build();
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
@@ -0,0 +1,35 @@
+package api.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Compteurs api.cache.gets{cache, result=hit|miss} d'un cache mémoire :
+ * hit = servi sans requête SQL, miss = la base est consultée.
+ */
+final class CacheCounters {
+
+    private final Counter hits;
+    private final Counter misses;
+
+    CacheCounters(String cache, MeterRegistry meterRegistry) {
+        this.hits = counter(cache, "hit", meterRegistry);
+        this.misses = counter(cache, "miss", meterRegistry);
+    }
+
+    private static Counter counter(String cache, String result, MeterRegistry meterRegistry) {
+        return Counter.builder("api.cache.gets")
+                .description("Lectures des caches mémoire")
+                .tag("cache", cache)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    void hit() {
+        hits.increment();
+    }
+
+    void miss() {
+        misses.increment();
+    }
+}
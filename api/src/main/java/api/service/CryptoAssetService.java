@@ -5,12 +5,14 @@ import api.model.CryptoAsset;
 import api.repository.CryptoAssetRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true) // lectures seules : servies par la réplique si configurée
 public class CryptoAssetService{
 
 
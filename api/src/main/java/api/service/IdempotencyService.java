@@ -0,0 +1,272 @@
+package api.service;
+
+import api.exception.BusinessException;
+import api.model.IdempotencyKey;
+import api.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Support du header Idempotency-Key sur les endpoints qui modifient le solde.
+ *
+ * - cache mémoire (clé -> future de la réponse JSON) : les doublons en vol sur la même instance
+ *   attendent la 1re exécution au lieu de la rejouer ;
+ * - table idempotency_keys : réservation de la clé et réponse mémorisée, partagées entre instances ;
+ * - TTL : une clé expirée peut être réutilisée, purge périodique en mémoire et en base.
+ *
+ * Réservation, logique métier (@Transactional des services, qui rejoint la transaction) et réponse
+ * mémorisée sont commitées ensemble : une erreur, même après les écritures métier, annule tout
+ * et un retry avec la même clé rejoue la logique métier ; un arrêt brutal ne laisse aucune clé
+ * bloquée. Un doublon sur une autre instance attend le commit sur la ligne réservée (lock_timeout).
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 100;
+    private static final long DB_POLL_INTERVAL_MS = 50;
+
+    private final IdempotencyKeyRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final int maxCachedKeys;
+    // hit = doublon servi par le cache mémoire, miss = passage par idempotency_keys
+    private final CacheCounters counters;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public IdempotencyService(
+            IdempotencyKeyRepository repository,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${app.idempotency.ttl-hours:24}") long ttlHours,
+            @Value("${app.idempotency.wait-timeout-ms:10000}") long waitTimeoutMs,
+            @Value("${app.idempotency.max-cached-keys:100000}") int maxCachedKeys,
+            MeterRegistry meterRegistry
+    ) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.waitTimeout = Duration.ofMillis(waitTimeoutMs);
+        this.maxCachedKeys = maxCachedKeys;
+        this.counters = new CacheCounters("idempotency", meterRegistry);
+    }
+
+    /**
+     * Exécute action au plus une fois pour (username, key).
+     * Sans clé : exécution directe. Clé déjà utilisée : renvoie la réponse mémorisée.
+     *
+     * @param request description de la requête (ressource + paramètres) : une même clé
+     *                réutilisée pour une requête différente est refusée (422)
+     */
+    public <T> T execute(String username, String key, String request, TypeReference<T> type, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "Idempotency-Key trop longue (max 100).");
+        }
+
+        String scope = username + ":" + key;
+        String fingerprint = sha256(request);
+
+        while (true) {
+            Entry mine = new Entry(fingerprint, Instant.now().plus(ttl));
+            Entry existing = entries.putIfAbsent(scope, mine);
+
+            if (existing == null) {
+                counters.miss();
+                return executeAsOwner(scope, username, key, mine, type, action);
+            }
+            if (existing.isExpired()) {
+                entries.remove(scope, existing);
+                continue;
+            }
+            // doublon sur cette instance : on attend la 1re exécution
+            counters.hit();
+            checkFingerprint(existing.fingerprint, fingerprint);
+            return read(await(existing.response), type);
+        }
+    }
+
+    private <T> T executeAsOwner(
+            String scope, String username, String key, Entry mine, TypeReference<T> type, Supplier<T> action
+    ) {
+        try {
+            Executed<T> executed = transactionTemplate.execute(tx -> {
+                Optional<Long> claimed = claim(username, key, mine);
+                if (claimed.isEmpty()) return null;
+                T result = action.get();
+                String body = write(result);
+                repository.complete(claimed.get(), body);
+                return new Executed<>(result, body);
+            });
+
+            if (executed == null) {
+                // clé déjà connue en base (exécution passée, commitée sur cette instance ou une autre)
+                String body = awaitStoredResponse(username, key, mine.fingerprint);
+                mine.response.complete(body);
+                return read(body, type);
+            }
+
+            mine.response.complete(executed.body());
+            if (entries.size() > maxCachedKeys) {
+                entries.remove(scope, mine); // la base reste la référence pour les rejeux
+            }
+            return executed.result();
+
+        } catch (RuntimeException e) {
+            // transaction annulée : réservation comprise, la clé reste libre
+            entries.remove(scope, mine);
+            mine.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Réserve la clé dans la transaction courante ; la réponse est écrite dans la même transaction
+     * (cf. complete). Attente bornée par waitTimeout si une autre transaction détient la clé.
+     */
+    private Optional<Long> claim(String username, String key, Entry mine) {
+        try {
+            repository.setLocalLockTimeout(waitTimeout.toMillis() + "ms");
+            return repository.claim(username, key, mine.fingerprint, mine.expiresAt);
+        } catch (PessimisticLockingFailureException e) {
+            throw inProgress();
+        }
+    }
+
+    private String awaitStoredResponse(String username, String key, String fingerprint) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            IdempotencyKey stored = repository.findByUsernameAndIdemKey(username, key)
+                    .orElseThrow(() -> inProgress());
+            checkFingerprint(stored.getFingerprint(), fingerprint);
+
+            if (IdempotencyKey.COMPLETED.equals(stored.getStatus())) {
+                return stored.getResponseBody();
+            }
+            if (System.nanoTime() > deadline) {
+                throw inProgress();
+            }
+            try {
+                Thread.sleep(DB_POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw inProgress();
+            }
+        }
+    }
+
+    private String await(CompletableFuture<String> response) {
+        try {
+            return response.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // même erreur que la 1re exécution
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw inProgress();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw inProgress();
+        }
+    }
+
+    @Scheduled(fixedDelay = 10, initialDelay = 1, timeUnit = TimeUnit.MINUTES)
+    void purgeExpired() {
+        try {
+            entries.values().removeIf(Entry::isExpired);
+            int deleted = repository.purgeExpired();
+            if (deleted > 0) {
+                log.info("Idempotency : {} clé(s) expirée(s) supprimée(s).", deleted);
+            }
+        } catch (Exception e) {
+            log.error("Erreur purge des clés d'idempotence", e);
+        }
+    }
+
+    private static void checkFingerprint(String expected, String actual) {
+        if (!expected.equals(actual)) {
+            throw new BusinessException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key déjà utilisée pour une autre requête.");
+        }
+    }
+
+    private static BusinessException inProgress() {
+        return new BusinessException(HttpStatus.CONFLICT,
+                "Une requête avec la même Idempotency-Key est en cours de traitement.");
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Réponse non sérialisable", e);
+        }
+    }
+
+    private <T> T read(String body, TypeReference<T> type) {
+        try {
+            return objectMapper.readValue(body, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Réponse mémorisée illisible", e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Executed<T>(T result, String body) {}
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final Instant expiresAt;
+        private final CompletableFuture<String> response = new CompletableFuture<>();
+
+        private Entry(String fingerprint, Instant expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return Instant.now().isAfter(expiresAt);
+        }
+    }
+}
@@ -1,10 +1,11 @@
 package api.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -16,13 +17,42 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Authentification par jeton Bearer. Le temps passé dans le filtre (hors reste de la chaîne) est
+ * mesuré par issue : api.auth.filter{outcome=none|invalid|unknown_user|authenticated|already_authenticated}.
+ */
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String NONE = "none";
+    private static final String INVALID = "invalid";
+    private static final String UNKNOWN_USER = "unknown_user";
+    private static final String AUTHENTICATED = "authenticated";
+    private static final String ALREADY_AUTHENTICATED = "already_authenticated";
+
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final Map<String, Timer> timers = new HashMap<>();
+
+    public JwtAuthenticationFilter(
+            JwtService jwtService,
+            UserDetailsService userDetailsService,
+            MeterRegistry meterRegistry
+    ) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        for (String outcome : List.of(NONE, INVALID, UNKNOWN_USER, AUTHENTICATED, ALREADY_AUTHENTICATED)) {
+            timers.put(outcome, Timer.builder("api.auth.filter")
+                    .description("Temps passé dans le filtre JWT")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
 
     @Override
     protected void doFilterInternal(
@@ -31,12 +61,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
 
+        long start = System.nanoTime();
+        String outcome = authenticate(request);
+        timers.get(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        filterChain.doFilter(request, response);
+    }
+
+    private String authenticate(HttpServletRequest request) {
         final String authHeader = request.getHeader("Authorization");
 
         // ✅ Pas de token -> on laisse passer
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            filterChain.doFilter(request, response);
-            return;
+            return NONE;
         }
 
         final String jwt = authHeader.substring(7);
@@ -46,15 +83,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // ✅ Si token cassé/expiré -> extract peut throw
             username = jwtService.extractUsername(jwt);
         } catch (Exception e) {
-            filterChain.doFilter(request, response);
-            return;
+            return INVALID;
         }
 
         // ✅ Si pas de username ou déjà authentifié -> on laisse
-        if (username == null || username.isBlank()
-                || SecurityContextHolder.getContext().getAuthentication() != null) {
-            filterChain.doFilter(request, response);
-            return;
+        if (username == null || username.isBlank()) {
+            return INVALID;
+        }
+        if (SecurityContextHolder.getContext().getAuthentication() != null) {
+            return ALREADY_AUTHENTICATED;
         }
 
         try {
@@ -70,13 +107,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
+                return AUTHENTICATED;
             }
+            return INVALID;
         } catch (UsernameNotFoundException ex) {
             // ✅ User introuvable -> on n'authentifie pas (Spring gérera 401 si route protégée)
+            return UNKNOWN_USER;
         } catch (Exception ex) {
             // ✅ Token invalide ou autre -> on ignore et on continue
+            return INVALID;
         }
-
-        filterChain.doFilter(request, response);
     }
 }
@@ -0,0 +1,306 @@
+package api.service;
+
+import api.dto.LeaderboardEntryResponse;
+import api.model.User;
+import api.repository.UserHoldingRepository;
+import api.repository.UserRepository;
+import common.observability.QueryInspector;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Classement global des utilisateurs par valeur totale (solde + positions au prix courant).
+ *
+ * Tenu en mémoire dans un arbre d'ordre statistique (RankTree) : top N en O(log n + N),
+ * rang d'un utilisateur en O(log n). Mises à jour incrémentales périodiques (@Scheduled) :
+ * - utilisateurs signalés par markChanged() (trade, fonds...) : rechargés en 2 requêtes par tick ;
+ * - assets dont le prix a changé dans AssetPriceSnapshot : seuls leurs détenteurs sont
+ *   revalorisés, depuis les positions gardées en mémoire (aucune requête).
+ * Reconstruction complète périodique : rattrape les écritures faites par d'autres instances.
+ */
+@Slf4j
+@Service
+@Profile("!datagen")
+public class LeaderboardService {
+
+    private static final int LOAD_CHUNK_SIZE = 10_000;
+    private static final int MAX_LIMIT = 100;
+
+    private final UserRepository userRepository;
+    private final UserHoldingRepository holdingRepository;
+    private final AssetPriceSnapshot priceSnapshot;
+    private final long rebuildIntervalMs;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+    private Board board = new Board(Map.of());
+
+    private long lastRebuild;
+
+    public LeaderboardService(
+            UserRepository userRepository,
+            UserHoldingRepository holdingRepository,
+            AssetPriceSnapshot priceSnapshot,
+            @Value("${app.leaderboard.rebuild-ms:600000}") long rebuildIntervalMs
+    ) {
+        this.userRepository = userRepository;
+        this.holdingRepository = holdingRepository;
+        this.priceSnapshot = priceSnapshot;
+        this.rebuildIntervalMs = rebuildIntervalMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        // chargement initial sur le thread de démarrage (cf. AssetPriceSnapshot)
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Erreur chargement initial du classement", e);
+        }
+    }
+
+    /**
+     * Signale un changement de solde ou de positions, pris en compte au prochain tick
+     * (après commit si une transaction est en cours : le rechargement doit voir l'écriture).
+     */
+    public void markChanged(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    changed.add(userId);
+                }
+            });
+        } else {
+            changed.add(userId);
+        }
+    }
+
+    public List<LeaderboardEntryResponse> getTop(Integer limit) {
+        int size = limit == null ? 10 : Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        lock.readLock().lock();
+        try {
+            List<RankTree.Entry> entries = board.tree.range(0, size);
+            List<LeaderboardEntryResponse> out = new ArrayList<>(entries.size());
+            for (int i = 0; i < entries.size(); i++) {
+                RankTree.Entry e = entries.get(i);
+                out.add(new LeaderboardEntryResponse(i + 1, board.users.get(e.userId()).username, e.value()));
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public LeaderboardEntryResponse getRank(String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+        LeaderboardEntryResponse r = rankOf(user.getId());
+        if (r != null) return r;
+
+        // inscrit depuis le dernier rechargement : ajouté tout de suite
+        reload(Set.of(user.getId()));
+        r = rankOf(user.getId());
+        return r != null ? r : new LeaderboardEntryResponse(0, username, 0.0);
+    }
+
+    private LeaderboardEntryResponse rankOf(long userId) {
+        lock.readLock().lock();
+        try {
+            UserState s = board.users.get(userId);
+            if (s == null) return null;
+            return new LeaderboardEntryResponse(board.tree.rank(userId, s.value) + 1, s.username, s.value);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Un tick : revalorise les détenteurs des assets dont le prix a bougé,
+     * puis recharge les utilisateurs signalés.
+     */
+    public void tick() {
+        if (System.currentTimeMillis() - lastRebuild >= rebuildIntervalMs) {
+            rebuild();
+            return;
+        }
+
+        Map<Long, AssetPriceSnapshot.Quote> quotes = priceSnapshot.all();
+        lock.writeLock().lock();
+        try {
+            board.applyPrices(quotes);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (changed.isEmpty()) return;
+        Set<Long> ids = new HashSet<>(changed);
+        changed.removeAll(ids);
+        reload(ids);
+    }
+
+    /**
+     * Reconstruction complète (keyset par tranches d'utilisateurs), hors verrou puis bascule.
+     */
+    public void rebuild() {
+        Map<Long, AssetPriceSnapshot.Quote> quotes = priceSnapshot.all();
+        Board next = new Board(quotes);
+
+        long lastId = 0;
+        while (true) {
+            List<UserRepository.BalanceRow> users = userRepository.findBalancesAfter(lastId, LOAD_CHUNK_SIZE);
+            if (users.isEmpty()) break;
+
+            long toId = users.get(users.size() - 1).getId();
+            Map<Long, Map<Long, Double>> positions = groupByUser(holdingRepository.findPositionsBetween(lastId, toId));
+            for (UserRepository.BalanceRow u : users) {
+                next.put(u.getId(), u.getUsername(), u.getBalance(), positions.getOrDefault(u.getId(), Map.of()));
+            }
+
+            if (users.size() < LOAD_CHUNK_SIZE) break;
+            lastId = toId;
+        }
+
+        lock.writeLock().lock();
+        try {
+            board = next;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        lastRebuild = System.currentTimeMillis();
+        log.info("Classement reconstruit : {} utilisateur(s).", next.users.size());
+    }
+
+    private void reload(Set<Long> userIds) {
+        List<UserRepository.BalanceRow> users = userRepository.findBalancesByIds(userIds);
+        Map<Long, Map<Long, Double>> positions = groupByUser(holdingRepository.findPositionsByUserIds(userIds));
+
+        lock.writeLock().lock();
+        try {
+            Set<Long> missing = new HashSet<>(userIds);
+            for (UserRepository.BalanceRow u : users) {
+                missing.remove(u.getId());
+                board.put(u.getId(), u.getUsername(), u.getBalance(), positions.getOrDefault(u.getId(), Map.of()));
+            }
+            missing.forEach(board::remove); // supprimés
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Map<Long, Map<Long, Double>> groupByUser(List<UserHoldingRepository.PositionRow> rows) {
+        Map<Long, Map<Long, Double>> out = new HashMap<>();
+        for (UserHoldingRepository.PositionRow r : rows) {
+            out.computeIfAbsent(r.getUserId(), id -> new HashMap<>()).put(r.getAssetId(), r.getQuantity());
+        }
+        return out;
+    }
+
+    @Scheduled(fixedDelayString = "${app.leaderboard.refresh-ms:2000}",
+            initialDelayString = "${app.leaderboard.refresh-ms:2000}")
+    public void scheduledTick() {
+        try (QueryInspector.Scope scope = QueryInspector.open("leaderboard")) {
+            tick();
+        } catch (Exception e) {
+            log.error("Erreur mise à jour du classement", e);
+        }
+    }
+
+    private static final class UserState {
+        final String username;
+        final double balance;
+        final Map<Long, Double> positions;
+        double value;
+
+        UserState(String username, double balance, Map<Long, Double> positions) {
+            this.username = username;
+            this.balance = balance;
+            this.positions = positions;
+        }
+    }
+
+    /**
+     * État du classement : utilisateurs, index inverse asset -> détenteurs, arbre, prix utilisés.
+     */
+    private static final class Board {
+
+        final Map<Long, UserState> users = new HashMap<>();
+        final Map<Long, Set<Long>> holders = new HashMap<>();
+        final RankTree tree = new RankTree();
+        final Map<Long, Double> prices = new HashMap<>();
+
+        Board(Map<Long, AssetPriceSnapshot.Quote> quotes) {
+            quotes.forEach((assetId, q) -> prices.put(assetId, q.price()));
+        }
+
+        void put(long userId, String username, Double balance, Map<Long, Double> positions) {
+            remove(userId);
+
+            UserState s = new UserState(username, balance == null ? 0.0 : balance, positions);
+            s.value = valueOf(s);
+            users.put(userId, s);
+            for (Long assetId : positions.keySet()) {
+                holders.computeIfAbsent(assetId, id -> new HashSet<>()).add(userId);
+            }
+            tree.insert(userId, s.value);
+        }
+
+        void remove(long userId) {
+            UserState s = users.remove(userId);
+            if (s == null) return;
+
+            tree.remove(userId, s.value);
+            for (Long assetId : s.positions.keySet()) {
+                Set<Long> ids = holders.get(assetId);
+                if (ids == null) continue;
+                ids.remove(userId);
+                if (ids.isEmpty()) holders.remove(assetId);
+            }
+        }
+
+        // seuls les détenteurs d'un asset dont le prix a changé sont repositionnés
+        void applyPrices(Map<Long, AssetPriceSnapshot.Quote> quotes) {
+            Set<Long> touched = new HashSet<>();
+            for (Map.Entry<Long, AssetPriceSnapshot.Quote> q : quotes.entrySet()) {
+                Double previous = prices.put(q.getKey(), q.getValue().price());
+                if (previous != null && previous == q.getValue().price()) continue;
+                touched.addAll(holders.getOrDefault(q.getKey(), Set.of()));
+            }
+
+            for (Long userId : touched) {
+                UserState s = users.get(userId);
+                double value = valueOf(s);
+                if (value == s.value) continue;
+                tree.remove(userId, s.value);
+                s.value = value;
+                tree.insert(userId, value);
+            }
+        }
+
+        private double valueOf(UserState s) {
+            double value = s.balance;
+            for (Map.Entry<Long, Double> p : s.positions.entrySet()) {
+                value += p.getValue() * prices.getOrDefault(p.getKey(), 0.0);
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package api.service;
+
+import api.dto.AlertEventDto;
+import api.model.MovementAlertType;
+import api.model.MovementDirection;
+import api.model.MovementWindow;
+import api.repository.CryptoPriceHistoryRepository;
+import api.repository.MovementAlertRepository;
+import common.observability.QueryInspector;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Évaluation incrémentale des alertes relatives (MovementAlert).
+ *
+ * Par asset, 1 PriceWindow par durée (1h, 4h, 24h) alimentée par AssetPriceSnapshot
+ * (au plus 1 échantillon par sampleMs) : min / max / moyenne en O(1) par tick,
+ * aucune requête d'historique pendant l'évaluation. Les fenêtres sont amorcées une fois
+ * au démarrage depuis crypto_price_history.
+ *
+ * Déclenchement exactly-once entre instances : chaque instance évalue en mémoire, puis
+ * 1 UPDATE ensembliste conditionnel (armed / last_direction) par tick ; seules les alertes
+ * renvoyées par RETURNING sont notifiées.
+ */
+@Slf4j
+@Service
+@Profile("!datagen")
+public class MovementAlertEvaluator {
+
+    private static final int LOAD_CHUNK_SIZE = 10_000;
+    private static final String VS_CURRENCY = "usd";
+
+    // PERCENT_MOVE réarmée quand l'écart retombe sous REARM_RATIO x seuil
+    static final double REARM_RATIO = 0.5;
+
+    // MA_CROSS : armed reste true, la dédup porte sur la direction
+    private static final String CLAIM_SQL = """
+        UPDATE movement_alerts m
+        SET armed = (m.type = 'MA_CROSS'),
+            last_direction = t.direction,
+            last_triggered_at = NOW()
+        FROM unnest(?::bigint[], ?::text[]) AS t(id, direction)
+        WHERE m.id = t.id
+          AND CASE WHEN m.type = 'MA_CROSS'
+                   THEN m.last_direction IS DISTINCT FROM t.direction
+                   ELSE m.armed END
+        RETURNING m.id
+        """;
+
+    private static final String REARM_SQL = """
+        UPDATE movement_alerts
+        SET armed = true
+        WHERE id = ANY(?::bigint[])
+          AND NOT armed
+        """;
+
+    public record Fired(
+            long alertId,
+            long userId,
+            long assetId,
+            MovementAlertType type,
+            MovementDirection direction,
+            double price,
+            double reference // plus bas / plus haut de la fenêtre, ou moyenne mobile
+    ) {}
+
+    public static final class Tracked {
+        final long id;
+        final long userId;
+        final long assetId;
+        final MovementAlertType type;
+        final double percent;
+        final long windowSeconds;
+        boolean armed;
+        MovementDirection side; // MA_CROSS : côté courant de la moyenne (null tant qu'inconnu)
+
+        public Tracked(
+                long id, long userId, long assetId, MovementAlertType type,
+                double percent, long windowSeconds, boolean armed, MovementDirection lastDirection
+        ) {
+            this.id = id;
+            this.userId = userId;
+            this.assetId = assetId;
+            this.type = type;
+            this.percent = percent;
+            this.windowSeconds = windowSeconds;
+            this.armed = armed;
+            this.side = lastDirection;
+        }
+    }
+
+    private final MovementAlertRepository alertRepository;
+    private final CryptoPriceHistoryRepository historyRepository;
+    private final AssetPriceSnapshot priceSnapshot;
+    private final JdbcTemplate jdbcTemplate;
+    private final AlertEventPublisher eventPublisher;
+    private final long sampleMs;
+
+    private final Map<Long, AssetState> assets = new ConcurrentHashMap<>();
+
+    public MovementAlertEvaluator(
+            MovementAlertRepository alertRepository,
+            CryptoPriceHistoryRepository historyRepository,
+            AssetPriceSnapshot priceSnapshot,
+            JdbcTemplate jdbcTemplate,
+            AlertEventPublisher eventPublisher,
+            @Value("${app.alerts.movement.sample-ms:30000}") long sampleMs
+    ) {
+        this.alertRepository = alertRepository;
+        this.historyRepository = historyRepository;
+        this.priceSnapshot = priceSnapshot;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.sampleMs = sampleMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        try {
+            primeWindows();
+            loadAlerts();
+        } catch (Exception e) {
+            log.error("Erreur chargement des alertes relatives", e);
+        }
+    }
+
+    void primeWindows() {
+        Instant from = Instant.now().minus(Duration.ofSeconds(MovementWindow.H24.seconds()));
+        int points = 0;
+        for (CryptoPriceHistoryRepository.PointRow p : historyRepository.findPointsSince(VS_CURRENCY, from)) {
+            if (p.getPrice() == null || p.getPrice() <= 0) continue;
+            state(p.getAssetId()).sample(p.getTs(), p.getPrice(), sampleMs);
+            points++;
+        }
+        if (points > 0) {
+            log.info("Alertes relatives : fenêtres amorcées ({} point(s), {} asset(s)).", points, assets.size());
+        }
+    }
+
+    public void loadAlerts() {
+        long lastId = 0;
+        while (true) {
+            List<MovementAlertRepository.AlertRow> rows = alertRepository.findAfter(lastId, LOAD_CHUNK_SIZE);
+            for (MovementAlertRepository.AlertRow r : rows) {
+                track(new Tracked(
+                        r.getId(), r.getUserId(), r.getAssetId(), MovementAlertType.valueOf(r.getType()),
+                        r.getPercent(), r.getWindowSeconds(), Boolean.TRUE.equals(r.getArmed()),
+                        r.getLastDirection() == null ? null : MovementDirection.valueOf(r.getLastDirection())));
+            }
+            if (rows.size() < LOAD_CHUNK_SIZE) break;
+            lastId = rows.get(rows.size() - 1).getId();
+        }
+    }
+
+    public void track(Tracked alert) {
+        state(alert.assetId).track(alert);
+    }
+
+    public void untrack(long assetId, long alertId) {
+        AssetState s = assets.get(assetId);
+        if (s != null) s.untrack(alertId);
+    }
+
+    /**
+     * Un tick : prix du snapshot en mémoire, évaluation, puis claim en base.
+     * @return alertes déclenchées (et réclamées) par ce tick
+     */
+    public List<Fired> tick() {
+        Map<Long, Double> prices = new HashMap<>();
+        priceSnapshot.all().forEach((assetId, q) -> prices.put(assetId, q.price()));
+        return onPrices(prices, System.currentTimeMillis());
+    }
+
+    List<Fired> onPrices(Map<Long, Double> prices, long now) {
+        List<Fired> fired = new ArrayList<>();
+        List<Long> rearmed = new ArrayList<>();
+        for (Map.Entry<Long, Double> e : prices.entrySet()) {
+            Double price = e.getValue();
+            if (price == null || price <= 0) continue;
+            state(e.getKey()).onPrice(now, price, sampleMs, fired, rearmed);
+        }
+
+        if (!rearmed.isEmpty()) {
+            jdbcTemplate.update(REARM_SQL, ps -> ps.setArray(1,
+                    ps.getConnection().createArrayOf("bigint", rearmed.toArray())));
+        }
+        if (fired.isEmpty()) return List.of();
+
+        List<Fired> claimed = claim(fired);
+        List<AlertEventPublisher.UserEvent> events = new ArrayList<>(claimed.size());
+        for (Fired f : claimed) {
+            log.warn("[ALERTE] User {} | asset {} | {} {} : prix {} (référence {})",
+                    f.userId(), f.assetId(), f.type(), f.direction(), f.price(), f.reference());
+            events.add(new AlertEventPublisher.UserEvent(f.userId(), new AlertEventDto(
+                    f.alertId(), "MOVEMENT", f.direction().name(), f.assetId(), null,
+                    f.price(), f.reference(), now)));
+        }
+        eventPublisher.publish(events);
+        return claimed;
+    }
+
+    private List<Fired> claim(List<Fired> fired) {
+        Object[] ids = fired.stream().map(Fired::alertId).toArray();
+        Object[] directions = fired.stream().map(f -> f.direction().name()).toArray();
+
+        Set<Long> won = new HashSet<>(jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(CLAIM_SQL);
+            ps.setArray(1, con.createArrayOf("bigint", ids));
+            ps.setArray(2, con.createArrayOf("text", directions));
+            return ps;
+        }, (rs, i) -> rs.getLong(1)));
+
+        return fired.stream().filter(f -> won.contains(f.alertId())).toList();
+    }
+
+    private AssetState state(long assetId) {
+        return assets.computeIfAbsent(assetId, id -> new AssetState());
+    }
+
+    @Scheduled(fixedDelayString = "${app.alerts.movement.poll-interval-ms:5000}",
+            initialDelayString = "${app.alerts.movement.poll-interval-ms:5000}")
+    public void scheduledTick() {
+        try (QueryInspector.Scope scope = QueryInspector.open("movement-alerts")) {
+            tick();
+        } catch (Exception e) {
+            log.error("Erreur évaluation des alertes relatives", e);
+        }
+    }
+
+    /**
+     * Fenêtres + alertes d'un asset. Verrou par asset : les ajouts / suppressions
+     * (requêtes HTTP) ne bloquent que l'asset concerné.
+     */
+    private static final class AssetState {
+
+        private final Map<Long, PriceWindow> windows = new HashMap<>();
+        private final Map<Long, Tracked> alerts = new LinkedHashMap<>();
+
+        AssetState() {
+            for (MovementWindow w : MovementWindow.values()) {
+                windows.put(w.seconds(), new PriceWindow(TimeUnit.SECONDS.toMillis(w.seconds())));
+            }
+        }
+
+        synchronized void track(Tracked alert) {
+            alerts.put(alert.id, alert);
+        }
+
+        synchronized void untrack(long alertId) {
+            alerts.remove(alertId);
+        }
+
+        synchronized void sample(long ts, double price, long sampleMs) {
+            for (PriceWindow w : windows.values()) {
+                if (w.isEmpty() || ts - w.lastTs() >= sampleMs) w.add(ts, price);
+                else w.evict(ts);
+            }
+        }
+
+        synchronized void onPrice(long now, double price, long sampleMs, List<Fired> fired, List<Long> rearmed) {
+            sample(now, price, sampleMs);
+
+            for (Tracked a : alerts.values()) {
+                PriceWindow w = windows.get(a.windowSeconds);
+                if (w == null || w.isEmpty()) continue;
+
+                if (a.type == MovementAlertType.PERCENT_MOVE) {
+                    evaluateMove(a, w, price, fired, rearmed);
+                } else {
+                    evaluateCross(a, w, price, fired);
+                }
+            }
+        }
+
+        private static void evaluateMove(Tracked a, PriceWindow w, double price, List<Fired> fired, List<Long> rearmed) {
+            double low = w.min();
+            double high = w.max();
+            double rise = (price - low) / low * 100.0;
+            double fall = (high - price) / high * 100.0;
+
+            if (a.armed) {
+                if (rise >= a.percent) {
+                    a.armed = false;
+                    fired.add(new Fired(a.id, a.userId, a.assetId, a.type, MovementDirection.UP, price, low));
+                } else if (fall >= a.percent) {
+                    a.armed = false;
+                    fired.add(new Fired(a.id, a.userId, a.assetId, a.type, MovementDirection.DOWN, price, high));
+                }
+            } else if (Math.max(rise, fall) < a.percent * REARM_RATIO) {
+                a.armed = true;
+                rearmed.add(a.id);
+            }
+        }
+
+        private static void evaluateCross(Tracked a, PriceWindow w, double price, List<Fired> fired) {
+            double avg = w.average();
+            MovementDirection now;
+            if (price > avg * (1 + a.percent / 100.0)) now = MovementDirection.UP;
+            else if (price < avg * (1 - a.percent / 100.0)) now = MovementDirection.DOWN;
+            else return; // dans la bande : pas de changement de côté (hystérésis)
+
+            if (now == a.side) return;
+            boolean firstObservation = a.side == null;
+            a.side = now;
+            if (!firstObservation) {
+                fired.add(new Fired(a.id, a.userId, a.assetId, a.type, now, price, avg));
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package api.service;
+
+import api.dto.CreateMovementAlertRequest;
+import api.dto.MovementAlertResponse;
+import api.exception.BusinessException;
+import api.model.CryptoAsset;
+import api.model.MovementAlert;
+import api.model.MovementAlertType;
+import api.model.MovementWindow;
+import api.model.User;
+import api.repository.CryptoAssetRepository;
+import api.repository.MovementAlertRepository;
+import api.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Alertes relatives : création, suppression, consultation.
+ * L'évaluation est faite en mémoire par MovementAlertEvaluator.
+ */
+@Service
+@RequiredArgsConstructor
+public class MovementAlertService {
+
+    private static final Map<String, MovementWindow> WINDOWS = Map.of(
+            "1h", MovementWindow.H1,
+            "4h", MovementWindow.H4,
+            "24h", MovementWindow.H24
+    );
+
+    private final UserRepository userRepository;
+    private final CryptoAssetRepository assetRepository;
+    private final MovementAlertRepository alertRepository;
+    private final MovementAlertEvaluator evaluator;
+
+    @Transactional
+    public MovementAlertResponse create(String username, CreateMovementAlertRequest req) {
+        if (req.getExternalId() == null || req.getExternalId().isBlank() || req.getType() == null) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "externalId et type sont obligatoires.");
+        }
+        MovementWindow window = req.getWindow() == null ? null : WINDOWS.get(req.getWindow());
+        if (window == null) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "Fenêtre invalide (1h, 4h ou 24h).");
+        }
+        if (req.getType() == MovementAlertType.PERCENT_MOVE && (req.getPercent() == null || req.getPercent() <= 0)) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "percent doit être > 0.");
+        }
+        if (req.getType() == MovementAlertType.MA_CROSS && req.getPercent() != null && req.getPercent() < 0) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "percent doit être >= 0.");
+        }
+
+        User user = getUserOrThrow(username);
+        CryptoAsset asset = assetRepository.findByExternalId(req.getExternalId())
+                .orElseThrow(() -> new IllegalArgumentException("Unknown crypto: " + req.getExternalId()));
+
+        MovementAlert alert = alertRepository.save(MovementAlert.builder()
+                .userId(user.getId())
+                .asset(asset)
+                .type(req.getType())
+                .percent(req.getPercent() == null ? 0.0 : req.getPercent())
+                .windowSeconds(window.seconds())
+                .armed(true)
+                .createdAt(Instant.now().truncatedTo(ChronoUnit.MICROS))
+                .build());
+
+        // évaluée seulement une fois l'alerte commitée (le claim en base doit la voir)
+        MovementAlertEvaluator.Tracked tracked = new MovementAlertEvaluator.Tracked(
+                alert.getId(), user.getId(), asset.getId(), alert.getType(),
+                alert.getPercent(), alert.getWindowSeconds(), true, null);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evaluator.track(tracked);
+            }
+        });
+
+        return toResponse(alert);
+    }
+
+    public void delete(String username, Long alertId) {
+        User user = getUserOrThrow(username);
+
+        Long assetId = alertRepository.deleteReturningAsset(alertId, user.getId())
+                .orElseThrow(() -> new BusinessException(HttpStatus.NOT_FOUND, "Alerte introuvable."));
+        evaluator.untrack(assetId, alertId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<MovementAlertResponse> getAlerts(String username) {
+        User user = getUserOrThrow(username);
+        return alertRepository.findByUserIdOrderByCreatedAtDesc(user.getId())
+                .stream()
+                .map(MovementAlertService::toResponse)
+                .toList();
+    }
+
+    private User getUserOrThrow(String username) {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    }
+
+    private static MovementAlertResponse toResponse(MovementAlert a) {
+        MovementAlertResponse r = new MovementAlertResponse();
+        r.setId(a.getId());
+        r.setExternalId(a.getAsset().getExternalId());
+        r.setSymbol(a.getAsset().getSymbol());
+        r.setType(a.getType().name());
+        r.setPercent(a.getPercent());
+        r.setWindow(WINDOWS.entrySet().stream()
+                .filter(e -> e.getValue().seconds() == a.getWindowSeconds())
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElse(null));
+        r.setArmed(a.isArmed());
+        r.setLastDirection(a.getLastDirection() == null ? null : a.getLastDirection().name());
+        r.setLastTriggeredAt(a.getLastTriggeredAt() == null ? null : a.getLastTriggeredAt().toEpochMilli());
+        return r;
+    }
+}
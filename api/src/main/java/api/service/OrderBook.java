@@ -0,0 +1,119 @@
+package api.service;
+
+import api.model.OrderType;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Carnet en mémoire des ordres OPEN, indexé par asset puis par prix de déclenchement.
+ *
+ * Par asset, 2 arbres triés :
+ * - onRise : ordres déclenchés quand prix >= trigger => à un prix p, ce sont les clés <= p ;
+ * - onFall : ordres déclenchés quand prix <= trigger => à un prix p, ce sont les clés >= p.
+ * Un tick coûte donc O(log n + ordres déclenchés), quel que soit le nombre d'ordres en attente.
+ */
+@Component
+public class OrderBook {
+
+    public record RestingOrder(
+            long id,
+            long userId,
+            long assetId,
+            OrderType type,
+            double quantity,
+            double triggerPrice
+    ) {}
+
+    private final Map<Long, AssetBook> books = new ConcurrentHashMap<>();
+
+    public void add(RestingOrder order) {
+        books.computeIfAbsent(order.assetId(), id -> new AssetBook()).add(order);
+    }
+
+    public boolean remove(long assetId, long orderId) {
+        AssetBook book = books.get(assetId);
+        return book != null && book.remove(orderId);
+    }
+
+    /**
+     * Retire du carnet et renvoie les ordres déclenchés au prix donné.
+     */
+    public List<RestingOrder> pollTriggered(long assetId, double price) {
+        AssetBook book = books.get(assetId);
+        return book == null ? List.of() : book.pollTriggered(price);
+    }
+
+    public Set<Long> assetIds() {
+        return books.keySet();
+    }
+
+    public int size() {
+        int total = 0;
+        for (AssetBook book : books.values()) total += book.size();
+        return total;
+    }
+
+    private static final class AssetBook {
+
+        private final NavigableMap<Double, Map<Long, RestingOrder>> onRise = new TreeMap<>();
+        private final NavigableMap<Double, Map<Long, RestingOrder>> onFall = new TreeMap<>();
+        private final Map<Long, RestingOrder> byId = new HashMap<>();
+
+        synchronized void add(RestingOrder order) {
+            if (byId.putIfAbsent(order.id(), order) != null) return;
+            side(order.type())
+                    .computeIfAbsent(order.triggerPrice(), p -> new LinkedHashMap<>())
+                    .put(order.id(), order);
+        }
+
+        synchronized boolean remove(long orderId) {
+            RestingOrder order = byId.remove(orderId);
+            if (order == null) return false;
+
+            NavigableMap<Double, Map<Long, RestingOrder>> tree = side(order.type());
+            Map<Long, RestingOrder> level = tree.get(order.triggerPrice());
+            level.remove(orderId);
+            if (level.isEmpty()) tree.remove(order.triggerPrice());
+            return true;
+        }
+
+        synchronized List<RestingOrder> pollTriggered(double price) {
+            NavigableMap<Double, Map<Long, RestingOrder>> risen = onRise.headMap(price, true);
+            NavigableMap<Double, Map<Long, RestingOrder>> fallen = onFall.tailMap(price, true);
+            if (risen.isEmpty() && fallen.isEmpty()) return List.of();
+
+            List<RestingOrder> triggered = new ArrayList<>();
+            drain(risen, triggered);
+            drain(fallen, triggered);
+            return triggered;
+        }
+
+        synchronized int size() {
+            return byId.size();
+        }
+
+        // vide la vue (et donc l'arbre sous-jacent) niveau par niveau, ordre FIFO par niveau
+        private void drain(NavigableMap<Double, Map<Long, RestingOrder>> view, List<RestingOrder> out) {
+            for (Map<Long, RestingOrder> level : view.values()) {
+                for (RestingOrder order : level.values()) {
+                    byId.remove(order.id());
+                    out.add(order);
+                }
+            }
+            view.clear();
+        }
+
+        private NavigableMap<Double, Map<Long, RestingOrder>> side(OrderType type) {
+            return type.triggersOnRise() ? onRise : onFall;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package api.service;
+
+import api.model.OrderType;
+import api.repository.CryptoAssetRepository;
+import api.repository.TradeOrderRepository;
+import common.observability.QueryInspector;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Déclenchement des ordres en attente à chaque snapshot de crypto_assets.current_price
+ * (mis à jour par le collector).
+ *
+ * - tick : 1 requête (id, prix) puis, par asset, pollTriggered sur le carnet en mémoire ;
+ * - exécution par batchs de fillBatchSize ordres, 1 transaction par batch,
+ *   1 savepoint SQL par ordre (un ordre rejeté n'annule pas les autres). Savepoint posé
+ *   directement sur la connexion : JpaTransactionManager ne les supporte pas avec Hibernate,
+ *   et toutes les écritures d'exécution sont des requêtes natives ;
+ * - verrous pris en tête de batch, comme RecurringBuyExecutor : toutes les positions visées
+ *   triées par (user_id, asset_id), puis tous les soldes triés par id. Même ordre que
+ *   TradeService (position puis solde) : pas de deadlock avec les trades ni les achats récurrents.
+ *
+ * Le passage OPEN -> FILLED est conditionnel en base : un ordre annulé entre-temps
+ * (ou vu par une autre instance) n'est jamais exécuté deux fois.
+ */
+@Slf4j
+@Service
+@Profile("!datagen")
+public class OrderMatchingService {
+
+    private static final int LOAD_CHUNK_SIZE = 10_000;
+
+    // position absente : créée à 0 pour que son verrou précède celui du solde
+    private static final String LOCK_HOLDINGS_SQL = """
+        INSERT INTO user_holdings (user_id, asset_id, quantity)
+        SELECT t.user_id, t.asset_id, 0
+        FROM unnest(?::bigint[], ?::bigint[]) AS t(user_id, asset_id)
+        ORDER BY t.user_id, t.asset_id
+        ON CONFLICT (user_id, asset_id)
+        DO UPDATE SET quantity = user_holdings.quantity
+        """;
+
+    private static final String LOCK_USERS_SQL =
+            "SELECT id FROM users WHERE id = ANY(?::bigint[]) ORDER BY id FOR UPDATE";
+
+    // positions créées à 0 par LOCK_HOLDINGS_SQL et restées vides (ordre rejeté, vente)
+    private static final String PURGE_EMPTY_HOLDINGS_SQL = """
+        DELETE FROM user_holdings h
+        USING unnest(?::bigint[], ?::bigint[]) AS t(user_id, asset_id)
+        WHERE h.user_id = t.user_id
+          AND h.asset_id = t.asset_id
+          AND h.quantity = 0
+        """;
+
+    private final CryptoAssetRepository assetRepository;
+    private final TradeOrderRepository orderRepository;
+    private final TradeService tradeService;
+    private final OrderBook orderBook;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final int fillBatchSize;
+
+    public OrderMatchingService(
+            CryptoAssetRepository assetRepository,
+            TradeOrderRepository orderRepository,
+            TradeService tradeService,
+            OrderBook orderBook,
+            PlatformTransactionManager transactionManager,
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.orders.fill-batch-size:200}") int fillBatchSize
+    ) {
+        this.assetRepository = assetRepository;
+        this.orderRepository = orderRepository;
+        this.tradeService = tradeService;
+        this.orderBook = orderBook;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jdbcTemplate = jdbcTemplate;
+        this.fillBatchSize = fillBatchSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        loadOpenOrders();
+    }
+
+    /**
+     * Reconstruit le carnet à partir des ordres OPEN (keyset par tranches).
+     */
+    void loadOpenOrders() {
+        long lastId = 0;
+        int loaded = 0;
+        while (true) {
+            List<TradeOrderRepository.OpenOrderRow> rows = orderRepository.findOpenAfter(lastId, LOAD_CHUNK_SIZE);
+            for (TradeOrderRepository.OpenOrderRow r : rows) {
+                orderBook.add(new OrderBook.RestingOrder(
+                        r.getId(), r.getUserId(), r.getAssetId(),
+                        OrderType.valueOf(r.getType()), r.getQuantity(), r.getTriggerPrice()));
+            }
+            loaded += rows.size();
+            if (rows.size() < LOAD_CHUNK_SIZE) break;
+            lastId = rows.get(rows.size() - 1).getId();
+        }
+        if (loaded > 0) {
+            log.info("Carnet d'ordres : {} ordre(s) OPEN chargé(s).", loaded);
+        }
+    }
+
+    /**
+     * Un tick : snapshot des prix puis exécution des ordres déclenchés.
+     * @return nombre d'ordres exécutés
+     */
+    public int tick() {
+        if (orderBook.assetIds().isEmpty()) return 0;
+
+        Map<Long, Double> prices = new HashMap<>();
+        for (CryptoAssetRepository.PriceRow row : assetRepository.findCurrentPrices()) {
+            prices.put(row.getId(), row.getPrice());
+        }
+        return onPrices(prices);
+    }
+
+    int onPrices(Map<Long, Double> prices) {
+        List<Fill> triggered = new ArrayList<>();
+        for (Long assetId : orderBook.assetIds()) {
+            Double price = prices.get(assetId);
+            if (price == null || price <= 0) continue;
+
+            for (OrderBook.RestingOrder order : orderBook.pollTriggered(assetId, price)) {
+                triggered.add(new Fill(order, price));
+            }
+        }
+
+        int filled = 0;
+        for (int from = 0; from < triggered.size(); from += fillBatchSize) {
+            List<Fill> batch = triggered.subList(from, Math.min(from + fillBatchSize, triggered.size()));
+            try {
+                Integer n = transactionTemplate.execute(status -> fillBatch(batch));
+                filled += n == null ? 0 : n;
+            } catch (Exception e) {
+                // batch annulé : les ordres retournent dans le carnet, réessayés au prochain tick
+                log.error("Erreur exécution d'un batch de {} ordre(s)", batch.size(), e);
+                batch.forEach(f -> orderBook.add(f.order()));
+            }
+        }
+        return filled;
+    }
+
+    private int fillBatch(List<Fill> batch) {
+        Set<HoldingKey> targets = new TreeSet<>();
+        Set<Long> userIds = new TreeSet<>();
+        for (Fill f : batch) {
+            targets.add(new HoldingKey(f.order().userId(), f.order().assetId()));
+            userIds.add(f.order().userId());
+        }
+        updateHoldings(LOCK_HOLDINGS_SQL, targets);
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(LOCK_USERS_SQL);
+            ps.setArray(1, con.createArrayOf("bigint", userIds.toArray()));
+            return ps;
+        }, (rs, i) -> rs.getLong(1));
+
+        int filled = 0;
+        for (Fill f : batch) {
+            OrderBook.RestingOrder o = f.order();
+
+            if (orderRepository.markFilled(o.id(), f.price()).isEmpty()) {
+                continue; // plus OPEN : annulé ou déjà exécuté
+            }
+
+            jdbcTemplate.execute("SAVEPOINT order_fill");
+            if (tradeService.fill(o.userId(), o.assetId(), o.type().side(), o.quantity(), f.price())) {
+                jdbcTemplate.execute("RELEASE SAVEPOINT order_fill");
+                filled++;
+            } else {
+                // annule les écritures de cet ordre (upsert de position d'un achat), puis FILLED -> REJECTED
+                jdbcTemplate.execute("ROLLBACK TO SAVEPOINT order_fill");
+                orderRepository.markRejected(o.id());
+                log.info("Ordre {} ({}) rejeté : solde ou quantité insuffisants.", o.id(), o.type());
+            }
+        }
+        updateHoldings(PURGE_EMPTY_HOLDINGS_SQL, targets);
+        return filled;
+    }
+
+    // statement sur un ensemble de positions (user_id[], asset_id[]), dans l'ordre du Set
+    private void updateHoldings(String sql, Set<HoldingKey> keys) {
+        Object[] userIds = keys.stream().map(HoldingKey::userId).toArray();
+        Object[] assetIds = keys.stream().map(HoldingKey::assetId).toArray();
+        jdbcTemplate.update(con -> {
+            var ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("bigint", userIds));
+            ps.setArray(2, con.createArrayOf("bigint", assetIds));
+            return ps;
+        });
+    }
+
+    // 1er passage un intervalle après le démarrage (carnet chargé par start())
+    @Scheduled(fixedDelayString = "${app.orders.poll-interval-ms:1000}",
+            initialDelayString = "${app.orders.poll-interval-ms:1000}")
+    public void scheduledTick() {
+        try (QueryInspector.Scope scope = QueryInspector.open("order-matching")) {
+            tick();
+        } catch (Exception e) {
+            log.error("Erreur tick du carnet d'ordres", e);
+        }
+    }
+
+    private record Fill(OrderBook.RestingOrder order, double price) {}
+
+    private record HoldingKey(long userId, long assetId) implements Comparable<HoldingKey> {
+        @Override
+        public int compareTo(HoldingKey o) {
+            int c = Long.compare(userId, o.userId);
+            return c != 0 ? c : Long.compare(assetId, o.assetId);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package api.service;
+
+import api.dto.OrderResponse;
+import api.dto.PlaceOrderRequest;
+import api.exception.BusinessException;
+import api.model.CryptoAsset;
+import api.model.OrderStatus;
+import api.model.TradeOrder;
+import api.model.User;
+import api.repository.CryptoAssetRepository;
+import api.repository.TradeOrderRepository;
+import api.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Ordres en attente (limit / stop-loss / take-profit) : création, annulation, consultation.
+ * L'exécution est faite par OrderMatchingService à chaque nouveau snapshot de prix.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderService {
+
+    private final UserRepository userRepository;
+    private final CryptoAssetRepository assetRepository;
+    private final TradeOrderRepository orderRepository;
+    private final OrderBook orderBook;
+
+    /**
+     * Pas de réservation du solde / de la quantité : ils sont vérifiés à l'exécution
+     * (ordre REJECTED s'ils sont insuffisants à ce moment-là).
+     */
+    @Transactional
+    public OrderResponse place(String username, PlaceOrderRequest req) {
+        if (req.getExternalId() == null || req.getExternalId().isBlank() || req.getType() == null) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "externalId et type sont obligatoires.");
+        }
+        if (req.getQuantity() == null || req.getQuantity() <= 0) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "quantity doit être > 0.");
+        }
+        if (req.getTriggerPrice() == null || req.getTriggerPrice() <= 0) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "triggerPrice doit être > 0.");
+        }
+
+        User user = getUserOrThrow(username);
+        CryptoAsset asset = assetRepository.findByExternalId(req.getExternalId())
+                .orElseThrow(() -> new IllegalArgumentException("Unknown crypto: " + req.getExternalId()));
+
+        TradeOrder order = orderRepository.save(TradeOrder.builder()
+                .userId(user.getId())
+                .asset(asset)
+                .type(req.getType())
+                .quantity(req.getQuantity())
+                .triggerPrice(req.getTriggerPrice())
+                .status(OrderStatus.OPEN)
+                .createdAt(Instant.now())
+                .build());
+
+        // dans le carnet seulement une fois l'ordre commité
+        OrderBook.RestingOrder resting = new OrderBook.RestingOrder(
+                order.getId(), user.getId(), asset.getId(), order.getType(), order.getQuantity(), order.getTriggerPrice());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                orderBook.add(resting);
+            }
+        });
+
+        return toResponse(order);
+    }
+
+    public void cancel(String username, Long orderId) {
+        User user = getUserOrThrow(username);
+
+        Long assetId = orderRepository.cancel(orderId, user.getId())
+                .orElseThrow(() -> new BusinessException(HttpStatus.NOT_FOUND, "Ordre introuvable ou déjà clôturé."));
+        orderBook.remove(assetId, orderId);
+    }
+
+    public List<OrderResponse> getOrders(String username) {
+        User user = getUserOrThrow(username);
+        return orderRepository.findByUserIdOrderByCreatedAtDesc(user.getId())
+                .stream()
+                .map(OrderService::toResponse)
+                .toList();
+    }
+
+    private User getUserOrThrow(String username) {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    }
+
+    private static OrderResponse toResponse(TradeOrder o) {
+        OrderResponse r = new OrderResponse();
+        r.setId(o.getId());
+        r.setExternalId(o.getAsset().getExternalId());
+        r.setSymbol(o.getAsset().getSymbol());
+        r.setType(o.getType().name());
+        r.setStatus(o.getStatus().name());
+        r.setQuantity(o.getQuantity());
+        r.setTriggerPrice(o.getTriggerPrice());
+        r.setFillPrice(o.getFillPrice());
+        r.setCreatedAt(o.getCreatedAt().toEpochMilli());
+        r.setClosedAt(o.getClosedAt() == null ? null : o.getClosedAt().toEpochMilli());
+        return r;
+    }
+}
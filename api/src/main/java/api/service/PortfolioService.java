@@ -0,0 +1,122 @@
+package api.service;
+
+import api.dto.PortfolioPositionResponse;
+import api.dto.PortfolioResponse;
+import api.dto.PortfolioValuePointDto;
+import api.exception.BusinessException;
+import api.model.CryptoAsset;
+import api.model.User;
+import api.model.UserHolding;
+import api.repository.PortfolioValuePointRepository;
+import api.repository.UserHoldingRepository;
+import api.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Valorisation du portefeuille : positions (1 requête avec fetch join sur l'asset)
+ * x prix du snapshot en mémoire (AssetPriceSnapshot), sans requête par position.
+ *
+ * Historique : séries pré-calculées par le collector (portfolio_value_points),
+ * la plage demandée choisit la résolution => quelques centaines de points au plus.
+ */
+@Service
+@RequiredArgsConstructor
+public class PortfolioService {
+
+    private final UserRepository userRepository;
+    private final UserHoldingRepository holdingRepository;
+    private final AssetPriceSnapshot priceSnapshot;
+    private final PortfolioValuePointRepository valuePointRepository;
+
+    private record Range(String resolution, Duration span) {}
+
+    // minute sur 1 jour (1440 pts), heure jusqu'à 30 jours (720 pts), jour au-delà
+    private static final Map<String, Range> RANGES = Map.of(
+            "1d", new Range("m", Duration.ofDays(1)),
+            "7d", new Range("h", Duration.ofDays(7)),
+            "30d", new Range("h", Duration.ofDays(30)),
+            "1y", new Range("d", Duration.ofDays(365)),
+            "all", new Range("d", null)
+    );
+
+    public PortfolioResponse getPortfolio(String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+        List<UserHolding> holdings = holdingRepository.findByUserIdWithAsset(user.getId());
+
+        List<PortfolioPositionResponse> positions = new ArrayList<>(holdings.size());
+        double total = 0.0;
+        double change = 0.0;
+
+        for (UserHolding h : holdings) {
+            CryptoAsset asset = h.getAsset();
+            AssetPriceSnapshot.Quote quote = quoteOf(asset);
+
+            PortfolioPositionResponse p = new PortfolioPositionResponse();
+            p.setExternalId(asset.getExternalId());
+            p.setName(asset.getName());
+            p.setSymbol(asset.getSymbol());
+            p.setQuantity(h.getQuantity());
+            p.setPrice(quote.price());
+            p.setValue(h.getQuantity() * quote.price());
+            p.setChange24h(h.getQuantity() * quote.change24h());
+            positions.add(p);
+
+            total += p.getValue();
+            change += p.getChange24h();
+        }
+
+        for (PortfolioPositionResponse p : positions) {
+            p.setWeight(total > 0 ? p.getValue() / total : 0.0);
+        }
+        positions.sort(Comparator.comparing(PortfolioPositionResponse::getValue).reversed());
+
+        double valueYesterday = total - change;
+
+        PortfolioResponse r = new PortfolioResponse();
+        r.setBalance(user.getBalance());
+        r.setTotalValue(total);
+        r.setChange24h(change);
+        r.setChange24hPercent(valueYesterday > 0 ? change / valueYesterday * 100.0 : null);
+        r.setPositions(positions);
+        return r;
+    }
+
+    /**
+     * @param range 1d, 7d, 30d, 1y ou all
+     */
+    public List<PortfolioValuePointDto> getHistory(String username, String range) {
+        Range r = RANGES.get(range == null ? "7d" : range);
+        if (r == null) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "Période invalide (1d, 7d, 30d, 1y ou all).");
+        }
+
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+        Instant from = r.span() == null ? Instant.EPOCH : Instant.now().minus(r.span());
+        return valuePointRepository.findSeries(user.getId(), r.resolution(), from).stream()
+                .map(p -> new PortfolioValuePointDto(p.getTs(), p.getValue()))
+                .toList();
+    }
+
+    // asset absent du snapshot (ajouté depuis le dernier rafraîchissement) : valeurs de l'entité déjà chargée
+    private AssetPriceSnapshot.Quote quoteOf(CryptoAsset asset) {
+        AssetPriceSnapshot.Quote quote = priceSnapshot.get(asset.getId());
+        if (quote != null) return quote;
+
+        double price = asset.getCurrentPrice() == null ? 0.0 : asset.getCurrentPrice();
+        double change = asset.getPrice_change_24h() == null ? 0.0 : asset.getPrice_change_24h();
+        return new AssetPriceSnapshot.Quote(price, change);
+    }
+}
@@ -5,6 +5,7 @@ import api.repository.CryptoAssetRepository;
 import api.repository.CryptoPriceHistoryRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -18,6 +19,7 @@ public class PriceHistoryQueryService {
     private final CryptoAssetRepository assetRepository;
     private final CryptoPriceHistoryRepository historyRepository;
 
+    @Transactional(readOnly = true)
     public List<PricePointDto> getLast7DaysSeriesByExternalId(String externalId, String vsCurrency) {
         var assetOpt = assetRepository.findByExternalId(externalId);
             if (assetOpt.isEmpty()) {
@@ -0,0 +1,308 @@
+package api.service;
+
+import api.dto.PriceUpdateDto;
+import api.exception.BusinessException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Flux SSE des prix (/api/stream/prices).
+ *
+ * 1 seul producteur (tâche @Scheduled) compare le snapshot en mémoire au précédent
+ * et diffuse les assets qui ont changé. Chaque abonné a sa map "pending" (asset -> dernier prix) :
+ * un nouveau prix écrase le précédent non encore envoyé, un client lent reçoit donc la
+ * dernière valeur au lieu d'un arriéré, et la mémoire par abonné est bornée par le nombre d'assets.
+ * Les écritures passent par un petit pool d'envoi ; au plus 1 envoi en cours par abonné.
+ * Les connexions en attente ne tiennent aucun thread (requêtes async Tomcat).
+ *
+ * Un envoi SSE est une écriture servlet bloquante : un client qui ne lit plus (tampons TCP
+ * pleins) bloque son thread d'envoi jusqu'au timeout d'écriture de Tomcat. Chaque tick
+ * repère les envois en cours depuis plus de write-timeout-ms : l'abonné est évincé (plus
+ * aucun envoi planifié, connexion fermée dès que l'écriture rend la main, le client se
+ * reconnecte) et le pool reçoit un thread de compensation tant que l'écriture reste bloquée
+ * (au plus max-stalled-sends) : les autres abonnés gardent sender-threads threads d'envoi.
+ */
+@Slf4j
+@Service
+@Profile("!datagen")
+public class PriceStreamService {
+
+    private final AssetPriceSnapshot priceSnapshot;
+    private final Executor sender;
+    private final long heartbeatMs;
+    private final long timeoutMs;
+    private final int maxSubscribers;
+    private final long writeTimeoutNanos;
+    private final int maxStalledSends;
+    private final int baseSenderThreads;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private int stalledSends; // envois bloqués d'abonnés évincés (compensés dans le pool)
+    private Map<Long, AssetPriceSnapshot.Quote> last = Map.of();
+    private long lastHeartbeat = System.currentTimeMillis();
+
+    @Autowired
+    public PriceStreamService(
+            AssetPriceSnapshot priceSnapshot,
+            @Value("${app.stream.prices.heartbeat-ms:15000}") long heartbeatMs,
+            @Value("${app.stream.prices.timeout-ms:1800000}") long timeoutMs,
+            @Value("${app.stream.prices.max-subscribers:20000}") int maxSubscribers,
+            @Value("${app.stream.prices.sender-threads:4}") int senderThreads,
+            @Value("${app.stream.prices.write-timeout-ms:5000}") long writeTimeoutMs,
+            @Value("${app.stream.prices.max-stalled-sends:64}") int maxStalledSends
+    ) {
+        this(priceSnapshot, newSenderPool(senderThreads), heartbeatMs, timeoutMs, maxSubscribers,
+                writeTimeoutMs, maxStalledSends);
+    }
+
+    PriceStreamService(
+            AssetPriceSnapshot priceSnapshot, Executor sender,
+            long heartbeatMs, long timeoutMs, int maxSubscribers,
+            long writeTimeoutMs, int maxStalledSends
+    ) {
+        this.priceSnapshot = priceSnapshot;
+        this.sender = sender;
+        this.heartbeatMs = heartbeatMs;
+        this.timeoutMs = timeoutMs;
+        this.maxSubscribers = maxSubscribers;
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMs);
+        this.maxStalledSends = maxStalledSends;
+        this.baseSenderThreads = sender instanceof ThreadPoolExecutor pool ? pool.getCorePoolSize() : 0;
+    }
+
+    private static ExecutorService newSenderPool(int threads) {
+        AtomicInteger n = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "price-stream-send-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        last = priceSnapshot.all();
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscribers.forEach(s -> s.emitter.complete());
+        if (sender instanceof ExecutorService pool) pool.shutdownNow();
+    }
+
+    /**
+     * Nouvel abonné : reçoit d'abord les prix courants (filtrés), puis les changements.
+     *
+     * @param assetIds assets suivis, null ou vide = tous
+     */
+    public SseEmitter subscribe(Set<Long> assetIds) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new BusinessException(HttpStatus.SERVICE_UNAVAILABLE, "Trop de connexions au flux de prix.");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        register(emitter, assetIds);
+        return emitter;
+    }
+
+    Subscriber register(SseEmitter emitter, Set<Long> assetIds) {
+        Subscriber s = new Subscriber(emitter, assetIds == null || assetIds.isEmpty() ? null : Set.copyOf(assetIds));
+        emitter.onCompletion(() -> subscribers.remove(s));
+        emitter.onTimeout(() -> subscribers.remove(s));
+        emitter.onError(e -> subscribers.remove(s));
+        subscribers.add(s);
+
+        if (s.offer(priceSnapshot.all(), false)) sender.execute(s::flush);
+        return s;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Un tick du producteur : diff du snapshot et diffusion des changements (+ heartbeat).
+     */
+    public void tick() {
+        Map<Long, AssetPriceSnapshot.Quote> current = priceSnapshot.all();
+        Map<Long, AssetPriceSnapshot.Quote> changed = current == last ? Map.of() : diff(last, current);
+        last = current;
+
+        long now = System.currentTimeMillis();
+        boolean heartbeat = now - lastHeartbeat >= heartbeatMs;
+        if (heartbeat) lastHeartbeat = now;
+
+        long nowNanos = System.nanoTime();
+        for (Subscriber s : subscribers) {
+            if (s.stalled(nowNanos)) {
+                evict(s);
+            } else if ((!changed.isEmpty() || heartbeat) && s.offer(changed, heartbeat)) {
+                sender.execute(s::flush);
+            }
+        }
+    }
+
+    // ne touche pas à l'emitter (verrou tenu par l'écriture bloquée) : le thread d'envoi le fermera
+    private void evict(Subscriber s) {
+        if (!s.evict()) return;
+        subscribers.remove(s);
+        log.warn("Flux de prix : abonné évincé, écriture bloquée depuis plus de {} ms",
+                TimeUnit.NANOSECONDS.toMillis(writeTimeoutNanos));
+        compensate(1);
+    }
+
+    // 1 thread d'envoi de plus par écriture bloquée d'un abonné évincé, retiré quand elle rend la main
+    private synchronized void compensate(int delta) {
+        stalledSends += delta;
+        if (!(sender instanceof ThreadPoolExecutor pool)) return;
+        // -1 possible avant le +1 si l'écriture rend la main juste après l'éviction
+        int target = baseSenderThreads + Math.max(0, Math.min(stalledSends, maxStalledSends));
+        if (target > pool.getMaximumPoolSize()) {
+            pool.setMaximumPoolSize(target);
+            pool.setCorePoolSize(target);
+        } else {
+            pool.setCorePoolSize(target);
+            pool.setMaximumPoolSize(target);
+        }
+    }
+
+    synchronized int stalledSends() {
+        return stalledSends;
+    }
+
+    static Map<Long, AssetPriceSnapshot.Quote> diff(
+            Map<Long, AssetPriceSnapshot.Quote> previous, Map<Long, AssetPriceSnapshot.Quote> current
+    ) {
+        Map<Long, AssetPriceSnapshot.Quote> changed = new HashMap<>();
+        current.forEach((id, q) -> {
+            if (!Objects.equals(previous.get(id), q)) changed.put(id, q);
+        });
+        return changed;
+    }
+
+    @Scheduled(fixedDelayString = "${app.stream.prices.interval-ms:1000}",
+            initialDelayString = "${app.stream.prices.interval-ms:1000}")
+    public void scheduledTick() {
+        try {
+            tick();
+        } catch (Exception e) {
+            log.error("Erreur diffusion du flux de prix", e);
+        }
+    }
+
+    final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Set<Long> filter; // null = tous les assets
+        private Map<Long, AssetPriceSnapshot.Quote> pending = new HashMap<>();
+        private boolean heartbeat;
+        private boolean scheduled;
+        private long sendingSince; // System.nanoTime() du début de l'écriture en cours, 0 = aucune
+        private boolean evicted;
+
+        Subscriber(SseEmitter emitter, Set<Long> filter) {
+            this.emitter = emitter;
+            this.filter = filter;
+        }
+
+        /**
+         * Fusionne les changements (le dernier prix écrase le précédent non envoyé).
+         * @return true si un envoi doit être planifié (aucun déjà en attente)
+         */
+        synchronized boolean offer(Map<Long, AssetPriceSnapshot.Quote> changes, boolean heartbeat) {
+            if (filter == null) {
+                pending.putAll(changes);
+            } else {
+                for (Long id : filter) {
+                    AssetPriceSnapshot.Quote q = changes.get(id);
+                    if (q != null) pending.put(id, q);
+                }
+            }
+            this.heartbeat |= heartbeat;
+            if (scheduled || (pending.isEmpty() && !this.heartbeat)) return false;
+            scheduled = true;
+            return true;
+        }
+
+        synchronized boolean stalled(long nowNanos) {
+            return !evicted && sendingSince != 0 && nowNanos - sendingSince > writeTimeoutNanos;
+        }
+
+        /**
+         * @return true si l'abonné vient d'être évincé (écriture toujours en cours)
+         */
+        synchronized boolean evict() {
+            if (evicted || sendingSince == 0) return false;
+            evicted = true;
+            return true;
+        }
+
+        // fin d'écriture : true si l'abonné a été évincé pendant qu'elle bloquait
+        private synchronized boolean sent() {
+            sendingSince = 0;
+            return evicted;
+        }
+
+        void flush() {
+            while (true) {
+                Map<Long, AssetPriceSnapshot.Quote> batch;
+                boolean ping;
+                synchronized (this) {
+                    if (pending.isEmpty() && !heartbeat) {
+                        scheduled = false;
+                        return;
+                    }
+                    batch = pending;
+                    ping = heartbeat;
+                    pending = new HashMap<>();
+                    heartbeat = false;
+                    sendingSince = System.nanoTime() | 1; // jamais 0
+                }
+                try {
+                    if (!batch.isEmpty()) {
+                        List<PriceUpdateDto> updates = new ArrayList<>(batch.size());
+                        batch.forEach((id, q) -> updates.add(new PriceUpdateDto(id, q.price(), q.change24h())));
+                        emitter.send(SseEmitter.event().name("prices").data(updates, MediaType.APPLICATION_JSON));
+                    } else if (ping) {
+                        emitter.send(SseEmitter.event().comment("ping"));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // client parti : l'abonné est retiré par onError / onCompletion
+                    if (sent()) compensate(-1);
+                    subscribers.remove(this);
+                    emitter.completeWithError(e);
+                    return;
+                }
+                if (sent()) {
+                    // évincé pendant l'écriture : on ferme, le client se reconnecte
+                    compensate(-1);
+                    emitter.complete();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package api.service;
+
+import java.util.ArrayDeque;
+
+/**
+ * Fenêtre glissante de prix sur une durée fixe : min, max et moyenne en O(1).
+ *
+ * - min / max : deques monotones (chaque échantillon entre et sort au plus une fois,
+ *   donc add() est O(1) amorti) ;
+ * - moyenne : somme courante des échantillons de la fenêtre.
+ *
+ * Pas thread-safe : l'appelant synchronise (cf. MovementAlertEvaluator).
+ */
+final class PriceWindow {
+
+    private record Sample(long ts, double price) {}
+
+    // recalcul complet de la somme de temps en temps : borne la dérive des +/- en flottant
+    private static final int RESUM_EVERY = 10_000;
+
+    private final long spanMs;
+    private final ArrayDeque<Sample> samples = new ArrayDeque<>();
+    private final ArrayDeque<Sample> minQ = new ArrayDeque<>(); // prix croissants
+    private final ArrayDeque<Sample> maxQ = new ArrayDeque<>(); // prix décroissants
+    private double sum;
+    private int sinceResum;
+
+    PriceWindow(long spanMs) {
+        this.spanMs = spanMs;
+    }
+
+    /**
+     * Ajoute un échantillon (ts croissants) et retire ceux sortis de la fenêtre.
+     */
+    void add(long ts, double price) {
+        Sample s = new Sample(ts, price);
+        samples.addLast(s);
+        sum += price;
+
+        while (!minQ.isEmpty() && minQ.peekLast().price() >= price) minQ.pollLast();
+        minQ.addLast(s);
+        while (!maxQ.isEmpty() && maxQ.peekLast().price() <= price) maxQ.pollLast();
+        maxQ.addLast(s);
+
+        evict(ts);
+
+        if (++sinceResum >= RESUM_EVERY) {
+            sum = 0;
+            for (Sample x : samples) sum += x.price();
+            sinceResum = 0;
+        }
+    }
+
+    /**
+     * Retire les échantillons plus anciens que now - span.
+     */
+    void evict(long now) {
+        long from = now - spanMs;
+        while (!samples.isEmpty() && samples.peekFirst().ts() < from) {
+            Sample old = samples.pollFirst();
+            sum -= old.price();
+            if (minQ.peekFirst() == old) minQ.pollFirst();
+            if (maxQ.peekFirst() == old) maxQ.pollFirst();
+        }
+        if (samples.isEmpty()) sum = 0;
+    }
+
+    boolean isEmpty() {
+        return samples.isEmpty();
+    }
+
+    int size() {
+        return samples.size();
+    }
+
+    long lastTs() {
+        return samples.isEmpty() ? Long.MIN_VALUE : samples.peekLast().ts();
+    }
+
+    double min() {
+        return minQ.peekFirst().price();
+    }
+
+    double max() {
+        return maxQ.peekFirst().price();
+    }
+
+    double average() {
+        return sum / samples.size();
+    }
+}
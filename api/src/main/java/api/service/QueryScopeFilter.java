@@ -0,0 +1,37 @@
+package api.service;
+
+import common.observability.QueryInspector;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Une portée QueryInspector par requête HTTP, placée avant Spring Security (le chargement de
+ * l'utilisateur du JWT compte). Nommée en sortie "MÉTHODE gabarit" (ex : GET /api/crypto/{id}),
+ * "UNKNOWN" si aucun handler n'a été résolu (401, 404) : cardinalité bornée.
+ */
+public class QueryScopeFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        QueryInspector.Scope scope = QueryInspector.open(request.getMethod() + " UNKNOWN");
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null) scope.rename(request.getMethod() + " " + pattern);
+            scope.close();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package api.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Arbre d'ordre statistique (treap) des entrées du classement :
+ * tri par valeur décroissante puis userId croissant, chaque nœud connaît la taille de son sous-arbre.
+ * insert / remove / rank en O(log n) (espérance), top(n) en O(log n + n).
+ *
+ * Pas thread-safe : LeaderboardService sérialise les écritures.
+ */
+final class RankTree {
+
+    record Entry(long userId, double value) {}
+
+    private static final class Node {
+        final long userId;
+        final double value;
+        final int priority;
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(long userId, double value, int priority) {
+            this.userId = userId;
+            this.value = value;
+            this.priority = priority;
+        }
+    }
+
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * L'appelant garantit qu'aucune entrée n'existe déjà pour userId.
+     */
+    void insert(long userId, double value) {
+        Node[] parts = split(root, userId, value, false);
+        root = merge(merge(parts[0], new Node(userId, value, random.nextInt())), parts[1]);
+    }
+
+    /**
+     * Retire l'entrée (userId, value) ; value doit être celle insérée.
+     */
+    void remove(long userId, double value) {
+        Node[] lower = split(root, userId, value, false);
+        Node[] upper = split(lower[1], userId, value, true);
+        root = merge(lower[0], upper[1]);
+    }
+
+    /**
+     * Nombre d'entrées classées avant (userId, value) : 0 pour le premier.
+     */
+    int rank(long userId, double value) {
+        int before = 0;
+        Node n = root;
+        while (n != null) {
+            int c = compare(userId, value, n);
+            if (c < 0) {
+                n = n.left;
+            } else if (c > 0) {
+                before += size(n.left) + 1;
+                n = n.right;
+            } else {
+                return before + size(n.left);
+            }
+        }
+        return before;
+    }
+
+    /**
+     * Les limit premières entrées à partir de la position offset (parcours infixe borné).
+     */
+    List<Entry> range(int offset, int limit) {
+        List<Entry> out = new ArrayList<>(Math.max(0, Math.min(limit, size() - offset)));
+        if (limit <= 0) return out;
+
+        // descente jusqu'à la position offset, en empilant les ancêtres restant à visiter
+        Deque<Node> stack = new ArrayDeque<>();
+        Node n = root;
+        int skip = offset;
+        while (n != null) {
+            int left = size(n.left);
+            if (skip < left) {
+                stack.push(n);
+                n = n.left;
+            } else if (skip == left) {
+                stack.push(n);
+                break;
+            } else {
+                skip -= left + 1;
+                n = n.right;
+            }
+        }
+
+        while (!stack.isEmpty() && out.size() < limit) {
+            Node cur = stack.pop();
+            out.add(new Entry(cur.userId, cur.value));
+            for (Node m = cur.right; m != null; m = m.left) stack.push(m);
+        }
+        return out;
+    }
+
+    // ordre du classement : valeur décroissante, puis userId croissant (départage stable)
+    private static int compare(long userId, double value, Node n) {
+        int c = Double.compare(n.value, value);
+        return c != 0 ? c : Long.compare(userId, n.userId);
+    }
+
+    /**
+     * Coupe en [entrées < clé, entrées >= clé], ou [<= clé, > clé] si inclusive.
+     */
+    private static Node[] split(Node n, long userId, double value, boolean inclusive) {
+        if (n == null) return new Node[] { null, null };
+
+        int c = compare(userId, value, n);
+        boolean goesLeft = inclusive ? c >= 0 : c > 0; // n reste à gauche de la coupe
+        if (goesLeft) {
+            Node[] parts = split(n.right, userId, value, inclusive);
+            n.right = parts[0];
+            update(n);
+            return new Node[] { n, parts[1] };
+        }
+        Node[] parts = split(n.left, userId, value, inclusive);
+        n.left = parts[1];
+        update(n);
+        return new Node[] { parts[0], n };
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private static void update(Node n) {
+        n.size = 1 + size(n.left) + size(n.right);
+    }
+
+    private static int size(Node n) {
+        return n == null ? 0 : n.size;
+    }
+}
@@ -0,0 +1,262 @@
+package api.service;
+
+import api.config.RateLimitProperties;
+import api.dto.ApiError;
+import api.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limitation de débit par token bucket, placée juste après JwtAuthenticationFilter :
+ * clé = id utilisateur si authentifié, sinon IP client (derrière l'ingress : X-Forwarded-For,
+ * résolu par Tomcat pour les seuls proxies de confiance, server.tomcat.remoteip.internal-proxies).
+ * Budget par route (app.rate-limit.routes).
+ *
+ * - bucket sans verrou : 1 seul AtomicLong (GCRA, "theoretical arrival time") mis à jour par CAS ;
+ * - refus : 429 + Retry-After, compteur api.ratelimit.rejected{route} ;
+ * - mémoire bornée : un bucket plein est équivalent à un bucket absent, il est purgé
+ *   périodiquement ; au-delà de max-buckets, purge immédiate puis éviction arbitraire.
+ */
+@Slf4j
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoClock;
+
+    private final List<Route> routes = new ArrayList<>();
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    @Autowired
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this(properties, objectMapper, meterRegistry, System::nanoTime);
+    }
+
+    RateLimitFilter(
+            RateLimitProperties properties,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            LongSupplier nanoClock
+    ) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+        initRoutes();
+    }
+
+    private void initRoutes() {
+        PathPatternParser parser = new PathPatternParser();
+        List<RateLimitProperties.Route> configured = properties.getRoutes();
+        for (int i = 0; i < configured.size(); i++) {
+            RateLimitProperties.Route r = configured.get(i);
+            if (r.getPath() == null || r.getCapacity() <= 0 || r.getRefillPerSecond() <= 0) {
+                throw new IllegalStateException("Route de rate limit invalide : " + r);
+            }
+            String name = r.getName() != null ? r.getName() : r.getPath();
+            long interval = Math.max(1, Math.round(1_000_000_000d / r.getRefillPerSecond()));
+            Counter rejected = Counter.builder("api.ratelimit.rejected")
+                    .description("Requêtes refusées (429) par le rate limiter")
+                    .tag("route", name)
+                    .register(meterRegistry);
+            routes.add(new Route(
+                    i + "|",
+                    name,
+                    r.getMethod() != null ? r.getMethod().toUpperCase() : null,
+                    parser.parse(r.getPath()),
+                    interval,
+                    interval * r.getCapacity(),
+                    rejected
+            ));
+        }
+        meterRegistry.gauge("api.ratelimit.buckets", buckets, Map::size);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !properties.isEnabled() || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        Route route = match(request);
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long now = nanoClock.getAsLong();
+        long waitNanos = bucket(route.keyPrefix() + subject(request), now).tryAcquire(now, route.intervalNanos(), route.burstNanos());
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        route.rejected().increment();
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        log.debug("Rate limit {} {} -> 429 (route={}, retry-after={}s)",
+                request.getMethod(), request.getRequestURI(), route.name(), retryAfter);
+
+        HttpStatus status = HttpStatus.TOO_MANY_REQUESTS;
+        ApiError body = ApiError.builder()
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message("Trop de requêtes, réessayez dans " + retryAfter + " s.")
+                .path(request.getRequestURI())
+                .build();
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    private Route match(HttpServletRequest request) {
+        String uri = request.getRequestURI().substring(request.getContextPath().length());
+        PathContainer path = PathContainer.parsePath(uri);
+        String method = request.getMethod();
+        for (Route r : routes) {
+            if ((r.method() == null || r.method().equals(method)) && r.pattern().matches(path)) {
+                return r;
+            }
+        }
+        return null;
+    }
+
+    private static String subject(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof User user && user.getId() != null) {
+            return "u:" + user.getId();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private TokenBucket bucket(String key, long now) {
+        TokenBucket b = buckets.get(key);
+        if (b != null) return b;
+        if (buckets.size() >= properties.getMaxBuckets()) {
+            makeRoom();
+        }
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(now));
+    }
+
+    /**
+     * Table pleine : purge des buckets inactifs, puis éviction arbitraire jusqu'à 90 % de la
+     * capacité si ça ne suffit pas (un bucket évincé repart plein : au pire une rafale de plus).
+     * Un seul thread purge, les autres continuent sans attendre.
+     */
+    private void makeRoom() {
+        if (!sweeping.compareAndSet(false, true)) return;
+        try {
+            sweepIdleUnguarded();
+            int target = properties.getMaxBuckets() * 9 / 10;
+            Iterator<TokenBucket> it = buckets.values().iterator();
+            while (buckets.size() > target && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval-ms:60000}",
+            initialDelayString = "${app.rate-limit.sweep-interval-ms:60000}")
+    void sweepIdle() {
+        if (!sweeping.compareAndSet(false, true)) return;
+        try {
+            sweepIdleUnguarded();
+        } catch (Exception e) {
+            log.warn("Purge rate limit en échec : {}", e.getMessage());
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private void sweepIdleUnguarded() {
+        long now = nanoClock.getAsLong();
+        buckets.values().removeIf(b -> b.isFull(now));
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    private record Route(
+            String keyPrefix,
+            String name,
+            String method,
+            PathPattern pattern,
+            long intervalNanos,
+            long burstNanos,
+            Counter rejected
+    ) {}
+
+    /**
+     * Token bucket sous forme GCRA : tat = instant où le bucket redevient plein.
+     * Une requête consomme 1 jeton (tat += interval) tant que tat - now reste <= capacité * interval.
+     */
+    static final class TokenBucket {
+
+        private final AtomicLong tat;
+
+        TokenBucket(long now) {
+            this.tat = new AtomicLong(now);
+        }
+
+        /**
+         * @return 0 si la requête passe, sinon l'attente (ns) avant le prochain jeton
+         */
+        long tryAcquire(long now, long intervalNanos, long burstNanos) {
+            for (;;) {
+                long current = tat.get();
+                long next = Math.max(current, now) + intervalNanos;
+                long over = next - now - burstNanos;
+                if (over > 0) return over;
+                if (tat.compareAndSet(current, next)) return 0;
+            }
+        }
+
+        boolean isFull(long now) {
+            return tat.get() - now <= 0;
+        }
+    }
+}
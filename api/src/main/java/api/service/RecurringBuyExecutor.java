@@ -0,0 +1,301 @@
+package api.service;
+
+import api.model.RecurringBuy;
+import api.model.Trade;
+import api.model.TradeSide;
+import api.repository.CryptoAssetRepository;
+import common.observability.QueryInspector;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Exécution des achats récurrents (DCA) par batchs.
+ *
+ * Par batch, dans 1 transaction :
+ * - réclame jusqu'à batchSize lignes dues (next_run_at <= NOW(), FOR UPDATE SKIP LOCKED :
+ *   plusieurs instances se partagent le travail sans double exécution) ;
+ * - 1 seul snapshot de prix pour tout le batch ;
+ * - verrouille les positions visées (créées à 0 si absentes), puis 1 UPDATE ensembliste sur users
+ *   (débit du total par utilisateur, tout ou rien), 1 upsert ensembliste sur user_holdings,
+ *   1 UPDATE ensembliste qui replanifie les lignes.
+ * Soit 6 statements par batch quel que soit le nombre d'achats (+1 pour retirer les positions
+ * créées à 0 des utilisateurs non débités).
+ * Une échéance non exécutable (solde, prix) est sautée : motif dans last_status.
+ *
+ * Ordre des verrous identique à TradeService (positions puis solde), chaque ensemble trié
+ * par (user_id, asset_id) / id : pas de deadlock avec les trades ni entre batchs.
+ */
+@Slf4j
+@Service
+@Profile("!datagen")
+public class RecurringBuyExecutor {
+
+    private static final String CLAIM_SQL = """
+        SELECT id, user_id, asset_id, amount
+        FROM recurring_buys
+        WHERE active
+          AND next_run_at <= NOW()
+        ORDER BY next_run_at
+        LIMIT ?
+        FOR UPDATE SKIP LOCKED
+        """;
+
+    // verrous des positions d'abord (comme TradeService.buy/sell), dans l'ordre (user_id, asset_id) ;
+    // position absente : créée à 0 pour que son verrou précède celui du solde
+    private static final String LOCK_HOLDINGS_SQL = """
+        INSERT INTO user_holdings (user_id, asset_id, quantity)
+        SELECT t.user_id, t.asset_id, 0
+        FROM unnest(?::bigint[], ?::bigint[]) AS t(user_id, asset_id)
+        ORDER BY t.user_id, t.asset_id
+        ON CONFLICT (user_id, asset_id)
+        DO UPDATE SET quantity = user_holdings.quantity
+        """;
+
+    // débit du total dû par utilisateur, seulement si le solde couvre tout le batch ;
+    // soldes verrouillés dans l'ordre des id avant l'UPDATE
+    private static final String DEBIT_SQL = """
+        WITH locked AS (
+          SELECT id FROM users WHERE id = ANY(?::bigint[]) ORDER BY id FOR UPDATE
+        )
+        UPDATE users u
+        SET balance = u.balance - t.total
+        FROM unnest(?::bigint[], ?::float8[]) AS t(user_id, total)
+        JOIN locked l ON l.id = t.user_id
+        WHERE u.id = t.user_id
+          AND u.balance >= t.total
+        RETURNING u.id
+        """;
+
+    // (user_id, asset_id) déjà agrégés : ON CONFLICT ne peut pas toucher 2 fois la même ligne
+    private static final String ADD_HOLDINGS_SQL = """
+        INSERT INTO user_holdings (user_id, asset_id, quantity)
+        SELECT * FROM unnest(?::bigint[], ?::bigint[], ?::float8[])
+        ON CONFLICT (user_id, asset_id)
+        DO UPDATE SET quantity = user_holdings.quantity + EXCLUDED.quantity
+        """;
+
+    // positions créées à 0 par LOCK_HOLDINGS_SQL pour des utilisateurs non débités
+    private static final String PURGE_EMPTY_HOLDINGS_SQL = """
+        DELETE FROM user_holdings h
+        USING unnest(?::bigint[], ?::bigint[]) AS t(user_id, asset_id)
+        WHERE h.user_id = t.user_id
+          AND h.asset_id = t.asset_id
+          AND h.quantity = 0
+        """;
+
+    // prochaine échéance dans le futur (les échéances manquées pendant un arrêt ne sont pas rejouées)
+    private static final String RESCHEDULE_SQL = """
+        UPDATE recurring_buys r
+        SET last_run_at = NOW(),
+            last_status = t.status,
+            next_run_at = r.next_run_at + r.interval_seconds * INTERVAL '1 second'
+                * (FLOOR(EXTRACT(EPOCH FROM (NOW() - r.next_run_at)) / r.interval_seconds) + 1)
+        FROM unnest(?::bigint[], ?::text[]) AS t(id, status)
+        WHERE r.id = t.id
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CryptoAssetRepository assetRepository;
+    private final TradeLedgerWriter ledgerWriter;
+    private final LeaderboardService leaderboardService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public RecurringBuyExecutor(
+            JdbcTemplate jdbcTemplate,
+            CryptoAssetRepository assetRepository,
+            TradeLedgerWriter ledgerWriter,
+            LeaderboardService leaderboardService,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.recurring-buys.batch-size:1000}") int batchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.assetRepository = assetRepository;
+        this.ledgerWriter = ledgerWriter;
+        this.leaderboardService = leaderboardService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Exécute toutes les échéances dues, batch après batch.
+     * @return nombre d'achats exécutés
+     */
+    public int runDue() {
+        int executed = 0;
+        while (true) {
+            BatchResult r = transactionTemplate.execute(status -> executeBatch());
+            if (r == null) break;
+            executed += r.executed();
+            if (r.claimed() < batchSize) break;
+        }
+        return executed;
+    }
+
+    private BatchResult executeBatch() {
+        List<Due> due = jdbcTemplate.query(CLAIM_SQL, (rs, i) -> new Due(
+                rs.getLong("id"), rs.getLong("user_id"), rs.getLong("asset_id"), rs.getDouble("amount")
+        ), batchSize);
+        if (due.isEmpty()) return new BatchResult(0, 0);
+
+        Map<Long, Double> prices = new HashMap<>();
+        for (CryptoAssetRepository.PriceRow row : assetRepository.findCurrentPrices()) {
+            prices.put(row.getId(), row.getPrice());
+        }
+
+        // total par utilisateur et positions visées (lignes avec prix uniquement), triés
+        Map<Long, Double> totals = new TreeMap<>();
+        Set<HoldingKey> targets = new TreeSet<>();
+        for (Due d : due) {
+            if (priceOf(prices, d) > 0) {
+                totals.merge(d.userId(), d.amount(), Double::sum);
+                targets.add(new HoldingKey(d.userId(), d.assetId()));
+            }
+        }
+        updateHoldings(LOCK_HOLDINGS_SQL, targets);
+        Set<Long> debited = debit(totals);
+
+        Map<HoldingKey, Double> bought = new TreeMap<>();
+        List<Long> ids = new ArrayList<>(due.size());
+        List<String> statuses = new ArrayList<>(due.size());
+        Instant ts = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        int executed = 0;
+
+        for (Due d : due) {
+            double price = priceOf(prices, d);
+            String status;
+            if (price <= 0) {
+                status = RecurringBuy.PRICE_UNAVAILABLE;
+            } else if (!debited.contains(d.userId())) {
+                status = RecurringBuy.INSUFFICIENT_FUNDS;
+            } else {
+                status = RecurringBuy.EXECUTED;
+                double qty = d.amount() / price;
+                bought.merge(new HoldingKey(d.userId(), d.assetId()), qty, Double::sum);
+                ledgerWriter.appendAfterCommit(Trade.builder()
+                        .userId(d.userId())
+                        .assetId(d.assetId())
+                        .side(TradeSide.BUY)
+                        .quantity(qty)
+                        .price(price)
+                        .ts(ts)
+                        .build());
+                executed++;
+            }
+            ids.add(d.id());
+            statuses.add(status);
+        }
+
+        addHoldings(bought);
+        Set<HoldingKey> unused = new TreeSet<>();
+        for (HoldingKey k : targets) {
+            if (!debited.contains(k.userId())) unused.add(k);
+        }
+        updateHoldings(PURGE_EMPTY_HOLDINGS_SQL, unused);
+        debited.forEach(leaderboardService::markChanged);
+        jdbcTemplate.update(con -> {
+            var ps = con.prepareStatement(RESCHEDULE_SQL);
+            ps.setArray(1, array(con, "bigint", ids.toArray()));
+            ps.setArray(2, array(con, "text", statuses.toArray()));
+            return ps;
+        });
+
+        return new BatchResult(due.size(), executed);
+    }
+
+    private Set<Long> debit(Map<Long, Double> totals) {
+        if (totals.isEmpty()) return Set.of();
+
+        List<Long> debited = jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(DEBIT_SQL);
+            ps.setArray(1, array(con, "bigint", totals.keySet().toArray()));
+            ps.setArray(2, array(con, "bigint", totals.keySet().toArray()));
+            ps.setArray(3, array(con, "float8", totals.values().toArray()));
+            return ps;
+        }, (rs, i) -> rs.getLong(1));
+        return new HashSet<>(debited);
+    }
+
+    // statement sur un ensemble de positions (user_id[], asset_id[]), dans l'ordre du Set
+    private void updateHoldings(String sql, Set<HoldingKey> keys) {
+        if (keys.isEmpty()) return;
+
+        Object[] userIds = keys.stream().map(HoldingKey::userId).toArray();
+        Object[] assetIds = keys.stream().map(HoldingKey::assetId).toArray();
+        jdbcTemplate.update(con -> {
+            var ps = con.prepareStatement(sql);
+            ps.setArray(1, array(con, "bigint", userIds));
+            ps.setArray(2, array(con, "bigint", assetIds));
+            return ps;
+        });
+    }
+
+    private void addHoldings(Map<HoldingKey, Double> bought) {
+        if (bought.isEmpty()) return;
+
+        Object[] userIds = bought.keySet().stream().map(HoldingKey::userId).toArray();
+        Object[] assetIds = bought.keySet().stream().map(HoldingKey::assetId).toArray();
+        jdbcTemplate.update(con -> {
+            var ps = con.prepareStatement(ADD_HOLDINGS_SQL);
+            ps.setArray(1, array(con, "bigint", userIds));
+            ps.setArray(2, array(con, "bigint", assetIds));
+            ps.setArray(3, array(con, "float8", bought.values().toArray()));
+            return ps;
+        });
+    }
+
+    private static double priceOf(Map<Long, Double> prices, Due d) {
+        Double price = prices.get(d.assetId());
+        return price == null ? 0.0 : price;
+    }
+
+    private static Array array(Connection con, String type, Object[] values) throws SQLException {
+        return con.createArrayOf(type, values);
+    }
+
+    // 1er passage un intervalle après le démarrage, comme les suivants
+    @Scheduled(fixedDelayString = "${app.recurring-buys.poll-interval-ms:5000}",
+            initialDelayString = "${app.recurring-buys.poll-interval-ms:5000}")
+    public void scheduledRun() {
+        try (QueryInspector.Scope scope = QueryInspector.open("recurring-buys")) {
+            int executed = runDue();
+            if (executed > 0) {
+                log.info("Achats récurrents : {} exécuté(s).", executed);
+            }
+        } catch (Exception e) {
+            log.error("Erreur exécution des achats récurrents", e);
+        }
+    }
+
+    private record Due(long id, long userId, long assetId, double amount) {}
+
+    private record HoldingKey(long userId, long assetId) implements Comparable<HoldingKey> {
+        @Override
+        public int compareTo(HoldingKey o) {
+            int c = Long.compare(userId, o.userId);
+            return c != 0 ? c : Long.compare(assetId, o.assetId);
+        }
+    }
+
+    private record BatchResult(int claimed, int executed) {}
+}
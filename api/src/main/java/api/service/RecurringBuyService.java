@@ -0,0 +1,92 @@
+package api.service;
+
+import api.dto.CreateRecurringBuyRequest;
+import api.dto.RecurringBuyResponse;
+import api.exception.BusinessException;
+import api.model.CryptoAsset;
+import api.model.RecurringBuy;
+import api.model.RecurringFrequency;
+import api.model.User;
+import api.repository.CryptoAssetRepository;
+import api.repository.RecurringBuyRepository;
+import api.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Achats récurrents (DCA) : création, suppression, consultation.
+ * L'exécution est faite par RecurringBuyExecutor.
+ */
+@Service
+@RequiredArgsConstructor
+public class RecurringBuyService {
+
+    private final UserRepository userRepository;
+    private final CryptoAssetRepository assetRepository;
+    private final RecurringBuyRepository recurringBuyRepository;
+
+    public RecurringBuyResponse create(String username, CreateRecurringBuyRequest req) {
+        if (req.getExternalId() == null || req.getExternalId().isBlank() || req.getFrequency() == null) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "externalId et frequency sont obligatoires.");
+        }
+        if (req.getAmount() == null || req.getAmount() <= 0) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "amount doit être > 0.");
+        }
+
+        User user = getUserOrThrow(username);
+        CryptoAsset asset = assetRepository.findByExternalId(req.getExternalId())
+                .orElseThrow(() -> new IllegalArgumentException("Unknown crypto: " + req.getExternalId()));
+
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        Instant start = req.getStartAt() == null || req.getStartAt().isBefore(now) ? now : req.getStartAt();
+
+        RecurringBuy saved = recurringBuyRepository.save(RecurringBuy.builder()
+                .userId(user.getId())
+                .asset(asset)
+                .amount(req.getAmount())
+                .intervalSeconds(req.getFrequency().seconds())
+                .nextRunAt(start)
+                .active(true)
+                .createdAt(now)
+                .build());
+        return toResponse(saved);
+    }
+
+    public List<RecurringBuyResponse> getRecurringBuys(String username) {
+        User user = getUserOrThrow(username);
+        return recurringBuyRepository.findByUserIdAndActiveTrueOrderByCreatedAtDesc(user.getId())
+                .stream()
+                .map(RecurringBuyService::toResponse)
+                .toList();
+    }
+
+    public void delete(String username, Long id) {
+        User user = getUserOrThrow(username);
+        if (recurringBuyRepository.deleteByIdAndUserId(id, user.getId()) == 0) {
+            throw new BusinessException(HttpStatus.NOT_FOUND, "Achat récurrent introuvable.");
+        }
+    }
+
+    private User getUserOrThrow(String username) {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    }
+
+    private static RecurringBuyResponse toResponse(RecurringBuy r) {
+        RecurringBuyResponse out = new RecurringBuyResponse();
+        out.setId(r.getId());
+        out.setExternalId(r.getAsset().getExternalId());
+        out.setSymbol(r.getAsset().getSymbol());
+        out.setAmount(r.getAmount());
+        out.setFrequency(RecurringFrequency.fromSeconds(r.getIntervalSeconds()).name());
+        out.setNextRunAt(r.getNextRunAt().toEpochMilli());
+        out.setLastRunAt(r.getLastRunAt() == null ? null : r.getLastRunAt().toEpochMilli());
+        out.setLastStatus(r.getLastStatus());
+        return out;
+    }
+}
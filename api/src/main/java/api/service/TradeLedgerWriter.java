@@ -0,0 +1,207 @@
+package api.service;
+
+import api.model.Trade;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Écriture asynchrone du journal des trades (group commit).
+ * Les trades sont mis en file après le commit de la transaction métier, puis insérés
+ * toutes les flushIntervalMs (@Scheduled) par batchs de batchSize lignes.
+ *
+ * Batch en échec (base indisponible...) : conservé et rejoué avec backoff exponentiel.
+ * Chaque trade reçoit un entry_id (UUID) à l'enfilage, cible du ON CONFLICT : un batch rejoué
+ * après un commit incertain n'écrit pas 2 fois la même ligne, et deux trades distincts ne se
+ * confondent jamais (même clé d'idempotence réutilisée, ou sans clé).
+ *
+ * File pleine (base lente ou indisponible) : append() attend jusqu'à offerTimeoutMs, puis
+ * déborde dans une liste écrite en tête du passage suivant. Jamais d'écriture ni d'exception
+ * dans append() : appelé depuis afterCommit, le trade est déjà commité.
+ */
+@Slf4j
+@Component
+@Profile("!datagen")
+public class TradeLedgerWriter {
+
+    private static final String INSERT_SQL = """
+        INSERT INTO trades (user_id, asset_id, side, quantity, price, ts, idempotency_key, entry_id)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+        ON CONFLICT (entry_id) DO NOTHING
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<Trade> queue;
+    // débordement de la file après offerTimeoutMs : non borné, vidé en priorité
+    private final Queue<Trade> overflow = new ConcurrentLinkedQueue<>();
+    private final long flushIntervalMs;
+    private final int batchSize;
+    private final long maxBackoffMs;
+    private final long offerTimeoutMs;
+    private final LongSupplier nanoClock;
+
+    // batch en cours ou en échec, jamais abandonné (accès sous lock)
+    private final List<Trade> pending;
+    private int failures;
+    private long retryAt; // nanoClock, backoff après un échec
+
+    private final ReentrantLock lock = new ReentrantLock(true); // équitable : flush() ne doit pas attendre indéfiniment
+
+    @Autowired
+    public TradeLedgerWriter(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.trades.ledger.flush-interval-ms:50}") long flushIntervalMs,
+            @Value("${app.trades.ledger.batch-size:500}") int batchSize,
+            @Value("${app.trades.ledger.queue-capacity:100000}") int queueCapacity,
+            @Value("${app.trades.ledger.max-backoff-ms:5000}") long maxBackoffMs,
+            @Value("${app.trades.ledger.offer-timeout-ms:1000}") long offerTimeoutMs
+    ) {
+        this(jdbcTemplate, flushIntervalMs, batchSize, queueCapacity, maxBackoffMs, offerTimeoutMs, System::nanoTime);
+    }
+
+    TradeLedgerWriter(
+            JdbcTemplate jdbcTemplate, long flushIntervalMs, int batchSize, int queueCapacity,
+            long maxBackoffMs, long offerTimeoutMs, LongSupplier nanoClock
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.flushIntervalMs = flushIntervalMs;
+        this.batchSize = batchSize;
+        this.maxBackoffMs = maxBackoffMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.nanoClock = nanoClock;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.pending = new ArrayList<>(batchSize);
+    }
+
+    // tâches @Scheduled déjà arrêtées : on vide ce qui reste
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    /**
+     * Enfile le trade une fois la transaction courante commitée (rien si rollback).
+     * Hors transaction : enfile immédiatement.
+     */
+    public void appendAfterCommit(Trade trade) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    append(trade);
+                }
+            });
+        } else {
+            append(trade);
+        }
+    }
+
+    public void append(Trade trade) {
+        if (trade.getEntryId() == null) trade.setEntryId(UUID.randomUUID());
+        if (queue.offer(trade)) return;
+        try {
+            // file pleine : on freine l'appelant le temps qu'un passage la vide
+            if (queue.offer(trade, offerTimeoutMs, TimeUnit.MILLISECONDS)) return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        overflow.add(trade);
+        log.warn("File du journal des trades pleine ({}), trade mis en débordement ({}).", queue.size(), overflow.size());
+    }
+
+    /**
+     * Vide la file immédiatement (tests, arrêt), batch en échec compris.
+     * Attend la fin du passage planifié éventuellement en cours ; une erreur d'écriture
+     * est propagée (le batch reste en attente).
+     */
+    public void flush() {
+        lock.lock();
+        try {
+            do {
+                insertPending();
+            } while (drainToPending() > 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Group commit : tout ce qui est arrivé depuis le passage précédent, par batchs de batchSize.
+     * Échec : batch conservé, passages suivants sautés pendant le backoff.
+     */
+    @Scheduled(fixedDelayString = "${app.trades.ledger.flush-interval-ms:50}")
+    public void scheduledFlush() {
+        lock.lock();
+        try {
+            if (failures > 0 && nanoClock.getAsLong() - retryAt < 0) return;
+            flush();
+        } catch (Exception e) {
+            failures++;
+            long backoffMs = backoffMs(failures);
+            retryAt = nanoClock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(backoffMs);
+            log.error("Erreur écriture batch du journal des trades ({} lignes, essai {}, {} en file) : nouvel essai dans {} ms",
+                    pending.size(), failures, queue.size(), backoffMs, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // débordement d'abord, puis la file, jusqu'à batchSize lignes
+    private int drainToPending() {
+        int drained = 0;
+        Trade t;
+        while (pending.size() < batchSize && (t = overflow.poll()) != null) {
+            pending.add(t);
+            drained++;
+        }
+        return drained + queue.drainTo(pending, batchSize - pending.size());
+    }
+
+    private void insertPending() {
+        insertBatch(pending);
+        pending.clear();
+        if (failures > 0) {
+            log.info("Journal des trades : écriture rétablie après {} échec(s).", failures);
+            failures = 0;
+        }
+    }
+
+    long backoffMs(int failures) {
+        long backoff = flushIntervalMs << Math.min(failures - 1, 20);
+        return Math.min(Math.max(backoff, 1), maxBackoffMs);
+    }
+
+    private void insertBatch(List<Trade> batch) {
+        if (batch.isEmpty()) return;
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, t) -> {
+            ps.setLong(1, t.getUserId());
+            ps.setLong(2, t.getAssetId());
+            ps.setString(3, t.getSide().name());
+            ps.setDouble(4, t.getQuantity());
+            ps.setDouble(5, t.getPrice());
+            ps.setObject(6, t.getTs().atOffset(ZoneOffset.UTC));
+            ps.setString(7, t.getIdempotencyKey());
+            ps.setObject(8, t.getEntryId());
+        });
+    }
+}
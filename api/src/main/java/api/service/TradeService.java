@@ -1,16 +1,26 @@
 package api.service;
 
 import api.dto.HoldingResponse;
+import api.dto.TradePageResponse;
+import api.dto.TradeResponse;
+import api.exception.BusinessException;
 import api.model.CryptoAsset;
+import api.model.Trade;
+import api.model.TradeSide;
 import api.model.User;
-import api.model.UserHolding;
 import api.repository.CryptoAssetRepository;
+import api.repository.TradeRepository;
 import api.repository.UserHoldingRepository;
 import api.repository.UserRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
 import java.util.List;
 
 @Service
@@ -20,12 +30,18 @@ public class TradeService {
     private final UserRepository userRepository;
     private final CryptoAssetRepository assetRepository;
     private final UserHoldingRepository holdingRepository;
+    private final TradeRepository tradeRepository;
+    private final TradeLedgerWriter ledgerWriter;
+    private final LeaderboardService leaderboardService;
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
 
     public List<HoldingResponse> getHoldings(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
-        return holdingRepository.findByUserId(user.getId()).stream().map(h -> {
+        return holdingRepository.findByUserIdWithAsset(user.getId()).stream().map(h -> {
             HoldingResponse r = new HoldingResponse();
             r.setExternalId(h.getAsset().getExternalId());
             r.setName(h.getAsset().getName());
@@ -35,12 +51,23 @@ public class TradeService {
         }).toList();
     }
 
+    /**
+     * Achat au prix courant.
+     * Écritures atomiques (pas de read-modify-write) : 1 upsert sur la position
+     * + 1 UPDATE conditionnel sur le solde (rollback si solde insuffisant).
+     * Ordre des verrous identique à sell() (position puis solde) => pas de deadlock.
+     */
     @Transactional
     public double buy(String username, String externalId, double qty) {
-        if (qty <= 0) throw new IllegalArgumentException("qty must be > 0");
+        return buy(username, externalId, qty, null);
+    }
 
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    /**
+     * @param idempotencyKey clé Idempotency-Key de la requête (nullable), reportée dans le journal
+     */
+    @Transactional
+    public double buy(String username, String externalId, double qty, String idempotencyKey) {
+        if (qty <= 0) throw new IllegalArgumentException("qty must be > 0");
 
         CryptoAsset asset = assetRepository.findByExternalId(externalId)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown crypto: " + externalId));
@@ -48,36 +75,35 @@ public class TradeService {
         double price = asset.getCurrentPrice() == null ? 0.0 : asset.getCurrentPrice();
         if (price <= 0) throw new IllegalArgumentException("Price unavailable");
 
-        double cost = price * qty;
-        if (user.getBalance() < cost) throw new IllegalArgumentException("Solde insuffisant");
+        // holding
+        Long userId = holdingRepository.addQuantity(username, asset.getId(), qty)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
-        // balance
-        user.setBalance(user.getBalance() - cost);
-        userRepository.save(user);
+        // balance (débit seulement si solde suffisant)
+        double cost = price * qty;
+        double balance = userRepository.debitBalanceIfSufficient(userId, cost)
+                .orElseThrow(() -> new IllegalArgumentException("Solde insuffisant"));
 
-        // holding
-        UserHolding holding = holdingRepository
-                .findByUserIdAndAsset_Id(user.getId(), asset.getId())
-                .orElseGet(() -> {
-                    UserHolding h = new UserHolding();
-                    h.setUserId(user.getId());
-                    h.setAsset(asset);
-                    h.setQuantity(0.0);
-                    return h;
-                });
-
-        holding.setQuantity(holding.getQuantity() + qty);
-        holdingRepository.save(holding);
-
-        return user.getBalance();
+        recordTrade(userId, asset.getId(), TradeSide.BUY, qty, price, idempotencyKey);
+        return balance;
     }
 
+    /**
+     * Vente au prix courant.
+     * Écritures atomiques : 1 UPDATE conditionnel sur la position
+     * + 1 statement qui crédite le solde et supprime la position si elle est vide.
+     */
     @Transactional
     public double sell(String username, String externalId, double qty) {
-        if (qty <= 0) throw new IllegalArgumentException("qty must be > 0");
+        return sell(username, externalId, qty, null);
+    }
 
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    /**
+     * @param idempotencyKey clé Idempotency-Key de la requête (nullable), reportée dans le journal
+     */
+    @Transactional
+    public double sell(String username, String externalId, double qty, String idempotencyKey) {
+        if (qty <= 0) throw new IllegalArgumentException("qty must be > 0");
 
         CryptoAsset asset = assetRepository.findByExternalId(externalId)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown crypto: " + externalId));
@@ -85,25 +111,114 @@ public class TradeService {
         double price = asset.getCurrentPrice() == null ? 0.0 : asset.getCurrentPrice();
         if (price <= 0) throw new IllegalArgumentException("Price unavailable");
 
-        UserHolding holding = holdingRepository
-                .findByUserIdAndAsset_Id(user.getId(), asset.getId())
-                .orElseThrow(() -> new IllegalArgumentException("Aucune possession pour cette crypto"));
+        // update holding (décrément seulement si quantité suffisante)
+        UserHoldingRepository.QuantityUpdate removed = holdingRepository
+                .removeQuantityIfSufficient(username, asset.getId(), qty)
+                .orElseThrow(() -> sellRejection(username, asset));
 
-        if (holding.getQuantity() < qty) throw new IllegalArgumentException("Quantité insuffisante");
+        // credit balance (+ purge de la position si elle est vide)
+        double gain = price * qty;
+        double balance = userRepository.creditBalanceAndPurgeHolding(removed.getUserId(), gain, asset.getId())
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
-        // update holding
-        holding.setQuantity(holding.getQuantity() - qty);
-        if (holding.getQuantity() <= 0) {
-            holdingRepository.delete(holding);
+        recordTrade(removed.getUserId(), asset.getId(), TradeSide.SELL, qty, price, idempotencyKey);
+        return balance;
+    }
+
+    /**
+     * Exécution d'un ordre en attente déclenché (OrderMatchingService), au prix du tick.
+     * Doit être appelé dans une transaction : mêmes statements atomiques et même ordre
+     * de verrous que buy()/sell(). Pas d'exception métier (la transaction de batch doit
+     * rester valide) : renvoie false si solde / quantité insuffisants, l'appelant annule
+     * alors les écritures de cet ordre (savepoint).
+     */
+    public boolean fill(Long userId, Long assetId, TradeSide side, double qty, double price) {
+        double amount = price * qty;
+
+        if (side == TradeSide.BUY) {
+            holdingRepository.addQuantityForUser(userId, assetId, qty);
+            if (userRepository.debitBalanceIfSufficient(userId, amount).isEmpty()) return false;
         } else {
-            holdingRepository.save(holding);
+            if (holdingRepository.removeQuantityForUserIfSufficient(userId, assetId, qty).isEmpty()) return false;
+            userRepository.creditBalanceAndPurgeHolding(userId, amount, assetId);
         }
 
-        // credit balance
-        double gain = price * qty;
-        user.setBalance(user.getBalance() + gain);
-        userRepository.save(user);
+        recordTrade(userId, assetId, side, qty, price, null);
+        return true;
+    }
+
+    /**
+     * Historique des trades, du plus récent au plus ancien, paginé par curseur opaque.
+     */
+    public TradePageResponse getTrades(String username, String cursor, Integer limit) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        List<TradeRepository.TradeRow> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = tradeRepository.findFirstPage(username, size);
+        } else {
+            long[] c = decodeCursor(cursor);
+            rows = tradeRepository.findPageBefore(username, c[0], c[1], size);
+        }
+
+        List<TradeResponse> items = rows.stream()
+                .map(r -> new TradeResponse(
+                        r.getId(),
+                        r.getExternalId(),
+                        r.getSymbol(),
+                        r.getSide(),
+                        r.getQuantity(),
+                        r.getPrice(),
+                        r.getTsMicros() / 1000
+                ))
+                .toList();
+
+        String nextCursor = null;
+        if (rows.size() == size) {
+            TradeRepository.TradeRow last = rows.get(rows.size() - 1);
+            nextCursor = encodeCursor(last.getTsMicros(), last.getId());
+        }
+        return new TradePageResponse(items, nextCursor);
+    }
+
+    // Journal append-only : écrit en batch après commit, hors du chemin critique du trade
+    private void recordTrade(
+            Long userId, Long assetId, TradeSide side, double qty, double price, String idempotencyKey
+    ) {
+        leaderboardService.markChanged(userId);
+        ledgerWriter.appendAfterCommit(Trade.builder()
+                .userId(userId)
+                .assetId(assetId)
+                .side(side)
+                .quantity(qty)
+                .price(price)
+                .ts(Instant.now().truncatedTo(ChronoUnit.MICROS)) // précision timestamptz
+                .idempotencyKey(idempotencyKey)
+                .build());
+    }
+
+    private static String encodeCursor(long tsMicros, long id) {
+        String raw = tsMicros + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            return new long[] { Long.parseLong(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)) };
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "Curseur invalide.");
+        }
+    }
+
+    // Chemin d'erreur uniquement : on relit pour renvoyer le bon message
+    private IllegalArgumentException sellRejection(String username, CryptoAsset asset) {
+        User user = userRepository.findByUsername(username).orElse(null);
+        if (user == null) return new IllegalArgumentException("User not found");
 
-        return user.getBalance();
+        return holdingRepository.findByUserIdAndAsset_Id(user.getId(), asset.getId()).isPresent()
+                ? new IllegalArgumentException("Quantité insuffisante")
+                : new IllegalArgumentException("Aucune possession pour cette crypto");
     }
 }
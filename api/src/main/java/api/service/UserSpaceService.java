@@ -17,6 +17,7 @@ public class UserSpaceService {
     private final UserRepository userRepository;
     private final CryptoAssetRepository assetRepository;
     private final UserFavoritesRepository favoritesRepository;
+    private final LeaderboardService leaderboardService;
 
     public User getUserOrThrow(String username) {
         return userRepository.findByUsername(username)
@@ -31,12 +32,13 @@ public class UserSpaceService {
     public double addBalance(String username, double amount) {
         if (amount <= 0) return getBalance(username);
 
-        User u = getUserOrThrow(username);
-        u.setBalance(u.getBalance() + amount);
-        userRepository.save(u);
-        return u.getBalance();
+        UserRepository.BalanceRow credited = userRepository.creditBalanceByUsername(username, amount)
+                .orElseThrow(() -> new IllegalArgumentException("Utilisateur introuvable: " + username));
+        leaderboardService.markChanged(credited.getId());
+        return credited.getBalance();
     }
 
+    @Transactional(readOnly = true)
     public List<String> getFavorites(String username) {
         User u = getUserOrThrow(username);
         return favoritesRepository.findFavoriteExternalIds(u.getId());
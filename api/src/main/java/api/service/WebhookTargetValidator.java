@@ -0,0 +1,93 @@
+package api.service;
+
+import api.exception.BusinessException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+
+/**
+ * Validation des URLs de webhooks saisies par les utilisateurs (anti-SSRF) : http(s) absolue
+ * dont l'hôte ne résout que vers des adresses publiques. Le collector refait la vérification
+ * à chaque connexion (PublicAddressResolverGroup) : un nom qui change de résolution après
+ * l'enregistrement (DNS rebinding) est refusé à l'envoi.
+ */
+@Component
+public class WebhookTargetValidator {
+
+    private final boolean allowPrivateAddresses;
+
+    public WebhookTargetValidator(
+            @Value("${app.webhooks.allow-private-addresses:false}") boolean allowPrivateAddresses
+    ) {
+        this.allowPrivateAddresses = allowPrivateAddresses;
+    }
+
+    /**
+     * @return l'URL normalisée
+     * @throws BusinessException 400 si l'URL est invalide ou vise une adresse interne
+     */
+    public String validate(String url) {
+        if (url == null || url.isBlank() || url.length() > 2048) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "url est obligatoire (2048 caractères max).");
+        }
+        URI uri;
+        try {
+            uri = new URI(url.trim());
+        } catch (URISyntaxException e) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "url invalide.");
+        }
+        String scheme = uri.getScheme();
+        if (uri.getHost() == null || !("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme))) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "url doit être une URL http(s) absolue.");
+        }
+        if (!allowPrivateAddresses) {
+            checkPublic(uri.getHost());
+        }
+        return uri.toString();
+    }
+
+    // toutes les adresses du nom doivent être publiques : pas de repli vers une IP interne
+    private static void checkPublic(String host) {
+        InetAddress[] addresses;
+        try {
+            addresses = InetAddress.getAllByName(host);
+        } catch (UnknownHostException e) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "url : hôte inconnu (" + host + ").");
+        }
+        for (InetAddress a : addresses) {
+            if (!isPublic(a)) {
+                throw new BusinessException(HttpStatus.BAD_REQUEST,
+                        "url : l'hôte doit résoudre vers une adresse publique.");
+            }
+        }
+    }
+
+    /**
+     * false pour loopback, non spécifiée, privée (RFC 1918 : pods et services du cluster),
+     * lien local (dont 169.254.169.254, metadata cloud), multicast, CGNAT 100.64/10,
+     * plages IPv4 réservées et IPv6 ULA fc00::/7. Mêmes règles que le collector.
+     */
+    static boolean isPublic(InetAddress a) {
+        if (a.isAnyLocalAddress() || a.isLoopbackAddress() || a.isLinkLocalAddress()
+                || a.isSiteLocalAddress() || a.isMulticastAddress()) {
+            return false;
+        }
+        byte[] b = a.getAddress();
+        if (a instanceof Inet4Address) {
+            int b0 = b[0] & 0xff;
+            int b1 = b[1] & 0xff;
+            return b0 != 0                                            // 0.0.0.0/8
+                    && !(b0 == 100 && (b1 & 0xc0) == 64)              // 100.64.0.0/10
+                    && !(b0 == 192 && b1 == 0 && (b[2] & 0xff) == 0)  // 192.0.0.0/24
+                    && !(b0 == 198 && (b1 & 0xfe) == 18)              // 198.18.0.0/15
+                    && b0 < 240;                                      // 240.0.0.0/4, broadcast
+        }
+        return (b[0] & 0xfe) != 0xfc;                                 // fc00::/7
+    }
+}
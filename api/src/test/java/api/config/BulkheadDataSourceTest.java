@@ -0,0 +1,88 @@
+package api.config;
+
+import api.service.Bulkhead;
+import api.service.BulkheadFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BulkheadDataSourceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final DataSource target = mock(DataSource.class);
+    private final BulkheadDataSource dataSource = new BulkheadDataSource(target);
+
+    /**
+     * Exécute body dans le compartiment "user" (2 connexions max), via le vrai filtre.
+     */
+    private void insideCompartment(ThrowingRunnable body) throws Exception {
+        Bulkhead user = new Bulkhead("user", 10, 10, 2, 20, registry);
+        BulkheadFilter filter = new BulkheadFilter(
+                List.of(new BulkheadFilter.Route(new PathPatternParser().parse("/api/me/**"), user)),
+                new ObjectMapper());
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/me"), new MockHttpServletResponse(), (req, res) -> {
+            try {
+                body.run();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+
+    @Test
+    void quotaReached_failsFast_andCloseGivesThePermitBack() throws Exception {
+        when(target.getConnection()).thenAnswer(inv -> mock(Connection.class));
+
+        insideCompartment(() -> {
+            Connection c1 = dataSource.getConnection();
+            Connection c2 = dataSource.getConnection();
+            assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+            c1.close();
+            c1.close(); // 2e close : ne rend pas un 2e permis
+            Connection c3 = dataSource.getConnection();
+            assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+            c2.close();
+            c3.close();
+        });
+        assertEquals(2.0, registry.get("api.bulkhead.rejected").tag("resource", "connection").counter().count());
+    }
+
+    @Test
+    void outsideCompartment_noQuota() throws Exception {
+        when(target.getConnection()).thenAnswer(inv -> mock(Connection.class));
+
+        for (int i = 0; i < 5; i++) {
+            assertNotNull(dataSource.getConnection());
+        }
+        verify(target, times(5)).getConnection();
+    }
+
+    @Test
+    void failedAcquisition_releasesThePermit() throws Exception {
+        when(target.getConnection()).thenThrow(new SQLTransientConnectionException("pool vide"));
+
+        insideCompartment(() -> {
+            for (int i = 0; i < 3; i++) {
+                SQLTransientConnectionException ex = assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+                assertEquals("pool vide", ex.getMessage());
+            }
+        });
+    }
+}
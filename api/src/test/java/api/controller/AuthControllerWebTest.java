@@ -5,8 +5,10 @@ import api.dto.AuthResponse;
 import api.dto.LoginRequest;
 import api.dto.RegisterRequest;
 import api.exception.BusinessException;
+import api.service.AccountAvailabilityService;
 import api.service.AuthService;
 import api.service.JwtAuthenticationFilter;
+import api.service.RateLimitFilter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -30,6 +32,7 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -48,23 +51,31 @@ class AuthControllerWebTest {
     @MockBean
     private AuthService authService;
 
+    @MockBean
+    private AccountAvailabilityService availabilityService;
+
     // ✅ Beans requis par SecurityConfig
     @MockBean
     private JwtAuthenticationFilter jwtAuthFilter;
 
+    @MockBean
+    private RateLimitFilter rateLimitFilter;
+
     @MockBean
     private AuthenticationProvider authenticationProvider;
 
     @BeforeEach
     void setup() throws Exception {
         reset(authService);
-        doAnswer((Answer<Void>) invocation -> {
+        Answer<Void> passThrough = invocation -> {
             ServletRequest request = invocation.getArgument(0);
             ServletResponse response = invocation.getArgument(1);
             FilterChain chain = invocation.getArgument(2);
             chain.doFilter(request, response);
             return null;
-        }).when(jwtAuthFilter).doFilter(any(), any(), any());
+        };
+        doAnswer(passThrough).when(jwtAuthFilter).doFilter(any(), any(), any());
+        doAnswer(passThrough).when(rateLimitFilter).doFilter(any(), any(), any());
     }
 
     @Test
@@ -179,4 +190,20 @@ class AuthControllerWebTest {
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isUnauthorized());
     }
+
+    @Test
+    void availability_returnsOnlyRequestedFields() throws Exception {
+        when(availabilityService.isUsernameAvailable("mathys")).thenReturn(false);
+
+        mockMvc.perform(get("/api/auth/availability").param("username", "mathys"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.usernameAvailable").value(false))
+                .andExpect(jsonPath("$.emailAvailable").doesNotExist());
+    }
+
+    @Test
+    void availability_withoutParams_returns400() throws Exception {
+        mockMvc.perform(get("/api/auth/availability"))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -4,6 +4,7 @@ import api.config.SecurityConfig;
 import api.model.CryptoAsset;
 import api.service.CryptoAssetService;
 import api.service.JwtAuthenticationFilter;
+import api.service.RateLimitFilter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
@@ -41,6 +42,9 @@ class CryptoAssetControllerWebTest {
     @MockBean
     private JwtAuthenticationFilter jwtAuthFilter;
 
+    @MockBean
+    private RateLimitFilter rateLimitFilter;
+
     @MockBean
     private AuthenticationProvider authenticationProvider;
 
@@ -48,13 +52,15 @@ class CryptoAssetControllerWebTest {
     void setup() throws Exception {
         // IMPORTANT: un @MockBean de Filter fait "rien" par défaut => ça bloque la chaîne.
         // On le transforme en no-op qui laisse passer.
-        doAnswer((Answer<Void>) invocation -> {
+        Answer<Void> passThrough = invocation -> {
             ServletRequest request = invocation.getArgument(0);
             ServletResponse response = invocation.getArgument(1);
             FilterChain chain = invocation.getArgument(2);
             chain.doFilter(request, response);
             return null;
-        }).when(jwtAuthFilter).doFilter(any(), any(), any());
+        };
+        doAnswer(passThrough).when(jwtAuthFilter).doFilter(any(), any(), any());
+        doAnswer(passThrough).when(rateLimitFilter).doFilter(any(), any(), any());
     }
 
     @Test
@@ -34,5 +34,16 @@ public abstract class AbstractPostgresIT {
         // secret doit être BASE64 sinon Decoders.BASE64.decode() plante
         r.add("jwt.secret", () -> "bXlzZWNyZXRrZXlteXNlY3JldGtleW15c2VjcmV0a2V5"); // "mysecretkeymysecretkeymysecretkey" en base64
         r.add("jwt.expiration", () -> "3600000"); // 1h
+
+        // Workers de fond à l'arrêt : les contextes Spring restent en cache entre classes de test
+        // et partagent la base ; les tests appellent tick() / runDue() eux-mêmes
+        r.add("app.orders.poll-interval-ms", () -> "3600000");
+        r.add("app.recurring-buys.poll-interval-ms", () -> "3600000");
+        r.add("app.leaderboard.refresh-ms", () -> "3600000");
+        r.add("app.alerts.movement.poll-interval-ms", () -> "3600000");
+        r.add("app.alerts.stream.poll-ms", () -> "3600000");
+
+        // Tous les tests MockMvc partagent la même IP : pas de rate limit (couvert par RateLimitFilterTest)
+        r.add("app.rate-limit.enabled", () -> "false");
     }
 }
@@ -0,0 +1,70 @@
+package api.it;
+
+import api.dto.AlertEventDto;
+import api.repository.AlertEventRepository;
+import api.service.AlertEventPublisher;
+import api.service.AlertStreamService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class AlertStreamIT extends AbstractPostgresIT {
+
+    @Autowired private AlertEventPublisher publisher;
+    @Autowired private AlertStreamService streamService;
+    @Autowired private AlertEventRepository eventRepository;
+
+    @AfterEach
+    void cleanup() {
+        eventRepository.deleteAll();
+    }
+
+    @Test
+    void publishedEvents_areDeliveredOnceToConnectedUser() throws Exception {
+        streamService.poll(); // rattrape les événements d'autres tests
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        streamService.register(42L, emitter, null);
+
+        publisher.publish(List.of(
+                new AlertEventPublisher.UserEvent(42L, new AlertEventDto(1L, "PRICE", "HIGH", null, "bitcoin", 250.0, 200.0, 0L)),
+                new AlertEventPublisher.UserEvent(43L, new AlertEventDto(2L, "PRICE", "LOW", null, "bitcoin", 90.0, 100.0, 0L))
+        ));
+
+        assertEquals(2, streamService.poll());
+        awaitSent(emitter, 1);
+        assertTrue(emitter.sent.get(0).contains("event:alert"));
+        assertTrue(emitter.sent.get(0).contains("\"kind\":\"HIGH\""));
+
+        // relecture de la fenêtre de recouvrement : pas de doublon
+        assertEquals(0, streamService.poll());
+        Thread.sleep(100);
+        assertEquals(1, emitter.sent.size());
+    }
+
+    private static void awaitSent(RecordingEmitter emitter, int n) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (emitter.sent.size() < n && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        assertEquals(n, emitter.sent.size());
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+        final List<String> sent = new java.util.concurrent.CopyOnWriteArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            StringBuilder sb = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType d : builder.build()) sb.append(d.getData());
+            sent.add(sb.toString());
+        }
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -28,6 +29,7 @@ class AuthFlowIT extends AbstractPostgresIT {
     @Autowired private MockMvc mockMvc;
     @Autowired private ObjectMapper objectMapper;
     @Autowired private RoleRepository roleRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
 
     @BeforeEach
     void ensureRoleExists() {
@@ -93,6 +95,63 @@ class AuthFlowIT extends AbstractPostgresIT {
 
     }
 
+    @Test
+    void availability_reflectsRegistration_andDuplicateIsRejected() throws Exception {
+        mockMvc.perform(get("/api/auth/availability")
+                        .param("username", "avail_it")
+                        .param("email", "avail_it@test.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.usernameAvailable").value(true))
+                .andExpect(jsonPath("$.emailAvailable").value(true));
+
+        String registerJson = """
+        {
+          "username": "avail_it",
+          "email": "avail_it@test.com",
+          "password": "Password1!"
+        }
+        """;
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(registerJson))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/auth/availability").param("username", "avail_it"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.usernameAvailable").value(false));
+
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(registerJson))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void availability_seesAccountsCreatedOutsideThisInstance() throws Exception {
+        // compte inséré sans passer par l'api (autre réplique, datagen, seed perf) : absent du filtre
+        jdbcTemplate.update("INSERT INTO users (username, email, password, enabled, balance)"
+                + " VALUES ('seeded_it', 'seeded_it@test.com', 'encoded', true, 0)");
+
+        mockMvc.perform(get("/api/auth/availability")
+                        .param("username", "seeded_it")
+                        .param("email", "seeded_it@test.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.usernameAvailable").value(false))
+                .andExpect(jsonPath("$.emailAvailable").value(false));
+
+        // inscription : la contrainte unique tranche
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                        {
+                          "username": "seeded_it",
+                          "email": "other_seeded_it@test.com",
+                          "password": "Password1!"
+                        }
+                        """))
+                .andExpect(status().isConflict());
+    }
+
     @TestConfiguration
     static class TestOnlyControllerConfig {
         @Bean
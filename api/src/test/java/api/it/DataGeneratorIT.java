@@ -0,0 +1,129 @@
+package api.it;
+
+import api.config.DataGenerator;
+import api.config.DataGeneratorProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class DataGeneratorIT extends AbstractPostgresIT {
+
+    @Autowired private DataSource dataSource;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private DataGeneratorProperties props(long seed) {
+        DataGeneratorProperties p = new DataGeneratorProperties();
+        p.setSeed(seed);
+        p.setPrefix("genit");
+        p.setUsers(50);
+        p.setAssets(10);
+        p.setAlertsPerUser(3);
+        p.setFavoritesPerUser(2);
+        p.setHoldingsPerUser(4);
+        p.setHistoryAssets(3);
+        p.setHistoryDays(1);
+        p.setHistoryIntervalMinutes(60);
+        p.setHistoryEnd(Instant.parse("2024-01-01T00:00:00Z"));
+        p.setThreads(2);
+        return p;
+    }
+
+    @AfterEach
+    void cleanup() {
+        // schéma de test généré par Hibernate : pas de ON DELETE CASCADE
+        for (String table : new String[]{"user_roles", "price_alerts", "user_favorites", "user_holdings"}) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE user_id IN (SELECT id FROM users WHERE username LIKE 'genit\\_u%')");
+        }
+        jdbcTemplate.update("DELETE FROM crypto_price_history WHERE asset_id IN"
+                + " (SELECT id FROM crypto_assets WHERE external_id LIKE 'genit-%')");
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE 'genit\\_u%'");
+        jdbcTemplate.update("DELETE FROM crypto_assets WHERE external_id LIKE 'genit-%'");
+    }
+
+    @Test
+    void generate_loadsRequestedVolumes() throws Exception {
+        DataGenerator.Summary summary = new DataGenerator(dataSource, props(42), "hash").generate();
+
+        assertEquals(new DataGenerator.Summary(10, 50, 150, 100, 200, 3 * 24), summary);
+        assertEquals(50, count("SELECT count(*) FROM users WHERE username LIKE 'genit\\_u%'"));
+        assertEquals(50, count("SELECT count(*) FROM user_roles ur JOIN users u ON u.id = ur.user_id"
+                + " JOIN roles r ON r.id = ur.role_id WHERE u.username LIKE 'genit\\_u%' AND r.name = 'ROLE_USER'"));
+        assertEquals(72, count("SELECT count(*) FROM crypto_price_history h JOIN crypto_assets a ON a.id = h.asset_id"
+                + " WHERE a.external_id LIKE 'genit-%'"));
+
+        // dernier point d'historique = prix courant, à history-end
+        Map<String, Object> last = jdbcTemplate.queryForMap(
+                "SELECT a.current_price AS current, h.price AS last, h.ts AS ts FROM crypto_price_history h"
+                        + " JOIN crypto_assets a ON a.id = h.asset_id WHERE a.external_id = 'genit-0'"
+                        + " ORDER BY h.ts DESC LIMIT 1");
+        assertEquals((Double) last.get("current"), (Double) last.get("last"), 0.0);
+        assertEquals(Instant.parse("2024-01-01T00:00:00Z"), ((java.sql.Timestamp) last.get("ts")).toInstant());
+
+        // aucune alerte déclenchable au prix courant
+        assertEquals(0, count("SELECT count(*) FROM price_alerts p JOIN crypto_assets a ON a.id = p.asset_id"
+                + " WHERE a.external_id LIKE 'genit-%'"
+                + " AND (p.threshold_high <= a.current_price OR p.threshold_low >= a.current_price)"));
+    }
+
+    @Test
+    void generate_sameSeed_reproducesSameData() throws Exception {
+        new DataGenerator(dataSource, props(7), "hash").generate();
+        String first = fingerprint();
+
+        // reset = true : le 2e run remplace le 1er au lieu de s'y ajouter
+        new DataGenerator(dataSource, props(7), "hash").generate();
+        assertEquals(first, fingerprint());
+        assertEquals(50, count("SELECT count(*) FROM users WHERE username LIKE 'genit\\_u%'"));
+
+        new DataGenerator(dataSource, props(8), "hash").generate();
+        assertNotEquals(first, fingerprint());
+    }
+
+    @Test
+    void generate_reservesIdsAfterValuesAlreadyDrawn() throws Exception {
+        // inscription en cours : id tiré par nextval, ligne pas encore visible (max(id) ne le voit pas)
+        long drawn = count("SELECT nextval(pg_get_serial_sequence('users', 'id'))");
+
+        new DataGenerator(dataSource, props(42), "hash").generate();
+
+        assertTrue(count("SELECT min(id) FROM users WHERE username LIKE 'genit\\_u%'") > drawn);
+        // les inscriptions suivantes tirent après la plage chargée
+        assertTrue(count("SELECT nextval(pg_get_serial_sequence('users', 'id'))")
+                > count("SELECT max(id) FROM users WHERE username LIKE 'genit\\_u%'"));
+    }
+
+    // contenu indépendant des ids (qui changent d'un run à l'autre)
+    private String fingerprint() {
+        return jdbcTemplate.queryForObject("""
+                SELECT concat_ws('|',
+                  (SELECT string_agg(external_id || ':' || current_price, ',' ORDER BY external_id)
+                     FROM crypto_assets WHERE external_id LIKE 'genit-%'),
+                  (SELECT string_agg(u.username || ':' || u.balance, ',' ORDER BY u.username)
+                     FROM users u WHERE u.username LIKE 'genit\\_u%'),
+                  (SELECT string_agg(u.username || '>' || a.external_id || ':' || coalesce(p.threshold_high::text, '-')
+                       || ':' || coalesce(p.threshold_low::text, '-') || ':' || p.active,
+                       ',' ORDER BY u.username, a.external_id)
+                     FROM price_alerts p JOIN users u ON u.id = p.user_id JOIN crypto_assets a ON a.id = p.asset_id
+                     WHERE u.username LIKE 'genit\\_u%'),
+                  (SELECT string_agg(u.username || '>' || a.external_id || ':' || h.quantity, ',' ORDER BY u.username, a.external_id)
+                     FROM user_holdings h JOIN users u ON u.id = h.user_id JOIN crypto_assets a ON a.id = h.asset_id
+                     WHERE u.username LIKE 'genit\\_u%'),
+                  (SELECT string_agg(a.external_id || '@' || h.ts || ':' || h.price, ',' ORDER BY a.external_id, h.ts)
+                     FROM crypto_price_history h JOIN crypto_assets a ON a.id = h.asset_id
+                     WHERE a.external_id LIKE 'genit-%'))
+                """, String.class);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
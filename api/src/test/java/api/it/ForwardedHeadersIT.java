@@ -0,0 +1,72 @@
+package api.it;
+
+import api.config.RateLimitProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Vrai Tomcat (RemoteIpValve) : le rate limit par IP voit le client derrière l'ingress,
+ * pas l'IP du proxy. Ici le proxy de confiance est la boucle locale (défaut de
+ * server.tomcat.remoteip.internal-proxies), comme l'ingress-nginx en k8s.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+// contexte propre à cette classe : fermé ensuite (pools JDBC) pour ne pas saturer le conteneur partagé
+@DirtiesContext
+class ForwardedHeadersIT extends AbstractPostgresIT {
+
+    private static final int LOGIN_CAPACITY = 3;
+
+    @DynamicPropertySource
+    static void loginBudget(DynamicPropertyRegistry r) {
+        r.add("RATE_LIMIT_LOGIN_CAPACITY", () -> String.valueOf(LOGIN_CAPACITY));
+    }
+
+    @Autowired private TestRestTemplate rest;
+    @Autowired private RateLimitProperties rateLimitProperties;
+
+    // désactivé par AbstractPostgresIT (propriété dynamique prioritaire) : réactivé pour cette classe
+    @BeforeEach
+    void enableRateLimit() {
+        rateLimitProperties.setEnabled(true);
+    }
+
+    @AfterEach
+    void disableRateLimit() {
+        rateLimitProperties.setEnabled(false);
+    }
+
+    @Test
+    void forwardedFor_fromTrustedProxy_givesEachClientItsOwnBucket() {
+        for (int i = 0; i < LOGIN_CAPACITY; i++) {
+            assertNotEquals(429, login("203.0.113.10"));
+        }
+        assertEquals(429, login("203.0.113.10"));
+
+        // même proxy (127.0.0.1), autre client : bucket distinct
+        assertNotEquals(429, login("203.0.113.20"));
+
+        // valeur forgée par le client à gauche, IP réelle ajoutée par le proxy à droite
+        assertEquals(429, login("203.0.113.20, 203.0.113.10"));
+    }
+
+    private int login(String forwardedFor) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Forwarded-For", forwardedFor);
+        return rest.postForEntity("/api/auth/login",
+                new HttpEntity<>("{\"username\":\"nobody\",\"password\":\"wrong\"}", headers), String.class)
+                .getStatusCode().value();
+    }
+}
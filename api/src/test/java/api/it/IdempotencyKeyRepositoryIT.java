@@ -0,0 +1,135 @@
+package api.it;
+
+import api.model.IdempotencyKey;
+import api.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class IdempotencyKeyRepositoryIT extends AbstractPostgresIT {
+
+    @Autowired private IdempotencyKeyRepository repository;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setup() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void claim_isExclusive_untilKeyExpires() {
+        Instant future = Instant.now().plus(1, ChronoUnit.HOURS);
+
+        Optional<Long> first = repository.claim("mathys", "k1", "fp", future);
+        Optional<Long> second = repository.claim("mathys", "k1", "fp", future);
+        Optional<Long> otherUser = repository.claim("alice", "k1", "fp", future);
+
+        assertTrue(first.isPresent());
+        assertTrue(second.isEmpty());
+        assertTrue(otherUser.isPresent());
+
+        repository.complete(first.get(), "{\"balance\":10.0}");
+        IdempotencyKey stored = repository.findByUsernameAndIdemKey("mathys", "k1").orElseThrow();
+        assertEquals(IdempotencyKey.COMPLETED, stored.getStatus());
+        assertEquals("{\"balance\":10.0}", stored.getResponseBody());
+    }
+
+    @Test
+    void claim_reusesExpiredKey_andPurgeRemovesExpiredRows() {
+        Instant past = Instant.now().minus(1, ChronoUnit.HOURS);
+
+        Long expired = repository.claim("mathys", "k1", "old", past).orElseThrow();
+        Long reclaimed = repository.claim("mathys", "k1", "new", Instant.now().plus(1, ChronoUnit.HOURS)).orElseThrow();
+
+        assertEquals(expired, reclaimed);
+        assertEquals("new", repository.findByUsernameAndIdemKey("mathys", "k1").orElseThrow().getFingerprint());
+
+        repository.claim("mathys", "k2", "fp", past);
+        assertEquals(1, repository.purgeExpired());
+        assertEquals(1, repository.count());
+    }
+
+    @Test
+    void claim_rolledBack_leavesKeyAvailable() {
+        Instant future = Instant.now().plus(1, ChronoUnit.HOURS);
+
+        transactionTemplate.executeWithoutResult(tx -> {
+            assertTrue(repository.claim("mathys", "k1", "fp", future).isPresent());
+            tx.setRollbackOnly(); // échec métier : réservation annulée avec le reste
+        });
+
+        assertTrue(repository.findByUsernameAndIdemKey("mathys", "k1").isEmpty());
+        assertTrue(repository.claim("mathys", "k1", "fp", future).isPresent());
+    }
+
+    @Test
+    void claim_waitsForUncommittedOwner_thenSeesCompletedKey() throws Exception {
+        Instant future = Instant.now().plus(1, ChronoUnit.HOURS);
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+
+        CompletableFuture<Void> owner = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(tx -> {
+            Long id = repository.claim("mathys", "k1", "fp", future).orElseThrow();
+            claimed.countDown();
+            await(commit);
+            repository.complete(id, "{\"balance\":10.0}");
+        }));
+        assertTrue(claimed.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Optional<Long>> duplicate = CompletableFuture.supplyAsync(() ->
+                transactionTemplate.execute(tx -> repository.claim("mathys", "k1", "fp", future)));
+        Thread.sleep(200);
+        assertFalse(duplicate.isDone()); // bloqué sur la ligne non commitée
+
+        commit.countDown();
+        owner.get(5, TimeUnit.SECONDS);
+        assertTrue(duplicate.get(5, TimeUnit.SECONDS).isEmpty());
+        assertEquals(IdempotencyKey.COMPLETED,
+                repository.findByUsernameAndIdemKey("mathys", "k1").orElseThrow().getStatus());
+    }
+
+    @Test
+    void claim_lockTimeout_failsInsteadOfWaiting() throws Exception {
+        Instant future = Instant.now().plus(1, ChronoUnit.HOURS);
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> owner = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(tx -> {
+            repository.claim("mathys", "k1", "fp", future).orElseThrow();
+            claimed.countDown();
+            await(release);
+        }));
+        assertTrue(claimed.await(5, TimeUnit.SECONDS));
+
+        try {
+            assertThrows(PessimisticLockingFailureException.class, () -> transactionTemplate.execute(tx -> {
+                repository.setLocalLockTimeout("100ms");
+                return repository.claim("mathys", "k1", "fp", future);
+            }));
+        } finally {
+            release.countDown();
+            owner.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
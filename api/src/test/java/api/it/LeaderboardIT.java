@@ -0,0 +1,112 @@
+package api.it;
+
+import api.dto.LeaderboardEntryResponse;
+import api.model.CryptoAsset;
+import api.model.Role;
+import api.model.User;
+import api.repository.*;
+import api.service.AssetPriceSnapshot;
+import api.service.LeaderboardService;
+import api.service.TradeLedgerWriter;
+import api.service.TradeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class LeaderboardIT extends AbstractPostgresIT {
+
+    @Autowired private LeaderboardService leaderboardService;
+    @Autowired private AssetPriceSnapshot priceSnapshot;
+    @Autowired private TradeService tradeService;
+    @Autowired private TradeLedgerWriter ledgerWriter;
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private RoleRepository roleRepository;
+    @Autowired private CryptoAssetRepository cryptoAssetRepository;
+    @Autowired private UserHoldingRepository userHoldingRepository;
+    @Autowired private TradeRepository tradeRepository;
+    @Autowired private PriceAlertRepository priceAlertRepository;
+
+    private User alice;
+    private User bob;
+    private CryptoAsset asset;
+
+    @BeforeEach
+    void setup() {
+        cleanup();
+
+        Role roleUser = new Role();
+        roleUser.setName("ROLE_USER");
+        roleUser = roleRepository.save(roleUser);
+
+        String uniq = UUID.randomUUID().toString().replace("-", "").substring(0, 10);
+        alice = user("alice_" + uniq, 1000.0, roleUser);
+        bob = user("bob_" + uniq, 800.0, roleUser);
+
+        asset = cryptoAssetRepository.save(CryptoAsset.builder()
+                .externalId("btc_" + uniq)
+                .symbol("BTC")
+                .name("Bitcoin")
+                .currentPrice(100.0)
+                .build());
+
+        priceSnapshot.refresh();
+        leaderboardService.rebuild();
+    }
+
+    @AfterEach
+    void cleanup() {
+        ledgerWriter.flush();
+        tradeRepository.deleteAll();
+        priceAlertRepository.deleteAll();
+        userHoldingRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+        cryptoAssetRepository.deleteAll();
+    }
+
+    @Test
+    void trade_thenPriceMove_updatesRanking() {
+        assertEquals(List.of(alice.getUsername(), bob.getUsername()), usernames(leaderboardService.getTop(10)));
+
+        // achat au prix courant : valeur totale inchangée (800)
+        tradeService.buy(bob.getUsername(), asset.getExternalId(), 5.0);
+        leaderboardService.tick();
+        assertEquals(800.0, leaderboardService.getRank(bob.getUsername()).getTotalValue(), 1e-9);
+
+        // +100% : 300 + 5 x 200 = 1300 => bob passe devant
+        asset.setCurrentPrice(200.0);
+        cryptoAssetRepository.save(asset);
+        priceSnapshot.refresh();
+        leaderboardService.tick();
+
+        LeaderboardEntryResponse first = leaderboardService.getTop(1).get(0);
+        assertEquals(bob.getUsername(), first.getUsername());
+        assertEquals(1300.0, first.getTotalValue(), 1e-9);
+        assertEquals(2, leaderboardService.getRank(alice.getUsername()).getRank());
+    }
+
+    private User user(String username, double balance, Role role) {
+        User u = User.builder()
+                .username(username)
+                .email(username + "@test.com")
+                .password("encoded")
+                .enabled(true)
+                .balance(balance)
+                .build();
+        u.getRoles().add(role);
+        return userRepository.save(u);
+    }
+
+    private static List<String> usernames(List<LeaderboardEntryResponse> entries) {
+        return entries.stream().map(LeaderboardEntryResponse::getUsername).toList();
+    }
+}
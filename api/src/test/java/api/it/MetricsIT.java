@@ -0,0 +1,56 @@
+package api.it;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// export des métriques désactivé par défaut dans les tests Spring Boot ;
+// vrais ports : actuator sur le port de management, absent du port applicatif (routé par l'ingress)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability(tracing = false)
+// contexte propre à cette classe : fermé ensuite (pools JDBC) pour ne pas saturer le conteneur partagé
+@DirtiesContext
+class MetricsIT extends AbstractPostgresIT {
+
+    @Autowired private TestRestTemplate rest;
+    @LocalManagementPort private int managementPort;
+
+    @Test
+    void prometheusEndpoint_onManagementPort_exposesHotPathHistograms() {
+        // 1 requête publique (filtre JWT "none", repository, http.server.requests)
+        assertEquals(200, rest.getForEntity("/api/cryptos", String.class).getStatusCode().value());
+
+        ResponseEntity<String> scrape = rest.getForEntity(management("/actuator/prometheus"), String.class);
+        assertEquals(200, scrape.getStatusCode().value());
+        String body = scrape.getBody();
+        assertTrue(body.contains("http_server_requests_seconds_bucket"));
+        assertTrue(body.contains("uri=\"/api/cryptos\""));
+        assertTrue(body.contains("api_auth_filter_seconds_bucket"));
+        assertTrue(body.contains("spring_data_repository_invocations_seconds_bucket"));
+        assertTrue(body.contains("api_cache_gets_total"));
+        assertTrue(body.contains("application=\"api\""));
+    }
+
+    @Test
+    void actuator_isNotServedOnApplicationPort_exceptProbes() {
+        for (String path : new String[] {"/actuator/prometheus", "/actuator/queries", "/actuator/health"}) {
+            ResponseEntity<String> res = rest.getForEntity(path, String.class);
+            assertNotEquals(200, res.getStatusCode().value(), path);
+        }
+        assertEquals(200, rest.getForEntity("/readyz", String.class).getStatusCode().value());
+        assertEquals(200, rest.getForEntity("/livez", String.class).getStatusCode().value());
+        assertEquals(200, rest.getForEntity(management("/actuator/health/readiness"), String.class)
+                .getStatusCode().value());
+    }
+
+    private String management(String path) {
+        return "http://localhost:" + managementPort + path;
+    }
+}
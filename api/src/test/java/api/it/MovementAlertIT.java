@@ -0,0 +1,146 @@
+package api.it;
+
+import api.dto.CreateMovementAlertRequest;
+import api.dto.MovementAlertResponse;
+import api.exception.BusinessException;
+import api.model.CryptoAsset;
+import api.model.MovementAlertType;
+import api.model.MovementDirection;
+import api.model.Role;
+import api.model.User;
+import api.repository.*;
+import api.service.AlertEventPublisher;
+import api.service.AssetPriceSnapshot;
+import api.service.MovementAlertEvaluator;
+import api.service.MovementAlertService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// sample-ms=0 : chaque tick ajoute un échantillon aux fenêtres
+@SpringBootTest(properties = "app.alerts.movement.sample-ms=0")
+class MovementAlertIT extends AbstractPostgresIT {
+
+    @Autowired private MovementAlertService alertService;
+    @Autowired private MovementAlertEvaluator evaluator;
+    @Autowired private AssetPriceSnapshot priceSnapshot;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private AlertEventPublisher eventPublisher;
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private RoleRepository roleRepository;
+    @Autowired private CryptoAssetRepository cryptoAssetRepository;
+    @Autowired private MovementAlertRepository movementAlertRepository;
+    @Autowired private CryptoPriceHistoryRepository historyRepository;
+
+    private User user;
+    private CryptoAsset asset;
+
+    @BeforeEach
+    void setup() {
+        cleanup();
+
+        Role roleUser = new Role();
+        roleUser.setName("ROLE_USER");
+        roleUser = roleRepository.save(roleUser);
+
+        String uniq = UUID.randomUUID().toString().replace("-", "").substring(0, 10);
+
+        user = User.builder()
+                .username("move_it_" + uniq)
+                .email("move_it_" + uniq + "@test.com")
+                .password("encoded")
+                .enabled(true)
+                .balance(1000.0)
+                .build();
+        user.getRoles().add(roleUser);
+        user = userRepository.save(user);
+
+        asset = cryptoAssetRepository.save(CryptoAsset.builder()
+                .externalId("btc_" + uniq)
+                .symbol("BTC")
+                .name("Bitcoin")
+                .currentPrice(100.0)
+                .build());
+    }
+
+    @AfterEach
+    void cleanup() {
+        movementAlertRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+        cryptoAssetRepository.deleteAll();
+    }
+
+    @Test
+    void percentMove_firesExactlyOnceAcrossEvaluators() {
+        MovementAlertResponse created = alertService.create(user.getUsername(), request(MovementAlertType.PERCENT_MOVE, 5.0, "1h"));
+        assertTrue(created.isArmed());
+
+        // 2e instance : mêmes données, état mémoire séparé
+        MovementAlertEvaluator other = new MovementAlertEvaluator(
+                movementAlertRepository, historyRepository, priceSnapshot, jdbcTemplate, eventPublisher, 0);
+        other.loadAlerts();
+
+        priceSnapshot.refresh();
+        assertTrue(evaluator.tick().isEmpty());
+        assertTrue(other.tick().isEmpty());
+
+        setPrice(110.0);
+        priceSnapshot.refresh();
+        List<MovementAlertEvaluator.Fired> fired = evaluator.tick();
+        assertEquals(1, fired.size());
+        assertEquals(MovementDirection.UP, fired.get(0).direction());
+        assertTrue(other.tick().isEmpty()); // déjà réclamée
+
+        var alert = movementAlertRepository.findById(created.getId()).orElseThrow();
+        assertFalse(alert.isArmed());
+        assertEquals(MovementDirection.UP, alert.getLastDirection());
+        assertNotNull(alert.getLastTriggeredAt());
+    }
+
+    @Test
+    void create_validatesWindowAndPercent() {
+        BusinessException window = assertThrows(BusinessException.class,
+                () -> alertService.create(user.getUsername(), request(MovementAlertType.PERCENT_MOVE, 5.0, "2h")));
+        assertEquals(400, window.getStatus().value());
+
+        assertThrows(BusinessException.class,
+                () -> alertService.create(user.getUsername(), request(MovementAlertType.PERCENT_MOVE, 0.0, "1h")));
+    }
+
+    @Test
+    void delete_otherUsersAlert_isNotFound() {
+        MovementAlertResponse created = alertService.create(user.getUsername(), request(MovementAlertType.MA_CROSS, 1.0, "4h"));
+        assertEquals("4h", alertService.getAlerts(user.getUsername()).get(0).getWindow());
+
+        BusinessException e = assertThrows(BusinessException.class,
+                () -> alertService.delete(user.getUsername(), created.getId() + 1));
+        assertEquals(404, e.getStatus().value());
+
+        alertService.delete(user.getUsername(), created.getId());
+        assertTrue(alertService.getAlerts(user.getUsername()).isEmpty());
+    }
+
+    private CreateMovementAlertRequest request(MovementAlertType type, Double percent, String window) {
+        CreateMovementAlertRequest req = new CreateMovementAlertRequest();
+        req.setExternalId(asset.getExternalId());
+        req.setType(type);
+        req.setPercent(percent);
+        req.setWindow(window);
+        return req;
+    }
+
+    private void setPrice(double price) {
+        asset.setCurrentPrice(price);
+        asset = cryptoAssetRepository.save(asset);
+    }
+}
@@ -0,0 +1,228 @@
+package api.it;
+
+import api.dto.OrderResponse;
+import api.dto.PlaceOrderRequest;
+import api.model.CryptoAsset;
+import api.model.OrderStatus;
+import api.model.OrderType;
+import api.model.Role;
+import api.model.User;
+import api.model.UserHolding;
+import api.repository.*;
+import api.service.OrderMatchingService;
+import api.service.OrderService;
+import api.service.TradeLedgerWriter;
+import api.service.TradeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class OrderMatchingIT extends AbstractPostgresIT {
+
+    @Autowired private OrderService orderService;
+    @Autowired private OrderMatchingService matchingService;
+    @Autowired private TradeLedgerWriter ledgerWriter;
+    @Autowired private TradeService tradeService;
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private RoleRepository roleRepository;
+    @Autowired private CryptoAssetRepository cryptoAssetRepository;
+    @Autowired private UserHoldingRepository userHoldingRepository;
+    @Autowired private TradeRepository tradeRepository;
+    @Autowired private TradeOrderRepository orderRepository;
+    @Autowired private PriceAlertRepository priceAlertRepository;
+
+    private User user;
+    private CryptoAsset asset;
+
+    @BeforeEach
+    void setup() {
+        cleanup();
+
+        Role roleUser = new Role();
+        roleUser.setName("ROLE_USER");
+        roleUser = roleRepository.save(roleUser);
+
+        String uniq = UUID.randomUUID().toString().replace("-", "").substring(0, 10);
+
+        user = User.builder()
+                .username("order_it_" + uniq)
+                .email("order_it_" + uniq + "@test.com")
+                .password("encoded")
+                .enabled(true)
+                .balance(1000.0)
+                .build();
+        user.getRoles().add(roleUser);
+        user = userRepository.save(user);
+
+        asset = cryptoAssetRepository.save(CryptoAsset.builder()
+                .externalId("btc_" + uniq)
+                .symbol("BTC")
+                .name("Bitcoin")
+                .currentPrice(100.0)
+                .build());
+    }
+
+    @AfterEach
+    void cleanup() {
+        ledgerWriter.flush();
+        tradeRepository.deleteAll();
+        orderRepository.deleteAll();
+        priceAlertRepository.deleteAll();
+        userHoldingRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+        cryptoAssetRepository.deleteAll();
+    }
+
+    @Test
+    void limitBuy_fillsOnlyOncePriceReachesTrigger() {
+        OrderResponse placed = orderService.place(user.getUsername(), request(OrderType.LIMIT_BUY, 2.0, 90.0));
+        assertEquals("OPEN", placed.getStatus());
+
+        assertEquals(0, matchingService.tick()); // 100 > 90
+
+        setPrice(85.0);
+        assertEquals(1, matchingService.tick());
+
+        var order = orderRepository.findById(placed.getId()).orElseThrow();
+        assertEquals(OrderStatus.FILLED, order.getStatus());
+        assertEquals(85.0, order.getFillPrice(), 1e-9);
+        assertEquals(1000.0 - 170.0, userRepository.findById(user.getId()).orElseThrow().getBalance(), 1e-9);
+        assertEquals(2.0, holdingQty(), 1e-9);
+
+        ledgerWriter.flush();
+        assertEquals(1, tradeRepository.count());
+
+        assertEquals(0, matchingService.tick()); // plus dans le carnet
+    }
+
+    @Test
+    void stopLoss_sellsHolding_andRejectsWhenQuantityMissing() {
+        UserHolding holding = new UserHolding();
+        holding.setUserId(user.getId());
+        holding.setAsset(asset);
+        holding.setQuantity(1.0);
+        userHoldingRepository.save(holding);
+
+        OrderResponse stop = orderService.place(user.getUsername(), request(OrderType.STOP_LOSS, 1.0, 80.0));
+        OrderResponse tooBig = orderService.place(user.getUsername(), request(OrderType.STOP_LOSS, 5.0, 80.0));
+
+        setPrice(79.0);
+        assertEquals(1, matchingService.tick());
+
+        assertEquals(OrderStatus.FILLED, orderRepository.findById(stop.getId()).orElseThrow().getStatus());
+        assertEquals(OrderStatus.REJECTED, orderRepository.findById(tooBig.getId()).orElseThrow().getStatus());
+        assertEquals(1000.0 + 79.0, userRepository.findById(user.getId()).orElseThrow().getBalance(), 1e-9);
+        assertTrue(userHoldingRepository.findByUserIdAndAsset_Id(user.getId(), asset.getId()).isEmpty());
+    }
+
+    @Test
+    void rejectedBuy_rollsBackItsHoldingUpsert_only() {
+        OrderResponse ok = orderService.place(user.getUsername(), request(OrderType.LIMIT_BUY, 1.0, 90.0));
+        OrderResponse tooExpensive = orderService.place(user.getUsername(), request(OrderType.LIMIT_BUY, 100.0, 90.0));
+
+        setPrice(90.0);
+        assertEquals(1, matchingService.tick());
+
+        assertEquals(OrderStatus.FILLED, orderRepository.findById(ok.getId()).orElseThrow().getStatus());
+        assertEquals(OrderStatus.REJECTED, orderRepository.findById(tooExpensive.getId()).orElseThrow().getStatus());
+        assertEquals(1.0, holdingQty(), 1e-9); // savepoint : l'upsert de l'ordre rejeté est annulé
+        assertEquals(910.0, userRepository.findById(user.getId()).orElseThrow().getBalance(), 1e-9);
+    }
+
+    @Test
+    void cancelledOrder_isNeverFilled() {
+        OrderResponse placed = orderService.place(user.getUsername(), request(OrderType.TAKE_PROFIT, 1.0, 120.0));
+        orderService.cancel(user.getUsername(), placed.getId());
+
+        setPrice(150.0);
+        assertEquals(0, matchingService.tick());
+        assertEquals(OrderStatus.CANCELLED, orderRepository.findById(placed.getId()).orElseThrow().getStatus());
+        assertEquals(1, orderService.getOrders(user.getUsername()).size());
+    }
+
+    @Test
+    void fillBatches_concurrentWithTradesOnSameUsers_doNotDeadlock() throws Exception {
+        CryptoAsset eth = cryptoAssetRepository.save(CryptoAsset.builder()
+                .externalId("eth_" + UUID.randomUUID()).symbol("ETH").name("Ethereum").currentPrice(50.0).build());
+        int users = 20;
+        List<User> owners = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            User u = userRepository.save(User.builder()
+                    .username("fill_mix" + i + "_" + UUID.randomUUID().toString().substring(0, 8))
+                    .email("fill_mix" + i + "_" + UUID.randomUUID().toString().substring(0, 8) + "@test.com")
+                    .password("encoded").enabled(true).balance(1_000_000.0).build());
+            owners.add(u);
+            tradeService.buy(u.getUsername(), asset.getExternalId(), 100.0);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(5);
+        AtomicBoolean stop = new AtomicBoolean();
+        List<Future<?>> traders = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int seed = t;
+            traders.add(pool.submit(() -> {
+                for (int i = seed; !stop.get(); i++) {
+                    User u = owners.get(i % users);
+                    // position puis solde, sur les 2 actifs que le batch touche pour ce même utilisateur
+                    tradeService.sell(u.getUsername(), asset.getExternalId(), 0.01);
+                    tradeService.buy(u.getUsername(), eth.getExternalId(), 0.01);
+                }
+                return null;
+            }));
+        }
+        try {
+            for (int round = 0; round < 5; round++) {
+                for (User u : owners) {
+                    // déclenchés au prix courant : 1 batch de 2 x users ordres, 2 actifs par utilisateur
+                    orderService.place(u.getUsername(), request(OrderType.TAKE_PROFIT, 0.01, 1.0));
+                    orderService.place(u.getUsername(), request(eth, OrderType.LIMIT_BUY, 0.01, 1_000.0));
+                }
+                assertEquals(users * 2, pool.submit(matchingService::tick).get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            stop.set(true);
+            for (Future<?> f : traders) f.get(30, TimeUnit.SECONDS); // DeadlockLoserDataAccessException sinon
+            pool.shutdown();
+        }
+    }
+
+    private PlaceOrderRequest request(OrderType type, double qty, double trigger) {
+        return request(asset, type, qty, trigger);
+    }
+
+    private PlaceOrderRequest request(CryptoAsset asset, OrderType type, double qty, double trigger) {
+        PlaceOrderRequest r = new PlaceOrderRequest();
+        r.setExternalId(asset.getExternalId());
+        r.setType(type);
+        r.setQuantity(qty);
+        r.setTriggerPrice(trigger);
+        return r;
+    }
+
+    private void setPrice(double price) {
+        asset.setCurrentPrice(price);
+        asset = cryptoAssetRepository.save(asset);
+    }
+
+    private double holdingQty() {
+        return userHoldingRepository.findByUserIdAndAsset_Id(user.getId(), asset.getId())
+                .orElseThrow()
+                .getQuantity();
+    }
+}
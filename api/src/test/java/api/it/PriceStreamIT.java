@@ -0,0 +1,69 @@
+package api.it;
+
+import api.model.CryptoAsset;
+import api.repository.CryptoAssetRepository;
+import api.service.AssetPriceSnapshot;
+import api.service.PriceStreamService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PriceStreamIT extends AbstractPostgresIT {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private CryptoAssetRepository cryptoAssetRepository;
+    @Autowired private AssetPriceSnapshot priceSnapshot;
+    @Autowired private PriceStreamService priceStreamService;
+
+    @AfterEach
+    void cleanup() {
+        cryptoAssetRepository.deleteAll();
+    }
+
+    @Test
+    void anonymousClient_receivesSnapshotThenChanges() throws Exception {
+        CryptoAsset asset = cryptoAssetRepository.save(CryptoAsset.builder()
+                .externalId("btc_stream")
+                .symbol("BTC")
+                .name("Bitcoin")
+                .currentPrice(100.0)
+                .build());
+        priceSnapshot.refresh();
+        priceStreamService.tick();
+
+        MvcResult result = mockMvc.perform(get("/api/stream/prices").param("ids", asset.getId().toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MockHttpServletResponse response = result.getResponse();
+        assertTrue(response.getContentType().startsWith("text/event-stream"));
+
+        awaitContent(response, "\"price\":100.0");
+
+        asset.setCurrentPrice(105.0);
+        cryptoAssetRepository.save(asset);
+        priceSnapshot.refresh();
+        priceStreamService.tick();
+
+        awaitContent(response, "\"price\":105.0");
+        assertTrue(response.getContentAsString().contains("event:prices"));
+    }
+
+    private static void awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!response.getContentAsString().contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(response.getContentAsString().contains(expected), response.getContentAsString());
+    }
+}
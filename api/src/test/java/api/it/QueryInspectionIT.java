@@ -0,0 +1,127 @@
+package api.it;
+
+import api.model.CryptoAsset;
+import api.model.UserHolding;
+import api.repository.CryptoAssetRepository;
+import api.repository.UserHoldingRepository;
+import common.observability.QueryInspector;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// slow-query-ms=0 : chaque statement est une "requête lente" (buffer non vide) ;
+// actuator sur le port MockMvc (pas de port de management séparé sans serveur)
+@SpringBootTest(properties = {
+        "app.query-inspection.slow-query-ms=0",
+        "management.server.port="
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class QueryInspectionIT extends AbstractPostgresIT {
+
+    private static final int HOLDINGS = 8;
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private QueryInspector inspector;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private CryptoAssetRepository assetRepository;
+    @Autowired private UserHoldingRepository holdingRepository;
+
+    private final long userId = 9_000_000L + (System.nanoTime() % 1_000_000L);
+    private final List<CryptoAsset> assets = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        inspector.clear();
+        String uniq = UUID.randomUUID().toString().replace("-", "").substring(0, 10);
+        for (int i = 0; i < HOLDINGS; i++) {
+            CryptoAsset asset = assetRepository.save(CryptoAsset.builder()
+                    .externalId("qi_" + uniq + "_" + i).symbol("Q" + i).name("Query " + i).currentPrice(1.0 + i)
+                    .build());
+            assets.add(asset);
+            UserHolding h = new UserHolding();
+            h.setUserId(userId);
+            h.setAsset(asset);
+            h.setQuantity(1.0);
+            holdingRepository.save(h);
+        }
+    }
+
+    @AfterEach
+    void cleanup() {
+        holdingRepository.deleteAll(holdingRepository.findByUserId(userId));
+        assetRepository.deleteAll(assets);
+    }
+
+    @Test
+    void lazyLoadsInLoop_areReportedAsRepeatedSelect() {
+        try (QueryInspector.Scope scope = QueryInspector.open("test.lazy-assets")) {
+            transactionTemplate.executeWithoutResult(tx -> {
+                // N+1 volontaire : 1 SELECT des positions + 1 SELECT crypto_assets par position
+                for (UserHolding h : holdingRepository.findByUserId(userId)) {
+                    assertNotNull(h.getAsset().getName());
+                }
+            });
+        }
+
+        QueryInspector.RepeatedSelect finding = inspector.repeatedSelects().stream()
+                .filter(r -> r.scope().equals("test.lazy-assets"))
+                .findFirst().orElseThrow();
+        assertEquals(HOLDINGS, finding.executions());
+        assertTrue(finding.sql().contains("crypto_assets"), finding.sql());
+        assertEquals(1, finding.firstBinds().size()); // id de l'asset
+
+        assertEquals(1.0, meterRegistry.get("api.db.n_plus_one").tag("scope", "test.lazy-assets").counter().count());
+        assertEquals(1 + HOLDINGS, meterRegistry.get("api.db.statements").tag("scope", "test.lazy-assets").summary().max());
+    }
+
+    @Test
+    void fetchJoin_staysUnderThreshold() {
+        try (QueryInspector.Scope scope = QueryInspector.open("test.fetch-join")) {
+            transactionTemplate.executeWithoutResult(tx -> holdingRepository.findByUserIdWithAsset(userId)
+                    .forEach(h -> assertNotNull(h.getAsset().getName())));
+        }
+
+        assertTrue(inspector.repeatedSelects().stream().noneMatch(r -> r.scope().equals("test.fetch-join")));
+        assertEquals(1.0, meterRegistry.get("api.db.statements").tag("scope", "test.fetch-join").summary().max());
+    }
+
+    @Test
+    void httpRequest_isScopedByRoute_andQueriesEndpointIsAdminOnly() throws Exception {
+        mockMvc.perform(get("/api/cryptos")).andExpect(status().isOk());
+        assertTrue(meterRegistry.get("api.db.statements").tag("scope", "GET /api/cryptos").summary().count() >= 1);
+
+        mockMvc.perform(get("/actuator/queries")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/queries").with(user("mathys").roles("USER"))).andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/actuator/queries").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.slowQueryMs").value(0))
+                .andExpect(jsonPath("$.slowQueries.length()", greaterThanOrEqualTo(1)))
+                .andExpect(jsonPath("$.slowQueries[*].scope", hasItem("GET /api/cryptos")));
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(content().string(containsString("api_db_queries_seconds_bucket")))
+                .andExpect(content().string(containsString("table=\"crypto_assets\"")));
+    }
+}
@@ -0,0 +1,114 @@
+package api.it;
+
+import api.config.ReplicaLagMonitor;
+import api.config.ReplicaRoutingDataSource;
+import api.model.CryptoAsset;
+import api.repository.CryptoAssetRepository;
+import api.service.CryptoAssetService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 2e conteneur Postgres en guise de réplique (pas de réplication : schéma bd/init.sql,
+ * données distinctes) -> on voit directement quelle base sert chaque lecture.
+ */
+@SpringBootTest
+class ReadReplicaIT extends AbstractPostgresIT {
+
+    static final PostgreSQLContainer<?> REPLICA =
+            new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("replicadb")
+                    .withUsername("test")
+                    .withPassword("test");
+
+    @BeforeAll
+    static void startReplica() throws Exception {
+        REPLICA.start();
+        // schéma avant le démarrage du contexte : les workers lisent déjà via la réplique
+        replicaJdbc().execute(Files.readString(Path.of("../bd/init.sql")));
+    }
+
+    static JdbcTemplate replicaJdbc() {
+        return new JdbcTemplate(new DriverManagerDataSource(
+                REPLICA.getJdbcUrl(), REPLICA.getUsername(), REPLICA.getPassword()));
+    }
+
+    @DynamicPropertySource
+    static void registerReplica(DynamicPropertyRegistry r) {
+        r.add("app.datasource.replica.enabled", () -> "true");
+        r.add("app.datasource.replica.url", REPLICA::getJdbcUrl);
+        r.add("app.datasource.replica.username", REPLICA::getUsername);
+        r.add("app.datasource.replica.password", REPLICA::getPassword);
+        r.add("app.datasource.replica.check-interval-ms", () -> "3600000");
+    }
+
+    @Autowired private CryptoAssetService cryptoAssetService; // @Transactional(readOnly = true)
+    @Autowired private CryptoAssetRepository cryptoAssetRepository;
+    @Autowired private JdbcTemplate jdbcTemplate; // hors transaction -> primaire
+    @Autowired private ReplicaRoutingDataSource routing;
+    @Autowired private ReplicaLagMonitor lagMonitor;
+
+    private JdbcTemplate replicaJdbc;
+    private String replicaOnly;
+
+    @BeforeEach
+    void insertReplicaOnlyAsset() {
+        replicaJdbc = replicaJdbc();
+        replicaOnly = "replica-" + UUID.randomUUID();
+        replicaJdbc.update("INSERT INTO crypto_assets (external_id, symbol, name, current_price) VALUES (?, 'rep', 'Replica', 1.0)",
+                replicaOnly);
+    }
+
+    @AfterEach
+    void restoreRouting() {
+        lagMonitor.check();
+    }
+
+    @Test
+    void readOnlyTransactions_areServedByTheReplica() {
+        assertTrue(routing.isReplicaUsable());
+
+        assertTrue(cryptoAssetService.getByExternalID(replicaOnly).isPresent());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM crypto_assets WHERE external_id = ?", Integer.class, replicaOnly));
+
+        // lecture forcée sur le primaire
+        assertTrue(ReplicaRoutingDataSource.onPrimary(() -> cryptoAssetService.getByExternalID(replicaOnly)).isEmpty());
+    }
+
+    @Test
+    void writes_goToThePrimary() {
+        String id = "primary-" + UUID.randomUUID();
+        cryptoAssetRepository.save(CryptoAsset.builder().externalId(id).symbol("pri").name("Primary").currentPrice(2.0).build());
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM crypto_assets WHERE external_id = ?", Integer.class, id));
+        assertEquals(0, replicaJdbc.queryForObject(
+                "SELECT count(*) FROM crypto_assets WHERE external_id = ?", Integer.class, id));
+    }
+
+    @Test
+    void unusableReplica_fallsBackToPrimary_untilNextCheck() {
+        routing.setReplicaUsable(false);
+        assertTrue(cryptoAssetService.getByExternalID(replicaOnly).isEmpty());
+
+        lagMonitor.check(); // réplique à jour (pas en recovery : retard 0)
+        assertTrue(routing.isReplicaUsable());
+        assertTrue(cryptoAssetService.getByExternalID(replicaOnly).isPresent());
+    }
+}
@@ -0,0 +1,227 @@
+package api.it;
+
+import api.dto.CreateRecurringBuyRequest;
+import api.dto.RecurringBuyResponse;
+import api.model.CryptoAsset;
+import api.model.RecurringBuy;
+import api.model.RecurringFrequency;
+import api.model.User;
+import api.repository.*;
+import api.service.RecurringBuyExecutor;
+import api.service.RecurringBuyService;
+import api.service.TradeLedgerWriter;
+import api.service.TradeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.recurring-buys.batch-size=500")
+class RecurringBuyIT extends AbstractPostgresIT {
+
+    @Autowired private RecurringBuyExecutor executor;
+    @Autowired private RecurringBuyService recurringBuyService;
+    @Autowired private TradeService tradeService;
+    @Autowired private TradeLedgerWriter ledgerWriter;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private RoleRepository roleRepository;
+    @Autowired private CryptoAssetRepository cryptoAssetRepository;
+    @Autowired private UserHoldingRepository userHoldingRepository;
+    @Autowired private TradeRepository tradeRepository;
+    @Autowired private TradeOrderRepository orderRepository;
+    @Autowired private RecurringBuyRepository recurringBuyRepository;
+    @Autowired private PriceAlertRepository priceAlertRepository;
+
+    private CryptoAsset btc;
+    private CryptoAsset eth;
+
+    @BeforeEach
+    void setup() {
+        cleanup();
+
+        String uniq = UUID.randomUUID().toString().replace("-", "").substring(0, 10);
+        btc = cryptoAssetRepository.save(CryptoAsset.builder()
+                .externalId("btc_" + uniq).symbol("BTC").name("Bitcoin").currentPrice(50.0).build());
+        eth = cryptoAssetRepository.save(CryptoAsset.builder()
+                .externalId("eth_" + uniq).symbol("ETH").name("Ethereum").currentPrice(25.0).build());
+    }
+
+    @AfterEach
+    void cleanup() {
+        ledgerWriter.flush();
+        tradeRepository.deleteAll();
+        recurringBuyRepository.deleteAll();
+        orderRepository.deleteAll();
+        priceAlertRepository.deleteAll();
+        userHoldingRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+        cryptoAssetRepository.deleteAll();
+    }
+
+    @Test
+    void runDue_executesThousandsOfSchedulesInBatches() {
+        int users = 1_000;
+        int perUser = 5; // 5 000 échéances dues, 10 batchs de 500
+
+        jdbcTemplate.update("""
+            INSERT INTO users (username, email, password, enabled, balance)
+            SELECT 'dca_' || g, 'dca_' || g || '@test.com', 'encoded', true, 1000
+            FROM generate_series(1, ?) g
+            """, users);
+        jdbcTemplate.update("""
+            INSERT INTO recurring_buys (user_id, asset_id, amount, interval_seconds, next_run_at, active, created_at)
+            SELECT u.id, CASE WHEN k % 2 = 0 THEN ? ELSE ? END, 10, 86400, NOW() - INTERVAL '1 minute', true, NOW()
+            FROM users u CROSS JOIN generate_series(1, ?) k
+            """, btc.getId(), eth.getId(), perUser);
+
+        long start = System.nanoTime();
+        int executed = executor.runDue();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertEquals(users * perUser, executed);
+        assertTrue(elapsed.toSeconds() < 30, "trop lent : " + elapsed);
+
+        // 5 x 10 débités par utilisateur
+        Double minBalance = jdbcTemplate.queryForObject("SELECT MIN(balance) FROM users", Double.class);
+        Double maxBalance = jdbcTemplate.queryForObject("SELECT MAX(balance) FROM users", Double.class);
+        assertEquals(950.0, minBalance, 1e-9);
+        assertEquals(950.0, maxBalance, 1e-9);
+
+        // positions agrégées : 2 x 10/50 BTC, 3 x 10/25 ETH
+        assertEquals(users * 2L, userHoldingRepository.count());
+        Double btcQty = jdbcTemplate.queryForObject(
+                "SELECT SUM(quantity) FROM user_holdings WHERE asset_id = ?", Double.class, btc.getId());
+        assertEquals(users * 2 * 0.2, btcQty, 1e-6);
+
+        // toutes replanifiées à J+1
+        Long stillDue = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM recurring_buys WHERE next_run_at <= NOW()", Long.class);
+        assertEquals(0L, stillDue);
+        assertEquals(0, executor.runDue());
+
+        ledgerWriter.flush();
+        assertEquals(users * perUser, tradeRepository.count());
+    }
+
+    @Test
+    void runDue_skipsUserWithoutEnoughBalance_andPriceUnavailable() {
+        User poor = userRepository.save(user("poor", 15.0));
+        User rich = userRepository.save(user("rich", 100.0));
+        CryptoAsset noPrice = cryptoAssetRepository.save(CryptoAsset.builder()
+                .externalId("noprice_" + UUID.randomUUID()).symbol("NP").name("No price").build());
+
+        // le solde de poor couvre 1 achat mais pas les 2 : tout ou rien sur le batch
+        insertDue(poor, btc, 10.0);
+        insertDue(poor, eth, 10.0);
+        insertDue(rich, btc, 10.0);
+        insertDue(rich, noPrice, 10.0);
+
+        assertEquals(1, executor.runDue());
+
+        assertEquals(15.0, userRepository.findById(poor.getId()).orElseThrow().getBalance(), 1e-9);
+        assertTrue(userHoldingRepository.findByUserId(poor.getId()).isEmpty()); // positions verrouillées à 0 retirées
+        assertEquals(90.0, userRepository.findById(rich.getId()).orElseThrow().getBalance(), 1e-9);
+
+        List<String> poorStatuses = jdbcTemplate.queryForList(
+                "SELECT last_status FROM recurring_buys WHERE user_id = ?", String.class, poor.getId());
+        assertEquals(List.of(RecurringBuy.INSUFFICIENT_FUNDS, RecurringBuy.INSUFFICIENT_FUNDS), poorStatuses);
+        String noPriceStatus = jdbcTemplate.queryForObject(
+                "SELECT last_status FROM recurring_buys WHERE asset_id = ?", String.class, noPrice.getId());
+        assertEquals(RecurringBuy.PRICE_UNAVAILABLE, noPriceStatus);
+    }
+
+    @Test
+    void runDue_concurrentWithTradesOnSameUsers_doesNotDeadlock() throws Exception {
+        int users = 50;
+        List<User> owners = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            User u = userRepository.save(user("mix" + i, 1_000_000.0));
+            owners.add(u);
+            tradeService.buy(u.getUsername(), btc.getExternalId(), 100.0);
+            insertDue(u, btc, 10.0);
+            insertDue(u, eth, 10.0);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(5);
+        AtomicBoolean stop = new AtomicBoolean();
+        List<Future<?>> traders = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int seed = t;
+            traders.add(pool.submit(() -> {
+                for (int i = seed; !stop.get(); i++) {
+                    User u = owners.get(i % users);
+                    // positions (BTC existante, ETH créée par le batch) puis solde, comme le batch
+                    tradeService.sell(u.getUsername(), btc.getExternalId(), 0.01);
+                    tradeService.buy(u.getUsername(), eth.getExternalId(), 0.01);
+                }
+                return null;
+            }));
+        }
+        try {
+            for (int round = 0; round < 10; round++) {
+                jdbcTemplate.update("UPDATE recurring_buys SET next_run_at = NOW() - INTERVAL '1 minute'");
+                assertEquals(users * 2, pool.submit(executor::runDue).get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            stop.set(true);
+            for (Future<?> f : traders) f.get(30, TimeUnit.SECONDS); // DeadlockLoserDataAccessException sinon
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void service_createsListsAndDeletesSchedules() {
+        User user = userRepository.save(user("owner", 100.0));
+
+        CreateRecurringBuyRequest req = new CreateRecurringBuyRequest();
+        req.setExternalId(btc.getExternalId());
+        req.setAmount(50.0);
+        req.setFrequency(RecurringFrequency.WEEKLY);
+        req.setStartAt(Instant.now().plus(Duration.ofDays(1)));
+
+        RecurringBuyResponse created = recurringBuyService.create(user.getUsername(), req);
+        assertEquals("WEEKLY", created.getFrequency());
+
+        assertEquals(0, executor.runDue()); // pas encore dû
+        assertEquals(1, recurringBuyService.getRecurringBuys(user.getUsername()).size());
+
+        recurringBuyService.delete(user.getUsername(), created.getId());
+        assertTrue(recurringBuyService.getRecurringBuys(user.getUsername()).isEmpty());
+    }
+
+    private void insertDue(User user, CryptoAsset asset, double amount) {
+        jdbcTemplate.update("""
+            INSERT INTO recurring_buys (user_id, asset_id, amount, interval_seconds, next_run_at, active, created_at)
+            VALUES (?, ?, ?, 86400, NOW() - INTERVAL '1 minute', true, NOW())
+            """, user.getId(), asset.getId(), amount);
+    }
+
+    private static User user(String prefix, double balance) {
+        String uniq = UUID.randomUUID().toString().replace("-", "").substring(0, 10);
+        return User.builder()
+                .username(prefix + "_" + uniq)
+                .email(prefix + "_" + uniq + "@test.com")
+                .password("encoded")
+                .enabled(true)
+                .balance(balance)
+                .build();
+    }
+}
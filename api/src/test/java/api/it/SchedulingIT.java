@@ -0,0 +1,52 @@
+package api.it;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskHolder;
+import org.springframework.scheduling.support.ScheduledMethodRunnable;
+
+import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class SchedulingIT extends AbstractPostgresIT {
+
+    private static final Set<String> WORKERS = Set.of(
+            "TradeLedgerWriter.scheduledFlush",
+            "RecurringBuyExecutor.scheduledRun",
+            "OrderMatchingService.scheduledTick",
+            "AssetPriceSnapshot.scheduledRefresh",
+            "LeaderboardService.scheduledTick",
+            "MovementAlertEvaluator.scheduledTick",
+            "AlertStreamService.scheduledPoll",
+            "PriceStreamService.scheduledTick",
+            "AccountAvailabilityService.scheduledRebuild",
+            "IdempotencyService.purgeExpired",
+            "RateLimitFilter.sweepIdle"
+    );
+
+    @Autowired private ScheduledTaskHolder scheduledTasks;
+    @Autowired private ThreadPoolTaskScheduler taskScheduler;
+
+    @Test
+    void backgroundWorkers_areScheduledOnSharedScheduler_withAThreadEach() {
+        Set<String> scheduled = scheduledTasks.getScheduledTasks().stream()
+                .map(t -> t.getTask().getRunnable())
+                .filter(ScheduledMethodRunnable.class::isInstance)
+                .map(r -> name(((ScheduledMethodRunnable) r).getMethod()))
+                .collect(Collectors.toSet());
+
+        assertTrue(scheduled.containsAll(WORKERS), scheduled.toString());
+        // une tâche lente (reconstruction du classement...) ne retarde pas les autres
+        assertTrue(taskScheduler.getScheduledThreadPoolExecutor().getCorePoolSize() >= WORKERS.size());
+    }
+
+    private static String name(Method m) {
+        return m.getDeclaringClass().getSimpleName() + "." + m.getName();
+    }
+}
@@ -0,0 +1,110 @@
+package api.it;
+
+import api.repository.CryptoAssetRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// échantillonnage à 100 % et export fichier (FileSpanExporter) : spans relus depuis le JSON ;
+// actuator sur le port MockMvc (pas de port de management séparé sans serveur)
+@SpringBootTest(properties = {
+        "management.tracing.sampling.probability=1.0",
+        "app.tracing.file.enabled=true",
+        "management.server.port="
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+// contexte propre à cette classe : fermé ensuite (pools JDBC) pour ne pas saturer le conteneur partagé
+@DirtiesContext
+class TracingIT extends AbstractPostgresIT {
+
+    private static final Path SPANS;
+
+    static {
+        try {
+            SPANS = Files.createTempFile("spans", ".jsonl");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void spansFile(DynamicPropertyRegistry r) {
+        r.add("app.tracing.file.path", SPANS::toString);
+    }
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private SdkTracerProvider tracerProvider;
+    @Autowired private CryptoAssetRepository assetRepository;
+    @Autowired private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void flushPrevious() throws IOException {
+        exported();
+        Files.write(SPANS, new byte[0]);
+    }
+
+    @Test
+    void httpRequest_hasJdbcChildSpansInSameTrace() throws Exception {
+        mockMvc.perform(get("/api/cryptos")).andExpect(status().isOk());
+
+        List<JsonNode> spans = exported();
+        JsonNode http = spans.stream()
+                .filter(s -> "SERVER".equals(s.get("kind").asText()))
+                .filter(s -> s.get("attributes").path("uri").asText().equals("/api/cryptos"))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("pas de span HTTP pour /api/cryptos : " + spans));
+        String traceId = http.get("traceId").asText();
+
+        assertTrue(spans.stream().anyMatch(s -> "query".equals(s.get("name").asText())
+                        && traceId.equals(s.get("traceId").asText())),
+                "pas de span JDBC dans la trace de la requête : " + spans);
+        assertEquals("api", http.get("service").asText());
+    }
+
+    @Test
+    void jdbcOutsideObservation_isNotTraced() throws Exception {
+        assetRepository.count();
+
+        // workers @Scheduled éventuels : spans JDBC sous leur tick, jamais en racine
+        assertTrue(exported().stream().noneMatch(s -> "query".equals(s.get("name").asText())
+                && !s.has("parentSpanId")));
+    }
+
+    @Test
+    void actuatorScrape_isNotTraced() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+
+        assertTrue(exported().stream().noneMatch(s -> "SERVER".equals(s.get("kind").asText())));
+    }
+
+    private List<JsonNode> exported() throws IOException {
+        tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+        List<JsonNode> spans = new ArrayList<>();
+        for (String line : Files.readAllLines(SPANS)) {
+            if (!line.isBlank()) spans.add(objectMapper.readTree(line));
+        }
+        return spans;
+    }
+}
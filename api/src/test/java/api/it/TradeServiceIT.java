@@ -4,13 +4,27 @@ import api.model.CryptoAsset;
 import api.model.Role;
 import api.model.User;
 import api.repository.*;
+import api.dto.TradePageResponse;
+import api.service.IdempotencyService;
+import api.service.TradeLedgerWriter;
 import api.service.TradeService;
+import api.service.UserSpaceService;
+import com.fasterxml.jackson.core.type.TypeReference;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -18,11 +32,17 @@ import static org.junit.jupiter.api.Assertions.*;
 class TradeServiceIT extends AbstractPostgresIT {
 
     @Autowired private TradeService tradeService;
+    @Autowired private UserSpaceService userSpaceService;
+    @Autowired private TradeLedgerWriter ledgerWriter;
+    @Autowired private IdempotencyService idempotencyService;
+
+    private static final TypeReference<Map<String, Double>> BALANCE = new TypeReference<>() {};
 
     @Autowired private UserRepository userRepository;
     @Autowired private RoleRepository roleRepository;
     @Autowired private CryptoAssetRepository cryptoAssetRepository;
     @Autowired private UserHoldingRepository userHoldingRepository;
+    @Autowired private TradeRepository tradeRepository;
 
     // ✅ important pour éviter la violation FK sur crypto_assets
     @Autowired private PriceAlertRepository priceAlertRepository;
@@ -33,6 +53,8 @@ class TradeServiceIT extends AbstractPostgresIT {
     @BeforeEach
     void setup() {
         // ✅ Nettoyage dans l’ordre FK (children -> parents)
+        ledgerWriter.flush();
+        tradeRepository.deleteAll();
         priceAlertRepository.deleteAll();
         userHoldingRepository.deleteAll();
         userRepository.deleteAll();
@@ -64,6 +86,27 @@ class TradeServiceIT extends AbstractPostgresIT {
         asset = cryptoAssetRepository.save(asset);
     }
 
+    @Test
+    void idempotentBuy_failingAfterTrade_rollsBackTrade_andRetryBuysOnce() {
+        String key = "idem-" + UUID.randomUUID();
+        String request = "POST /api/me/trade/buy/" + asset.getExternalId() + " qty=1.0";
+
+        // échec après les écritures métier (ex : écriture de la réponse) : tout est annulé
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute(
+                user.getUsername(), key, request, BALANCE, () -> {
+                    tradeService.buy(user.getUsername(), asset.getExternalId(), 1.0, key);
+                    throw new IllegalStateException("boom");
+                }));
+        assertEquals(1000.0, userRepository.findById(user.getId()).orElseThrow().getBalance(), 0.0001);
+        assertTrue(userHoldingRepository.findByUserId(user.getId()).isEmpty());
+
+        for (int i = 0; i < 2; i++) {
+            idempotencyService.execute(user.getUsername(), key, request, BALANCE, () ->
+                    Map.of("balance", tradeService.buy(user.getUsername(), asset.getExternalId(), 1.0, key)));
+        }
+        assertEquals(900.0, userRepository.findById(user.getId()).orElseThrow().getBalance(), 0.0001);
+    }
+
     @Test
     void buy_shouldCreateHolding_andDecreaseBalance() {
         double qty = 2.0;
@@ -93,4 +136,149 @@ class TradeServiceIT extends AbstractPostgresIT {
         assertTrue(holdings.isEmpty());
     }
 
-}
\ No newline at end of file
+    @Test
+    void trades_shouldBeJournaled_andPaginatedByCursor() {
+        tradeService.buy(user.getUsername(), asset.getExternalId(), 1.0);
+        tradeService.buy(user.getUsername(), asset.getExternalId(), 2.0);
+        tradeService.sell(user.getUsername(), asset.getExternalId(), 1.5);
+
+        // solde insuffisant => rollback => pas de ligne dans le journal
+        assertThrows(IllegalArgumentException.class,
+                () -> tradeService.buy(user.getUsername(), asset.getExternalId(), 1_000.0));
+
+        ledgerWriter.flush();
+
+        TradePageResponse first = tradeService.getTrades(user.getUsername(), null, 2);
+        assertEquals(2, first.getItems().size());
+        assertEquals("SELL", first.getItems().get(0).getSide());
+        assertEquals(1.5, first.getItems().get(0).getQuantity(), 0.0001);
+        assertEquals(100.0, first.getItems().get(0).getPrice(), 0.0001);
+        assertEquals(asset.getExternalId(), first.getItems().get(0).getExternalId());
+        assertEquals("BUY", first.getItems().get(1).getSide());
+        assertEquals(2.0, first.getItems().get(1).getQuantity(), 0.0001);
+        assertNotNull(first.getNextCursor());
+
+        TradePageResponse second = tradeService.getTrades(user.getUsername(), first.getNextCursor(), 2);
+        assertEquals(1, second.getItems().size());
+        assertEquals(1.0, second.getItems().get(0).getQuantity(), 0.0001);
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void trades_withReusedIdempotencyKey_areAllJournaled() {
+        // clé expirée puis réutilisée par le client, ou trades sans clé : lignes distinctes
+        String key = "reused-" + UUID.randomUUID();
+        tradeService.buy(user.getUsername(), asset.getExternalId(), 1.0, key);
+        tradeService.buy(user.getUsername(), asset.getExternalId(), 1.0, key);
+        tradeService.buy(user.getUsername(), asset.getExternalId(), 1.0);
+        tradeService.buy(user.getUsername(), asset.getExternalId(), 1.0);
+
+        ledgerWriter.flush();
+
+        assertEquals(4, tradeService.getTrades(user.getUsername(), null, 10).getItems().size());
+    }
+
+    @Test
+    void concurrentBuys_shouldNotLoseUpdates() throws Exception {
+        int trades = 400;
+
+        runConcurrently(trades, () -> tradeService.buy(user.getUsername(), asset.getExternalId(), 0.01));
+
+        // 400 * 0.01 * 100 = 400 débités
+        User refreshed = userRepository.findById(user.getId()).orElseThrow();
+        assertEquals(1000.0 - 400.0, refreshed.getBalance(), 0.0001);
+
+        var holdings = userHoldingRepository.findByUserId(user.getId());
+        assertEquals(1, holdings.size());
+        assertEquals(trades * 0.01, holdings.get(0).getQuantity(), 0.0001);
+
+        ledgerWriter.flush();
+        assertEquals(trades, tradeRepository.count());
+    }
+
+    @Test
+    void concurrentDepositsAndBuys_shouldNotLoseUpdates() throws Exception {
+        int ops = 400;
+        AtomicInteger counter = new AtomicInteger();
+
+        runConcurrently(ops, () -> {
+            if (counter.getAndIncrement() % 2 == 0) {
+                userSpaceService.addBalance(user.getUsername(), 10.0);
+            } else {
+                tradeService.buy(user.getUsername(), asset.getExternalId(), 0.01);
+            }
+        });
+
+        // 200 dépôts de 10, 200 achats de 1
+        User refreshed = userRepository.findById(user.getId()).orElseThrow();
+        assertEquals(1000.0 + 2000.0 - 200.0, refreshed.getBalance(), 0.0001);
+    }
+
+    @Test
+    void concurrentBuysAndSells_shouldKeepBalanceAndHoldingConsistent() throws Exception {
+        tradeService.buy(user.getUsername(), asset.getExternalId(), 5.0); // balance 500
+
+        int trades = 400;
+        AtomicInteger counter = new AtomicInteger();
+
+        runConcurrently(trades, () -> {
+            if (counter.getAndIncrement() % 2 == 0) {
+                tradeService.buy(user.getUsername(), asset.getExternalId(), 0.01);
+            } else {
+                tradeService.sell(user.getUsername(), asset.getExternalId(), 0.01);
+            }
+        });
+
+        // autant d'achats que de ventes au même prix => état initial
+        User refreshed = userRepository.findById(user.getId()).orElseThrow();
+        assertEquals(500.0, refreshed.getBalance(), 0.0001);
+
+        var holdings = userHoldingRepository.findByUserId(user.getId());
+        assertEquals(1, holdings.size());
+        assertEquals(5.0, holdings.get(0).getQuantity(), 0.0001);
+    }
+
+    @Test
+    void concurrentBuys_shouldNeverOverdrawBalance() throws Exception {
+        int trades = 300; // 300 achats de 10 pour un solde de 1000 => 100 seulement passent
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(trades, () -> {
+            try {
+                tradeService.buy(user.getUsername(), asset.getExternalId(), 0.1);
+            } catch (IllegalArgumentException e) {
+                assertEquals("Solde insuffisant", e.getMessage());
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(trades - 100, rejected.get());
+
+        User refreshed = userRepository.findById(user.getId()).orElseThrow();
+        assertEquals(0.0, refreshed.getBalance(), 0.0001);
+
+        var holdings = userHoldingRepository.findByUserId(user.getId());
+        assertEquals(10.0, holdings.get(0).getQuantity(), 0.0001);
+    }
+
+    private void runConcurrently(int tasks, Runnable action) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(tasks);
+        try {
+            for (int i = 0; i < tasks; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    action.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package api.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AlertStreamServiceTest {
+
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\d+)");
+
+    private AlertStreamService service;
+
+    @BeforeEach
+    void setup() {
+        // envoi synchrone
+        service = new AlertStreamService(mock(JdbcTemplate.class), Runnable::run, 5_000, 3, 60_000, 60_000);
+    }
+
+    @Test
+    void dispatch_deliversOnlyToThatUser_onAllConnections() {
+        RecordingEmitter a1 = new RecordingEmitter();
+        RecordingEmitter a2 = new RecordingEmitter();
+        RecordingEmitter b = new RecordingEmitter();
+        service.register(1L, a1, null);
+        service.register(1L, a2, null);
+        service.register(2L, b, null);
+
+        service.dispatch(event(10, 1L));
+
+        assertEquals(List.of(10L), a1.ids());
+        assertEquals(List.of(10L), a2.ids());
+        assertTrue(b.ids().isEmpty());
+    }
+
+    @Test
+    void reconnect_withLastEventId_replaysMissedEvents() {
+        service.dispatch(event(10, 1L));
+        service.dispatch(event(11, 2L));
+        service.dispatch(event(12, 1L));
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.register(1L, emitter, 10L);
+
+        assertEquals(List.of(12L), emitter.ids());
+    }
+
+    @Test
+    void replayBuffer_isBounded() {
+        for (int i = 1; i <= 5; i++) service.dispatch(event(i, 1L));
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.register(1L, emitter, 0L);
+
+        // replay-size = 3 : seuls les 3 derniers sont encore disponibles
+        assertEquals(List.of(3L, 4L, 5L), emitter.ids());
+    }
+
+    @Test
+    void failedSend_unregistersSubscriber() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.register(1L, emitter, null);
+        emitter.fail = true;
+
+        service.dispatch(event(10, 1L));
+
+        assertEquals(0, service.subscriberCount());
+    }
+
+    // --------------------------------------------------------------------
+    // Helpers
+    // --------------------------------------------------------------------
+
+    private static AlertStreamService.Event event(long id, long userId) {
+        return new AlertStreamService.Event(id, userId, "{\"alertId\":" + id + "}", Instant.now());
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+        final List<String> sent = new ArrayList<>();
+        boolean fail;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (fail) throw new IOException("broken pipe");
+            StringBuilder sb = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType d : builder.build()) sb.append(d.getData());
+            sent.add(sb.toString());
+        }
+
+        List<Long> ids() {
+            List<Long> out = new ArrayList<>();
+            for (String s : sent) {
+                Matcher m = EVENT_ID.matcher(s);
+                if (m.find()) out.add(Long.parseLong(m.group(1)));
+            }
+            return out;
+        }
+    }
+}
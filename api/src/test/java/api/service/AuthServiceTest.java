@@ -15,6 +15,7 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -35,6 +36,7 @@ class AuthServiceTest {
     @Mock PasswordEncoder passwordEncoder;
     @Mock JwtService jwtService;
     @Mock AuthenticationManager authenticationManager;
+    @Mock AccountAvailabilityService availabilityService;
 
     @InjectMocks AuthService authService;
 
@@ -48,8 +50,8 @@ class AuthServiceTest {
                 .password("Password1!")
                 .build();
 
-        when(userRepository.existsByUsername("mathys")).thenReturn(false);
-        when(userRepository.existsByEmail("mathys@test.com")).thenReturn(false);
+        when(availabilityService.isUsernameTaken("mathys")).thenReturn(false);
+        when(availabilityService.isEmailTaken("mathys@test.com")).thenReturn(false);
 
         when(passwordEncoder.encode("Password1!")).thenReturn("ENC(Password1!)");
 
@@ -79,22 +81,48 @@ class AuthServiceTest {
         assertTrue(saved.getRoles().contains(roleUser));
 
         verify(jwtService).generateToken(any(User.class));
+        verify(availabilityService).recordAccount("mathys", "mathys@test.com");
     }
 
     @Test
-    void register_usernameAlreadyTaken_throwsBusinessException409() {
+    void register_uniqueViolationOnSave_throwsBusinessException409() {
         RegisterRequest req = RegisterRequest.builder()
                 .username("mathys")
                 .email("mathys@test.com")
                 .password("Password1!")
                 .build();
 
+        // filtre en mémoire pas encore au courant (autre réplique) : la contrainte unique tranche
+        when(availabilityService.isUsernameTaken("mathys")).thenReturn(false);
+        when(availabilityService.isEmailTaken("mathys@test.com")).thenReturn(false);
+        when(passwordEncoder.encode(anyString())).thenReturn("ENC");
+        Role roleUser = mock(Role.class);
+        when(roleRepository.findByName("ROLE_USER")).thenReturn(Optional.of(roleUser));
+        when(userRepository.save(any())).thenThrow(new DataIntegrityViolationException("users_username_key"));
         when(userRepository.existsByUsername("mathys")).thenReturn(true);
 
         BusinessException ex = assertThrows(BusinessException.class, () -> authService.register(req));
         assertEquals(HttpStatus.CONFLICT, ex.getStatus());
         assertEquals("Ce nom d'utilisateur est déjà pris.", ex.getMessage());
 
+        verify(availabilityService).recordAccount("mathys", "mathys@test.com");
+        verify(jwtService, never()).generateToken(any());
+    }
+
+    @Test
+    void register_usernameAlreadyTaken_throwsBusinessException409() {
+        RegisterRequest req = RegisterRequest.builder()
+                .username("mathys")
+                .email("mathys@test.com")
+                .password("Password1!")
+                .build();
+
+        when(availabilityService.isUsernameTaken("mathys")).thenReturn(true);
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> authService.register(req));
+        assertEquals(HttpStatus.CONFLICT, ex.getStatus());
+        assertEquals("Ce nom d'utilisateur est déjà pris.", ex.getMessage());
+
         verify(userRepository, never()).save(any());
         verify(jwtService, never()).generateToken(any());
     }
@@ -107,8 +135,8 @@ class AuthServiceTest {
                 .password("Password1!")
                 .build();
 
-        when(userRepository.existsByUsername("mathys")).thenReturn(false);
-        when(userRepository.existsByEmail("mathys@test.com")).thenReturn(true);
+        when(availabilityService.isUsernameTaken("mathys")).thenReturn(false);
+        when(availabilityService.isEmailTaken("mathys@test.com")).thenReturn(true);
 
         BusinessException ex = assertThrows(BusinessException.class, () -> authService.register(req));
         assertEquals(HttpStatus.CONFLICT, ex.getStatus());
@@ -126,8 +154,8 @@ class AuthServiceTest {
                 .password("Password1!")
                 .build();
 
-        when(userRepository.existsByUsername("mathys")).thenReturn(false);
-        when(userRepository.existsByEmail("mathys@test.com")).thenReturn(false);
+        when(availabilityService.isUsernameTaken("mathys")).thenReturn(false);
+        when(availabilityService.isEmailTaken("mathys@test.com")).thenReturn(false);
         when(passwordEncoder.encode(anyString())).thenReturn("ENC");
         when(roleRepository.findByName("ROLE_USER")).thenReturn(Optional.empty());
 
@@ -0,0 +1,100 @@
+package api.service;
+
+import api.exception.BusinessException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void cleanup() {
+        if (encoder != null) encoder.shutdown();
+    }
+
+    @Test
+    void encodeAndMatches_delegateToBcrypt() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 2, 4, 5_000, registry);
+
+        String hash = encoder.encode("Password1!");
+
+        assertTrue(encoder.matches("Password1!", hash));
+        assertFalse(encoder.matches("wrong", hash));
+    }
+
+    @Test
+    void saturatedPool_rejectsImmediatelyWith503() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slow = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence raw) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "ENC(" + raw + ")";
+            }
+
+            @Override
+            public boolean matches(CharSequence raw, String encoded) {
+                return encoded.equals(encode(raw));
+            }
+        };
+        encoder = new BoundedPasswordEncoder(slow, 1, 1, 5_000, registry);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        // laisse le 2e s'installer dans la file (1 place)
+        while (registry.get("api.auth.hashing.queue").gauge().value() < 1) Thread.sleep(5);
+
+        long t0 = System.nanoTime();
+        BusinessException ex = assertThrows(BusinessException.class, () -> encoder.encode("c"));
+        assertTrue(System.nanoTime() - t0 < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatus());
+        assertEquals(1.0, registry.get("api.auth.hashing.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("ENC(a)", running.get(5, TimeUnit.SECONDS));
+        assertEquals("ENC(b)", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void waitTimeout_givesUpWith503() {
+        PasswordEncoder stuck = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence raw) {
+                try {
+                    Thread.sleep(5_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "x";
+            }
+
+            @Override
+            public boolean matches(CharSequence raw, String encoded) {
+                return false;
+            }
+        };
+        encoder = new BoundedPasswordEncoder(stuck, 1, 1, 50, registry);
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> encoder.encode("a"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatus());
+    }
+}
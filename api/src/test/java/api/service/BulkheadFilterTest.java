@@ -0,0 +1,90 @@
+package api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Bulkhead user = new Bulkhead("user", 1, 20, 0, 0, registry);
+    private final Bulkhead market = new Bulkhead("public", 1, 20, 0, 0, registry);
+    private final PathPatternParser parser = new PathPatternParser();
+    private final BulkheadFilter filter = new BulkheadFilter(List.of(
+            new BulkheadFilter.Route(parser.parse("/api/me/**"), user),
+            new BulkheadFilter.Route(parser.parse("/api/cryptos/**"), market)
+    ), new ObjectMapper());
+
+    private MockHttpServletResponse call(String uri, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", uri), response, chain);
+        return response;
+    }
+
+    @Test
+    void fullCompartment_rejectsWith503_withoutAffectingTheOther() throws Exception {
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<MockHttpServletResponse> busy = CompletableFuture.supplyAsync(() -> {
+            try {
+                return call("/api/me/trades", (req, res) -> {
+                    inside.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(inside.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse rejected = call("/api/me", new MockFilterChain());
+        assertEquals(503, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertEquals(1.0, registry.get("api.bulkhead.rejected")
+                .tag("compartment", "user").tag("resource", "request").counter().count());
+
+        // l'autre compartiment reste disponible
+        assertEquals(200, call("/api/cryptos", new MockFilterChain()).getStatus());
+
+        release.countDown();
+        assertEquals(200, busy.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(200, call("/api/me", new MockFilterChain()).getStatus());
+    }
+
+    @Test
+    void compartmentIsVisibleDownstream_andClearedAfterwards() throws Exception {
+        AtomicReference<Bulkhead> seen = new AtomicReference<>();
+
+        call("/api/me/orders", (req, res) -> seen.set(Bulkhead.current()));
+
+        assertSame(user, seen.get());
+        assertNull(Bulkhead.current());
+    }
+
+    @Test
+    void unmatchedPath_isNotLimited() throws Exception {
+        AtomicReference<Bulkhead> seen = new AtomicReference<>(market);
+
+        MockHttpServletResponse response = call("/api/auth/login", (req, res) -> seen.set(Bulkhead.current()));
+
+        assertEquals(200, response.getStatus());
+        assertNull(seen.get());
+    }
+}
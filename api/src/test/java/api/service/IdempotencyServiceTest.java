@@ -0,0 +1,246 @@
+package api.service;
+
+import api.exception.BusinessException;
+import api.model.IdempotencyKey;
+import api.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceTest {
+
+    private static final TypeReference<Map<String, Double>> TYPE = new TypeReference<>() {};
+
+    private IdempotencyKeyRepository repository;
+    private PlatformTransactionManager transactionManager;
+    private IdempotencyService service;
+
+    @BeforeEach
+    void setup() {
+        repository = mock(IdempotencyKeyRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(repository.claim(anyString(), anyString(), anyString(), any())).thenReturn(Optional.of(1L));
+        service = new IdempotencyService(repository, transactionManager, new ObjectMapper(), 24, 2_000, 1_000, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void execute_withoutKey_runsActionEachTime() {
+        AtomicInteger calls = new AtomicInteger();
+
+        service.execute("mathys", null, "req", TYPE, () -> Map.of("balance", (double) calls.incrementAndGet()));
+        service.execute("mathys", " ", "req", TYPE, () -> Map.of("balance", (double) calls.incrementAndGet()));
+
+        assertEquals(2, calls.get());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void execute_replayReturnsStoredResponse_withoutRunningActionAgain() {
+        AtomicInteger calls = new AtomicInteger();
+
+        Map<String, Double> first = service.execute("mathys", "k1", "req", TYPE, () -> {
+            calls.incrementAndGet();
+            return Map.of("balance", 150.0);
+        });
+        Map<String, Double> replay = service.execute("mathys", "k1", "req", TYPE, () -> {
+            calls.incrementAndGet();
+            return Map.of("balance", 999.0);
+        });
+
+        assertEquals(1, calls.get());
+        assertEquals(150.0, first.get("balance"));
+        assertEquals(150.0, replay.get("balance"));
+        verify(repository).complete(1L, "{\"balance\":150.0}");
+    }
+
+    @Test
+    void execute_keysAreScopedPerUser() {
+        AtomicInteger calls = new AtomicInteger();
+
+        service.execute("alice", "k1", "req", TYPE, () -> Map.of("balance", (double) calls.incrementAndGet()));
+        service.execute("bob", "k1", "req", TYPE, () -> Map.of("balance", (double) calls.incrementAndGet()));
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void execute_inFlightDuplicateWaitsForFirstExecution() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Map<String, Double>> first = CompletableFuture.supplyAsync(() ->
+                service.execute("mathys", "k1", "req", TYPE, () -> {
+                    calls.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return Map.of("balance", 42.0);
+                }));
+
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+
+        CompletableFuture<Map<String, Double>> duplicate = CompletableFuture.supplyAsync(() ->
+                service.execute("mathys", "k1", "req", TYPE, () -> {
+                    calls.incrementAndGet();
+                    return Map.of("balance", -1.0);
+                }));
+
+        Thread.sleep(100);
+        assertFalse(duplicate.isDone()); // bloqué sur la 1re exécution
+        release.countDown();
+
+        assertEquals(42.0, first.get(2, TimeUnit.SECONDS).get("balance"));
+        assertEquals(42.0, duplicate.get(2, TimeUnit.SECONDS).get("balance"));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void execute_sameKeyDifferentRequest_returns422() {
+        service.execute("mathys", "k1", "buy qty=1", TYPE, () -> Map.of("balance", 1.0));
+
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> service.execute("mathys", "k1", "buy qty=2", TYPE, () -> Map.of("balance", 2.0)));
+
+        assertEquals(422, ex.getStatus().value());
+    }
+
+    @Test
+    void execute_claimsRunsAndCompletesInOneTransaction() {
+        Runnable action = mock(Runnable.class);
+
+        service.execute("mathys", "k1", "req", TYPE, () -> {
+            action.run();
+            return Map.of("balance", 1.0);
+        });
+
+        InOrder order = inOrder(transactionManager, repository, action);
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(repository).claim(eq("mathys"), eq("k1"), anyString(), any());
+        order.verify(action).run();
+        order.verify(repository).complete(1L, "{\"balance\":1.0}");
+        order.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void execute_failureRollsBackClaim_soRetryRunsAgain() {
+        IllegalArgumentException boom = new IllegalArgumentException("Solde insuffisant");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.execute("mathys", "k1", "req", TYPE, () -> { throw boom; }));
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+
+        Map<String, Double> retry = service.execute("mathys", "k1", "req", TYPE, () -> Map.of("balance", 5.0));
+        assertEquals(5.0, retry.get("balance"));
+    }
+
+    @Test
+    void execute_completeFailureAfterAction_rollsBackBusinessWrites() {
+        // écritures métier et réponse dans la même transaction : rien n'est commité
+        when(repository.complete(anyLong(), anyString()))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> service.execute("mathys", "k1", "req", TYPE, () -> Map.of("balance", (double) calls.incrementAndGet())));
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+
+        Map<String, Double> retry = service.execute("mathys", "k1", "req", TYPE, () -> Map.of("balance", (double) calls.incrementAndGet()));
+        assertEquals(2.0, retry.get("balance"));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void execute_keyLockedByAnotherTransaction_returns409AfterLockTimeout() {
+        when(repository.claim(anyString(), anyString(), anyString(), any()))
+                .thenThrow(new CannotAcquireLockException("lock_timeout"));
+
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> service.execute("mathys", "k1", "req", TYPE, () -> fail("ne doit pas être exécuté")));
+
+        assertEquals(409, ex.getStatus().value());
+        verify(repository).setLocalLockTimeout("2000ms");
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void execute_keyAlreadyCompletedInDatabase_replaysStoredResponse() {
+        IdempotencyKey stored = new IdempotencyKey();
+        stored.setStatus(IdempotencyKey.COMPLETED);
+        stored.setResponseBody("{\"balance\":77.0}");
+        stored.setFingerprint(sha256Of("req"));
+
+        when(repository.claim(anyString(), anyString(), anyString(), any())).thenReturn(Optional.empty());
+        when(repository.findByUsernameAndIdemKey("mathys", "k1")).thenReturn(Optional.of(stored));
+
+        Map<String, Double> out = service.execute("mathys", "k1", "req", TYPE, () -> fail("ne doit pas être rejoué"));
+
+        assertEquals(77.0, out.get("balance"));
+    }
+
+    @Test
+    void execute_keyInProgressOnAnotherInstance_timesOutWith409() {
+        service = new IdempotencyService(repository, transactionManager, new ObjectMapper(), 24, 150, 1_000, new SimpleMeterRegistry());
+
+        IdempotencyKey stored = new IdempotencyKey();
+        stored.setStatus(IdempotencyKey.IN_PROGRESS);
+        stored.setFingerprint(sha256Of("req"));
+
+        when(repository.claim(anyString(), anyString(), anyString(), any())).thenReturn(Optional.empty());
+        when(repository.findByUsernameAndIdemKey("mathys", "k1")).thenReturn(Optional.of(stored));
+
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> service.execute("mathys", "k1", "req", TYPE, () -> Map.of("balance", 1.0)));
+
+        assertEquals(409, ex.getStatus().value());
+        verify(repository, never()).complete(anyLong(), anyString());
+    }
+
+    @Test
+    void execute_rejectsTooLongKey() {
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> service.execute("mathys", "k".repeat(101), "req", TYPE, () -> Map.of("balance", 1.0)));
+
+        assertEquals(400, ex.getStatus().value());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String sha256Of(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtAuthenticationFilterTest {
+
+    private final UserDetails user = User.withUsername("mathys").password("x").authorities("ROLE_USER").build();
+
+    private SimpleMeterRegistry registry;
+    private JwtService jwtService;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setup() {
+        jwtService = new JwtService();
+        String secret = Base64.getEncoder().encodeToString("0123456789ABCDEF0123456789ABCDEF".getBytes(StandardCharsets.UTF_8));
+        ReflectionTestUtils.setField(jwtService, "secretKey", secret);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 60_000L);
+
+        registry = new SimpleMeterRegistry();
+        filter = new JwtAuthenticationFilter(jwtService, username -> {
+            if (!username.equals("mathys")) throw new UsernameNotFoundException(username);
+            return user;
+        }, registry);
+    }
+
+    @AfterEach
+    void cleanup() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private MockFilterChain run(String authorization) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/me/portfolio");
+        if (authorization != null) request.addHeader("Authorization", authorization);
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return chain;
+    }
+
+    private long count(String outcome) {
+        return registry.get("api.auth.filter").tag("outcome", outcome).timer().count();
+    }
+
+    @Test
+    void validToken_authenticates_andRecordsOutcome() throws Exception {
+        MockFilterChain chain = run("Bearer " + jwtService.generateToken(user));
+
+        assertNotNull(chain.getRequest());
+        assertEquals("mathys", SecurityContextHolder.getContext().getAuthentication().getName());
+        assertEquals(1, count("authenticated"));
+    }
+
+    @Test
+    void eachOutcome_isTimed_andChainAlwaysContinues() throws Exception {
+        UserDetails ghost = User.withUsername("ghost").password("x").authorities("ROLE_USER").build();
+
+        assertNotNull(run(null).getRequest());
+        assertNotNull(run("Bearer pas-un-jwt").getRequest());
+        assertNotNull(run("Bearer " + jwtService.generateToken(ghost)).getRequest());
+
+        assertEquals(1, count("none"));
+        assertEquals(1, count("invalid"));
+        assertEquals(1, count("unknown_user"));
+        assertEquals(0, count("authenticated"));
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+}
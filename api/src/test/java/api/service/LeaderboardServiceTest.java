@@ -0,0 +1,129 @@
+package api.service;
+
+import api.dto.LeaderboardEntryResponse;
+import api.model.User;
+import api.repository.UserHoldingRepository;
+import api.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class LeaderboardServiceTest {
+
+    private UserRepository userRepository;
+    private UserHoldingRepository holdingRepository;
+    private AssetPriceSnapshot priceSnapshot;
+    private final Map<Long, AssetPriceSnapshot.Quote> quotes = new HashMap<>();
+
+    private LeaderboardService service;
+
+    @BeforeEach
+    void setup() {
+        userRepository = mock(UserRepository.class);
+        holdingRepository = mock(UserHoldingRepository.class);
+        priceSnapshot = mock(AssetPriceSnapshot.class);
+        when(priceSnapshot.all()).thenAnswer(inv -> Map.copyOf(quotes));
+        service = new LeaderboardService(userRepository, holdingRepository, priceSnapshot, 3_600_000);
+
+        quotes.put(10L, new AssetPriceSnapshot.Quote(100.0, 0.0));
+        quotes.put(20L, new AssetPriceSnapshot.Quote(10.0, 0.0));
+
+        when(userRepository.findBalancesAfter(anyLong(), anyInt())).thenReturn(List.of(
+                balance(1L, "alice", 500.0),
+                balance(2L, "bob", 0.0),
+                balance(3L, "carol", 50.0)
+        ));
+        when(holdingRepository.findPositionsBetween(0L, 3L)).thenReturn(List.of(
+                position(2L, 10L, 4.0),   // 400
+                position(3L, 20L, 100.0)  // 1000
+        ));
+        service.rebuild();
+    }
+
+    @Test
+    void getTop_ranksByBalancePlusHoldingsValue() {
+        List<LeaderboardEntryResponse> top = service.getTop(10);
+
+        assertEquals(List.of("carol", "alice", "bob"), top.stream().map(LeaderboardEntryResponse::getUsername).toList());
+        assertEquals(1050.0, top.get(0).getTotalValue(), 1e-9);
+        assertEquals(1, top.get(0).getRank());
+        assertEquals(3, top.get(2).getRank());
+        assertEquals(2, service.getTop(2).size());
+    }
+
+    @Test
+    void tick_priceChange_repositionsOnlyHolders_withoutQueries() {
+        quotes.put(10L, new AssetPriceSnapshot.Quote(1000.0, 0.0)); // bob : 4000
+
+        service.tick();
+
+        assertEquals("bob", service.getTop(1).get(0).getUsername());
+        assertEquals(4000.0, service.getTop(1).get(0).getTotalValue(), 1e-9);
+        verify(userRepository, never()).findBalancesByIds(any());
+        verify(holdingRepository, never()).findPositionsByUserIds(any());
+    }
+
+    @Test
+    void tick_reloadsOnlyChangedUsers() {
+        when(userRepository.findBalancesByIds(any())).thenReturn(List.of(balance(1L, "alice", 5000.0)));
+        when(holdingRepository.findPositionsByUserIds(any())).thenReturn(List.of());
+
+        service.markChanged(1L);
+        service.tick();
+
+        verify(userRepository).findBalancesByIds(argThat((Collection<Long> ids) -> ids.equals(Set.of(1L))));
+        assertEquals("alice", service.getTop(1).get(0).getUsername());
+        assertEquals(5000.0, service.getTop(1).get(0).getTotalValue(), 1e-9);
+        assertEquals(3, service.getTop(10).size());
+
+        // rien de signalé : aucune requête
+        service.tick();
+        verify(userRepository, times(1)).findBalancesByIds(any());
+    }
+
+    @Test
+    void getRank_returnsOneBasedRank_andLoadsUnknownUser() {
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user(1L)));
+        assertEquals(2, service.getRank("alice").getRank());
+
+        when(userRepository.findByUsername("dave")).thenReturn(Optional.of(user(4L)));
+        when(userRepository.findBalancesByIds(any())).thenReturn(List.of(balance(4L, "dave", 10.0)));
+        when(holdingRepository.findPositionsByUserIds(any())).thenReturn(List.of());
+
+        LeaderboardEntryResponse dave = service.getRank("dave");
+        assertEquals(4, dave.getRank());
+        assertEquals(10.0, dave.getTotalValue(), 1e-9);
+    }
+
+    private static User user(Long id) {
+        User u = new User();
+        u.setId(id);
+        return u;
+    }
+
+    // projections en records : utilisables dans un stub (pas de mock imbriqué)
+    private record BalanceStub(Long getId, String getUsername, Double getBalance) implements UserRepository.BalanceRow {}
+
+    private record PositionStub(Long getUserId, Long getAssetId, Double getQuantity)
+            implements UserHoldingRepository.PositionRow {}
+
+    private static UserRepository.BalanceRow balance(Long id, String username, Double balance) {
+        return new BalanceStub(id, username, balance);
+    }
+
+    private static UserHoldingRepository.PositionRow position(Long userId, Long assetId, Double qty) {
+        return new PositionStub(userId, assetId, qty);
+    }
+}
@@ -0,0 +1,130 @@
+package api.service;
+
+import api.model.MovementAlertType;
+import api.model.MovementDirection;
+import api.repository.CryptoPriceHistoryRepository;
+import api.repository.MovementAlertRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class MovementAlertEvaluatorTest {
+
+    private static final long ASSET = 10L;
+    private static final long HOUR = 3_600;
+
+    private JdbcTemplate jdbcTemplate;
+    private CryptoPriceHistoryRepository historyRepository;
+    private final List<Long> claimable = new ArrayList<>();
+
+    private MovementAlertEvaluator evaluator;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        historyRepository = mock(CryptoPriceHistoryRepository.class);
+        // claim : l'UPDATE ... RETURNING renvoie les alertes encore réclamables
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class)))
+                .thenAnswer(inv -> List.copyOf(claimable));
+
+        evaluator = new MovementAlertEvaluator(
+                mock(MovementAlertRepository.class), historyRepository, mock(AssetPriceSnapshot.class),
+                jdbcTemplate, mock(AlertEventPublisher.class), 0);
+    }
+
+    @Test
+    void percentMove_firesOnce_thenRearmsBelowHalfThreshold() {
+        evaluator.track(new MovementAlertEvaluator.Tracked(
+                1L, 7L, ASSET, MovementAlertType.PERCENT_MOVE, 5.0, HOUR, true, null));
+        claimable.add(1L);
+
+        assertTrue(evaluator.onPrices(Map.of(ASSET, 100.0), 0).isEmpty());
+        assertTrue(evaluator.onPrices(Map.of(ASSET, 104.0), 1_000).isEmpty());
+
+        List<MovementAlertEvaluator.Fired> fired = evaluator.onPrices(Map.of(ASSET, 105.5), 2_000);
+        assertEquals(1, fired.size());
+        assertEquals(MovementDirection.UP, fired.get(0).direction());
+        assertEquals(100.0, fired.get(0).reference());
+
+        // désarmée : ni redéclenchement ni réarmement tant que l'écart reste >= 2.5 %
+        assertTrue(evaluator.onPrices(Map.of(ASSET, 106.0), 3_000).isEmpty());
+        verify(jdbcTemplate, never()).update(anyString(), any(PreparedStatementSetter.class));
+
+        // le plus bas (100) sort de la fenêtre 1h : écart < 2.5 % -> réarmée
+        evaluator.onPrices(Map.of(ASSET, 106.0), 3_600_000 + 1_500);
+        verify(jdbcTemplate).update(anyString(), any(PreparedStatementSetter.class));
+
+        fired = evaluator.onPrices(Map.of(ASSET, 100.0), 3_600_000 + 2_500);
+        assertEquals(1, fired.size());
+        assertEquals(MovementDirection.DOWN, fired.get(0).direction());
+    }
+
+    @Test
+    void percentMove_notClaimed_isNotReported() {
+        evaluator.track(new MovementAlertEvaluator.Tracked(
+                1L, 7L, ASSET, MovementAlertType.PERCENT_MOVE, 5.0, HOUR, true, null));
+
+        evaluator.onPrices(Map.of(ASSET, 100.0), 0);
+        // déjà réclamée par une autre instance
+        assertTrue(evaluator.onPrices(Map.of(ASSET, 110.0), 1_000).isEmpty());
+    }
+
+    @Test
+    void maCross_firesOnSideChangeOutsideBand() {
+        evaluator.track(new MovementAlertEvaluator.Tracked(
+                2L, 7L, ASSET, MovementAlertType.MA_CROSS, 1.0, HOUR, true, null));
+        claimable.add(2L);
+
+        for (int i = 0; i < 10; i++) evaluator.onPrices(Map.of(ASSET, 100.0), i * 1_000L);
+        // premier côté observé : pas de déclenchement
+        assertTrue(evaluator.onPrices(Map.of(ASSET, 90.0), 10_000).isEmpty());
+
+        // dans la bande de 1 % autour de la moyenne : rien
+        assertTrue(evaluator.onPrices(Map.of(ASSET, 99.5), 11_000).isEmpty());
+
+        List<MovementAlertEvaluator.Fired> fired = evaluator.onPrices(Map.of(ASSET, 110.0), 12_000);
+        assertEquals(1, fired.size());
+        assertEquals(MovementDirection.UP, fired.get(0).direction());
+
+        // même côté : rien
+        assertTrue(evaluator.onPrices(Map.of(ASSET, 112.0), 13_000).isEmpty());
+    }
+
+    @Test
+    void primeWindows_fromHistory_atStartup() {
+        long now = System.currentTimeMillis();
+        when(historyRepository.findPointsSince(anyString(), any())).thenReturn(List.of(
+                point(ASSET, now - 60_000, 100.0),
+                point(ASSET, now - 30_000, 101.0)
+        ));
+        evaluator.primeWindows();
+        evaluator.track(new MovementAlertEvaluator.Tracked(
+                1L, 7L, ASSET, MovementAlertType.PERCENT_MOVE, 5.0, HOUR, true, null));
+        claimable.add(1L);
+
+        List<MovementAlertEvaluator.Fired> fired = evaluator.onPrices(Map.of(ASSET, 94.0), now);
+        assertEquals(1, fired.size());
+        assertEquals(MovementDirection.DOWN, fired.get(0).direction());
+        assertEquals(101.0, fired.get(0).reference());
+    }
+
+    private record PointStub(Long getAssetId, Long getTs, Double getPrice)
+            implements CryptoPriceHistoryRepository.PointRow {}
+
+    private static CryptoPriceHistoryRepository.PointRow point(long assetId, long ts, double price) {
+        return new PointStub(assetId, ts, price);
+    }
+}
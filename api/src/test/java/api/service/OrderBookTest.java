@@ -0,0 +1,94 @@
+package api.service;
+
+import api.model.OrderType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderBookTest {
+
+    private final OrderBook book = new OrderBook();
+
+    @Test
+    void pollTriggered_returnsOnlyOrdersCrossedByPrice() {
+        book.add(order(1, OrderType.LIMIT_BUY, 90));    // prix <= 90
+        book.add(order(2, OrderType.STOP_LOSS, 80));    // prix <= 80
+        book.add(order(3, OrderType.TAKE_PROFIT, 120)); // prix >= 120
+        book.add(order(4, OrderType.LIMIT_SELL, 110));  // prix >= 110
+
+        assertTrue(book.pollTriggered(10L, 100).isEmpty());
+
+        assertEquals(List.of(1L), ids(book.pollTriggered(10L, 90)));
+        assertEquals(List.of(2L), ids(book.pollTriggered(10L, 75)));
+        assertEquals(List.of(4L, 3L), ids(book.pollTriggered(10L, 130)));
+        assertEquals(0, book.size());
+    }
+
+    @Test
+    void pollTriggered_removesOrdersFromBook() {
+        book.add(order(1, OrderType.LIMIT_BUY, 90));
+
+        assertEquals(1, book.pollTriggered(10L, 50).size());
+        assertTrue(book.pollTriggered(10L, 50).isEmpty());
+    }
+
+    @Test
+    void pollTriggered_keepsInsertionOrderOnSamePriceLevel() {
+        book.add(order(5, OrderType.STOP_LOSS, 80));
+        book.add(order(2, OrderType.STOP_LOSS, 80));
+        book.add(order(9, OrderType.STOP_LOSS, 80));
+
+        assertEquals(List.of(5L, 2L, 9L), ids(book.pollTriggered(10L, 80)));
+    }
+
+    @Test
+    void booksAreIndependentPerAsset() {
+        book.add(order(1, OrderType.LIMIT_BUY, 90));
+        book.add(new OrderBook.RestingOrder(2, 1, 20L, OrderType.LIMIT_BUY, 1.0, 90));
+
+        assertEquals(List.of(1L), ids(book.pollTriggered(10L, 50)));
+        assertEquals(1, book.size());
+        assertTrue(book.pollTriggered(99L, 50).isEmpty());
+    }
+
+    @Test
+    void remove_cancelsRestingOrder() {
+        book.add(order(1, OrderType.TAKE_PROFIT, 120));
+        book.add(order(2, OrderType.TAKE_PROFIT, 120));
+
+        assertTrue(book.remove(10L, 1));
+        assertFalse(book.remove(10L, 1));
+        assertEquals(List.of(2L), ids(book.pollTriggered(10L, 150)));
+    }
+
+    @Test
+    void add_ignoresDuplicateId() {
+        book.add(order(1, OrderType.LIMIT_BUY, 90));
+        book.add(order(1, OrderType.LIMIT_BUY, 90));
+
+        assertEquals(1, book.size());
+        assertEquals(1, book.pollTriggered(10L, 50).size());
+    }
+
+    @Test
+    void largeBook_tickOnlyTouchesTriggeredOrders() {
+        for (int i = 1; i <= 100_000; i++) {
+            book.add(order(i, OrderType.STOP_LOSS, i)); // triggers 1..100000
+        }
+
+        List<OrderBook.RestingOrder> hit = book.pollTriggered(10L, 99_990.5);
+
+        assertEquals(10, hit.size());
+        assertEquals(99_990, book.size());
+    }
+
+    private static OrderBook.RestingOrder order(long id, OrderType type, double trigger) {
+        return new OrderBook.RestingOrder(id, 1, 10L, type, 1.0, trigger);
+    }
+
+    private static List<Long> ids(List<OrderBook.RestingOrder> orders) {
+        return orders.stream().map(OrderBook.RestingOrder::id).toList();
+    }
+}
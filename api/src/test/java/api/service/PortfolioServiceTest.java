@@ -0,0 +1,146 @@
+package api.service;
+
+import api.dto.PortfolioPositionResponse;
+import api.dto.PortfolioResponse;
+import api.dto.PortfolioValuePointDto;
+import api.exception.BusinessException;
+import api.model.CryptoAsset;
+import api.model.User;
+import api.model.UserHolding;
+import api.repository.PortfolioValuePointRepository;
+import api.repository.UserHoldingRepository;
+import api.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PortfolioServiceTest {
+
+    private UserRepository userRepository;
+    private UserHoldingRepository holdingRepository;
+    private AssetPriceSnapshot priceSnapshot;
+    private PortfolioValuePointRepository valuePointRepository;
+
+    private PortfolioService service;
+
+    @BeforeEach
+    void setup() {
+        userRepository = mock(UserRepository.class);
+        holdingRepository = mock(UserHoldingRepository.class);
+        priceSnapshot = mock(AssetPriceSnapshot.class);
+        valuePointRepository = mock(PortfolioValuePointRepository.class);
+        service = new PortfolioService(userRepository, holdingRepository, priceSnapshot, valuePointRepository);
+
+        User user = new User();
+        user.setId(1L);
+        user.setBalance(500.0);
+        when(userRepository.findByUsername("mathys")).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    void getPortfolio_valuesPositionsFromSnapshot_withTotalsAndWeights() {
+        when(holdingRepository.findByUserIdWithAsset(1L)).thenReturn(List.of(
+                holding(asset(10L, "btc", 999.0), 2.0),
+                holding(asset(20L, "eth", 999.0), 10.0)
+        ));
+        when(priceSnapshot.get(10L)).thenReturn(new AssetPriceSnapshot.Quote(300.0, 50.0));
+        when(priceSnapshot.get(20L)).thenReturn(new AssetPriceSnapshot.Quote(40.0, -5.0));
+
+        PortfolioResponse out = service.getPortfolio("mathys");
+
+        assertEquals(500.0, out.getBalance());
+        assertEquals(1000.0, out.getTotalValue(), 1e-9);          // 600 + 400
+        assertEquals(50.0, out.getChange24h(), 1e-9);             // +100 - 50
+        assertEquals(50.0 / 950.0 * 100.0, out.getChange24hPercent(), 1e-9);
+
+        // triées par valeur décroissante
+        PortfolioPositionResponse first = out.getPositions().get(0);
+        assertEquals("btc", first.getExternalId());
+        assertEquals(600.0, first.getValue(), 1e-9);
+        assertEquals(0.6, first.getWeight(), 1e-9);
+        assertEquals(0.4, out.getPositions().get(1).getWeight(), 1e-9);
+
+        // 1 seule requête pour les positions, aucun accès base pour les prix
+        verify(holdingRepository).findByUserIdWithAsset(1L);
+        verifyNoMoreInteractions(holdingRepository);
+    }
+
+    @Test
+    void getPortfolio_fallsBackToEntityPrice_whenAssetNotInSnapshot() {
+        CryptoAsset asset = asset(10L, "btc", 100.0);
+        asset.setPrice_change_24h(10.0);
+        when(holdingRepository.findByUserIdWithAsset(1L)).thenReturn(List.of(holding(asset, 1.5)));
+
+        PortfolioResponse out = service.getPortfolio("mathys");
+
+        assertEquals(150.0, out.getTotalValue(), 1e-9);
+        assertEquals(15.0, out.getChange24h(), 1e-9);
+    }
+
+    @Test
+    void getPortfolio_empty_hasZeroTotalAndNoPercent() {
+        when(holdingRepository.findByUserIdWithAsset(1L)).thenReturn(List.of());
+
+        PortfolioResponse out = service.getPortfolio("mathys");
+
+        assertEquals(0.0, out.getTotalValue());
+        assertNull(out.getChange24hPercent());
+        assertTrue(out.getPositions().isEmpty());
+    }
+
+    @Test
+    void getHistory_mapsRangeToResolution() {
+        PortfolioValuePointRepository.ValuePointRow row = mock(PortfolioValuePointRepository.ValuePointRow.class);
+        when(row.getTs()).thenReturn(1_700_000_000_000L);
+        when(row.getValue()).thenReturn(1234.5);
+        when(valuePointRepository.findSeries(eq(1L), eq("h"), any())).thenReturn(List.of(row));
+
+        Instant before = Instant.now();
+        List<PortfolioValuePointDto> out = service.getHistory("mathys", "7d");
+
+        assertEquals(1, out.size());
+        assertEquals(1_700_000_000_000L, out.get(0).getTs());
+        assertEquals(1234.5, out.get(0).getValue());
+
+        ArgumentCaptor<Instant> from = ArgumentCaptor.forClass(Instant.class);
+        verify(valuePointRepository).findSeries(eq(1L), eq("h"), from.capture());
+        assertFalse(from.getValue().isBefore(before.minus(Duration.ofDays(7))));
+
+        service.getHistory("mathys", "1d");
+        verify(valuePointRepository).findSeries(eq(1L), eq("m"), any());
+        service.getHistory("mathys", "all");
+        verify(valuePointRepository).findSeries(1L, "d", Instant.EPOCH);
+    }
+
+    @Test
+    void getHistory_unknownRange_isBadRequest() {
+        assertThrows(BusinessException.class, () -> service.getHistory("mathys", "2w"));
+        verifyNoInteractions(valuePointRepository);
+    }
+
+    private static CryptoAsset asset(Long id, String externalId, Double price) {
+        CryptoAsset a = new CryptoAsset();
+        a.setId(id);
+        a.setExternalId(externalId);
+        a.setCurrentPrice(price);
+        return a;
+    }
+
+    private static UserHolding holding(CryptoAsset asset, double qty) {
+        UserHolding h = new UserHolding();
+        h.setUserId(1L);
+        h.setAsset(asset);
+        h.setQuantity(qty);
+        return h;
+    }
+}
@@ -0,0 +1,216 @@
+package api.service;
+
+import api.dto.PriceUpdateDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PriceStreamServiceTest {
+
+    private final Map<Long, AssetPriceSnapshot.Quote> quotes = new HashMap<>();
+    // envois planifiés, exécutés à la main : simule un pool d'envoi occupé
+    private final Queue<Runnable> sendQueue = new ArrayDeque<>();
+
+    private PriceStreamService service;
+
+    @BeforeEach
+    void setup() {
+        AssetPriceSnapshot snapshot = mock(AssetPriceSnapshot.class);
+        when(snapshot.all()).thenAnswer(inv -> Map.copyOf(quotes));
+        service = new PriceStreamService(snapshot, sendQueue::add, 3_600_000, 60_000, 10, 60_000, 64);
+
+        quotes.put(1L, new AssetPriceSnapshot.Quote(100.0, 0.0));
+        quotes.put(2L, new AssetPriceSnapshot.Quote(10.0, 0.0));
+        service.tick();
+    }
+
+    @Test
+    void subscribe_sendsCurrentPricesFirst() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.register(emitter, null);
+        runSends();
+
+        assertEquals(1, emitter.batches.size());
+        assertEquals(Set.of(1L, 2L), ids(emitter.batches.get(0)));
+    }
+
+    @Test
+    void tick_pushesOnlyChangedAssets() {
+        RecordingEmitter emitter = subscribed(null);
+
+        quotes.put(1L, new AssetPriceSnapshot.Quote(101.0, 1.0));
+        service.tick();
+        runSends();
+
+        assertEquals(1, emitter.batches.size());
+        assertEquals(List.of(new PriceUpdateDto(1L, 101.0, 1.0)), emitter.batches.get(0));
+
+        service.tick(); // rien n'a changé
+        assertTrue(sendQueue.isEmpty());
+    }
+
+    @Test
+    void slowSubscriber_getsLatestValue_notBacklog() {
+        RecordingEmitter emitter = subscribed(null);
+
+        // 3 ticks pendant que le pool d'envoi est occupé : 1 seul envoi planifié
+        for (double p = 101; p <= 103; p++) {
+            quotes.put(1L, new AssetPriceSnapshot.Quote(p, 0.0));
+            service.tick();
+        }
+        assertEquals(1, sendQueue.size());
+        runSends();
+
+        assertEquals(1, emitter.batches.size());
+        assertEquals(List.of(new PriceUpdateDto(1L, 103.0, 0.0)), emitter.batches.get(0));
+    }
+
+    @Test
+    void filter_keepsOnlyRequestedAssets() {
+        RecordingEmitter emitter = subscribed(Set.of(2L));
+
+        quotes.put(1L, new AssetPriceSnapshot.Quote(200.0, 0.0));
+        service.tick();
+        assertTrue(sendQueue.isEmpty());
+
+        quotes.put(2L, new AssetPriceSnapshot.Quote(20.0, 0.0));
+        service.tick();
+        runSends();
+        assertEquals(List.of(new PriceUpdateDto(2L, 20.0, 0.0)), emitter.batches.get(0));
+    }
+
+    @Test
+    void failedSend_removesSubscriber() {
+        RecordingEmitter emitter = subscribed(null);
+        emitter.fail = true;
+
+        quotes.put(1L, new AssetPriceSnapshot.Quote(101.0, 0.0));
+        service.tick();
+        runSends();
+
+        assertEquals(0, service.subscriberCount());
+    }
+
+    @Test
+    void stalledSubscriber_isEvicted_andOthersKeepReceiving() throws Exception {
+        AssetPriceSnapshot snapshot = mock(AssetPriceSnapshot.class);
+        when(snapshot.all()).thenAnswer(inv -> Map.copyOf(quotes));
+        ThreadPoolExecutor pool = (ThreadPoolExecutor) Executors.newFixedThreadPool(1);
+        PriceStreamService streams = new PriceStreamService(snapshot, pool, 3_600_000, 60_000, 10, 50, 64);
+        try {
+            // client qui ne lit plus : son 1er envoi bloque l'unique thread d'envoi
+            CountDownLatch unblock = new CountDownLatch(1);
+            BlockingEmitter stalled = new BlockingEmitter(unblock);
+            streams.register(stalled, null);
+            assertTrue(stalled.entered.await(5, TimeUnit.SECONDS));
+
+            RecordingEmitter healthy = new RecordingEmitter();
+            streams.register(healthy, null);
+            Thread.sleep(100);
+            assertTrue(healthy.batches.isEmpty(), "envoi bloqué derrière le client lent");
+
+            streams.tick(); // écriture bloquée > 50 ms : éviction + thread de compensation
+            assertEquals(1, streams.subscriberCount());
+            assertEquals(1, streams.stalledSends());
+            assertEquals(2, pool.getCorePoolSize());
+            waitUntil(() -> healthy.batches.size() == 1);
+
+            quotes.put(1L, new AssetPriceSnapshot.Quote(101.0, 0.0));
+            streams.tick();
+            waitUntil(() -> healthy.batches.size() == 2);
+
+            // l'écriture finit par rendre la main : connexion fermée, pool revenu à sa taille
+            unblock.countDown();
+            waitUntil(() -> streams.stalledSends() == 0);
+            assertEquals(1, pool.getCorePoolSize());
+            assertEquals(1, stalled.sends);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // --------------------------------------------------------------------
+    // Helpers
+    // --------------------------------------------------------------------
+
+    private RecordingEmitter subscribed(Set<Long> ids) {
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.register(emitter, ids);
+        runSends();
+        emitter.batches.clear();
+        return emitter;
+    }
+
+    private void runSends() {
+        Runnable r;
+        while ((r = sendQueue.poll()) != null) r.run();
+    }
+
+    private static Set<Long> ids(List<PriceUpdateDto> batch) {
+        Set<Long> out = new java.util.HashSet<>();
+        batch.forEach(u -> out.add(u.id()));
+        return out;
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private static final class BlockingEmitter extends SseEmitter {
+        final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch unblock;
+        volatile int sends;
+
+        BlockingEmitter(CountDownLatch unblock) {
+            this.unblock = unblock;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sends++;
+            entered.countDown();
+            try {
+                unblock.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+        final List<List<PriceUpdateDto>> batches = new CopyOnWriteArrayList<>();
+        boolean fail;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void send(SseEventBuilder builder) throws IOException {
+            if (fail) throw new IOException("broken pipe");
+            for (ResponseBodyEmitter.DataWithMediaType d : builder.build()) {
+                if (d.getData() instanceof List<?> list) batches.add((List<PriceUpdateDto>) list);
+            }
+        }
+    }
+}
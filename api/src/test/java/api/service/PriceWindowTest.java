@@ -0,0 +1,74 @@
+package api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceWindowTest {
+
+    @Test
+    void minMaxAverage_overWindow() {
+        PriceWindow w = new PriceWindow(1_000);
+        w.add(0, 10.0);
+        w.add(400, 30.0);
+        w.add(800, 20.0);
+
+        assertEquals(10.0, w.min());
+        assertEquals(30.0, w.max());
+        assertEquals(20.0, w.average(), 1e-9);
+
+        // t=1200 : l'échantillon de t=0 sort
+        w.add(1_200, 25.0);
+        assertEquals(3, w.size());
+        assertEquals(20.0, w.min());
+        assertEquals(30.0, w.max());
+        assertEquals(25.0, w.average(), 1e-9);
+    }
+
+    @Test
+    void evict_withoutNewSample_emptiesWindow() {
+        PriceWindow w = new PriceWindow(1_000);
+        w.add(0, 10.0);
+        w.evict(5_000);
+
+        assertTrue(w.isEmpty());
+        assertEquals(Long.MIN_VALUE, w.lastTs());
+    }
+
+    @Test
+    void randomWalk_matchesBruteForce() {
+        Random rnd = new Random(42);
+        long span = 5_000;
+        PriceWindow w = new PriceWindow(span);
+        List<long[]> ts = new ArrayList<>();
+        List<Double> prices = new ArrayList<>();
+
+        long t = 0;
+        double p = 100.0;
+        for (int i = 0; i < 20_000; i++) {
+            t += 1 + rnd.nextInt(200);
+            p = Math.max(1.0, p + rnd.nextGaussian());
+            w.add(t, p);
+            ts.add(new long[]{t});
+            prices.add(p);
+
+            double min = Double.MAX_VALUE, max = -Double.MAX_VALUE, sum = 0;
+            int n = 0;
+            for (int j = ts.size() - 1; j >= 0 && ts.get(j)[0] >= t - span; j--) {
+                double x = prices.get(j);
+                min = Math.min(min, x);
+                max = Math.max(max, x);
+                sum += x;
+                n++;
+            }
+            assertEquals(n, w.size());
+            assertEquals(min, w.min());
+            assertEquals(max, w.max());
+            assertEquals(sum / n, w.average(), 1e-6);
+        }
+    }
+}
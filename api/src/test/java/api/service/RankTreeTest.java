@@ -0,0 +1,84 @@
+package api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankTreeTest {
+
+    private static final Comparator<RankTree.Entry> ORDER = Comparator
+            .comparingDouble(RankTree.Entry::value).reversed()
+            .thenComparingLong(RankTree.Entry::userId);
+
+    private final RankTree tree = new RankTree();
+
+    @Test
+    void rankAndRange_orderByValueDesc_thenUserId() {
+        tree.insert(1, 100.0);
+        tree.insert(2, 300.0);
+        tree.insert(3, 100.0);
+        tree.insert(4, 200.0);
+
+        assertEquals(0, tree.rank(2, 300.0));
+        assertEquals(1, tree.rank(4, 200.0));
+        assertEquals(2, tree.rank(1, 100.0));
+        assertEquals(3, tree.rank(3, 100.0));
+
+        assertEquals(List.of(2L, 4L), ids(tree.range(0, 2)));
+        assertEquals(List.of(1L, 3L), ids(tree.range(2, 10)));
+        assertTrue(tree.range(4, 10).isEmpty());
+    }
+
+    @Test
+    void remove_thenReinsertWithNewValue_movesEntry() {
+        tree.insert(1, 100.0);
+        tree.insert(2, 200.0);
+
+        tree.remove(1, 100.0);
+        tree.insert(1, 500.0);
+
+        assertEquals(2, tree.size());
+        assertEquals(0, tree.rank(1, 500.0));
+        assertEquals(List.of(1L, 2L), ids(tree.range(0, 10)));
+    }
+
+    @Test
+    void randomUpdates_matchSortedReference() {
+        Random random = new Random(42);
+        Map<Long, Double> values = new HashMap<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            long userId = random.nextInt(2_000);
+            Double previous = values.remove(userId);
+            if (previous != null) tree.remove(userId, previous);
+            if (random.nextInt(10) > 0) {
+                double value = random.nextInt(500); // beaucoup d'égalités de valeur
+                tree.insert(userId, value);
+                values.put(userId, value);
+            }
+        }
+
+        List<RankTree.Entry> expected = new ArrayList<>();
+        values.forEach((id, v) -> expected.add(new RankTree.Entry(id, v)));
+        expected.sort(ORDER);
+
+        assertEquals(expected.size(), tree.size());
+        assertEquals(expected, tree.range(0, expected.size()));
+        assertEquals(expected.subList(100, 150), tree.range(100, 50));
+        for (int i = 0; i < expected.size(); i += 97) {
+            RankTree.Entry e = expected.get(i);
+            assertEquals(i, tree.rank(e.userId(), e.value()));
+        }
+    }
+
+    private static List<Long> ids(List<RankTree.Entry> entries) {
+        return entries.stream().map(RankTree.Entry::userId).toList();
+    }
+}
@@ -0,0 +1,128 @@
+package api.service;
+
+import api.config.RateLimitProperties;
+import api.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private SimpleMeterRegistry registry;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setup() {
+        registry = new SimpleMeterRegistry();
+        filter = newFilter(100);
+    }
+
+    @AfterEach
+    void cleanup() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private RateLimitFilter newFilter(int maxBuckets) {
+        RateLimitProperties props = new RateLimitProperties();
+        props.setMaxBuckets(maxBuckets);
+        props.setRoutes(List.of(
+                route("login", "POST", "/api/auth/login", 2, 0.5),
+                route("history", "GET", "/api/crypto/*/history", 3, 10)
+        ));
+        return new RateLimitFilter(props, new ObjectMapper(), registry, clock::get);
+    }
+
+    private static RateLimitProperties.Route route(String name, String method, String path, int capacity, double refill) {
+        RateLimitProperties.Route r = new RateLimitProperties.Route();
+        r.setName(name);
+        r.setMethod(method);
+        r.setPath(path);
+        r.setCapacity(capacity);
+        r.setRefillPerSecond(refill);
+        return r;
+    }
+
+    private MockHttpServletResponse call(String method, String uri, String ip) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    void burstThenRejectWithRetryAfter() throws Exception {
+        assertEquals(200, call("POST", "/api/auth/login", "1.1.1.1").getStatus());
+        assertEquals(200, call("POST", "/api/auth/login", "1.1.1.1").getStatus());
+
+        MockHttpServletResponse rejected = call("POST", "/api/auth/login", "1.1.1.1");
+        assertEquals(429, rejected.getStatus());
+        assertEquals("2", rejected.getHeader("Retry-After")); // 0.5 jeton/s
+        assertTrue(rejected.getContentAsString().contains("\"status\":429"));
+        assertEquals(1.0, registry.get("api.ratelimit.rejected").tag("route", "login").counter().count());
+
+        // autre IP : bucket indépendant
+        assertEquals(200, call("POST", "/api/auth/login", "2.2.2.2").getStatus());
+    }
+
+    @Test
+    void refillsOverTime() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, call("GET", "/api/crypto/bitcoin/history", "1.1.1.1").getStatus());
+        }
+        assertEquals(429, call("GET", "/api/crypto/bitcoin/history", "1.1.1.1").getStatus());
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100)); // 1 jeton à 10/s
+        assertEquals(200, call("GET", "/api/crypto/bitcoin/history", "1.1.1.1").getStatus());
+        assertEquals(429, call("GET", "/api/crypto/bitcoin/history", "1.1.1.1").getStatus());
+    }
+
+    @Test
+    void unmatchedRoute_isNotLimited() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            assertEquals(200, call("GET", "/api/cryptos", "1.1.1.1").getStatus());
+            assertEquals(200, call("GET", "/api/auth/login", "1.1.1.1").getStatus()); // mauvaise méthode
+        }
+        assertEquals(0, filter.bucketCount());
+    }
+
+    @Test
+    void authenticatedUser_isKeyedByUserIdNotIp() throws Exception {
+        User user = User.builder().id(42L).username("mathys").build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, call("GET", "/api/crypto/bitcoin/history", "10.0.0." + i).getStatus());
+        }
+        // même utilisateur depuis une nouvelle IP : même bucket
+        assertEquals(429, call("GET", "/api/crypto/bitcoin/history", "10.0.0.9").getStatus());
+    }
+
+    @Test
+    void idleBucketsAreSwept_andTableStaysBounded() throws Exception {
+        filter = newFilter(10);
+        for (int i = 0; i < 50; i++) {
+            call("GET", "/api/crypto/bitcoin/history", "10.0.0." + i);
+        }
+        assertTrue(filter.bucketCount() <= 10, "buckets=" + filter.bucketCount());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1)); // tous pleins à nouveau
+        filter.sweepIdle();
+        assertEquals(0, filter.bucketCount());
+    }
+}
@@ -0,0 +1,107 @@
+package api.service;
+
+import api.dto.CreateRecurringBuyRequest;
+import api.dto.RecurringBuyResponse;
+import api.exception.BusinessException;
+import api.model.CryptoAsset;
+import api.model.RecurringBuy;
+import api.model.RecurringFrequency;
+import api.model.User;
+import api.repository.CryptoAssetRepository;
+import api.repository.RecurringBuyRepository;
+import api.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RecurringBuyServiceTest {
+
+    private UserRepository userRepository;
+    private CryptoAssetRepository assetRepository;
+    private RecurringBuyRepository recurringBuyRepository;
+
+    private RecurringBuyService service;
+
+    @BeforeEach
+    void setup() {
+        userRepository = mock(UserRepository.class);
+        assetRepository = mock(CryptoAssetRepository.class);
+        recurringBuyRepository = mock(RecurringBuyRepository.class);
+        service = new RecurringBuyService(userRepository, assetRepository, recurringBuyRepository);
+    }
+
+    @Test
+    void create_rejectsNonPositiveAmount() {
+        CreateRecurringBuyRequest req = request(0.0, RecurringFrequency.DAILY, null);
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> service.create("mathys", req));
+
+        assertEquals(400, ex.getStatus().value());
+        verifyNoInteractions(recurringBuyRepository);
+    }
+
+    @Test
+    void create_rejectsMissingFrequency() {
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> service.create("mathys", request(10.0, null, null)));
+
+        assertEquals(400, ex.getStatus().value());
+    }
+
+    @Test
+    void create_startInThePast_isDueImmediately() {
+        mockUserAndAsset();
+        when(recurringBuyRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        Instant before = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        RecurringBuyResponse out = service.create("mathys",
+                request(50.0, RecurringFrequency.DAILY, Instant.now().minus(3, ChronoUnit.DAYS)));
+
+        ArgumentCaptor<RecurringBuy> captor = ArgumentCaptor.forClass(RecurringBuy.class);
+        verify(recurringBuyRepository).save(captor.capture());
+        RecurringBuy saved = captor.getValue();
+
+        assertEquals(1L, saved.getUserId());
+        assertEquals(86_400L, saved.getIntervalSeconds());
+        assertTrue(saved.isActive());
+        assertFalse(saved.getNextRunAt().isBefore(before));
+        assertEquals("DAILY", out.getFrequency());
+    }
+
+    @Test
+    void delete_unknownSchedule_returns404() {
+        mockUserAndAsset();
+        when(recurringBuyRepository.deleteByIdAndUserId(99L, 1L)).thenReturn(0L);
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> service.delete("mathys", 99L));
+
+        assertEquals(404, ex.getStatus().value());
+    }
+
+    private void mockUserAndAsset() {
+        User user = new User();
+        user.setId(1L);
+        when(userRepository.findByUsername("mathys")).thenReturn(Optional.of(user));
+
+        CryptoAsset asset = new CryptoAsset();
+        asset.setId(10L);
+        asset.setExternalId("btc");
+        when(assetRepository.findByExternalId("btc")).thenReturn(Optional.of(asset));
+    }
+
+    private static CreateRecurringBuyRequest request(Double amount, RecurringFrequency frequency, Instant startAt) {
+        CreateRecurringBuyRequest req = new CreateRecurringBuyRequest();
+        req.setExternalId("btc");
+        req.setAmount(amount);
+        req.setFrequency(frequency);
+        req.setStartAt(startAt);
+        return req;
+    }
+}
@@ -0,0 +1,200 @@
+package api.service;
+
+import api.model.Trade;
+import api.model.TradeSide;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TradeLedgerWriterTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    // tailles des batchs au moment de l'appel (la liste passée est réutilisée par le writer)
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+    private TradeLedgerWriter writer;
+
+    @BeforeEach
+    void setup() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    Collection<?> batch = invocation.getArgument(1);
+                    batchSizes.add(batch.size());
+                    return new int[0][];
+                });
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) writer.stop();
+    }
+
+    @Test
+    void flush_insertsQueuedTradesInBatchesOfBatchSize() {
+        writer = new TradeLedgerWriter(jdbcTemplate, 50, 3, 100, 1_000, 10);
+
+        for (int i = 0; i < 7; i++) writer.append(trade(i));
+        writer.flush();
+
+        List<Integer> sizes = capturedBatchSizes(3);
+        assertEquals(List.of(3, 3, 1), sizes);
+    }
+
+    @Test
+    void scheduledFlush_groupsTradesIntoOneBatch() {
+        writer = new TradeLedgerWriter(jdbcTemplate, 200, 500, 100, 1_000, 10);
+
+        for (int i = 0; i < 10; i++) writer.append(trade(i));
+        writer.scheduledFlush();
+
+        // group commit : tout ce qui est arrivé depuis le passage précédent, en 1 batch
+        assertEquals(List.of(10), capturedBatchSizes(1));
+    }
+
+    @Test
+    void append_whenQueueIsFull_overflowsWithoutWriting_andNextFlushWritesEverything() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenAnswer(invocation -> {
+                    Collection<?> batch = invocation.getArgument(1);
+                    batchSizes.add(batch.size());
+                    return new int[0][];
+                });
+        writer = new TradeLedgerWriter(jdbcTemplate, 50, 10, 1, 1_000, 10);
+
+        // appelé depuis afterCommit : ni écriture ni exception dans le thread appelant, base indisponible ou non
+        for (int i = 0; i < 3; i++) writer.append(trade(i)); // 1 en file, 2 en débordement
+        verifyNoInteractions(jdbcTemplate);
+
+        writer.scheduledFlush(); // échec : lignes conservées
+        writer.flush();
+
+        assertEquals(List.of(3), capturedBatchSizes(2));
+    }
+
+    @Test
+    void appendAfterCommit_outsideTransaction_enqueuesImmediately() {
+        writer = new TradeLedgerWriter(jdbcTemplate, 50, 10, 10, 1_000, 10);
+
+        writer.appendAfterCommit(trade(1));
+        writer.flush();
+
+        assertEquals(List.of(1), capturedBatchSizes(1));
+    }
+
+    @Test
+    void scheduledFlush_keepsFailedBatch_andRetriesAfterBackoff() {
+        // 2 échecs (base indisponible) puis succès : le même batch est rejoué, rien n'est perdu
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenAnswer(invocation -> {
+                    Collection<?> batch = invocation.getArgument(1);
+                    batchSizes.add(batch.size());
+                    return new int[0][];
+                });
+        AtomicLong clock = new AtomicLong();
+        writer = new TradeLedgerWriter(jdbcTemplate, 20, 500, 100, 1_000, 10, clock::get);
+
+        for (int i = 0; i < 5; i++) writer.append(trade(i));
+
+        writer.scheduledFlush();                                    // échec 1 : backoff 20 ms
+        writer.scheduledFlush();                                    // sauté
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(20));
+        writer.scheduledFlush();                                    // échec 2 : backoff 40 ms
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(20));
+        writer.scheduledFlush();                                    // sauté
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(20));
+        writer.scheduledFlush();                                    // succès
+
+        assertEquals(List.of(5), capturedBatchSizes(3));
+    }
+
+    @Test
+    void flush_propagatesError_andKeepsBatchForNextAttempt() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenAnswer(invocation -> {
+                    Collection<?> batch = invocation.getArgument(1);
+                    batchSizes.add(batch.size());
+                    return new int[0][];
+                });
+        writer = new TradeLedgerWriter(jdbcTemplate, 50, 10, 100, 1_000, 10);
+
+        for (int i = 0; i < 3; i++) writer.append(trade(i));
+        assertThrows(DataAccessResourceFailureException.class, writer::flush);
+        writer.flush();
+
+        assertEquals(List.of(3), capturedBatchSizes(2));
+    }
+
+    @Test
+    void append_givesEachTradeItsOwnEntryId_keptAcrossRetries() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(new int[0][]);
+        writer = new TradeLedgerWriter(jdbcTemplate, 50, 10, 100, 1_000, 10);
+
+        Trade first = trade(1);
+        Trade second = trade(1); // mêmes valeurs, trade distinct
+        writer.append(first);
+        writer.append(second);
+        UUID firstId = first.getEntryId();
+
+        assertNotNull(firstId);
+        assertNotEquals(firstId, second.getEntryId());
+
+        // rejeu du batch en échec : même entry_id, dédoublonné par ON CONFLICT (entry_id)
+        assertThrows(DataAccessResourceFailureException.class, writer::flush);
+        writer.flush();
+        assertEquals(firstId, first.getEntryId());
+    }
+
+    @Test
+    void backoff_doublesUpToMax() {
+        writer = new TradeLedgerWriter(jdbcTemplate, 50, 10, 10, 1_000, 10);
+
+        assertEquals(50, writer.backoffMs(1));
+        assertEquals(100, writer.backoffMs(2));
+        assertEquals(400, writer.backoffMs(4));
+        assertEquals(1_000, writer.backoffMs(10));
+        assertEquals(1_000, writer.backoffMs(100));
+    }
+
+    private List<Integer> capturedBatchSizes(int expectedCalls) {
+        verify(jdbcTemplate, times(expectedCalls)).batchUpdate(
+                anyString(),
+                anyCollection(),
+                anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)
+        );
+        return batchSizes;
+    }
+
+    private static Trade trade(long i) {
+        return Trade.builder()
+                .userId(1L)
+                .assetId(10L)
+                .side(TradeSide.BUY)
+                .quantity(1.0 + i)
+                .price(100.0)
+                .ts(Instant.now())
+                .build();
+    }
+}
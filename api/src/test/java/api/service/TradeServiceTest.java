@@ -1,10 +1,15 @@
 package api.service;
 
 import api.dto.HoldingResponse;
+import api.dto.TradePageResponse;
+import api.exception.BusinessException;
 import api.model.CryptoAsset;
+import api.model.Trade;
+import api.model.TradeSide;
 import api.model.User;
 import api.model.UserHolding;
 import api.repository.CryptoAssetRepository;
+import api.repository.TradeRepository;
 import api.repository.UserHoldingRepository;
 import api.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -22,6 +27,8 @@ class TradeServiceTest {
     private UserRepository userRepository;
     private CryptoAssetRepository assetRepository;
     private UserHoldingRepository holdingRepository;
+    private TradeRepository tradeRepository;
+    private TradeLedgerWriter ledgerWriter;
 
     private TradeService service;
 
@@ -30,7 +37,10 @@ class TradeServiceTest {
         userRepository = mock(UserRepository.class);
         assetRepository = mock(CryptoAssetRepository.class);
         holdingRepository = mock(UserHoldingRepository.class);
-        service = new TradeService(userRepository, assetRepository, holdingRepository);
+        tradeRepository = mock(TradeRepository.class);
+        ledgerWriter = mock(TradeLedgerWriter.class);
+        service = new TradeService(userRepository, assetRepository, holdingRepository, tradeRepository, ledgerWriter,
+                mock(LeaderboardService.class));
     }
 
     @Test
@@ -50,7 +60,7 @@ class TradeServiceTest {
         holding.setQuantity(2.5);
 
         when(userRepository.findByUsername("mathys")).thenReturn(Optional.of(user));
-        when(holdingRepository.findByUserId(1L)).thenReturn(List.of(holding));
+        when(holdingRepository.findByUserIdWithAsset(1L)).thenReturn(List.of(holding));
 
         List<HoldingResponse> out = service.getHoldings("mathys");
 
@@ -72,95 +82,92 @@ class TradeServiceTest {
 
     @Test
     void buy_failsWhenUserNotFound() {
-        when(userRepository.findByUsername("mathys")).thenReturn(Optional.empty());
+        CryptoAsset asset = new CryptoAsset();
+        asset.setId(10L);
+        asset.setExternalId("btc");
+        asset.setCurrentPrice(100.0);
+
+        when(assetRepository.findByExternalId("btc")).thenReturn(Optional.of(asset));
+        when(holdingRepository.addQuantity("mathys", 10L, 1.0)).thenReturn(Optional.empty());
 
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
                 () -> service.buy("mathys", "btc", 1));
         assertEquals("User not found", ex.getMessage());
+        verify(userRepository, never()).debitBalanceIfSufficient(anyLong(), anyDouble());
     }
 
     @Test
     void buy_failsWhenAssetUnknown() {
-        User user = new User();
-        user.setId(1L);
-        user.setBalance(1000.0);
-
-        when(userRepository.findByUsername("mathys")).thenReturn(Optional.of(user));
         when(assetRepository.findByExternalId("btc")).thenReturn(Optional.empty());
 
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
                 () -> service.buy("mathys", "btc", 1));
         assertTrue(ex.getMessage().startsWith("Unknown crypto: "));
+        verifyNoInteractions(userRepository, holdingRepository);
     }
 
     @Test
     void buy_failsWhenPriceUnavailable_nullOrZeroOrNegative() {
-        User user = new User();
-        user.setId(1L);
-        user.setBalance(1000.0);
-
         CryptoAsset asset = new CryptoAsset();
         asset.setId(10L);
         asset.setExternalId("btc");
         asset.setCurrentPrice(null);
 
-        when(userRepository.findByUsername("mathys")).thenReturn(Optional.of(user));
         when(assetRepository.findByExternalId("btc")).thenReturn(Optional.of(asset));
 
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
                 () -> service.buy("mathys", "btc", 1));
         assertEquals("Price unavailable", ex.getMessage());
+        verifyNoInteractions(userRepository, holdingRepository);
     }
 
     @Test
     void buy_failsWhenInsufficientBalance() {
-        User user = new User();
-        user.setId(1L);
-        user.setBalance(10.0);
-
         CryptoAsset asset = new CryptoAsset();
         asset.setId(10L);
         asset.setExternalId("btc");
         asset.setCurrentPrice(100.0);
 
-        when(userRepository.findByUsername("mathys")).thenReturn(Optional.of(user));
         when(assetRepository.findByExternalId("btc")).thenReturn(Optional.of(asset));
+        when(holdingRepository.addQuantity("mathys", 10L, 1.0)).thenReturn(Optional.of(1L));
+        when(userRepository.debitBalanceIfSufficient(1L, 100.0)).thenReturn(Optional.empty());
 
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
                 () -> service.buy("mathys", "btc", 1));
         assertEquals("Solde insuffisant", ex.getMessage());
+        verifyNoInteractions(ledgerWriter);
     }
 
     @Test
-    void buy_createsHoldingIfMissing_andDebitsBalance() {
-        User user = new User();
-        user.setId(1L);
-        user.setBalance(1000.0);
-
+    void buy_upsertsHolding_andDebitsBalance() {
         CryptoAsset asset = new CryptoAsset();
         asset.setId(10L);
         asset.setExternalId("btc");
         asset.setCurrentPrice(100.0);
 
-        when(userRepository.findByUsername("mathys")).thenReturn(Optional.of(user));
         when(assetRepository.findByExternalId("btc")).thenReturn(Optional.of(asset));
-        when(holdingRepository.findByUserIdAndAsset_Id(1L, 10L)).thenReturn(Optional.empty());
+        when(holdingRepository.addQuantity("mathys", 10L, 2.0)).thenReturn(Optional.of(1L));
+        when(userRepository.debitBalanceIfSufficient(1L, 200.0)).thenReturn(Optional.of(800.0));
 
         double newBalance = service.buy("mathys", "btc", 2); // cost 200
 
         assertEquals(800.0, newBalance);
-
-        // user saved with new balance
-        ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
-        verify(userRepository).save(userCaptor.capture());
-        assertEquals(800.0, userCaptor.getValue().getBalance());
-
-        // holding created and saved
-        ArgumentCaptor<UserHolding> holdingCaptor = ArgumentCaptor.forClass(UserHolding.class);
-        verify(holdingRepository).save(holdingCaptor.capture());
-        assertEquals(1L, holdingCaptor.getValue().getUserId());
-        assertEquals(2.0, holdingCaptor.getValue().getQuantity());
-        assertEquals(asset, holdingCaptor.getValue().getAsset());
+        verify(holdingRepository).addQuantity("mathys", 10L, 2.0);
+        verify(userRepository).debitBalanceIfSufficient(1L, 200.0);
+
+        // plus de read-modify-write via save()
+        verify(userRepository, never()).save(any());
+        verify(holdingRepository, never()).save(any());
+
+        // trade journalisé
+        ArgumentCaptor<Trade> tradeCaptor = ArgumentCaptor.forClass(Trade.class);
+        verify(ledgerWriter).appendAfterCommit(tradeCaptor.capture());
+        assertEquals(1L, tradeCaptor.getValue().getUserId());
+        assertEquals(10L, tradeCaptor.getValue().getAssetId());
+        assertEquals(TradeSide.BUY, tradeCaptor.getValue().getSide());
+        assertEquals(2.0, tradeCaptor.getValue().getQuantity());
+        assertEquals(100.0, tradeCaptor.getValue().getPrice());
+        assertNotNull(tradeCaptor.getValue().getTs());
     }
 
     @Test
@@ -170,19 +177,35 @@ class TradeServiceTest {
         assertEquals("qty must be > 0", ex.getMessage());
     }
 
+    @Test
+    void sell_failsWhenUserNotFound() {
+        CryptoAsset asset = new CryptoAsset();
+        asset.setId(10L);
+        asset.setExternalId("btc");
+        asset.setCurrentPrice(100.0);
+
+        when(assetRepository.findByExternalId("btc")).thenReturn(Optional.of(asset));
+        when(holdingRepository.removeQuantityIfSufficient("mathys", 10L, 1.0)).thenReturn(Optional.empty());
+        when(userRepository.findByUsername("mathys")).thenReturn(Optional.empty());
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> service.sell("mathys", "btc", 1));
+        assertEquals("User not found", ex.getMessage());
+    }
+
     @Test
     void sell_failsWhenNoHolding() {
         User user = new User();
         user.setId(1L);
-        user.setBalance(1000.0);
 
         CryptoAsset asset = new CryptoAsset();
         asset.setId(10L);
         asset.setExternalId("btc");
         asset.setCurrentPrice(100.0);
 
-        when(userRepository.findByUsername("mathys")).thenReturn(Optional.of(user));
         when(assetRepository.findByExternalId("btc")).thenReturn(Optional.of(asset));
+        when(holdingRepository.removeQuantityIfSufficient("mathys", 10L, 1.0)).thenReturn(Optional.empty());
+        when(userRepository.findByUsername("mathys")).thenReturn(Optional.of(user));
         when(holdingRepository.findByUserIdAndAsset_Id(1L, 10L)).thenReturn(Optional.empty());
 
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
@@ -194,7 +217,6 @@ class TradeServiceTest {
     void sell_failsWhenNotEnoughQuantity() {
         User user = new User();
         user.setId(1L);
-        user.setBalance(1000.0);
 
         CryptoAsset asset = new CryptoAsset();
         asset.setId(10L);
@@ -206,8 +228,9 @@ class TradeServiceTest {
         holding.setAsset(asset);
         holding.setQuantity(1.0);
 
-        when(userRepository.findByUsername("mathys")).thenReturn(Optional.of(user));
         when(assetRepository.findByExternalId("btc")).thenReturn(Optional.of(asset));
+        when(holdingRepository.removeQuantityIfSufficient("mathys", 10L, 2.0)).thenReturn(Optional.empty());
+        when(userRepository.findByUsername("mathys")).thenReturn(Optional.of(user));
         when(holdingRepository.findByUserIdAndAsset_Id(1L, 10L)).thenReturn(Optional.of(holding));
 
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
@@ -216,61 +239,133 @@ class TradeServiceTest {
     }
 
     @Test
-    void sell_deletesHoldingWhenQuantityBecomesZero_andCreditsBalance() {
-        User user = new User();
-        user.setId(1L);
-        user.setBalance(1000.0);
-
+    void sell_decrementsHolding_andCreditsBalance() {
         CryptoAsset asset = new CryptoAsset();
         asset.setId(10L);
         asset.setExternalId("btc");
         asset.setCurrentPrice(100.0);
 
-        UserHolding holding = new UserHolding();
-        holding.setUserId(1L);
-        holding.setAsset(asset);
-        holding.setQuantity(2.0);
-
-        when(userRepository.findByUsername("mathys")).thenReturn(Optional.of(user));
         when(assetRepository.findByExternalId("btc")).thenReturn(Optional.of(asset));
-        when(holdingRepository.findByUserIdAndAsset_Id(1L, 10L)).thenReturn(Optional.of(holding));
+        when(holdingRepository.removeQuantityIfSufficient("mathys", 10L, 2.0))
+                .thenReturn(Optional.of(quantityUpdate(1L, 0.0)));
+        when(userRepository.creditBalanceAndPurgeHolding(1L, 200.0, 10L)).thenReturn(Optional.of(1200.0));
 
         double newBalance = service.sell("mathys", "btc", 2); // gain 200
 
         assertEquals(1200.0, newBalance);
-        verify(holdingRepository).delete(holding);
+        verify(userRepository).creditBalanceAndPurgeHolding(1L, 200.0, 10L);
 
-        ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
-        verify(userRepository).save(userCaptor.capture());
-        assertEquals(1200.0, userCaptor.getValue().getBalance());
+        // plus de read-modify-write via save()/delete()
+        verify(userRepository, never()).save(any());
+        verify(holdingRepository, never()).save(any());
+        verify(holdingRepository, never()).delete(any());
+
+        ArgumentCaptor<Trade> tradeCaptor = ArgumentCaptor.forClass(Trade.class);
+        verify(ledgerWriter).appendAfterCommit(tradeCaptor.capture());
+        assertEquals(TradeSide.SELL, tradeCaptor.getValue().getSide());
+        assertEquals(2.0, tradeCaptor.getValue().getQuantity());
     }
 
     @Test
-    void sell_savesHoldingWhenRemainingQuantityPositive() {
-        User user = new User();
-        user.setId(1L);
-        user.setBalance(1000.0);
+    void fill_buy_addsHoldingThenDebits_andRecordsTrade() {
+        when(userRepository.debitBalanceIfSufficient(1L, 180.0)).thenReturn(Optional.of(820.0));
 
-        CryptoAsset asset = new CryptoAsset();
-        asset.setId(10L);
-        asset.setExternalId("btc");
-        asset.setCurrentPrice(100.0);
+        assertTrue(service.fill(1L, 10L, TradeSide.BUY, 2.0, 90.0));
 
-        UserHolding holding = new UserHolding();
-        holding.setUserId(1L);
-        holding.setAsset(asset);
-        holding.setQuantity(5.0);
+        var inOrder = inOrder(holdingRepository, userRepository);
+        inOrder.verify(holdingRepository).addQuantityForUser(1L, 10L, 2.0);
+        inOrder.verify(userRepository).debitBalanceIfSufficient(1L, 180.0);
 
-        when(userRepository.findByUsername("mathys")).thenReturn(Optional.of(user));
-        when(assetRepository.findByExternalId("btc")).thenReturn(Optional.of(asset));
-        when(holdingRepository.findByUserIdAndAsset_Id(1L, 10L)).thenReturn(Optional.of(holding));
+        ArgumentCaptor<Trade> tradeCaptor = ArgumentCaptor.forClass(Trade.class);
+        verify(ledgerWriter).appendAfterCommit(tradeCaptor.capture());
+        assertEquals(90.0, tradeCaptor.getValue().getPrice());
+    }
 
-        double newBalance = service.sell("mathys", "btc", 2); // remaining 3, gain 200
+    @Test
+    void fill_buy_returnsFalseWhenInsufficientBalance() {
+        when(userRepository.debitBalanceIfSufficient(1L, 180.0)).thenReturn(Optional.empty());
 
-        assertEquals(1200.0, newBalance);
+        assertFalse(service.fill(1L, 10L, TradeSide.BUY, 2.0, 90.0));
+        verifyNoInteractions(ledgerWriter);
+    }
+
+    @Test
+    void fill_sell_returnsFalseWhenNotEnoughQuantity() {
+        when(holdingRepository.removeQuantityForUserIfSufficient(1L, 10L, 2.0)).thenReturn(Optional.empty());
+
+        assertFalse(service.fill(1L, 10L, TradeSide.SELL, 2.0, 90.0));
+        verify(userRepository, never()).creditBalanceAndPurgeHolding(anyLong(), anyDouble(), anyLong());
+        verifyNoInteractions(ledgerWriter);
+    }
+
+    @Test
+    void getTrades_firstPage_returnsNextCursorWhenPageIsFull() {
+        when(tradeRepository.findFirstPage("mathys", 2)).thenReturn(List.of(
+                tradeRow(5L, "BUY", 2_000_000L),
+                tradeRow(4L, "SELL", 1_000_000L)
+        ));
+
+        TradePageResponse page = service.getTrades("mathys", null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals(5L, page.getItems().get(0).getId());
+        assertEquals(2_000L, page.getItems().get(0).getTs()); // micros -> millis
+        assertNotNull(page.getNextCursor());
+
+        // la page suivante repart strictement après la dernière ligne
+        when(tradeRepository.findPageBefore("mathys", 1_000_000L, 4L, 2)).thenReturn(List.of(
+                tradeRow(3L, "BUY", 500_000L)
+        ));
+
+        TradePageResponse next = service.getTrades("mathys", page.getNextCursor(), 2);
+
+        assertEquals(1, next.getItems().size());
+        assertEquals(3L, next.getItems().get(0).getId());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    void getTrades_clampsLimit() {
+        when(tradeRepository.findFirstPage("mathys", 200)).thenReturn(List.of());
+
+        TradePageResponse page = service.getTrades("mathys", "", 10_000);
+
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+        verify(tradeRepository).findFirstPage("mathys", 200);
+    }
+
+    @Test
+    void getTrades_rejectsInvalidCursor() {
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> service.getTrades("mathys", "pas-un-curseur", 10));
+        assertEquals("Curseur invalide.", ex.getMessage());
+        verifyNoInteractions(tradeRepository);
+    }
+
+    private static TradeRepository.TradeRow tradeRow(Long id, String side, Long tsMicros) {
+        return new TradeRepository.TradeRow() {
+            @Override public Long getId() { return id; }
+            @Override public String getExternalId() { return "btc"; }
+            @Override public String getSymbol() { return "BTC"; }
+            @Override public String getSide() { return side; }
+            @Override public Double getQuantity() { return 1.0; }
+            @Override public Double getPrice() { return 100.0; }
+            @Override public Long getTsMicros() { return tsMicros; }
+        };
+    }
 
-        ArgumentCaptor<UserHolding> holdingCaptor = ArgumentCaptor.forClass(UserHolding.class);
-        verify(holdingRepository).save(holdingCaptor.capture());
-        assertEquals(3.0, holdingCaptor.getValue().getQuantity());
+    private static UserHoldingRepository.QuantityUpdate quantityUpdate(Long userId, Double quantity) {
+        return new UserHoldingRepository.QuantityUpdate() {
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public Double getQuantity() {
+                return quantity;
+            }
+        };
     }
 }
@@ -27,7 +27,7 @@ class UserSpaceServiceTest {
         userRepository = mock(UserRepository.class);
         assetRepository = mock(CryptoAssetRepository.class);
         favoritesRepository = mock(UserFavoritesRepository.class);
-        service = new UserSpaceService(userRepository, assetRepository, favoritesRepository);
+        service = new UserSpaceService(userRepository, assetRepository, favoritesRepository, mock(LeaderboardService.class));
     }
 
     @Test
@@ -66,17 +66,24 @@ class UserSpaceServiceTest {
     }
 
     @Test
-    void addBalance_incrementsAndSaves() {
-        User u = new User();
-        u.setId(1L);
-        u.setBalance(100.0);
-
-        when(userRepository.findByUsername("mathys")).thenReturn(Optional.of(u));
+    void addBalance_creditsInOneStatement_withoutSavingTheEntity() {
+        UserRepository.BalanceRow row = mock(UserRepository.BalanceRow.class);
+        when(row.getId()).thenReturn(1L);
+        when(row.getBalance()).thenReturn(150.0);
+        when(userRepository.creditBalanceByUsername("mathys", 50.0)).thenReturn(Optional.of(row));
 
         double out = service.addBalance("mathys", 50.0);
 
         assertEquals(150.0, out);
-        verify(userRepository).save(u);
+        verify(userRepository, never()).save(any());
+        verify(userRepository, never()).findByUsername(any());
+    }
+
+    @Test
+    void addBalance_throwsWhenUserMissing() {
+        when(userRepository.creditBalanceByUsername("mathys", 50.0)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> service.addBalance("mathys", 50.0));
     }
 
     @Test
@@ -0,0 +1,49 @@
+package api.service;
+
+import api.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookTargetValidatorTest {
+
+    private final WebhookTargetValidator validator = new WebhookTargetValidator(false);
+
+    @Test
+    void validate_rejectsInternalTargets() {
+        for (String url : new String[] {
+                "http://127.0.0.1:8080/actuator", "http://localhost/hook", "http://10.96.0.1/",
+                "http://192.168.1.10/hook", "http://169.254.169.254/latest/meta-data/",
+                "http://[::1]/hook", "http://[fd00::1]/hook", "http://0.0.0.0/", "http://100.64.0.1/"
+        }) {
+            BusinessException e = assertThrows(BusinessException.class, () -> validator.validate(url), url);
+            assertTrue(e.getMessage().contains("adresse publique"), url);
+        }
+    }
+
+    @Test
+    void validate_acceptsPublicIpLiteral() {
+        assertEquals("https://93.184.216.34/hooks/crypto", validator.validate(" https://93.184.216.34/hooks/crypto "));
+    }
+
+    @Test
+    void validate_rejectsBadUrls() {
+        assertThrows(BusinessException.class, () -> validator.validate(null));
+        assertThrows(BusinessException.class, () -> validator.validate("ftp://93.184.216.34/x"));
+        assertThrows(BusinessException.class, () -> validator.validate("/relative/hook"));
+    }
+
+    @Test
+    void validate_allowPrivateAddresses_skipsResolution() {
+        assertEquals("http://127.0.0.1:9000/hook",
+                new WebhookTargetValidator(true).validate("http://127.0.0.1:9000/hook"));
+    }
+
+    @Test
+    void isPublic_ipv4MappedAddress_followsIpv4Rules() throws Exception {
+        assertFalse(WebhookTargetValidator.isPublic(InetAddress.getByName("::ffff:10.0.0.1")));
+        assertTrue(WebhookTargetValidator.isPublic(InetAddress.getByName("2606:4700:4700::1111")));
+    }
+}
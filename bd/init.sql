@@ -61,6 +61,21 @@ CREATE INDEX IF NOT EXISTS idx_price_history_asset_ts
 CREATE INDEX IF NOT EXISTS idx_price_history_ts
     ON crypto_price_history (ts DESC);
 
+-- ✅ Valeur des portefeuilles (écrite par le collector à chaque tick)
+-- resolution : 'm' (minute), 'h' (heure), 'd' (jour) ; h/d = valeur de clôture de la période
+CREATE TABLE IF NOT EXISTS portfolio_value_points (
+    user_id     BIGINT NOT NULL,
+    resolution  CHAR(1) NOT NULL,
+    bucket      TIMESTAMPTZ NOT NULL,
+    value       DOUBLE PRECISION NOT NULL,
+    PRIMARY KEY (user_id, resolution, bucket),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- purge de rétention par résolution
+CREATE INDEX IF NOT EXISTS idx_portfolio_value_points_retention
+    ON portfolio_value_points (resolution, bucket);
+
 -- ✅ Solde utilisateur
 ALTER TABLE users
 ADD COLUMN IF NOT EXISTS balance DOUBLE PRECISION NOT NULL DEFAULT 0;
@@ -92,6 +107,62 @@ CREATE TABLE IF NOT EXISTS price_alerts (
   UNIQUE(user_id, asset_id)
 );
 
+-- Alertes encore déclenchables : seules lignes lues par l'UPDATE de déclenchement
+CREATE INDEX IF NOT EXISTS idx_price_alerts_pending
+  ON price_alerts (asset_id)
+  WHERE active AND (last_triggered_high_at IS NULL OR last_triggered_low_at IS NULL);
+
+-- Alertes relatives (variation en % sur fenêtre glissante, croisement de moyenne mobile).
+-- Évaluées en mémoire par l'API ; armed / last_direction servent au déclenchement unique
+CREATE TABLE IF NOT EXISTS movement_alerts (
+  id BIGSERIAL PRIMARY KEY,
+  user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+  asset_id BIGINT NOT NULL REFERENCES crypto_assets(id) ON DELETE CASCADE,
+  type VARCHAR(20) NOT NULL,
+  percent DOUBLE PRECISION NOT NULL,
+  window_seconds BIGINT NOT NULL,
+  armed BOOLEAN NOT NULL DEFAULT TRUE,
+  last_direction VARCHAR(4) NULL,
+  last_triggered_at TIMESTAMPTZ NULL,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_movement_alerts_user ON movement_alerts(user_id);
+
+-- Webhooks des utilisateurs : canal de notification des alertes en plus de l'email
+CREATE TABLE IF NOT EXISTS alert_webhooks (
+  id BIGSERIAL PRIMARY KEY,
+  user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+  url VARCHAR(2048) NOT NULL,
+  active BOOLEAN NOT NULL DEFAULT TRUE,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_alert_webhooks_user ON alert_webhooks(user_id);
+
+-- Lots d'alertes non livrés par le collector (retries épuisés, 4xx, file pleine)
+CREATE TABLE IF NOT EXISTS webhook_dead_letters (
+  id BIGSERIAL PRIMARY KEY,
+  webhook_id BIGINT NOT NULL,
+  url VARCHAR(2048) NOT NULL,
+  payload TEXT NOT NULL,
+  event_count INT NOT NULL,
+  attempts INT NOT NULL,
+  last_error TEXT NULL,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+-- Alertes déclenchées (API ou collector), lues par chaque instance de l'API
+-- pour le flux /api/me/alerts/stream ; purgées après 1 jour
+CREATE TABLE IF NOT EXISTS alert_events (
+  id BIGSERIAL PRIMARY KEY,
+  user_id BIGINT NOT NULL,
+  payload TEXT NOT NULL,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_alert_events_created ON alert_events(created_at, id);
+
 -- Table des positions (holdings)
 CREATE TABLE IF NOT EXISTS user_holdings (
   id BIGSERIAL PRIMARY KEY,
@@ -110,3 +181,108 @@ CREATE TABLE IF NOT EXISTS user_holdings (
 
 CREATE INDEX IF NOT EXISTS idx_user_holdings_user_id ON user_holdings(user_id);
 CREATE INDEX IF NOT EXISTS idx_user_holdings_asset_id ON user_holdings(asset_id);
+
+-- Valorisation incrémentale des portefeuilles (collector) :
+-- derniers prix valorisés, pour ne revaloriser que les détenteurs des actifs dont le prix a bougé
+CREATE TABLE IF NOT EXISTS portfolio_asset_prices (
+  asset_id BIGINT PRIMARY KEY REFERENCES crypto_assets(id) ON DELETE CASCADE,
+  price    DOUBLE PRECISION NOT NULL
+);
+
+-- utilisateurs dont les positions ont changé depuis le dernier tick.
+-- Pas de FK vers users : la suppression d'un utilisateur cascade sur user_holdings, dont le trigger écrit ici.
+CREATE TABLE IF NOT EXISTS portfolio_dirty_users (
+  user_id BIGINT PRIMARY KEY
+);
+
+-- DO UPDATE (et non DO NOTHING) : verrouille la ligne jusqu'au commit du trade,
+-- le tick du collector la saute (SKIP LOCKED) tant que la nouvelle position n'est pas visible
+CREATE OR REPLACE FUNCTION mark_portfolio_dirty() RETURNS trigger AS $$
+BEGIN
+  INSERT INTO portfolio_dirty_users (user_id)
+  VALUES (CASE WHEN TG_OP = 'DELETE' THEN OLD.user_id ELSE NEW.user_id END)
+  ON CONFLICT (user_id) DO UPDATE SET user_id = EXCLUDED.user_id;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE TRIGGER trg_user_holdings_dirty_insert_delete
+  AFTER INSERT OR DELETE ON user_holdings
+  FOR EACH ROW EXECUTE FUNCTION mark_portfolio_dirty();
+
+CREATE OR REPLACE TRIGGER trg_user_holdings_dirty_update
+  AFTER UPDATE OF quantity ON user_holdings
+  FOR EACH ROW WHEN (OLD.quantity IS DISTINCT FROM NEW.quantity)
+  EXECUTE FUNCTION mark_portfolio_dirty();
+
+-- Journal des trades (append-only, écrit en batch par l'API)
+CREATE TABLE IF NOT EXISTS trades (
+  id BIGSERIAL PRIMARY KEY,
+  user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+  asset_id BIGINT NOT NULL REFERENCES crypto_assets(id) ON DELETE CASCADE,
+  side VARCHAR(4) NOT NULL,
+  quantity DOUBLE PRECISION NOT NULL,
+  price DOUBLE PRECISION NOT NULL,
+  ts TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  -- clé Idempotency-Key de la requête, informative (les clés expirent et peuvent être réutilisées)
+  idempotency_key VARCHAR(100) NULL,
+  -- attribué à l'enfilage par TradeLedgerWriter : un batch rejoué n'écrit jamais 2 fois la même ligne
+  entry_id UUID NOT NULL,
+
+  CONSTRAINT uq_trades_entry UNIQUE (entry_id)
+);
+
+-- Historique paginé par utilisateur (GET /api/me/trades)
+CREATE INDEX IF NOT EXISTS idx_trades_user_ts ON trades(user_id, ts DESC);
+
+-- Clés d'idempotence (header Idempotency-Key) : réponse mémorisée par utilisateur, avec TTL
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+  id BIGSERIAL PRIMARY KEY,
+  username VARCHAR(50) NOT NULL,
+  idem_key VARCHAR(100) NOT NULL,
+  fingerprint VARCHAR(64) NOT NULL,
+  status VARCHAR(20) NOT NULL,
+  response_body TEXT NULL,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  expires_at TIMESTAMPTZ NOT NULL,
+
+  CONSTRAINT uq_idempotency_user_key UNIQUE (username, idem_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_expires_at ON idempotency_keys(expires_at);
+
+-- Ordres en attente (limit / stop-loss / take-profit), déclenchés par l'API sur les prix du collector
+CREATE TABLE IF NOT EXISTS trade_orders (
+  id BIGSERIAL PRIMARY KEY,
+  user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+  asset_id BIGINT NOT NULL REFERENCES crypto_assets(id) ON DELETE CASCADE,
+  type VARCHAR(20) NOT NULL,
+  quantity DOUBLE PRECISION NOT NULL,
+  trigger_price DOUBLE PRECISION NOT NULL,
+  status VARCHAR(20) NOT NULL,
+  fill_price DOUBLE PRECISION NULL,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  closed_at TIMESTAMPTZ NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_trade_orders_user_created ON trade_orders(user_id, created_at DESC);
+-- Rechargement du carnet au démarrage (ordres OPEN uniquement)
+CREATE INDEX IF NOT EXISTS idx_trade_orders_open ON trade_orders(id) WHERE status = 'OPEN';
+
+-- Achats récurrents (DCA) : réclamés par lots sur next_run_at par l'API
+CREATE TABLE IF NOT EXISTS recurring_buys (
+  id BIGSERIAL PRIMARY KEY,
+  user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+  asset_id BIGINT NOT NULL REFERENCES crypto_assets(id) ON DELETE CASCADE,
+  amount DOUBLE PRECISION NOT NULL,
+  interval_seconds BIGINT NOT NULL,
+  next_run_at TIMESTAMPTZ NOT NULL,
+  active BOOLEAN NOT NULL DEFAULT TRUE,
+  last_run_at TIMESTAMPTZ NULL,
+  last_status VARCHAR(20) NULL,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+-- Échéances dues (index partiel : seules les lignes actives sont réclamées)
+CREATE INDEX IF NOT EXISTS idx_recurring_buys_next_run ON recurring_buys(next_run_at) WHERE active;
+CREATE INDEX IF NOT EXISTS idx_recurring_buys_user ON recurring_buys(user_id);
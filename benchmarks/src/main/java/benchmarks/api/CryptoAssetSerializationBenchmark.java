@@ -0,0 +1,55 @@
+package benchmarks.api;
+
+import api.model.CryptoAsset;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sérialisation Jackson de la réponse GET /api/cryptos (List<CryptoAsset>),
+ * avec un ObjectMapper configuré comme celui de Spring Boot (Jackson2ObjectMapperBuilder).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CryptoAssetSerializationBenchmark {
+
+    // top 100 collecté, puis un catalogue plus large
+    @Param({"100", "1000"})
+    public int assets;
+
+    ObjectMapper objectMapper;
+    List<CryptoAsset> list;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        list = new ArrayList<>(assets);
+        for (int i = 0; i < assets; i++) {
+            list.add(CryptoAsset.builder()
+                    .id((long) i + 1)
+                    .externalId("coin-" + i)
+                    .symbol("c" + i)
+                    .name("Coin " + i)
+                    .currentPrice(1_000.0 / (i + 1))
+                    .marketCap(1.0e12 / (i + 1))
+                    .totalVolume(3.5e10 / (i + 1))
+                    .price_change_24h(i % 2 == 0 ? 1.25 : -0.75)
+                    .imageUrl("https://assets.coingecko.com/coins/images/" + i + "/large/coin.png")
+                    .marketCapRank(i + 1)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() throws Exception {
+        return objectMapper.writeValueAsBytes(list);
+    }
+}
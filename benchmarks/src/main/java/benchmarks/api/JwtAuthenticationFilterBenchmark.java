@@ -0,0 +1,68 @@
+package benchmarks.api;
+
+import api.service.JwtAuthenticationFilter;
+import api.service.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtAuthenticationFilter de bout en bout (en-tête -> SecurityContext -> chaîne),
+ * hors base : le UserDetailsService renvoie un utilisateur en mémoire, on mesure donc
+ * le coût propre du filtre (parsing, validation, authentification) par requête.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"valid", "tampered", "none"})
+    public String header;
+
+    JwtAuthenticationFilter filter;
+    MockHttpServletRequest request;
+    MockHttpServletResponse response;
+    FilterChain chain;
+    Blackhole blackhole;
+
+    @Setup
+    public void setup(Blackhole bh) {
+        JwtService jwtService = JwtServiceBenchmark.jwtService();
+        UserDetails user = User.withUsername("bench-user").password("x").authorities("ROLE_USER").build();
+        UserDetailsService userDetailsService = username -> user;
+        filter = new JwtAuthenticationFilter(jwtService, userDetailsService, new SimpleMeterRegistry());
+
+        String token = jwtService.generateToken(user);
+        request = new MockHttpServletRequest("GET", "/api/me/portfolio");
+        request.setRemoteAddr("10.0.0.1");
+        switch (header) {
+            case "valid" -> request.addHeader("Authorization", "Bearer " + token);
+            case "tampered" -> request.addHeader("Authorization", "Bearer " + token.substring(0, token.length() - 8) + "AAAAAAAA");
+            default -> { }
+        }
+        response = new MockHttpServletResponse();
+        blackhole = bh;
+        chain = (req, res) -> blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Benchmark
+    public void doFilter() throws Exception {
+        try {
+            filter.doFilter(request, response, chain);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package benchmarks.api;
+
+import api.service.JwtService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtService : parsing (extractUsername) et validation complète (isTokenValid, 2 parsings
+ * + vérification HMAC), jeton valide et jeton à signature altérée.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    // même format que jwt.secret (base64, 256 bits)
+    static final String SECRET = "c2VjcmV0LWtleS1mb3ItYmVuY2htYXJrcy1vbmx5LTI1Ni1iaXRzISE=";
+
+    JwtService jwtService;
+    UserDetails user;
+    String token;
+    String tampered;
+
+    @Setup
+    public void setup() {
+        jwtService = jwtService();
+        user = User.withUsername("bench-user").password("x").authorities("ROLE_USER").build();
+        token = jwtService.generateToken(user);
+        // altère la signature au milieu (le dernier caractère base64url peut n'avoir que des bits de remplissage)
+        int i = token.lastIndexOf('.') + 10;
+        tampered = token.substring(0, i) + (token.charAt(i) == 'A' ? 'B' : 'A') + token.substring(i + 1);
+    }
+
+    static JwtService jwtService() {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secretKey", SECRET);
+        ReflectionTestUtils.setField(service, "jwtExpiration", TimeUnit.HOURS.toMillis(24));
+        return service;
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(token, user);
+    }
+
+    @Benchmark
+    public boolean isTokenValid_tampered() {
+        return jwtService.isTokenValid(tampered, user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+}
@@ -0,0 +1,70 @@
+package benchmarks.api;
+
+import api.dto.PricePointDto;
+import api.model.CryptoAsset;
+import api.repository.CryptoAssetRepository;
+import api.repository.CryptoPriceHistoryRepository;
+import api.service.PriceHistoryQueryService;
+import benchmarks.Stubs;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PriceHistoryQueryService : conversion des lignes natives (Object[] ts, price) en PricePointDto.
+ * Dépôts simulés : seule la boucle de mapping est mesurée, pour chaque type de ts que
+ * le driver / Hibernate peut renvoyer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PriceHistoryQueryServiceBenchmark {
+
+    // 7 jours : 1 point / 5 min, 1 point / min
+    @Param({"2016", "10080"})
+    public int rows;
+
+    @Param({"timestamp", "offsetDateTime", "instant"})
+    public String tsType;
+
+    PriceHistoryQueryService service;
+
+    @Setup
+    public void setup() {
+        List<Object[]> series = new ArrayList<>(rows);
+        Instant start = Instant.now().minus(7, ChronoUnit.DAYS);
+        long stepSeconds = TimeUnit.DAYS.toSeconds(7) / rows;
+        for (int i = 0; i < rows; i++) {
+            Instant ts = start.plusSeconds(i * stepSeconds);
+            Object tsValue = switch (tsType) {
+                case "timestamp" -> Timestamp.from(ts);
+                case "offsetDateTime" -> ts.atOffset(ZoneOffset.UTC);
+                default -> ts;
+            };
+            series.add(new Object[]{tsValue, 30_000.0 + i % 500});
+        }
+
+        CryptoAsset asset = CryptoAsset.builder().id(1L).externalId("bitcoin").symbol("btc").name("Bitcoin").build();
+        CryptoAssetRepository assets = Stubs.repository(CryptoAssetRepository.class,
+                Map.of("findByExternalId", args -> Optional.of(asset)));
+        CryptoPriceHistoryRepository history = Stubs.repository(CryptoPriceHistoryRepository.class,
+                Map.of("findPriceSeries", args -> series));
+        service = new PriceHistoryQueryService(assets, history);
+    }
+
+    @Benchmark
+    public List<PricePointDto> getLast7DaysSeries() {
+        return service.getLast7DaysSeriesByExternalId("bitcoin", "usd");
+    }
+}
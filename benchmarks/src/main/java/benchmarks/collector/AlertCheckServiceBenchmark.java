@@ -0,0 +1,121 @@
+package benchmarks.collector;
+
+import benchmarks.Stubs;
+import collector.config.CollectorMetrics;
+import collector.model.AlertWebhook;
+import collector.repository.AlertWebhookRepository;
+import collector.repository.PriceAlertRepository;
+import collector.service.AlertCheckService;
+import collector.service.AlertEventPublisher;
+import collector.service.MailService;
+import collector.service.WebhookDispatcher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AlertCheckService.checkAlerts() pour 10k / 100k / 1M alertes franchies en un passage.
+ *
+ * Le franchissement lui-même est évalué en SQL (triggerCrossed) : on mesure ici la partie JVM
+ * d'un passage (HTML des emails, événements sérialisés en JSON, regroupement des webhooks),
+ * collaborateurs I/O remplacés par des no-op. Le log WARN par email est coupé (logback.xml).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class AlertCheckServiceBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int alerts;
+
+    AlertCheckService service;
+
+    @Setup
+    public void setup(Blackhole bh) {
+        // 5 alertes par utilisateur, 1 utilisateur sur 10 avec un webhook
+        List<PriceAlertRepository.TriggeredAlertRow> triggered = new ArrayList<>(alerts);
+        for (int i = 0; i < alerts; i++) {
+            boolean high = i % 2 == 0;
+            triggered.add(new Row((long) i, (long) i / 5, "user" + i / 5 + "@example.com", "coin-" + i % 100,
+                    high ? 110.0 : 90.0, 100.0, 95.0, high, !high));
+        }
+
+        PriceAlertRepository alertRepository = Stubs.repository(PriceAlertRepository.class,
+                Map.of("triggerCrossed", args -> triggered));
+        AlertWebhookRepository webhookRepository = Stubs.repository(AlertWebhookRepository.class,
+                Map.of("findByUserIdInAndActiveTrue", args -> webhooks((Collection<?>) args[0])));
+
+        MailService mailService = new MailService(null) {
+            @Override
+            public void sendHtml(String to, String subject, String htmlBody) {
+                bh.consume(htmlBody);
+            }
+        };
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+            @Override
+            public int update(String sql, PreparedStatementSetter pss) {
+                return 0;
+            }
+        };
+        AlertEventPublisher eventPublisher = new AlertEventPublisher(jdbcTemplate, objectMapper);
+        WebhookDispatcher webhookDispatcher = new WebhookDispatcher(null, null, objectMapper, 4, 100, 10_000, 3, 200, 5_000) {
+            @Override
+            public void submit(List<Delivery> deliveries) {
+                bh.consume(deliveries);
+            }
+        };
+
+        service = new AlertCheckService(alertRepository, mailService, webhookRepository, webhookDispatcher, eventPublisher,
+                new CollectorMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(service, "frontendUrl", "http://localhost:3000");
+    }
+
+    private static List<AlertWebhook> webhooks(Collection<?> userIds) {
+        List<AlertWebhook> out = new ArrayList<>();
+        for (Object id : userIds) {
+            long userId = (Long) id;
+            if (userId % 10 != 0) continue;
+            AlertWebhook w = new AlertWebhook();
+            w.setId(userId);
+            w.setUserId(userId);
+            w.setUrl("https://hooks.example.com/" + userId);
+            w.setActive(true);
+            out.add(w);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public void checkAlerts() {
+        service.checkAlerts();
+    }
+
+    private record Row(Long id, Long userId, String email, String externalId, Double price,
+                       Double thresholdHigh, Double thresholdLow, Boolean high, Boolean low)
+            implements PriceAlertRepository.TriggeredAlertRow {
+        public Long getId() { return id; }
+        public Long getUserId() { return userId; }
+        public String getEmail() { return email; }
+        public String getExternalId() { return externalId; }
+        public Double getPrice() { return price; }
+        public Double getThresholdHigh() { return thresholdHigh; }
+        public Double getThresholdLow() { return thresholdLow; }
+        public Boolean getHigh() { return high; }
+        public Boolean getLow() { return low; }
+    }
+}
@@ -0,0 +1,116 @@
+package benchmarks.collector;
+
+import collector.dto.CoinGeckoCoinDto;
+import collector.dto.CoinGeckoMarketChartDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Décodage des réponses CoinGecko en DTO :
+ * - /coins/markets (per_page=N) -> CoinGeckoCoinDto[] (champs inconnus ignorés, comme en prod) ;
+ * - /coins/{id}/market_chart?days=7 -> CoinGeckoMarketChartDto (169 points horaires x 3 séries).
+ * Chaque charge utile est décodée avec l'ObjectMapper seul et via le Jackson2JsonDecoder
+ * du WebClient (bodyToMono), pour isoler le coût du codec réactif.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CoinGeckoDecodingBenchmark {
+
+    private static final ResolvableType COINS = ResolvableType.forClass(CoinGeckoCoinDto[].class);
+    private static final ResolvableType CHART = ResolvableType.forClass(CoinGeckoMarketChartDto.class);
+
+    @Param({"100", "250"})
+    public int coins;
+
+    ObjectMapper objectMapper;
+    Jackson2JsonDecoder decoder;
+    DefaultDataBufferFactory buffers;
+    byte[] marketsJson;
+    byte[] chartJson;
+
+    @Setup
+    public void setup() {
+        // même configuration que le décodeur par défaut de WebClient.builder()
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        decoder = new Jackson2JsonDecoder(objectMapper);
+        decoder.setMaxInMemorySize(-1);
+        buffers = DefaultDataBufferFactory.sharedInstance;
+        marketsJson = markets(coins).getBytes(StandardCharsets.UTF_8);
+        chartJson = marketChart(169).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public CoinGeckoCoinDto[] markets_objectMapper() throws Exception {
+        return objectMapper.readValue(marketsJson, CoinGeckoCoinDto[].class);
+    }
+
+    @Benchmark
+    public Object markets_webClientDecoder() {
+        return decoder.decodeToMono(Flux.just(buffers.wrap(marketsJson)), COINS, null, null).block();
+    }
+
+    @Benchmark
+    public CoinGeckoMarketChartDto marketChart_objectMapper() throws Exception {
+        return objectMapper.readValue(chartJson, CoinGeckoMarketChartDto.class);
+    }
+
+    @Benchmark
+    public Object marketChart_webClientDecoder() {
+        return decoder.decodeToMono(Flux.just(buffers.wrap(chartJson)), CHART, null, null).block();
+    }
+
+    // forme de /coins/markets (champs complets, dont ceux que le DTO ignore)
+    static String markets(int n) {
+        StringBuilder sb = new StringBuilder(n * 900).append('[');
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(',');
+            double price = 60_000.0 / (i + 1);
+            sb.append(String.format(Locale.ROOT, """
+                {"id":"coin-%1$d","symbol":"c%1$d","name":"Coin %1$d",\
+                "image":"https://coin-images.coingecko.com/coins/images/%1$d/large/coin.png?1696501400",\
+                "current_price":%2$.6f,"market_cap":%3$d,"market_cap_rank":%4$d,\
+                "fully_diluted_valuation":%3$d,"total_volume":%5$d,"high_24h":%6$.6f,"low_24h":%7$.6f,\
+                "price_change_24h":%8$.6f,"price_change_percentage_24h":1.23456,\
+                "market_cap_change_24h":123456789.5,"market_cap_change_percentage_24h":0.98765,\
+                "circulating_supply":19700000.0,"total_supply":21000000.0,"max_supply":21000000.0,\
+                "ath":%6$.6f,"ath_change_percentage":-12.3456,"ath_date":"2024-03-14T07:10:36.635Z",\
+                "atl":0.04865,"atl_change_percentage":123456789.12,"atl_date":"2013-07-06T00:00:00.000Z",\
+                "roi":null,"last_updated":"2026-10-19T08:00:00.000Z"}""",
+                    i, price, (long) (1.2e12 / (i + 1)), i + 1, (long) (3.0e10 / (i + 1)),
+                    price * 1.02, price * 0.98, price * 0.0123));
+        }
+        return sb.append(']').toString();
+    }
+
+    // forme de /coins/{id}/market_chart : [[epochMillis, valeur], ...] x 3
+    static String marketChart(int points) {
+        long start = 1_760_000_000_000L;
+        StringBuilder sb = new StringBuilder(points * 150).append('{');
+        String[] series = {"prices", "market_caps", "total_volumes"};
+        double[] base = {60_000.123456, 1.2e12, 3.0e10};
+        for (int s = 0; s < series.length; s++) {
+            if (s > 0) sb.append(',');
+            sb.append('"').append(series[s]).append("\":[");
+            for (int i = 0; i < points; i++) {
+                if (i > 0) sb.append(',');
+                sb.append('[').append(start + i * 3_600_000L).append(',')
+                        .append(base[s] * (1 + (i % 24) / 1000.0)).append(']');
+            }
+            sb.append(']');
+        }
+        return sb.append('}').toString();
+    }
+}
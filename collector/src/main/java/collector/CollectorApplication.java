@@ -1,10 +1,13 @@
 package collector;
 
+import common.observability.ThreadingDiagnostics;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@Import(ThreadingDiagnostics.class) // classe partagée (module common/), hors du scan de composants
 @EnableScheduling //permet de rendre enable le scheduler interne a spring
 public class CollectorApplication {
 
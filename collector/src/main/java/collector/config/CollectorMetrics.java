@@ -0,0 +1,108 @@
+package collector.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Métriques du chemin chaud du collector (exposées sur /actuator/prometheus) :
+ *
+ * - collector.stage{stage}                 : durée de chaque étape d'un tick (fetch, persist, bootstrap,
+ *                                            alert_pass, portfolio) ;
+ * - collector.coingecko.requests{endpoint, status} : latence et codes de réponse CoinGecko
+ *                                            (cf. WebClientConfig) ;
+ * - collector.points.written{series}       : points d'historique / de portefeuille écrits ;
+ * - collector.alerts.triggered{kind}       : seuils franchis (HIGH / LOW) ;
+ * - collector.mail.send{outcome}           : latence d'envoi SMTP des alertes.
+ *
+ * Histogrammes activés par management.metrics.distribution.percentiles-histogram.*.
+ * Chaque étape ouvre aussi un span "collector.<stage>", enfant du span du tick (cf. TracingConfig).
+ */
+@Component
+public class CollectorMetrics {
+
+    private final MeterRegistry registry;
+    private final Tracer tracer;
+
+    @Autowired
+    public CollectorMetrics(MeterRegistry registry, Tracer tracer) {
+        this.registry = registry;
+        this.tracer = tracer;
+    }
+
+    // tests unitaires : métriques seules, sans spans
+    public CollectorMetrics(MeterRegistry registry) {
+        this(registry, Tracer.NOOP);
+    }
+
+    public <T> T stage(String stage, Supplier<T> work) {
+        Span span = stageSpan(stage);
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            return stageTimer(stage).record(work);
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    public void stage(String stage, Runnable work) {
+        stage(stage, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    private Span stageSpan(String stage) {
+        return tracer.nextSpan().name("collector." + stage).tag("stage", stage).start();
+    }
+
+    private Timer stageTimer(String stage) {
+        return Timer.builder("collector.stage")
+                .description("Durée d'une étape du tick de collecte")
+                .tag("stage", stage)
+                .register(registry);
+    }
+
+    public void coinGeckoRequest(String endpoint, String status, long nanos) {
+        Timer.builder("collector.coingecko.requests")
+                .description("Appels HTTP à CoinGecko")
+                .tag("endpoint", endpoint)
+                .tag("status", status)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void pointsWritten(String series, long count) {
+        if (count <= 0) return;
+        Counter.builder("collector.points.written")
+                .description("Points de série temporelle écrits")
+                .tag("series", series)
+                .register(registry)
+                .increment(count);
+    }
+
+    public void alertTriggered(String kind) {
+        Counter.builder("collector.alerts.triggered")
+                .description("Seuils d'alerte franchis")
+                .tag("kind", kind)
+                .register(registry)
+                .increment();
+    }
+
+    public void mailSent(boolean success, long nanos) {
+        Timer.builder("collector.mail.send")
+                .description("Envoi SMTP des emails d'alerte")
+                .tag("outcome", success ? "success" : "failure")
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
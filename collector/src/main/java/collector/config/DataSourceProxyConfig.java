@@ -0,0 +1,44 @@
+package collector.config;
+
+import common.observability.QueryInspector;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import net.ttddyy.observation.tracing.DataSourceObservationListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Un seul proxy datasource-proxy autour de la DataSource, partagé par ses listeners :
+ * QueryInspector (app.query-inspection.*) et spans JDBC (cf. TracingConfig).
+ */
+@Configuration
+public class DataSourceProxyConfig {
+
+    // static : post-processeur créé avant les autres beans ; les listeners sont résolus à l'enveloppement
+    @Bean
+    public static BeanPostProcessor dataSourceProxyPostProcessor(
+            ObjectProvider<QueryInspector> inspector,
+            ObjectProvider<DataSourceObservationListener> tracing
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource ds) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                QueryInspector queryInspector = inspector.getIfAvailable();
+                DataSourceObservationListener observationListener = tracing.getIfAvailable();
+                if (queryInspector == null && observationListener == null) return bean;
+
+                ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create("primary", ds);
+                if (queryInspector != null) builder.listener(queryInspector);
+                if (observationListener != null) builder.listener(observationListener).methodListener(observationListener);
+                return builder.build();
+            }
+        };
+    }
+}
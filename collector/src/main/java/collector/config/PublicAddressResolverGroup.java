@@ -0,0 +1,107 @@
+package collector.config;
+
+import io.netty.resolver.AbstractAddressResolver;
+import io.netty.resolver.AddressResolver;
+import io.netty.resolver.AddressResolverGroup;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Promise;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Résolution DNS des webhooks : n'accepte que des adresses publiques.
+ * La vérification porte sur l'adresse effectivement utilisée pour la connexion : un nom qui
+ * résolvait vers une IP publique à l'enregistrement puis vers 127.0.0.1 / 10.x / 169.254.x
+ * (DNS rebinding) est refusé au moment de l'envoi. Les IP littérales passent aussi par ici.
+ * Résolution JDK (cache de la JVM) sur boundedElastic : jamais sur les threads d'I/O.
+ */
+public class PublicAddressResolverGroup extends AddressResolverGroup<InetSocketAddress> {
+
+    private final Scheduler lookups = Schedulers.boundedElastic();
+
+    @Override
+    protected AddressResolver<InetSocketAddress> newResolver(EventExecutor executor) {
+        return new AbstractAddressResolver<>(executor, InetSocketAddress.class) {
+
+            @Override
+            protected boolean doIsResolved(InetSocketAddress address) {
+                return false; // IP littérale comprise : toujours vérifiée
+            }
+
+            @Override
+            protected void doResolve(InetSocketAddress address, Promise<InetSocketAddress> promise) {
+                lookups.schedule(() -> {
+                    try {
+                        promise.setSuccess(new InetSocketAddress(lookup(address.getHostString()).get(0), address.getPort()));
+                    } catch (UnknownHostException | RuntimeException e) {
+                        promise.setFailure(e);
+                    }
+                });
+            }
+
+            @Override
+            protected void doResolveAll(InetSocketAddress address, Promise<List<InetSocketAddress>> promise) {
+                lookups.schedule(() -> {
+                    try {
+                        List<InetSocketAddress> all = new ArrayList<>();
+                        for (InetAddress a : lookup(address.getHostString())) {
+                            all.add(new InetSocketAddress(a, address.getPort()));
+                        }
+                        promise.setSuccess(all);
+                    } catch (UnknownHostException | RuntimeException e) {
+                        promise.setFailure(e);
+                    }
+                });
+            }
+        };
+    }
+
+    // toutes les adresses du nom doivent être publiques : pas de repli vers une IP interne
+    static List<InetAddress> lookup(String host) throws UnknownHostException {
+        List<InetAddress> addresses = List.of(InetAddress.getAllByName(host));
+        for (InetAddress a : addresses) {
+            if (!isPublic(a)) throw new ForbiddenAddressException(host, a);
+        }
+        return addresses;
+    }
+
+    /**
+     * false pour loopback, non spécifiée, privée (RFC 1918 : pods et services du cluster),
+     * lien local (dont 169.254.169.254, metadata cloud), multicast, CGNAT 100.64/10,
+     * plages IPv4 réservées et IPv6 ULA fc00::/7. Les IPv4 mappées (::ffff:a.b.c.d) sont
+     * converties en Inet4Address par le JDK et suivent les règles IPv4.
+     */
+    public static boolean isPublic(InetAddress a) {
+        if (a.isAnyLocalAddress() || a.isLoopbackAddress() || a.isLinkLocalAddress()
+                || a.isSiteLocalAddress() || a.isMulticastAddress()) {
+            return false;
+        }
+        byte[] b = a.getAddress();
+        if (a instanceof Inet4Address) {
+            int b0 = b[0] & 0xff;
+            int b1 = b[1] & 0xff;
+            return b0 != 0                                            // 0.0.0.0/8
+                    && !(b0 == 100 && (b1 & 0xc0) == 64)              // 100.64.0.0/10
+                    && !(b0 == 192 && b1 == 0 && (b[2] & 0xff) == 0)  // 192.0.0.0/24
+                    && !(b0 == 198 && (b1 & 0xfe) == 18)              // 198.18.0.0/15
+                    && b0 < 240;                                      // 240.0.0.0/4, broadcast
+        }
+        return (b[0] & 0xfe) != 0xfc;                                 // fc00::/7
+    }
+
+    /**
+     * Adresse interne refusée : non retentée par le WebhookDispatcher.
+     */
+    public static final class ForbiddenAddressException extends UnknownHostException {
+        ForbiddenAddressException(String host, InetAddress address) {
+            super(host + " résout vers une adresse non publique (" + address.getHostAddress() + ")");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package collector.config;
+
+import common.observability.QueriesEndpoint;
+import common.observability.QueryInspectionProperties;
+import common.observability.QueryInspector;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Instrumentation des requêtes SQL (app.query-inspection.*) : listener du proxy de la DataSource
+ * (cf. DataSourceProxyConfig), portée par tick (cf. CoinGeckoScheduler), métriques collector.db.*.
+ * /actuator/queries sur le port de management 8091, non routé par l'ingress et réservé au namespace
+ * monitoring (cf. k8s/management-networkpolicy.yaml ; pas d'authentification côté collector).
+ * Remplace spring.jpa.show-sql.
+ */
+@Configuration
+@EnableConfigurationProperties(QueryInspectionProperties.class)
+@ConditionalOnProperty(name = "app.query-inspection.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryInspectionConfig {
+
+    @Bean
+    public QueryInspector queryInspector(QueryInspectionProperties properties, MeterRegistry meterRegistry) {
+        return new QueryInspector("collector", properties, meterRegistry);
+    }
+
+    @Bean
+    public QueriesEndpoint queriesEndpoint(QueryInspector queryInspector, QueryInspectionProperties properties) {
+        return new QueriesEndpoint(queryInspector, properties);
+    }
+}
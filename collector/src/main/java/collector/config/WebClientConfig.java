@@ -1,20 +1,87 @@
 package collector.config;
 
+import io.micrometer.observation.ObservationRegistry;
+import io.netty.channel.ChannelOption;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
 
+    // client par défaut (services CoinGecko injectés par type) ; observé : 1 span client par appel
+    @Primary
     @Bean
     public WebClient coinGeckoWebClient(
-            @Value("${coingecko.api.url}") String baseUrl
+            @Value("${coingecko.api.url}") String baseUrl,
+            CollectorMetrics metrics,
+            ObservationRegistry observationRegistry
     ) {
         return WebClient.builder()
                 .baseUrl(baseUrl)
+                .filter(coinGeckoMetrics(metrics))
+                .observationRegistry(observationRegistry)
                 .build();
     }
-}
 
+    /**
+     * Latence et code de réponse de chaque appel CoinGecko (collector.coingecko.requests) ;
+     * "IO_ERROR" si aucune réponse (timeout, connexion refusée...).
+     */
+    static ExchangeFilterFunction coinGeckoMetrics(CollectorMetrics metrics) {
+        return (request, next) -> {
+            String endpoint = endpoint(request.url().getPath());
+            long start = System.nanoTime();
+            return next.exchange(request)
+                    .doOnSuccess(response -> metrics.coinGeckoRequest(
+                            endpoint, String.valueOf(response.statusCode().value()), System.nanoTime() - start))
+                    .doOnError(e -> metrics.coinGeckoRequest(endpoint, "IO_ERROR", System.nanoTime() - start));
+        };
+    }
+
+    // /coins/markets -> markets, /coins/{id}/market_chart -> market_chart : pas d'id de coin en tag
+    static String endpoint(String path) {
+        String trimmed = path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+        String last = trimmed.substring(trimmed.lastIndexOf('/') + 1);
+        return last.isEmpty() ? "root" : last;
+    }
+
+    /**
+     * Client des webhooks d'alertes : pool de connexions dédié (keep-alive, partagé entre
+     * destinations), séparé de CoinGecko pour qu'un webhook lent n'affecte pas la collecte.
+     * URLs saisies par les utilisateurs : seules les adresses publiques sont jointes
+     * (PublicAddressResolverGroup, sauf allowPrivateAddresses) et les redirections ne sont
+     * pas suivies (un 302 vers une adresse interne contournerait la vérification).
+     */
+    @Bean
+    public WebClient webhookWebClient(
+            @Value("${app.webhooks.max-connections:500}") int maxConnections,
+            @Value("${app.webhooks.connect-timeout-ms:2000}") int connectTimeoutMs,
+            @Value("${app.webhooks.allow-private-addresses:false}") boolean allowPrivateAddresses
+    ) {
+        ConnectionProvider pool = ConnectionProvider.builder("webhooks")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(maxConnections * 4)
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+
+        HttpClient httpClient = HttpClient.create(pool)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .followRedirect(false);
+        if (!allowPrivateAddresses) {
+            httpClient = httpClient.resolver(new PublicAddressResolverGroup());
+        }
+
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
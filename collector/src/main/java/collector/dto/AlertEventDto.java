@@ -0,0 +1,21 @@
+package collector.dto;
+
+/**
+ * Alerte déclenchée, publiée dans alert_events pour le flux temps réel de l'API
+ * (même format que api.dto.AlertEventDto).
+ *
+ * @param source      PRICE
+ * @param kind        HIGH / LOW
+ * @param reference   seuil franchi
+ * @param triggeredAt epoch millis
+ */
+public record AlertEventDto(
+        long alertId,
+        String source,
+        String kind,
+        Long assetId,
+        String externalId,
+        double price,
+        Double reference,
+        long triggeredAt
+) {}
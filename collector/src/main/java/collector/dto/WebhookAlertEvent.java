@@ -0,0 +1,16 @@
+package collector.dto;
+
+/**
+ * Alerte déclenchée, telle qu'envoyée aux webhooks (tableau JSON, plusieurs par POST).
+ *
+ * @param kind        HIGH / LOW
+ * @param triggeredAt epoch millis
+ */
+public record WebhookAlertEvent(
+        long alertId,
+        String kind,
+        String externalId,
+        double price,
+        double threshold,
+        long triggeredAt
+) {}
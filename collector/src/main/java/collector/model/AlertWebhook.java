@@ -0,0 +1,35 @@
+package collector.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Endpoint webhook d'un utilisateur (géré par l'API), canal de notification
+ * des alertes en plus de l'email.
+ */
+@Entity
+@Table(
+    name = "alert_webhooks",
+    indexes = @Index(name = "idx_alert_webhooks_user", columnList = "user_id")
+)
+@Data
+public class AlertWebhook {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 2048)
+    private String url;
+
+    @Column(nullable = false)
+    private boolean active = true;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
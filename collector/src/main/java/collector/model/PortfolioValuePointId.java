@@ -0,0 +1,27 @@
+package collector.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortfolioValuePointId implements Serializable {
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // 'm' (minute), 'h' (heure), 'd' (jour)
+    @Column(name = "resolution", nullable = false, length = 1)
+    private String resolution;
+
+    @Column(name = "bucket", nullable = false)
+    private Instant bucket;
+}
@@ -0,0 +1,42 @@
+package collector.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Lot d'alertes non livré à un webhook (retries épuisés, erreur définitive ou file pleine).
+ * Conservé tel qu'il aurait été envoyé, pour rejeu ou diagnostic.
+ */
+@Entity
+@Table(name = "webhook_dead_letters")
+@Data
+public class WebhookDeadLetter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "webhook_id", nullable = false)
+    private Long webhookId;
+
+    @Column(nullable = false, length = 2048)
+    private String url;
+
+    // corps JSON du POST
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "event_count", nullable = false)
+    private int eventCount;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
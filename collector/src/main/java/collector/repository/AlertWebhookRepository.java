@@ -0,0 +1,13 @@
+package collector.repository;
+
+import collector.model.AlertWebhook;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface AlertWebhookRepository extends JpaRepository<AlertWebhook, Long> {
+
+    // webhooks des destinataires d'un passage d'alertes : 1 requête
+    List<AlertWebhook> findByUserIdInAndActiveTrue(Collection<Long> userIds);
+}
@@ -0,0 +1,72 @@
+package collector.repository;
+
+import collector.model.PortfolioValuePoint;
+import collector.model.PortfolioValuePointId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface PortfolioValuePointRepository extends JpaRepository<PortfolioValuePoint, PortfolioValuePointId> {
+
+    /**
+     * Ajoute le point du tick aux 3 résolutions, pour les seuls utilisateurs dont la valeur a pu changer :
+     * détenteurs d'un actif dont le prix a bougé depuis le tick précédent (portfolio_asset_prices)
+     * et utilisateurs dont les positions ont changé (portfolio_dirty_users, alimentée par trigger
+     * sur user_holdings, cf. bd/init.sql). Un utilisateur qui a tout vendu reçoit un point à 0.
+     * Les lignes marquées encore verrouillées par un trade en cours sont laissées au tick suivant.
+     * Minute/heure/jour : la ligne de la période en cours est écrasée (valeur de clôture).
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+        WITH changed_assets AS (
+            INSERT INTO portfolio_asset_prices (asset_id, price)
+            SELECT id, current_price FROM crypto_assets WHERE current_price IS NOT NULL
+            ON CONFLICT (asset_id) DO UPDATE SET price = EXCLUDED.price
+            WHERE portfolio_asset_prices.price IS DISTINCT FROM EXCLUDED.price
+            RETURNING asset_id
+        ),
+        claimed AS (
+            SELECT user_id FROM portfolio_dirty_users FOR UPDATE SKIP LOCKED
+        ),
+        dirty AS (
+            DELETE FROM portfolio_dirty_users d USING claimed c
+            WHERE d.user_id = c.user_id
+            RETURNING d.user_id
+        ),
+        affected AS (
+            SELECT h.user_id FROM user_holdings h JOIN changed_assets c ON c.asset_id = h.asset_id
+            UNION
+            SELECT user_id FROM dirty
+        ),
+        valued AS (
+            SELECT f.user_id, COALESCE(SUM(h.quantity * a.current_price), 0) AS value
+            FROM affected f
+            JOIN users u ON u.id = f.user_id
+            LEFT JOIN user_holdings h ON h.user_id = f.user_id
+            LEFT JOIN crypto_assets a ON a.id = h.asset_id
+            GROUP BY f.user_id
+        )
+        INSERT INTO portfolio_value_points (user_id, resolution, bucket, value)
+        SELECT v.user_id,
+               r.resolution,
+               date_trunc(r.unit, CAST(?1 AS timestamptz) AT TIME ZONE 'UTC') AT TIME ZONE 'UTC',
+               v.value
+        FROM valued v
+        CROSS JOIN (VALUES ('m', 'minute'), ('h', 'hour'), ('d', 'day')) AS r(resolution, unit)
+        ON CONFLICT (user_id, resolution, bucket)
+        DO UPDATE SET value = EXCLUDED.value
+        """, nativeQuery = true)
+    int recordTick(Instant ts);
+
+    /**
+     * Rétention par résolution (les séries agrégées restent, les points fins sont purgés).
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM portfolio_value_points WHERE resolution = ?1 AND bucket < ?2", nativeQuery = true)
+    int purgeOlderThan(String resolution, Instant before);
+}
@@ -2,9 +2,62 @@ package collector.repository;
 
 import collector.model.PriceAlert;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 
 public interface PriceAlertRepository extends JpaRepository<PriceAlert, Long> {
     List<PriceAlert> findByActiveTrue();
+
+    /**
+     * Déclenchement ensembliste, exactly-once même entre instances concurrentes :
+     * marque les alertes franchies et renvoie celles de ce passage, avec l'email du
+     * destinataire (pas de lecture par alerte) et son id (webhooks).
+     * Destinataire introuvable ou sans email : l'alerte n'est pas marquée et reste en attente.
+     *
+     * @param now horodatage du passage, tronqué à la microseconde
+     */
+    @Transactional
+    @Query(value = """
+        UPDATE price_alerts p
+        SET last_triggered_high_at = CASE
+                WHEN p.last_triggered_high_at IS NULL AND a.current_price >= p.threshold_high THEN ?1
+                ELSE p.last_triggered_high_at END,
+            last_triggered_low_at = CASE
+                WHEN p.last_triggered_low_at IS NULL AND a.current_price <= p.threshold_low THEN ?1
+                ELSE p.last_triggered_low_at END,
+            updated_at = ?1
+        FROM crypto_assets a, users u
+        WHERE a.id = p.asset_id
+          AND u.id = p.user_id
+          AND u.email IS NOT NULL
+          AND p.active
+          AND a.current_price IS NOT NULL
+          AND ((p.last_triggered_high_at IS NULL AND a.current_price >= p.threshold_high)
+            OR (p.last_triggered_low_at IS NULL AND a.current_price <= p.threshold_low))
+        RETURNING p.id AS "id",
+                  p.user_id AS "userId",
+                  u.email AS "email",
+                  a.external_id AS "externalId",
+                  a.current_price AS "price",
+                  CAST(p.threshold_high AS float8) AS "thresholdHigh",
+                  CAST(p.threshold_low AS float8) AS "thresholdLow",
+                  p.last_triggered_high_at = ?1 AS "high",
+                  p.last_triggered_low_at = ?1 AS "low"
+        """, nativeQuery = true)
+    List<TriggeredAlertRow> triggerCrossed(Instant now);
+
+    interface TriggeredAlertRow {
+        Long getId();
+        Long getUserId();
+        String getEmail();
+        String getExternalId();
+        Double getPrice();
+        Double getThresholdHigh();
+        Double getThresholdLow();
+        Boolean getHigh();
+        Boolean getLow();
+    }
 }
@@ -0,0 +1,7 @@
+package collector.repository;
+
+import collector.model.WebhookDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface WebhookDeadLetterRepository extends JpaRepository<WebhookDeadLetter, Long> {
+}
@@ -1,8 +1,11 @@
 package collector.scheduler;
 
+import collector.config.CollectorMetrics;
 import collector.service.AlertCheckService;
 import collector.service.CoinGeckoCollectorService;
 import collector.service.CoinGeckoTop100HistoryBootstrapService;
+import collector.service.PortfolioValueService;
+import common.observability.QueryInspector;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -11,6 +14,8 @@ import org.springframework.web.reactive.function.client.WebClientResponseExcepti
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import collector.repository.CryptoPriceHistoryRepository;
 
+import java.time.Instant;
+
 @Component
 @RequiredArgsConstructor
 @Slf4j
@@ -25,10 +30,22 @@ public class CoinGeckoScheduler {
     // ✅ NEW
     private final AlertCheckService alertCheckService;
 
+    private final PortfolioValueService portfolioValueService;
+
+    // durées bootstrap / alert_pass / portfolio (fetch / persist : CoinGeckoCollectorService)
+    private final CollectorMetrics metrics;
+
     private volatile boolean top100LoadedOnce = false;
 
+    // statements du tick comptés ensemble (collector.db.statements, N+1 : cf. QueryInspector)
     @Scheduled(fixedRate = 30_000)
     public void runCollection() {
+        try (QueryInspector.Scope scope = QueryInspector.open("coingecko-tick")) {
+            collect();
+        }
+    }
+
+    private void collect() {
         String vsCurrency = "usd";
 
         try {
@@ -43,7 +60,7 @@ public class CoinGeckoScheduler {
 
             if (bootstrapped < 100) {
                 int batchSize = 2;
-                int done = bootstrapService.bootstrapMissingTop100(vsCurrency, batchSize);
+                int done = metrics.stage("bootstrap", () -> bootstrapService.bootstrapMissingTop100(vsCurrency, batchSize));
                 long after = historyRepository.countDistinctAssetsByVsCurrency(vsCurrency);
 
                 log.info("Bootstrap (manquants) : +{} ce tick | {}/100 ont un historique.", done, after);
@@ -55,7 +72,10 @@ public class CoinGeckoScheduler {
             log.info("Mode normal: collecte + point NOW OK.");
 
             // ✅ 4) Check alertes après mise à jour des prix
-            alertCheckService.checkAlerts();
+            metrics.stage("alert_pass", alertCheckService::checkAlerts);
+
+            // 5) 1 point de valeur de portefeuille par utilisateur
+            metrics.stage("portfolio", () -> portfolioValueService.recordTick(Instant.now()));
 
         } catch (WebClientResponseException.TooManyRequests e) {
             log.warn("429 Too Many Requests. On réessaiera au prochain tick. {}", e.getMessage());
@@ -1,95 +1,144 @@
 package collector.service;
 
-import collector.model.PriceAlert;
+import collector.config.CollectorMetrics;
+import collector.dto.AlertEventDto;
+import collector.dto.WebhookAlertEvent;
+import collector.model.AlertWebhook;
+import collector.repository.AlertWebhookRepository;
 import collector.repository.PriceAlertRepository;
-import collector.repository.UserRepository;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Déclenchement des alertes après chaque mise à jour des prix.
+ * 1 statement (PriceAlertRepository.triggerCrossed) marque et renvoie les alertes franchies :
+ * une alerte n'est envoyée qu'une fois, même si une autre instance évalue en même temps.
+ * Le marquage est commité avant l'envoi : un email en échec est journalisé, pas renvoyé.
+ * Webhooks des destinataires : 1 requête par passage, livraison asynchrone (WebhookDispatcher).
+ * Les déclenchements sont aussi publiés dans alert_events (flux temps réel de l'API).
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AlertCheckService {
 
     private final PriceAlertRepository alertRepository;
-    private final UserRepository userRepository;
     private final MailService mailService;
+    private final AlertWebhookRepository webhookRepository;
+    private final WebhookDispatcher webhookDispatcher;
+    private final AlertEventPublisher eventPublisher;
+    private final CollectorMetrics metrics;
 
     @Value("${app.mail.frontendUrl:http://localhost:3000}")
     private String frontendUrl;
 
-    @Transactional
     public void checkAlerts() {
-        List<PriceAlert> alerts = alertRepository.findByActiveTrue();
-        Instant now = Instant.now();
-
-        for (PriceAlert alert : alerts) {
-
-            var asset = alert.getAsset();
-            Double price = asset != null ? asset.getCurrentPrice() : null;
-            if (price == null) continue;
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS); // précision timestamptz
+        List<PriceAlertRepository.TriggeredAlertRow> triggered = alertRepository.triggerCrossed(now);
+        if (triggered.isEmpty()) return;
+        String link = frontendUrl + "/alerts";
 
-            // 🔑 récupérer l'email utilisateur
-            String email = userRepository.findById(alert.getUserId())
-                    .map(u -> u.getEmail())
-                    .orElse(null);
+        for (PriceAlertRepository.TriggeredAlertRow alert : triggered) {
+            if (Boolean.TRUE.equals(alert.getHigh())) metrics.alertTriggered("HIGH");
+            if (Boolean.TRUE.equals(alert.getLow())) metrics.alertTriggered("LOW");
 
-            if (email == null) {
-                log.warn("⚠️ Aucun email pour userId={}", alert.getUserId());
+            if (alert.getEmail() == null) {
+                log.warn("⚠️ Aucun email pour l'alerte id={}", alert.getId());
                 continue;
             }
 
-            String assetName = asset.getExternalId();
-            String link = frontendUrl + "/alerts";
-
             // 🔺 ALERTE HIGH
-            if (alert.getThresholdHigh() != null
-                    && alert.getLastTriggeredHighAt() == null
-                    && price >= alert.getThresholdHigh()) {
-
-                String html = buildAlertHtml(
-                        assetName, price, alert.getThresholdHigh(),
-                        "AU-DESSUS", link
-                );
-
-                mailService.sendHtml(
-                        email,
-                        "🚨 Alerte HIGH " + assetName,
-                        html
-                );
-
-                alert.setLastTriggeredHighAt(now);
-
-                log.warn("📧 EMAIL HIGH envoyé → {} ({})", email, assetName);
+            if (Boolean.TRUE.equals(alert.getHigh())) {
+                send(alert, "HIGH", alert.getThresholdHigh(), "AU-DESSUS", link);
             }
 
             // 🔻 ALERTE LOW
-            if (alert.getThresholdLow() != null
-                    && alert.getLastTriggeredLowAt() == null
-                    && price <= alert.getThresholdLow()) {
-
-                String html = buildAlertHtml(
-                        assetName, price, alert.getThresholdLow(),
-                        "EN-DESSOUS", link
-                );
+            if (Boolean.TRUE.equals(alert.getLow())) {
+                send(alert, "LOW", alert.getThresholdLow(), "EN-DESSOUS", link);
+            }
+        }
 
-                mailService.sendHtml(
-                        email,
-                        "🚨 Alerte LOW " + assetName,
-                        html
-                );
+        publishEvents(triggered, now);
+        dispatchWebhooks(triggered, now);
+    }
 
-                alert.setLastTriggeredLowAt(now);
+    private void publishEvents(List<PriceAlertRepository.TriggeredAlertRow> triggered, Instant now) {
+        List<AlertEventPublisher.UserEvent> events = new ArrayList<>();
+        for (PriceAlertRepository.TriggeredAlertRow alert : triggered) {
+            if (Boolean.TRUE.equals(alert.getHigh())) {
+                events.add(new AlertEventPublisher.UserEvent(alert.getUserId(), new AlertEventDto(
+                        alert.getId(), "PRICE", "HIGH", null, alert.getExternalId(),
+                        alert.getPrice(), alert.getThresholdHigh(), now.toEpochMilli())));
+            }
+            if (Boolean.TRUE.equals(alert.getLow())) {
+                events.add(new AlertEventPublisher.UserEvent(alert.getUserId(), new AlertEventDto(
+                        alert.getId(), "PRICE", "LOW", null, alert.getExternalId(),
+                        alert.getPrice(), alert.getThresholdLow(), now.toEpochMilli())));
+            }
+        }
+        eventPublisher.publish(events);
+    }
 
-                log.warn("📧 EMAIL LOW envoyé → {} ({})", email, assetName);
+    private void dispatchWebhooks(List<PriceAlertRepository.TriggeredAlertRow> triggered, Instant now) {
+        Set<Long> userIds = triggered.stream()
+                .map(PriceAlertRepository.TriggeredAlertRow::getUserId)
+                .collect(Collectors.toSet());
+        Map<Long, List<AlertWebhook>> webhooks = new HashMap<>();
+        for (AlertWebhook w : webhookRepository.findByUserIdInAndActiveTrue(userIds)) {
+            webhooks.computeIfAbsent(w.getUserId(), id -> new ArrayList<>()).add(w);
+        }
+        if (webhooks.isEmpty()) return;
+
+        List<WebhookDispatcher.Delivery> deliveries = new ArrayList<>();
+        for (PriceAlertRepository.TriggeredAlertRow alert : triggered) {
+            List<AlertWebhook> targets = webhooks.getOrDefault(alert.getUserId(), List.of());
+            for (AlertWebhook w : targets) {
+                if (Boolean.TRUE.equals(alert.getHigh())) {
+                    deliveries.add(new WebhookDispatcher.Delivery(w.getId(), w.getUrl(),
+                            event(alert, "HIGH", alert.getThresholdHigh(), now)));
+                }
+                if (Boolean.TRUE.equals(alert.getLow())) {
+                    deliveries.add(new WebhookDispatcher.Delivery(w.getId(), w.getUrl(),
+                            event(alert, "LOW", alert.getThresholdLow(), now)));
+                }
             }
         }
+        webhookDispatcher.submit(deliveries);
+    }
+
+    private static WebhookAlertEvent event(
+            PriceAlertRepository.TriggeredAlertRow alert, String kind, double threshold, Instant now
+    ) {
+        return new WebhookAlertEvent(
+                alert.getId(), kind, alert.getExternalId(), alert.getPrice(), threshold, now.toEpochMilli());
+    }
+
+    private void send(
+            PriceAlertRepository.TriggeredAlertRow alert, String kind,
+            double threshold, String direction, String link
+    ) {
+        String assetName = alert.getExternalId();
+        String html = buildAlertHtml(assetName, alert.getPrice(), threshold, direction, link);
+        long start = System.nanoTime();
+        try {
+            mailService.sendHtml(alert.getEmail(), "🚨 Alerte " + kind + " " + assetName, html);
+            metrics.mailSent(true, System.nanoTime() - start);
+            log.warn("📧 EMAIL {} envoyé → {} ({})", kind, alert.getEmail(), assetName);
+        } catch (RuntimeException e) {
+            metrics.mailSent(false, System.nanoTime() - start);
+            log.error("Échec envoi email {} → {} ({})", kind, alert.getEmail(), assetName, e);
+        }
     }
 
     private String buildAlertHtml(
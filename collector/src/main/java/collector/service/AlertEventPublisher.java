@@ -0,0 +1,51 @@
+package collector.service;
+
+import collector.dto.AlertEventDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Écrit les alertes déclenchées dans alert_events (1 INSERT ... unnest par passage),
+ * d'où l'API (AlertStreamService) les pousse aux utilisateurs connectés.
+ * Best effort : une erreur est journalisée, le déclenchement (déjà commité) n'est pas annulé.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AlertEventPublisher {
+
+    public record UserEvent(long userId, AlertEventDto event) {}
+
+    private static final String INSERT_SQL = """
+        INSERT INTO alert_events (user_id, payload, created_at)
+        SELECT t.user_id, t.payload, NOW()
+        FROM unnest(?::bigint[], ?::text[]) AS t(user_id, payload)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public void publish(List<UserEvent> events) {
+        if (events.isEmpty()) return;
+        try {
+            Object[] userIds = new Object[events.size()];
+            Object[] payloads = new Object[events.size()];
+            for (int i = 0; i < events.size(); i++) {
+                userIds[i] = events.get(i).userId();
+                payloads[i] = objectMapper.writeValueAsString(events.get(i).event());
+            }
+            jdbcTemplate.update(INSERT_SQL, ps -> {
+                ps.setArray(1, ps.getConnection().createArrayOf("bigint", userIds));
+                ps.setArray(2, ps.getConnection().createArrayOf("text", payloads));
+            });
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.error("Échec publication de {} événement(s) d'alerte", events.size(), e);
+        }
+    }
+}
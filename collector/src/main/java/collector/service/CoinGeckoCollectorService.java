@@ -1,5 +1,6 @@
 package collector.service;
 
+import collector.config.CollectorMetrics;
 import collector.dto.CoinGeckoCoinDto;
 import collector.model.CryptoAsset;
 import collector.repository.CryptoAssetRepository;
@@ -29,6 +30,9 @@ public class CoinGeckoCollectorService {
     // Historique
     private final CryptoPriceHistoryRepository cryptoPriceHistoryRepository;
 
+    // étapes fetch / persist, points écrits
+    private final CollectorMetrics metrics;
+
     /**
      * Comportement actuel (inchangé) :
      * - met à jour crypto_assets
@@ -57,7 +61,7 @@ public class CoinGeckoCollectorService {
                 .retrieve()
                 .bodyToMono(CoinGeckoCoinDto[].class);
 
-        CoinGeckoCoinDto[] response = monoResponse.block(); // OK dans un batch/scheduler
+        CoinGeckoCoinDto[] response = metrics.stage("fetch", () -> monoResponse.block()); // OK dans un batch/scheduler
 
         if (response == null || response.length == 0) {
             log.warn("⚠️ Réponse CoinGecko vide, aucune donnée collectée.");
@@ -74,6 +78,17 @@ public class CoinGeckoCollectorService {
         List<CoinGeckoCoinDto> coins = Arrays.asList(response);
         log.info("✅ {} cryptos récupérées depuis CoinGecko.", coins.size());
 
+        int written = metrics.stage("persist", () -> persist(coins, now, vsCurrency));
+        metrics.pointsWritten("price_now", written);
+
+        log.info("🏁 Collecte CoinGecko terminée, cryptos enregistrées / mises à jour en BDD.");
+    }
+
+    // Retourne le nombre de points NOW écrits (0 si now == null)
+    private int persist(List<CoinGeckoCoinDto> coins, Instant now, String vsCurrency) {
+        boolean writeNowHistory = now != null;
+        int written = 0;
+
         for (CoinGeckoCoinDto coin : coins) {
             try {
                 CryptoAsset asset = cryptoAssetRepository
@@ -105,6 +120,7 @@ public class CoinGeckoCollectorService {
                             saved.getMarketCap(),
                             saved.getTotalVolume()
                     );
+                    written++;
                 }
 
             } catch (Exception e) {
@@ -112,7 +128,6 @@ public class CoinGeckoCollectorService {
                         coin.getName(), coin.getId(), e);
             }
         }
-
-        log.info("🏁 Collecte CoinGecko terminée, cryptos enregistrées / mises à jour en BDD.");
+        return written;
     }
 }
@@ -7,6 +7,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import collector.config.CollectorMetrics;
 import collector.dto.CoinGeckoMarketChartDto;
 import collector.repository.CryptoAssetRepository;
 import collector.repository.CryptoPriceHistoryRepository;
@@ -18,6 +19,7 @@ public class CoinGeckoHistoryCollectorService {
     private final WebClient webClient;
     private final CryptoAssetRepository cryptoAssetRepository;
     private final CryptoPriceHistoryRepository historyRepository;
+    private final CollectorMetrics metrics;
 
     /**
      * Remplissage initial : récupère les données de prix sur 7 jours.
@@ -76,6 +78,7 @@ public class CoinGeckoHistoryCollectorService {
             count++;
         }
 
+        metrics.pointsWritten("price_bootstrap", count);
         return count;
     }
 }
@@ -0,0 +1,49 @@
+package collector.service;
+
+import collector.config.CollectorMetrics;
+import collector.repository.PortfolioValuePointRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Série de valeur des portefeuilles, alimentée à chaque tick du collector
+ * (après la mise à jour de crypto_assets.current_price).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PortfolioValueService {
+
+    private static final Duration PURGE_EVERY = Duration.ofHours(1);
+
+    private final PortfolioValuePointRepository pointRepository;
+    private final CollectorMetrics metrics;
+
+    @Value("${app.portfolio-history.minute-retention-days:2}")
+    private long minuteRetentionDays;
+
+    @Value("${app.portfolio-history.hour-retention-days:90}")
+    private long hourRetentionDays;
+
+    private Instant lastPurge = Instant.EPOCH;
+
+    public void recordTick(Instant now) {
+        int rows = pointRepository.recordTick(now);
+        metrics.pointsWritten("portfolio", rows);
+        log.info("Valeur des portefeuilles : {} point(s) écrit(s).", rows);
+
+        if (Duration.between(lastPurge, now).compareTo(PURGE_EVERY) >= 0) {
+            int purged = pointRepository.purgeOlderThan("m", now.minus(Duration.ofDays(minuteRetentionDays)))
+                    + pointRepository.purgeOlderThan("h", now.minus(Duration.ofDays(hourRetentionDays)));
+            lastPurge = now;
+            if (purged > 0) {
+                log.info("Valeur des portefeuilles : {} point(s) expiré(s) supprimé(s).", purged);
+            }
+        }
+    }
+}
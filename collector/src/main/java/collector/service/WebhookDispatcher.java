@@ -0,0 +1,206 @@
+package collector.service;
+
+import collector.config.PublicAddressResolverGroup;
+import collector.dto.WebhookAlertEvent;
+import collector.model.WebhookDeadLetter;
+import collector.repository.WebhookDeadLetterRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Livraison des alertes aux webhooks, sans bloquer le tick de collecte :
+ * submit() met en file et rend la main, l'envoi est fait par le WebClient non bloquant.
+ *
+ * - 1 file bornée par destination (webhook) ; au plus maxConcurrency POST en vol par
+ *   destination, un webhook lent ne consomme donc pas tout le pool de connexions ;
+ * - batching : jusqu'à batchSize alertes par POST (tableau JSON) ;
+ * - retries avec backoff exponentiel + jitter sur erreurs réseau, 5xx et 429 ;
+ * - lot non livrable (retries épuisés, 4xx, adresse non publique, file pleine) : webhook_dead_letters.
+ */
+@Slf4j
+@Service
+public class WebhookDispatcher {
+
+    public record Delivery(long webhookId, String url, WebhookAlertEvent event) {}
+
+    private final WebClient webClient;
+    private final WebhookDeadLetterRepository deadLetterRepository;
+    private final ObjectMapper objectMapper;
+    private final int maxConcurrency;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final int maxRetries;
+    private final Duration minBackoff;
+    private final Duration timeout;
+
+    private final Map<Long, Destination> destinations = new ConcurrentHashMap<>();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+
+    public WebhookDispatcher(
+            @Qualifier("webhookWebClient") WebClient webClient,
+            WebhookDeadLetterRepository deadLetterRepository,
+            ObjectMapper objectMapper,
+            @Value("${app.webhooks.max-concurrency-per-destination:4}") int maxConcurrency,
+            @Value("${app.webhooks.batch-size:100}") int batchSize,
+            @Value("${app.webhooks.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.webhooks.max-retries:3}") int maxRetries,
+            @Value("${app.webhooks.min-backoff-ms:200}") long minBackoffMs,
+            @Value("${app.webhooks.timeout-ms:5000}") long timeoutMs
+    ) {
+        this.webClient = webClient;
+        this.deadLetterRepository = deadLetterRepository;
+        this.objectMapper = objectMapper;
+        this.maxConcurrency = maxConcurrency;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.maxRetries = maxRetries;
+        this.minBackoff = Duration.ofMillis(minBackoffMs);
+        this.timeout = Duration.ofMillis(timeoutMs);
+    }
+
+    /**
+     * Met les alertes en file par destination et lance l'envoi. Ne bloque pas.
+     */
+    public void submit(List<Delivery> deliveries) {
+        Map<Long, List<Delivery>> byWebhook = new LinkedHashMap<>();
+        for (Delivery d : deliveries) {
+            byWebhook.computeIfAbsent(d.webhookId(), id -> new ArrayList<>()).add(d);
+        }
+
+        byWebhook.forEach((webhookId, list) -> {
+            Destination dest = destinations.computeIfAbsent(webhookId, id -> new Destination(id, list.get(0).url()));
+            List<WebhookAlertEvent> overflow = new ArrayList<>();
+            synchronized (dest) {
+                for (Delivery d : list) {
+                    if (dest.queue.size() < queueCapacity) dest.queue.addLast(d.event());
+                    else overflow.add(d.event());
+                }
+            }
+            if (!overflow.isEmpty()) {
+                deadLetter(dest, overflow, 0, "file pleine (" + queueCapacity + ")");
+            }
+            drain(dest);
+        });
+    }
+
+    public long delivered() {
+        return delivered.get();
+    }
+
+    public long deadLettered() {
+        return deadLettered.get();
+    }
+
+    // lance des POST tant que la destination a des alertes en file et de la concurrence libre
+    private void drain(Destination dest) {
+        while (true) {
+            List<WebhookAlertEvent> batch;
+            synchronized (dest) {
+                if (dest.inFlight >= maxConcurrency || dest.queue.isEmpty()) return;
+                int n = Math.min(batchSize, dest.queue.size());
+                batch = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) batch.add(dest.queue.pollFirst());
+                dest.inFlight++;
+            }
+            send(dest, batch);
+        }
+    }
+
+    private void send(Destination dest, List<WebhookAlertEvent> batch) {
+        AtomicInteger attempts = new AtomicInteger();
+
+        Mono.defer(() -> {
+                    attempts.incrementAndGet();
+                    return webClient.post()
+                            .uri(dest.url)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .bodyValue(batch)
+                            .retrieve()
+                            .toBodilessEntity()
+                            .timeout(timeout);
+                })
+                .retryWhen(Retry.backoff(maxRetries, minBackoff)
+                        .jitter(0.5)
+                        .filter(WebhookDispatcher::isRetryable)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .doFinally(signal -> {
+                    synchronized (dest) {
+                        dest.inFlight--;
+                        if (dest.inFlight == 0 && dest.queue.isEmpty()) destinations.remove(dest.webhookId, dest);
+                    }
+                    // lot suivant lancé hors du thread d'I/O qui termine cette réponse
+                    Schedulers.parallel().schedule(() -> drain(dest));
+                })
+                .subscribe(
+                        ok -> delivered.addAndGet(batch.size()),
+                        e -> deadLetter(dest, batch, attempts.get(), e.toString())
+                );
+    }
+
+    static boolean isRetryable(Throwable e) {
+        if (e instanceof WebClientResponseException r) {
+            return r.getStatusCode().is5xxServerError() || r.getStatusCode().value() == 429;
+        }
+        for (Throwable c = e; c != null; c = c.getCause()) {
+            if (c instanceof PublicAddressResolverGroup.ForbiddenAddressException) return false;
+        }
+        return true; // réseau, timeout
+    }
+
+    // écriture JPA bloquante : hors des threads d'I/O du WebClient
+    private void deadLetter(Destination dest, List<WebhookAlertEvent> events, int attempts, String error) {
+        deadLettered.addAndGet(events.size());
+        log.warn("Webhook {} : {} alerte(s) non livrée(s) après {} tentative(s) : {}",
+                dest.webhookId, events.size(), attempts, error);
+
+        Schedulers.boundedElastic().schedule(() -> {
+            try {
+                WebhookDeadLetter dl = new WebhookDeadLetter();
+                dl.setWebhookId(dest.webhookId);
+                dl.setUrl(dest.url);
+                dl.setPayload(objectMapper.writeValueAsString(events));
+                dl.setEventCount(events.size());
+                dl.setAttempts(attempts);
+                dl.setLastError(error);
+                dl.setCreatedAt(Instant.now());
+                deadLetterRepository.save(dl);
+            } catch (JsonProcessingException | RuntimeException e) {
+                log.error("Échec écriture dead letter webhook {}", dest.webhookId, e);
+            }
+        });
+    }
+
+    private static final class Destination {
+        final long webhookId;
+        final String url;
+        final ArrayDeque<WebhookAlertEvent> queue = new ArrayDeque<>();
+        int inFlight;
+
+        Destination(long webhookId, String url) {
+            this.webhookId = webhookId;
+            this.url = url;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package collector.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.net.InetAddress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PublicAddressResolverGroupTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "127.0.0.1", "0.0.0.0", "10.96.0.1", "172.16.5.4", "192.168.1.1", "169.254.169.254",
+            "100.64.0.1", "198.18.0.1", "224.0.0.1", "255.255.255.255",
+            "::1", "::", "fe80::1", "fd00::1", "::ffff:10.0.0.1"
+    })
+    void isPublic_rejectsInternalAddresses(String ip) throws Exception {
+        assertThat(PublicAddressResolverGroup.isPublic(InetAddress.getByName(ip))).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"8.8.8.8", "93.184.216.34", "100.128.0.1", "2606:4700:4700::1111"})
+    void isPublic_acceptsPublicAddresses(String ip) throws Exception {
+        assertThat(PublicAddressResolverGroup.isPublic(InetAddress.getByName(ip))).isTrue();
+    }
+
+    @Test
+    void lookup_ipLiteral_isCheckedToo() {
+        assertThatThrownBy(() -> PublicAddressResolverGroup.lookup("169.254.169.254"))
+                .isInstanceOf(PublicAddressResolverGroup.ForbiddenAddressException.class);
+    }
+}
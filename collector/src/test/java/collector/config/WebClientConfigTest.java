@@ -0,0 +1,58 @@
+package collector.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WebClientConfigTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CollectorMetrics metrics = new CollectorMetrics(registry);
+
+    private WebClient client(HttpStatus status) {
+        return WebClient.builder()
+                .filter(WebClientConfig.coinGeckoMetrics(metrics))
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(status).body("[]").build()))
+                .build();
+    }
+
+    @Test
+    void coinGeckoMetrics_recordsStatusPerEndpoint_withoutCoinId() {
+        client(HttpStatus.OK).get().uri("http://cg/coins/markets").retrieve().toBodilessEntity().block();
+        client(HttpStatus.TOO_MANY_REQUESTS).get().uri("http://cg/coins/bitcoin/market_chart")
+                .exchangeToMono(ClientResponse::releaseBody).block();
+
+        assertThat(registry.get("collector.coingecko.requests")
+                .tags("endpoint", "markets", "status", "200").timer().count()).isEqualTo(1);
+        assertThat(registry.get("collector.coingecko.requests")
+                .tags("endpoint", "market_chart", "status", "429").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void coinGeckoMetrics_noResponse_recordsIoError() {
+        WebClient failing = WebClient.builder()
+                .filter(WebClientConfig.coinGeckoMetrics(metrics))
+                .exchangeFunction(request -> Mono.error(new IOException("connexion refusée")))
+                .build();
+
+        assertThatThrownBy(() -> failing.get().uri("http://cg/coins/markets").retrieve().toBodilessEntity().block());
+
+        assertThat(registry.get("collector.coingecko.requests")
+                .tags("endpoint", "markets", "status", "IO_ERROR").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void endpoint_keepsLastPathSegment() {
+        assertThat(WebClientConfig.endpoint("/api/v3/coins/markets")).isEqualTo("markets");
+        assertThat(WebClientConfig.endpoint("/api/v3/coins/ethereum/market_chart/")).isEqualTo("market_chart");
+        assertThat(WebClientConfig.endpoint("")).isEqualTo("root");
+    }
+}
@@ -0,0 +1,202 @@
+package collector.it;
+
+import collector.model.CryptoAsset;
+import collector.model.PortfolioValuePoint;
+import collector.repository.CryptoAssetRepository;
+import collector.repository.PortfolioValuePointRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class PortfolioValuePointRepositoryIT {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+        .withDatabaseName("testdb")
+        .withUsername("test")
+        .withPassword("test");
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url", postgres::getJdbcUrl);
+        r.add("spring.datasource.username", postgres::getUsername);
+        r.add("spring.datasource.password", postgres::getPassword);
+
+        r.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        r.add("spring.sql.init.mode", () -> "never");
+    }
+
+    @Autowired CryptoAssetRepository assetRepository;
+    @Autowired PortfolioValuePointRepository pointRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    private CryptoAsset btc;
+    private CryptoAsset eth;
+
+    @BeforeEach
+    void setup() {
+        // user_holdings appartient à l'API : pas d'entité côté collector
+        jdbcTemplate.execute("""
+            CREATE TABLE IF NOT EXISTS user_holdings (
+              id BIGSERIAL PRIMARY KEY,
+              user_id BIGINT NOT NULL,
+              asset_id BIGINT NOT NULL,
+              quantity DOUBLE PRECISION NOT NULL,
+              UNIQUE (user_id, asset_id)
+            )
+            """);
+        // suivi des changements de bd/init.sql (valorisation incrémentale)
+        jdbcTemplate.execute("""
+            CREATE TABLE IF NOT EXISTS portfolio_asset_prices (
+              asset_id BIGINT PRIMARY KEY,
+              price DOUBLE PRECISION NOT NULL
+            );
+            CREATE TABLE IF NOT EXISTS portfolio_dirty_users (user_id BIGINT PRIMARY KEY);
+            CREATE OR REPLACE FUNCTION mark_portfolio_dirty() RETURNS trigger AS $$
+            BEGIN
+              INSERT INTO portfolio_dirty_users (user_id)
+              VALUES (CASE WHEN TG_OP = 'DELETE' THEN OLD.user_id ELSE NEW.user_id END)
+              ON CONFLICT (user_id) DO UPDATE SET user_id = EXCLUDED.user_id;
+              RETURN NULL;
+            END;
+            $$ LANGUAGE plpgsql;
+            CREATE OR REPLACE TRIGGER trg_user_holdings_dirty_insert_delete
+              AFTER INSERT OR DELETE ON user_holdings
+              FOR EACH ROW EXECUTE FUNCTION mark_portfolio_dirty();
+            CREATE OR REPLACE TRIGGER trg_user_holdings_dirty_update
+              AFTER UPDATE OF quantity ON user_holdings
+              FOR EACH ROW WHEN (OLD.quantity IS DISTINCT FROM NEW.quantity)
+              EXECUTE FUNCTION mark_portfolio_dirty();
+            """);
+        jdbcTemplate.update("INSERT INTO users (id, email) VALUES (1, 'a@test.com'), (2, 'b@test.com')");
+
+        btc = asset("bitcoin", 100.0);
+        eth = asset("ethereum", 10.0);
+
+        holding(1L, btc, 2.0);   // 200
+        holding(1L, eth, 5.0);   // + 50
+        holding(2L, eth, 1.0);   // 10
+    }
+
+    @Test
+    void recordTick_writesOnePointPerUserAndResolution() {
+        int rows = pointRepository.recordTick(Instant.parse("2024-01-01T10:17:42Z"));
+
+        assertThat(rows).isEqualTo(6); // 2 utilisateurs x 3 résolutions
+
+        List<PortfolioValuePoint> user1 = points(1L);
+        assertThat(user1).extracting(p -> p.getId().getResolution()).containsExactly("d", "h", "m");
+        assertThat(user1).extracting(PortfolioValuePoint::getValue).containsOnly(250.0);
+        assertThat(user1.get(0).getId().getBucket()).isEqualTo(Instant.parse("2024-01-01T00:00:00Z"));
+        assertThat(user1.get(1).getId().getBucket()).isEqualTo(Instant.parse("2024-01-01T10:00:00Z"));
+        assertThat(user1.get(2).getId().getBucket()).isEqualTo(Instant.parse("2024-01-01T10:17:00Z"));
+    }
+
+    @Test
+    void recordTick_laterTickInSameHour_overwritesHourAndDayWithClosingValue() {
+        pointRepository.recordTick(Instant.parse("2024-01-01T10:17:00Z"));
+
+        btc.setCurrentPrice(200.0);
+        assetRepository.saveAndFlush(btc);
+        pointRepository.recordTick(Instant.parse("2024-01-01T10:45:00Z"));
+
+        List<PortfolioValuePoint> user1 = points(1L);
+        assertThat(user1).hasSize(4); // d, h, m(10:17), m(10:45)
+        assertThat(value(user1, "h")).isEqualTo(450.0);
+        assertThat(value(user1, "d")).isEqualTo(450.0);
+    }
+
+    @Test
+    void recordTick_onlyValuesUsersWhosePricesOrHoldingsChanged() {
+        pointRepository.recordTick(Instant.parse("2024-01-01T10:17:00Z"));
+
+        // rien n'a bougé : aucun point
+        assertThat(pointRepository.recordTick(Instant.parse("2024-01-01T10:18:00Z"))).isZero();
+
+        // prix du btc : seul l'utilisateur 1 le détient
+        btc.setCurrentPrice(200.0);
+        assetRepository.saveAndFlush(btc);
+        assertThat(pointRepository.recordTick(Instant.parse("2024-01-01T10:19:00Z"))).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM portfolio_value_points WHERE user_id = 2", Integer.class)).isEqualTo(3);
+
+        // position de l'utilisateur 2 : seul lui est revalorisé
+        jdbcTemplate.update("UPDATE user_holdings SET quantity = 3 WHERE user_id = 2");
+        assertThat(pointRepository.recordTick(Instant.parse("2024-01-01T10:20:00Z"))).isEqualTo(3);
+        assertThat(value(points(2L), "h")).isEqualTo(30.0);
+        assertThat(points(1L)).hasSize(4); // d, h, m(10:17), m(10:19) : pas de m(10:20)
+    }
+
+    @Test
+    void recordTick_afterSellingEverything_writesZeroPoint() {
+        pointRepository.recordTick(Instant.parse("2024-01-01T10:17:00Z"));
+
+        jdbcTemplate.update("DELETE FROM user_holdings WHERE user_id = 2");
+        assertThat(pointRepository.recordTick(Instant.parse("2024-01-01T10:18:00Z"))).isEqualTo(3);
+
+        List<PortfolioValuePoint> user2 = points(2L);
+        assertThat(value(user2, "h")).isZero();
+        assertThat(value(user2, "d")).isZero();
+        assertThat(user2).filteredOn(p -> p.getId().getResolution().equals("m"))
+                .extracting(PortfolioValuePoint::getValue).containsExactly(10.0, 0.0);
+    }
+
+    @Test
+    void purgeOlderThan_onlyTouchesGivenResolution() {
+        pointRepository.recordTick(Instant.parse("2024-01-01T10:17:00Z"));
+
+        int purged = pointRepository.purgeOlderThan("m", Instant.parse("2024-01-02T00:00:00Z"));
+
+        assertThat(purged).isEqualTo(2);
+        assertThat(pointRepository.count()).isEqualTo(4);
+    }
+
+    private CryptoAsset asset(String externalId, double price) {
+        CryptoAsset a = new CryptoAsset();
+        a.setExternalId(externalId);
+        a.setSymbol(externalId.substring(0, 3));
+        a.setName(externalId);
+        a.setCurrentPrice(price);
+        return assetRepository.saveAndFlush(a);
+    }
+
+    private void holding(Long userId, CryptoAsset asset, double qty) {
+        jdbcTemplate.update("INSERT INTO user_holdings (user_id, asset_id, quantity) VALUES (?, ?, ?)",
+                userId, asset.getId(), qty);
+    }
+
+    private List<PortfolioValuePoint> points(Long userId) {
+        return pointRepository.findAll().stream()
+                .filter(p -> p.getId().getUserId().equals(userId))
+                .sorted(Comparator.comparing((PortfolioValuePoint p) -> p.getId().getResolution())
+                        .thenComparing(p -> p.getId().getBucket()))
+                .toList();
+    }
+
+    private static double value(List<PortfolioValuePoint> points, String resolution) {
+        return points.stream().filter(p -> p.getId().getResolution().equals(resolution))
+                .findFirst().orElseThrow().getValue();
+    }
+}
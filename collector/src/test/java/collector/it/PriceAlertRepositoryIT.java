@@ -0,0 +1,142 @@
+package collector.it;
+
+import collector.model.CryptoAsset;
+import collector.repository.CryptoAssetRepository;
+import collector.repository.PriceAlertRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // passes concurrentes : chaque statement commite
+public class PriceAlertRepositoryIT {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+        .withDatabaseName("testdb")
+        .withUsername("test")
+        .withPassword("test");
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url", postgres::getJdbcUrl);
+        r.add("spring.datasource.username", postgres::getUsername);
+        r.add("spring.datasource.password", postgres::getPassword);
+
+        r.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        r.add("spring.sql.init.mode", () -> "never");
+    }
+
+    @Autowired CryptoAssetRepository assetRepository;
+    @Autowired PriceAlertRepository alertRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanup() {
+        alertRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM users");
+        assetRepository.deleteAll();
+    }
+
+    @Test
+    void triggerCrossed_marksOnce_andReturnsRecipient() {
+        CryptoAsset btc = asset("bitcoin", 120.0);
+        jdbcTemplate.update("INSERT INTO users (id, email) VALUES (1, 'a@test.com')");
+        alert(1L, btc, 100.0, 110.0);
+
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        List<PriceAlertRepository.TriggeredAlertRow> first = alertRepository.triggerCrossed(now);
+
+        assertThat(first).hasSize(1);
+        assertThat(first.get(0).getEmail()).isEqualTo("a@test.com");
+        assertThat(first.get(0).getHigh()).isTrue();
+        assertThat(first.get(0).getLow()).isNotEqualTo(Boolean.TRUE); // NULL si jamais déclenchée
+
+        // déjà déclenchée : le passage suivant ne la renvoie plus
+        assertThat(alertRepository.triggerCrossed(now.plusSeconds(1))).isEmpty();
+    }
+
+    @Test
+    void triggerCrossed_recipientMissingOrWithoutEmail_leavesAlertPending() {
+        CryptoAsset btc = asset("bitcoin", 120.0);
+        jdbcTemplate.execute("ALTER TABLE users ALTER COLUMN email DROP NOT NULL");
+        jdbcTemplate.update("INSERT INTO users (id, email) VALUES (1, NULL)");
+        alert(1L, btc, 100.0, null);
+        alert(2L, btc, 100.0, null); // utilisateur 2 absent
+
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        assertThat(alertRepository.triggerCrossed(now)).isEmpty();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM price_alerts WHERE last_triggered_high_at IS NULL", Integer.class)).isEqualTo(2);
+
+        // email renseigné ensuite : l'alerte part au passage suivant
+        jdbcTemplate.update("UPDATE users SET email = 'a@test.com' WHERE id = 1");
+        assertThat(alertRepository.triggerCrossed(now.plusSeconds(1)))
+                .extracting(PriceAlertRepository.TriggeredAlertRow::getUserId).containsExactly(1L);
+    }
+
+    @Test
+    void triggerCrossed_concurrentPasses_triggerEachAlertExactlyOnce() throws Exception {
+        jdbcTemplate.update("INSERT INTO users (id, email) VALUES (1, 'a@test.com')");
+        for (int i = 0; i < 50; i++) {
+            alert(1L, asset("asset_" + i, 120.0), 100.0, null);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> passes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            passes.add(pool.submit(() -> alertRepository
+                    .triggerCrossed(Instant.now().truncatedTo(ChronoUnit.MICROS)).size()));
+        }
+
+        int total = 0;
+        for (Future<Integer> f : passes) total += f.get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertThat(total).isEqualTo(50);
+    }
+
+    private CryptoAsset asset(String externalId, double price) {
+        CryptoAsset a = new CryptoAsset();
+        a.setExternalId(externalId);
+        a.setSymbol(externalId.substring(0, 3));
+        a.setName(externalId);
+        a.setCurrentPrice(price);
+        return assetRepository.saveAndFlush(a);
+    }
+
+    private void alert(Long userId, CryptoAsset asset, Double high, Double low) {
+        jdbcTemplate.update("""
+            INSERT INTO price_alerts (user_id, asset_id, threshold_high, threshold_low, active, created_at, updated_at)
+            VALUES (?, ?, ?, ?, true, now(), now())
+            """, userId, asset.getId(), high, low);
+    }
+}
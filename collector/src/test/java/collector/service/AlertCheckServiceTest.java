@@ -1,23 +1,23 @@
 package collector.service;
 
-import collector.model.CryptoAsset;
-import collector.model.PriceAlert;
-import collector.model.User;
+import collector.config.CollectorMetrics;
+import collector.model.AlertWebhook;
+import collector.repository.AlertWebhookRepository;
 import collector.repository.PriceAlertRepository;
-import collector.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
-import java.time.Instant;
 import java.util.List;
-import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,65 +27,53 @@ class AlertCheckServiceTest {
     private PriceAlertRepository alertRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private MailService mailService;
 
     @Mock
-    private MailService mailService;
+    private AlertWebhookRepository webhookRepository;
 
-    @InjectMocks
-    private AlertCheckService service;
+    @Mock
+    private WebhookDispatcher webhookDispatcher;
 
-    @Test
-    void checkAlerts_whenNoActiveAlerts_doesNothing() {
-        when(alertRepository.findByActiveTrue()).thenReturn(List.of());
+    @Mock
+    private AlertEventPublisher eventPublisher;
 
-        service.checkAlerts();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
 
-        verifyNoInteractions(userRepository);
-        verifyNoInteractions(mailService);
-    }
+    @Spy
+    private CollectorMetrics metrics = new CollectorMetrics(registry);
 
-    @Test
-    void checkAlerts_whenAssetOrPriceNull_skipsAlert() {
-        PriceAlert alert = baseAlert();
-        alert.setAsset(null); // asset null => skip
+    @InjectMocks
+    private AlertCheckService service;
 
-        when(alertRepository.findByActiveTrue()).thenReturn(List.of(alert));
+    @Test
+    void checkAlerts_whenNothingCrossed_doesNothing() {
+        when(alertRepository.triggerCrossed(any())).thenReturn(List.of());
 
         service.checkAlerts();
 
-        verifyNoInteractions(userRepository);
-        verifyNoInteractions(mailService);
+        verify(alertRepository, times(1)).triggerCrossed(any());
+        verify(alertRepository, never()).findByActiveTrue();
+        verifyNoInteractions(mailService, webhookRepository, webhookDispatcher, eventPublisher);
     }
 
     @Test
-    void checkAlerts_whenUserEmailNotFound_skips_andDoesNotSendMail() {
-        PriceAlert alert = baseAlert();
-        when(alertRepository.findByActiveTrue()).thenReturn(List.of(alert));
-        when(userRepository.findById(alert.getUserId())).thenReturn(Optional.empty());
+    void checkAlerts_whenUserEmailMissing_doesNotSendMail() {
+        when(alertRepository.triggerCrossed(any())).thenReturn(List.of(row(null, 250.0, true, false)));
 
         service.checkAlerts();
 
-        verify(userRepository, times(1)).findById(alert.getUserId());
         verifyNoInteractions(mailService);
     }
 
     @Test
-    void checkAlerts_whenHighTriggered_sendsEmail_andSetsLastTriggeredHighAt() {
+    void checkAlerts_whenHighTriggered_sendsEmail() {
         // frontendUrl utilisé pour le lien dans le HTML
         ReflectionTestUtils.setField(service, "frontendUrl", "http://localhost:3000");
-
-        PriceAlert alert = baseAlert();
-        alert.setThresholdHigh(200.0);
-        alert.setLastTriggeredHighAt(null);
-        alert.getAsset().setCurrentPrice(250.0);
-
-        when(alertRepository.findByActiveTrue()).thenReturn(List.of(alert));
-        when(userRepository.findById(alert.getUserId())).thenReturn(Optional.of(user("test@example.com")));
+        when(alertRepository.triggerCrossed(any())).thenReturn(List.of(row("test@example.com", 250.0, true, false)));
 
         service.checkAlerts();
 
-        // ✅ email envoyé
         ArgumentCaptor<String> toCaptor = ArgumentCaptor.forClass(String.class);
         ArgumentCaptor<String> subjectCaptor = ArgumentCaptor.forClass(String.class);
         ArgumentCaptor<String> htmlCaptor = ArgumentCaptor.forClass(String.class);
@@ -97,115 +85,108 @@ class AlertCheckServiceTest {
         assertThat(htmlCaptor.getValue()).contains("AU-DESSUS");
         assertThat(htmlCaptor.getValue()).contains("http://localhost:3000/alerts");
 
-        // ✅ champ mis à jour (pas besoin de save car @Transactional + entité managée)
-        assertThat(alert.getLastTriggeredHighAt()).isNotNull();
+        assertThat(registry.get("collector.alerts.triggered").tag("kind", "HIGH").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("collector.mail.send").tag("outcome", "success").timer().count()).isEqualTo(1);
     }
 
     @Test
-    void checkAlerts_whenLowTriggered_sendsEmail_andSetsLastTriggeredLowAt() {
+    void checkAlerts_whenLowTriggered_sendsEmail() {
         ReflectionTestUtils.setField(service, "frontendUrl", "http://localhost:3000");
-
-        PriceAlert alert = baseAlert();
-        alert.setThresholdLow(100.0);
-        alert.setLastTriggeredLowAt(null);
-        alert.getAsset().setCurrentPrice(90.0);
-
-        when(alertRepository.findByActiveTrue()).thenReturn(List.of(alert));
-        when(userRepository.findById(alert.getUserId())).thenReturn(Optional.of(user("test@example.com")));
+        when(alertRepository.triggerCrossed(any())).thenReturn(List.of(row("test@example.com", 90.0, false, true)));
 
         service.checkAlerts();
 
-        ArgumentCaptor<String> toCaptor = ArgumentCaptor.forClass(String.class);
         ArgumentCaptor<String> subjectCaptor = ArgumentCaptor.forClass(String.class);
         ArgumentCaptor<String> htmlCaptor = ArgumentCaptor.forClass(String.class);
 
-        verify(mailService, times(1)).sendHtml(toCaptor.capture(), subjectCaptor.capture(), htmlCaptor.capture());
+        verify(mailService, times(1)).sendHtml(eq("test@example.com"), subjectCaptor.capture(), htmlCaptor.capture());
 
-        assertThat(toCaptor.getValue()).isEqualTo("test@example.com");
         assertThat(subjectCaptor.getValue()).isEqualTo("🚨 Alerte LOW bitcoin");
         assertThat(htmlCaptor.getValue()).contains("EN-DESSOUS");
-        assertThat(htmlCaptor.getValue()).contains("http://localhost:3000/alerts");
-
-        assertThat(alert.getLastTriggeredLowAt()).isNotNull();
     }
 
     @Test
-    void checkAlerts_whenAlreadyTriggeredHigh_doesNotSendAgain() {
-        PriceAlert alert = baseAlert();
-        alert.setThresholdHigh(200.0);
-        alert.setLastTriggeredHighAt(Instant.now().minusSeconds(60));
-        alert.getAsset().setCurrentPrice(250.0);
-
-        when(alertRepository.findByActiveTrue()).thenReturn(List.of(alert));
-        when(userRepository.findById(alert.getUserId())).thenReturn(Optional.of(user("test@example.com")));
+    void checkAlerts_whenBothThresholdsCrossedInSamePass_sendsTwoEmails() {
+        // Cas “edge” : thresholdLow == thresholdHigh et price == seuil
+        when(alertRepository.triggerCrossed(any())).thenReturn(List.of(row("test@example.com", 100.0, true, true)));
 
         service.checkAlerts();
 
-        verifyNoInteractions(mailService);
+        verify(mailService, times(2)).sendHtml(anyString(), anyString(), anyString());
     }
 
     @Test
-    void checkAlerts_whenAlreadyTriggeredLow_doesNotSendAgain() {
-        PriceAlert alert = baseAlert();
-        alert.setThresholdLow(100.0);
-        alert.setLastTriggeredLowAt(Instant.now().minusSeconds(60));
-        alert.getAsset().setCurrentPrice(90.0);
+    void checkAlerts_whenOneMailFails_stillSendsOthers() {
+        when(alertRepository.triggerCrossed(any())).thenReturn(List.of(
+                row("a@example.com", 250.0, true, false),
+                row("b@example.com", 250.0, true, false)
+        ));
+        doThrow(new RuntimeException("smtp down")).when(mailService).sendHtml(eq("a@example.com"), anyString(), anyString());
+
+        service.checkAlerts();
+
+        verify(mailService).sendHtml(eq("b@example.com"), anyString(), anyString());
+    }
 
-        when(alertRepository.findByActiveTrue()).thenReturn(List.of(alert));
-        when(userRepository.findById(alert.getUserId())).thenReturn(Optional.of(user("test@example.com")));
+    @Test
+    @SuppressWarnings("unchecked")
+    void checkAlerts_whenUserHasWebhooks_submitsOneDeliveryPerWebhookAndThreshold() {
+        when(alertRepository.triggerCrossed(any())).thenReturn(List.of(row("test@example.com", 100.0, true, true)));
+        when(webhookRepository.findByUserIdInAndActiveTrue(any())).thenReturn(List.of(
+                webhook(11L, "http://hooks.test/a"),
+                webhook(12L, "http://hooks.test/b")
+        ));
 
         service.checkAlerts();
 
-        verifyNoInteractions(mailService);
+        ArgumentCaptor<List<WebhookDispatcher.Delivery>> captor = ArgumentCaptor.forClass(List.class);
+        verify(webhookDispatcher).submit(captor.capture());
+        assertThat(captor.getValue()).hasSize(4);
+        assertThat(captor.getValue()).extracting(d -> d.event().kind()).containsExactly("HIGH", "LOW", "HIGH", "LOW");
+        assertThat(captor.getValue()).extracting(WebhookDispatcher.Delivery::webhookId).containsExactly(11L, 11L, 12L, 12L);
     }
 
     @Test
-    void checkAlerts_whenBothThresholdsMet_andBothNeverTriggered_sendsTwoEmails_andSetsBothDates() {
-        // Cas “edge” : si thresholdLow == thresholdHigh et price == seuil,
-        // les deux if peuvent passer (<= low et >= high).
-        ReflectionTestUtils.setField(service, "frontendUrl", "http://localhost:3000");
+    @SuppressWarnings("unchecked")
+    void checkAlerts_publishesOneEventPerTriggeredThreshold() {
+        when(alertRepository.triggerCrossed(any())).thenReturn(List.of(row(null, 100.0, true, true)));
+
+        service.checkAlerts();
 
-        PriceAlert alert = baseAlert();
-        alert.setThresholdLow(100.0);
-        alert.setThresholdHigh(100.0);
-        alert.getAsset().setCurrentPrice(100.0);
-        alert.setLastTriggeredLowAt(null);
-        alert.setLastTriggeredHighAt(null);
+        ArgumentCaptor<List<AlertEventPublisher.UserEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(eventPublisher).publish(captor.capture());
+        assertThat(captor.getValue()).extracting(e -> e.event().kind()).containsExactly("HIGH", "LOW");
+        assertThat(captor.getValue()).extracting(AlertEventPublisher.UserEvent::userId).containsOnly(7L);
+    }
 
-        when(alertRepository.findByActiveTrue()).thenReturn(List.of(alert));
-        when(userRepository.findById(alert.getUserId())).thenReturn(Optional.of(user("test@example.com")));
+    @Test
+    void checkAlerts_whenNoWebhook_doesNotSubmit() {
+        when(alertRepository.triggerCrossed(any())).thenReturn(List.of(row("test@example.com", 250.0, true, false)));
 
         service.checkAlerts();
 
-        verify(mailService, times(2)).sendHtml(anyString(), anyString(), anyString());
-        assertThat(alert.getLastTriggeredLowAt()).isNotNull();
-        assertThat(alert.getLastTriggeredHighAt()).isNotNull();
+        verify(webhookRepository).findByUserIdInAndActiveTrue(any());
+        verifyNoInteractions(webhookDispatcher);
     }
 
     // --------------------------------------------------------------------
     // Helpers
     // --------------------------------------------------------------------
 
-    private static PriceAlert baseAlert() {
-        CryptoAsset asset = new CryptoAsset();
-        asset.setExternalId("bitcoin");
-        asset.setCurrentPrice(150.0);
-
-        PriceAlert alert = new PriceAlert();
-        alert.setActive(true);
-        alert.setUserId(10L);     // IMPORTANT: ton code lit getUserId()
-        alert.setAsset(asset);
-
-        // seuils par défaut
-        alert.setThresholdLow(100.0);
-        alert.setThresholdHigh(200.0);
+    private record Row(
+            Long getId, Long getUserId, String getEmail, String getExternalId, Double getPrice,
+            Double getThresholdHigh, Double getThresholdLow, Boolean getHigh, Boolean getLow
+    ) implements PriceAlertRepository.TriggeredAlertRow {}
 
-        return alert;
+    private static PriceAlertRepository.TriggeredAlertRow row(String email, double price, boolean high, boolean low) {
+        return new Row(1L, 7L, email, "bitcoin", price, 200.0, 100.0, high, low);
     }
 
-    private static User user(String email) {
-        User u = new User();
-        u.setEmail(email);
-        return u;
+    private static AlertWebhook webhook(long id, String url) {
+        AlertWebhook w = new AlertWebhook();
+        w.setId(id);
+        w.setUserId(7L);
+        w.setUrl(url);
+        return w;
     }
 }
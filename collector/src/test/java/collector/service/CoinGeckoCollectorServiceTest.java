@@ -1,9 +1,11 @@
 package collector.service;
 
 
+import collector.config.CollectorMetrics;
 import collector.model.CryptoAsset;
 import collector.repository.CryptoAssetRepository;
 import collector.repository.CryptoPriceHistoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.http.HttpHeaders;
@@ -26,6 +28,9 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class CoinGeckoCollectorServiceTest {
 
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CollectorMetrics metrics = new CollectorMetrics(registry);
+
     private static WebClient webClientReturningJson(String json) {
         ExchangeFunction exchange = request -> Mono.just(
             ClientResponse.create(HttpStatus.OK)
@@ -83,7 +88,7 @@ public class CoinGeckoCollectorServiceTest {
             .thenAnswer(inv -> inv.getArgument(0));
 
         CoinGeckoCollectorService service =
-            new CoinGeckoCollectorService(wc, assetRepo, historyRepo);
+            new CoinGeckoCollectorService(wc, assetRepo, historyRepo, metrics);
 
         // ▶️ exécution
         service.collectTopMarketCoins(true);
@@ -116,6 +121,11 @@ public class CoinGeckoCollectorServiceTest {
             eq(2000000.0),
             eq(3000.0)
         );
+
+        // ✅ métriques : 1 fetch, 1 persist, 1 point NOW
+        assertThat(registry.get("collector.stage").tag("stage", "fetch").timer().count()).isEqualTo(1);
+        assertThat(registry.get("collector.stage").tag("stage", "persist").timer().count()).isEqualTo(1);
+        assertThat(registry.get("collector.points.written").tag("series", "price_now").counter().count()).isEqualTo(1.0);
     }
 
 
@@ -141,7 +151,7 @@ public class CoinGeckoCollectorServiceTest {
         });
 
         CoinGeckoCollectorService service =
-            new CoinGeckoCollectorService(wc, assetRepo, historyRepo);
+            new CoinGeckoCollectorService(wc, assetRepo, historyRepo, metrics);
 
         service.collectTopMarketCoins(false);
 
@@ -157,7 +167,7 @@ public class CoinGeckoCollectorServiceTest {
         CryptoPriceHistoryRepository historyRepo = mock(CryptoPriceHistoryRepository.class);
 
         CoinGeckoCollectorService service =
-            new CoinGeckoCollectorService(wc, assetRepo, historyRepo);
+            new CoinGeckoCollectorService(wc, assetRepo, historyRepo, metrics);
 
         service.collectTopMarketCoins(true);
 
@@ -197,7 +207,7 @@ public class CoinGeckoCollectorServiceTest {
         });
 
         CoinGeckoCollectorService service =
-            new CoinGeckoCollectorService(wc, assetRepo, historyRepo);
+            new CoinGeckoCollectorService(wc, assetRepo, historyRepo, metrics);
 
         service.collectTopMarketCoins(true);
 
@@ -237,7 +247,7 @@ public class CoinGeckoCollectorServiceTest {
         CryptoPriceHistoryRepository historyRepo = mock(CryptoPriceHistoryRepository.class);
 
         CoinGeckoCollectorService service =
-            new CoinGeckoCollectorService(wc, assetRepo, historyRepo);
+            new CoinGeckoCollectorService(wc, assetRepo, historyRepo, metrics);
 
         assertThatThrownBy(() -> service.collectTopMarketCoins(true))
             .isInstanceOf(WebClientResponseException.TooManyRequests.class);
@@ -282,7 +292,7 @@ public class CoinGeckoCollectorServiceTest {
         });
 
         CoinGeckoCollectorService service =
-            new CoinGeckoCollectorService(wc, assetRepo, historyRepo);
+            new CoinGeckoCollectorService(wc, assetRepo, historyRepo, metrics);
 
         // writeNowHistory = false pour ne pas dépendre de Instant.now() / upsert
         service.collectTopMarketCoins(false);
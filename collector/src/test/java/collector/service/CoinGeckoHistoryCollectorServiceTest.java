@@ -1,8 +1,10 @@
 package collector.service;
 
+import collector.config.CollectorMetrics;
 import collector.model.CryptoAsset;
 import collector.repository.CryptoAssetRepository;
 import collector.repository.CryptoPriceHistoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -61,7 +63,7 @@ public class CoinGeckoHistoryCollectorServiceTest {
         when(assetRepo.findByExternalId("bitcoin")).thenReturn(Optional.of(asset));
 
         CoinGeckoHistoryCollectorService service =
-            new CoinGeckoHistoryCollectorService(wc, assetRepo, historyRepo);
+            new CoinGeckoHistoryCollectorService(wc, assetRepo, historyRepo, new CollectorMetrics(new SimpleMeterRegistry()));
 
         int inserted = service.fillLast7Days("bitcoin", "usd");
 
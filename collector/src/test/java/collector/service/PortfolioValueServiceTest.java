@@ -0,0 +1,54 @@
+package collector.service;
+
+import collector.config.CollectorMetrics;
+import collector.repository.PortfolioValuePointRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PortfolioValueServiceTest {
+
+    @Mock
+    private PortfolioValuePointRepository pointRepository;
+
+    @Spy
+    private CollectorMetrics metrics = new CollectorMetrics(new SimpleMeterRegistry());
+
+    @InjectMocks
+    private PortfolioValueService service;
+
+    @BeforeEach
+    void setup() {
+        ReflectionTestUtils.setField(service, "minuteRetentionDays", 2L);
+        ReflectionTestUtils.setField(service, "hourRetentionDays", 90L);
+    }
+
+    @Test
+    void recordTick_writesPoints_andPurgesAtMostOncePerHour() {
+        Instant t0 = Instant.parse("2024-01-01T10:00:00Z");
+
+        service.recordTick(t0);
+        service.recordTick(t0.plusSeconds(30));
+        service.recordTick(t0.plus(Duration.ofMinutes(61)));
+
+        verify(pointRepository, times(3)).recordTick(any());
+        verify(pointRepository).purgeOlderThan("m", t0.minus(Duration.ofDays(2)));
+        verify(pointRepository).purgeOlderThan("h", t0.minus(Duration.ofDays(90)));
+        verify(pointRepository, times(2)).purgeOlderThan(eq("m"), any());
+        verify(pointRepository, times(2)).purgeOlderThan(eq("h"), any());
+    }
+}
@@ -0,0 +1,182 @@
+package collector.service;
+
+import collector.config.WebClientConfig;
+import collector.dto.WebhookAlertEvent;
+import collector.model.WebhookDeadLetter;
+import collector.repository.WebhookDeadLetterRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class WebhookDispatcherTest {
+
+    private MockWebServer server;
+    private WebhookDeadLetterRepository deadLetterRepository;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setup() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        deadLetterRepository = mock(WebhookDeadLetterRepository.class);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void submit_batchesEventsPerPost() throws Exception {
+        for (int i = 0; i < 3; i++) server.enqueue(new MockResponse().setResponseCode(204));
+        WebhookDispatcher dispatcher = dispatcher(1, 4, 0);
+
+        dispatcher.submit(deliveries(1L, 10));
+
+        List<Integer> sizes = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            RecordedRequest req = server.takeRequest(5, TimeUnit.SECONDS);
+            assertThat(req).isNotNull();
+            assertThat(req.getHeader("Content-Type")).startsWith("application/json");
+            sizes.add(objectMapper.readTree(req.getBody().readUtf8()).size());
+        }
+        assertThat(sizes).containsExactly(4, 4, 2);
+        awaitDelivered(dispatcher, 10);
+        verifyNoInteractions(deadLetterRepository);
+    }
+
+    @Test
+    void submit_retriesServerErrors_thenDelivers() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setResponseCode(200));
+        WebhookDispatcher dispatcher = dispatcher(1, 100, 3);
+
+        dispatcher.submit(deliveries(1L, 2));
+
+        awaitDelivered(dispatcher, 2);
+        assertThat(server.getRequestCount()).isEqualTo(3);
+        verifyNoInteractions(deadLetterRepository);
+    }
+
+    @Test
+    void submit_whenRetriesExhausted_writesDeadLetter() {
+        for (int i = 0; i < 3; i++) server.enqueue(new MockResponse().setResponseCode(500));
+        WebhookDispatcher dispatcher = dispatcher(1, 100, 2);
+
+        dispatcher.submit(deliveries(1L, 3));
+
+        ArgumentCaptor<WebhookDeadLetter> captor = ArgumentCaptor.forClass(WebhookDeadLetter.class);
+        verify(deadLetterRepository, timeout(5_000)).save(captor.capture());
+        WebhookDeadLetter dl = captor.getValue();
+        assertThat(dl.getWebhookId()).isEqualTo(1L);
+        assertThat(dl.getEventCount()).isEqualTo(3);
+        assertThat(dl.getAttempts()).isEqualTo(3);
+        assertThat(dl.getPayload()).contains("\"externalId\":\"bitcoin\"");
+        assertThat(dispatcher.deadLettered()).isEqualTo(3);
+    }
+
+    @Test
+    void submit_clientError_isNotRetried() {
+        server.enqueue(new MockResponse().setResponseCode(404));
+        WebhookDispatcher dispatcher = dispatcher(1, 100, 3);
+
+        dispatcher.submit(deliveries(1L, 1));
+
+        verify(deadLetterRepository, timeout(5_000)).save(any());
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void submit_privateAddress_isDeadLetteredWithoutRequest() {
+        WebhookDispatcher dispatcher = new WebhookDispatcher(
+                new WebClientConfig().webhookWebClient(50, 2_000, false), deadLetterRepository, objectMapper,
+                1, 100, 1_000, 3, 10, 10_000);
+
+        dispatcher.submit(deliveries(1L, 2)); // MockWebServer : 127.0.0.1
+
+        ArgumentCaptor<WebhookDeadLetter> captor = ArgumentCaptor.forClass(WebhookDeadLetter.class);
+        verify(deadLetterRepository, timeout(5_000)).save(captor.capture());
+        assertThat(captor.getValue().getAttempts()).isEqualTo(1);
+        assertThat(captor.getValue().getLastError()).contains("non publique");
+        assertThat(server.getRequestCount()).isZero();
+    }
+
+    @Test
+    void submit_redirect_isNotFollowed() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(302).setHeader("Location", server.url("/internal")));
+        WebhookDispatcher dispatcher = dispatcher(1, 100, 0);
+
+        dispatcher.submit(deliveries(1L, 1));
+
+        awaitDelivered(dispatcher, 1);
+        assertThat(server.getRequestCount()).isEqualTo(1);
+        assertThat(server.takeRequest().getPath()).isEqualTo("/hook");
+    }
+
+    @Test
+    void submit_respectsPerDestinationConcurrency() throws Exception {
+        for (int i = 0; i < 12; i++) {
+            server.enqueue(new MockResponse().setResponseCode(200).setHeadersDelay(50, TimeUnit.MILLISECONDS));
+        }
+        // POST en vol mesurés côté client
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxSeen = new AtomicInteger();
+        WebClient counting = new WebClientConfig().webhookWebClient(50, 2_000, true).mutate()
+                .filter((request, next) -> next.exchange(request)
+                        .doOnSubscribe(s -> maxSeen.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                        .doFinally(s -> inFlight.decrementAndGet()))
+                .build();
+        WebhookDispatcher dispatcher = new WebhookDispatcher(
+                counting, deadLetterRepository, objectMapper, 2, 1, 1_000, 0, 10, 10_000);
+
+        dispatcher.submit(deliveries(1L, 12));
+
+        awaitDelivered(dispatcher, 12);
+        assertThat(server.getRequestCount()).isEqualTo(12);
+        assertThat(maxSeen.get()).isEqualTo(2);
+    }
+
+    // --------------------------------------------------------------------
+    // Helpers
+    // --------------------------------------------------------------------
+
+    private WebhookDispatcher dispatcher(int maxConcurrency, int batchSize, int maxRetries) {
+        return new WebhookDispatcher(
+                new WebClientConfig().webhookWebClient(50, 2_000, true), deadLetterRepository, objectMapper,
+                maxConcurrency, batchSize, 1_000, maxRetries, 10, 10_000);
+    }
+
+    private List<WebhookDispatcher.Delivery> deliveries(long webhookId, int n) {
+        String url = server.url("/hook").toString();
+        return IntStream.range(0, n)
+                .mapToObj(i -> new WebhookDispatcher.Delivery(webhookId, url,
+                        new WebhookAlertEvent(i, "HIGH", "bitcoin", 250.0, 200.0, 0L)))
+                .toList();
+    }
+
+    private static void awaitDelivered(WebhookDispatcher dispatcher, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (dispatcher.delivered() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(dispatcher.delivered()).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,42 @@
+package common.observability;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/**
+ * /actuator/queries : dernières requêtes lentes et derniers SELECT répétés (N+1) relevés par
+ * QueryInspector, plus récents en tête. DELETE vide les buffers. Exposition (port de management,
+ * accès) propre à chaque service, cf. leurs QueryInspectionConfig.
+ */
+@Endpoint(id = "queries")
+public class QueriesEndpoint {
+
+    private final QueryInspector inspector;
+    private final QueryInspectionProperties properties;
+
+    public QueriesEndpoint(QueryInspector inspector, QueryInspectionProperties properties) {
+        this.inspector = inspector;
+        this.properties = properties;
+    }
+
+    @ReadOperation
+    public Report queries() {
+        return new Report(properties.getSlowQueryMs(), properties.getRepeatedSelectThreshold(),
+                inspector.slowQueries(), inspector.repeatedSelects());
+    }
+
+    @DeleteOperation
+    public void clear() {
+        inspector.clear();
+    }
+
+    public record Report(
+            long slowQueryMs,
+            int repeatedSelectThreshold,
+            List<QueryInspector.SlowQuery> slowQueries,
+            List<QueryInspector.RepeatedSelect> repeatedSelects
+    ) {}
+}
@@ -0,0 +1,33 @@
+package common.observability;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Instrumentation des requêtes SQL (app.query-inspection.*, cf. QueryInspector) :
+ * latence par statement, statements par requête HTTP / tick, détection N+1, requêtes lentes.
+ * Enregistré par le QueryInspectionConfig de chaque service.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.query-inspection")
+public class QueryInspectionProperties {
+
+    private boolean enabled = true;
+
+    // au-delà : requête conservée (SQL + valeurs liées) dans le buffer des requêtes lentes
+    private long slowQueryMs = 200;
+
+    // même SELECT exécuté au moins n fois dans une portée => N+1 signalé
+    private int repeatedSelectThreshold = 5;
+
+    // entrées conservées par buffer (requêtes lentes, N+1), les plus anciennes écrasées
+    private int bufferSize = 100;
+
+    // valeurs liées dans les entrées du buffer (false : seulement leur nombre). Désactivé par
+    // défaut : e-mails, hash de mots de passe, clés d'idempotence passent en paramètres
+    private boolean captureBindValues = false;
+
+    // longueur max d'une valeur liée / d'un SQL conservés
+    private int maxBindLength = 64;
+    private int maxSqlLength = 2000;
+}
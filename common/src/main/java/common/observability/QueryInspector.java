@@ -0,0 +1,275 @@
+package common.observability;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Instrumentation des statements JDBC (listener datasource-proxy posé sur la DataSource
+ * par chaque service, cf. leurs QueryInspectionConfig). Métriques préfixées par le service
+ * (api.db.*, collector.db.*) :
+ *
+ * - {prefix}.db.queries{operation, table} : latence de chaque statement (histogramme) ;
+ * - {prefix}.db.statements{scope}         : statements exécutés par portée (requête HTTP ou tick) ;
+ * - {prefix}.db.n_plus_one{scope}         : portées où un même SELECT revient >= repeated-select-threshold fois ;
+ * - derniers SELECT répétés et dernières requêtes lentes (SQL + valeurs liées) dans des buffers
+ *   bornés, exposés sur /actuator/queries.
+ *
+ * La portée courante est portée par le thread : ouverte par QueryInspector.open(nom) autour d'un
+ * tick ou d'une requête HTTP (api : QueryScopeFilter) ; hors portée, seules la latence et les requêtes lentes.
+ */
+@Slf4j
+public class QueryInspector implements QueryExecutionListener {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+    private static final String START_NANOS = "queryInspector.start";
+
+    // 1er mot-clé + 1re table après FROM / INTO / UPDATE (cardinalité bornée par le schéma)
+    private static final Pattern TABLE = Pattern.compile(
+            "\\b(?:from|into|update)\\s+([a-z_][a-z0-9_]*(?:\\.[a-z_][a-z0-9_]*)?)");
+    private static final int MAX_DISTINCT_SELECTS = 256;
+
+    private final String metricPrefix;
+    private final QueryInspectionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final long slowQueryNanos;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Ring<SlowQuery> slowQueries;
+    private final Ring<RepeatedSelect> repeatedSelects;
+
+    public QueryInspector(String metricPrefix, QueryInspectionProperties properties, MeterRegistry meterRegistry) {
+        this.metricPrefix = metricPrefix;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(properties.getSlowQueryMs());
+        this.slowQueries = new Ring<>(properties.getBufferSize());
+        this.repeatedSelects = new Ring<>(properties.getBufferSize());
+    }
+
+    /**
+     * Ouvre une portée sur le thread courant (try-with-resources). Si une portée est déjà
+     * ouverte, ses statements y restent comptés : la portée renvoyée ne fait rien.
+     */
+    public static Scope open(String name) {
+        if (CURRENT.get() != null) return Scope.NESTED;
+        Scope scope = new Scope(name);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long start = execInfo.getCustomValue(START_NANOS, Long.class);
+        long nanos = start != null ? System.nanoTime() - start : TimeUnit.MILLISECONDS.toNanos(execInfo.getElapsedTime());
+        if (queryInfoList.isEmpty()) return;
+
+        String sql = queryInfoList.get(0).getQuery();
+        String lower = sql.stripLeading().toLowerCase(Locale.ROOT);
+        String operation = operation(lower);
+        timer(operation, table(lower)).record(nanos, TimeUnit.NANOSECONDS);
+
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.record(this, "select".equals(operation) ? sql : null, queryInfoList.get(0));
+        }
+        if (nanos >= slowQueryNanos) {
+            SlowQuery slow = new SlowQuery(Instant.now(), Thread.currentThread().getName(), nanos / 1_000_000.0,
+                    truncate(sql, properties.getMaxSqlLength()), binds(queryInfoList.get(0)),
+                    execInfo.isBatch() ? execInfo.getBatchSize() : 0);
+            // dans une portée : publiée à la fermeture, sous le nom définitif de la portée
+            if (scope != null && scope.slow.size() < properties.getBufferSize()) {
+                scope.slow.add(slow);
+            } else {
+                slowQueries.add(slow);
+            }
+        }
+    }
+
+    public List<SlowQuery> slowQueries() {
+        return slowQueries.newestFirst();
+    }
+
+    public List<RepeatedSelect> repeatedSelects() {
+        return repeatedSelects.newestFirst();
+    }
+
+    public void clear() {
+        slowQueries.clear();
+        repeatedSelects.clear();
+    }
+
+    private void report(Scope scope) {
+        for (SlowQuery slow : scope.slow) {
+            slowQueries.add(slow.withScope(scope.name));
+        }
+        DistributionSummary.builder(metricPrefix + ".db.statements")
+                .description("Statements JDBC par requête HTTP / tick")
+                .tag("scope", scope.name)
+                .register(meterRegistry)
+                .record(scope.statements);
+
+        for (Map.Entry<String, Repeated> e : scope.selects.entrySet()) {
+            Repeated r = e.getValue();
+            if (r.executions < properties.getRepeatedSelectThreshold()) continue;
+            Counter.builder(metricPrefix + ".db.n_plus_one")
+                    .description("Portées exécutant le même SELECT en boucle")
+                    .tag("scope", scope.name)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("[N+1] {} : {} exécutions de {}", scope.name, r.executions, truncate(e.getKey(), 200));
+            repeatedSelects.add(new RepeatedSelect(Instant.now(), scope.name, r.executions,
+                    truncate(e.getKey(), properties.getMaxSqlLength()), r.firstBinds));
+        }
+    }
+
+    private Timer timer(String operation, String table) {
+        return timers.computeIfAbsent(operation + ' ' + table, k -> Timer.builder(metricPrefix + ".db.queries")
+                .description("Latence des statements JDBC")
+                .tag("operation", operation)
+                .tag("table", table)
+                .register(meterRegistry));
+    }
+
+    static String operation(String lowerSql) {
+        for (String op : new String[] {"select", "insert", "update", "delete", "with"}) {
+            if (lowerSql.startsWith(op)) return op;
+        }
+        return "other";
+    }
+
+    static String table(String lowerSql) {
+        Matcher m = TABLE.matcher(lowerSql);
+        return m.find() ? m.group(1) : "none";
+    }
+
+    private List<String> binds(QueryInfo query) {
+        List<List<ParameterSetOperation>> sets = query.getParametersList();
+        if (sets.isEmpty()) return List.of();
+        List<ParameterSetOperation> ops = new ArrayList<>(sets.get(0)); // 1er jeu (batch : les suivants ignorés)
+        if (!properties.isCaptureBindValues()) return List.of(ops.size() + " valeur(s)");
+
+        ops.sort(Comparator.comparingInt(op -> op.getArgs()[0] instanceof Integer i ? i : 0));
+        List<String> out = new ArrayList<>(ops.size());
+        for (ParameterSetOperation op : ops) {
+            Object[] args = op.getArgs();
+            boolean isNull = ParameterSetOperation.isSetNullParameterOperation(op) || args.length < 2;
+            out.add(isNull ? "null" : truncate(String.valueOf(args[1]), properties.getMaxBindLength()));
+        }
+        return out;
+    }
+
+    private static String truncate(String s, int max) {
+        return s.length() <= max ? s : s.substring(0, max) + "…";
+    }
+
+    /**
+     * Statements d'une requête HTTP / d'un tick. Le listener s'y attache au 1er statement :
+     * une portée sans accès base ne produit aucune mesure.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        static final Scope NESTED = new Scope(null);
+
+        private String name;
+        private QueryInspector inspector;
+        private int statements;
+        private final Map<String, Repeated> selects = new HashMap<>();
+        private final List<SlowQuery> slow = new ArrayList<>();
+
+        private Scope(String name) {
+            this.name = name;
+        }
+
+        // nom connu en fin de portée (ex : gabarit de route résolu par Spring MVC)
+        public void rename(String name) {
+            if (this != NESTED) this.name = name;
+        }
+
+        private void record(QueryInspector inspector, String select, QueryInfo query) {
+            this.inspector = inspector;
+            statements++;
+            if (select == null) return;
+            Repeated r = selects.get(select);
+            if (r != null) {
+                r.executions++;
+            } else if (selects.size() < MAX_DISTINCT_SELECTS) {
+                selects.put(select, new Repeated(inspector.binds(query))); // copie : l'objet JDBC est réutilisé
+            }
+        }
+
+        @Override
+        public void close() {
+            if (this == NESTED) return;
+            CURRENT.remove();
+            if (inspector != null) inspector.report(this);
+        }
+    }
+
+    private static final class Repeated {
+        final List<String> firstBinds;
+        int executions = 1;
+
+        Repeated(List<String> firstBinds) {
+            this.firstBinds = firstBinds;
+        }
+    }
+
+    public record SlowQuery(Instant at, String scope, double durationMs, String sql, List<String> binds, int batchSize) {
+        SlowQuery withScope(String scope) {
+            return new SlowQuery(at, scope, durationMs, sql, binds, batchSize);
+        }
+    }
+
+    public record RepeatedSelect(Instant at, String scope, int executions, String sql, List<String> firstBinds) {}
+
+    // buffer circulaire : les entrées les plus anciennes sont écrasées
+    private static final class Ring<T> {
+        private final int capacity;
+        private final ArrayDeque<T> entries;
+
+        Ring(int capacity) {
+            this.capacity = Math.max(1, capacity);
+            this.entries = new ArrayDeque<>(this.capacity);
+        }
+
+        synchronized void add(T entry) {
+            if (entries.size() == capacity) entries.pollFirst();
+            entries.addLast(entry);
+        }
+
+        synchronized List<T> newestFirst() {
+            List<T> out = new ArrayList<>(entries);
+            Collections.reverse(out);
+            return out;
+        }
+
+        synchronized void clear() {
+            entries.clear();
+        }
+    }
+}
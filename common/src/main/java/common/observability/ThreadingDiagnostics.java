@@ -0,0 +1,66 @@
+package common.observability;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Trace au démarrage le mode d'exécution (spring.threads.virtual.enabled) :
+ *
+ * - threads virtuels demandés sur un JRE < 21 : Spring les ignore sans rien dire ;
+ * - en mode virtuel la concurrence n'est plus bornée par le pool Tomcat mais par Hikari ;
+ * - épinglage (synchronized autour d'I/O JDBC) : lancer avec -Djdk.tracePinnedThreads=short
+ *   (cf. JAVA_TOOL_OPTIONS des déploiements k8s) ou l'événement JFR jdk.VirtualThreadPinned.
+ *
+ * Importé par la classe d'application de chaque service (@Import).
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ThreadingDiagnostics {
+
+    private final Environment environment;
+    // api : 1 pool (primaire) ou 2 (primaire + réplique) ; collector : 1 pool ; éventuellement enveloppés
+    private final ObjectProvider<DataSource> dataSources;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        boolean requested = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        int jre = Runtime.version().feature();
+        if (!requested) {
+            log.info("Threads : plateforme (JRE {})", jre);
+            return;
+        }
+        if (jre < 21) {
+            log.warn("spring.threads.virtual.enabled=true ignoré : JRE {} (threads virtuels à partir de 21)", jre);
+            return;
+        }
+
+        String sizes = dataSources.orderedStream()
+                .map(ThreadingDiagnostics::hikari)
+                .filter(Objects::nonNull)
+                .distinct()
+                .map(h -> h.getPoolName() + "=" + h.getMaximumPoolSize())
+                .collect(Collectors.joining(", "));
+        log.info("Threads : virtuels (JRE {}), concurrence JDBC bornée par les pools Hikari ({})", jre, sizes);
+        if (System.getProperty("jdk.tracePinnedThreads") == null) {
+            log.info("Diagnostic d'épinglage désactivé (ajouter -Djdk.tracePinnedThreads=short)");
+        }
+    }
+
+    private static HikariDataSource hikari(DataSource ds) {
+        try {
+            return ds.isWrapperFor(HikariDataSource.class) ? ds.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package common.observability;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryInspectorTest {
+
+    private static final String BY_ID = "select ca1_0.id,ca1_0.name from crypto_assets ca1_0 where ca1_0.id=?";
+
+    private SimpleMeterRegistry registry;
+    private QueryInspectionProperties properties;
+    private QueryInspector inspector;
+
+    @BeforeEach
+    void setup() {
+        registry = new SimpleMeterRegistry();
+        properties = new QueryInspectionProperties();
+        properties.setRepeatedSelectThreshold(3);
+        properties.setBufferSize(2);
+        properties.setSlowQueryMs(60_000);
+        inspector = new QueryInspector("api", properties, registry);
+    }
+
+    private void execute(String sql, Object... binds) throws Exception {
+        QueryInfo query = new QueryInfo(sql);
+        List<ParameterSetOperation> ops = new ArrayList<>();
+        for (int i = 0; i < binds.length; i++) {
+            ops.add(new ParameterSetOperation(PreparedStatement.class.getMethod("setObject", int.class, Object.class),
+                    new Object[] {i + 1, binds[i]}));
+        }
+        if (!ops.isEmpty()) query.getParametersList().add(ops);
+
+        ExecutionInfo info = new ExecutionInfo();
+        inspector.beforeQuery(info, List.of(query));
+        inspector.afterQuery(info, List.of(query));
+    }
+
+    @Test
+    void operationAndTable_areParsedFromSql() {
+        assertEquals("select", QueryInspector.operation(BY_ID));
+        assertEquals("crypto_assets", QueryInspector.table(BY_ID));
+        assertEquals("insert", QueryInspector.operation("insert into trades (id) values (?)"));
+        assertEquals("trades", QueryInspector.table("insert into trades (id) values (?)"));
+        assertEquals("price_alerts", QueryInspector.table("update price_alerts pa set triggered=true from crypto_assets"));
+        assertEquals("none", QueryInspector.table("select 1"));
+        assertEquals("other", QueryInspector.operation("copy users from stdin"));
+    }
+
+    @Test
+    void repeatedSelectInScope_isReported_withFirstBinds() throws Exception {
+        properties.setCaptureBindValues(true);
+        try (QueryInspector.Scope scope = QueryInspector.open("GET UNKNOWN")) {
+            execute("select h.id from user_holdings h where h.user_id=?", 7L);
+            for (long id = 1; id <= 3; id++) execute(BY_ID, id);
+            scope.rename("GET /api/me/portfolio");
+        }
+
+        List<QueryInspector.RepeatedSelect> found = inspector.repeatedSelects();
+        assertEquals(1, found.size());
+        assertEquals("GET /api/me/portfolio", found.get(0).scope());
+        assertEquals(3, found.get(0).executions());
+        assertEquals(List.of("1"), found.get(0).firstBinds());
+
+        assertEquals(1.0, registry.get("api.db.n_plus_one").tag("scope", "GET /api/me/portfolio").counter().count());
+        assertEquals(4.0, registry.get("api.db.statements").tag("scope", "GET /api/me/portfolio").summary().totalAmount());
+        assertEquals(4, registry.get("api.db.queries").timers().stream().mapToLong(t -> t.count()).sum());
+    }
+
+    @Test
+    void nestedScope_countsIntoOuterScope() throws Exception {
+        try (QueryInspector.Scope outer = QueryInspector.open("movement-alerts")) {
+            execute(BY_ID, 1L);
+            try (QueryInspector.Scope inner = QueryInspector.open("inner")) {
+                execute(BY_ID, 2L);
+                execute(BY_ID, 3L);
+            }
+        }
+
+        assertEquals("movement-alerts", inspector.repeatedSelects().get(0).scope());
+        assertNull(registry.find("api.db.statements").tag("scope", "inner").summary());
+    }
+
+    @Test
+    void scopeWithoutStatements_recordsNothing() {
+        try (QueryInspector.Scope scope = QueryInspector.open("GET /api/cryptos")) {
+            // réponse servie depuis un cache mémoire
+        }
+        assertNull(registry.find("api.db.statements").summary());
+    }
+
+    @Test
+    void slowQueries_areBounded_newestFirst_andBindsHiddenByDefault() throws Exception {
+        properties.setSlowQueryMs(0);
+        inspector = new QueryInspector("api", properties, registry);
+
+        execute(BY_ID, 1L);
+        execute(BY_ID, 2L);
+        execute("delete from alert_events where created_at<?", "2026-01-01");
+
+        List<QueryInspector.SlowQuery> slow = inspector.slowQueries();
+        assertEquals(2, slow.size());
+        assertTrue(slow.get(0).sql().startsWith("delete"));
+        assertEquals(List.of("1 valeur(s)"), slow.get(0).binds());
+
+        inspector.clear();
+        assertTrue(inspector.slowQueries().isEmpty());
+    }
+
+    @Test
+    void outsideScope_onlySlowQueriesAreKept() throws Exception {
+        properties.setSlowQueryMs(0);
+        inspector = new QueryInspector("collector", properties, registry);
+
+        execute("delete from portfolio_value_points where bucket < ?", "2026-01-01");
+
+        assertNull(registry.find("collector.db.statements").summary());
+        assertEquals(1, registry.get("collector.db.queries").tags("operation", "delete", "table", "portfolio_value_points")
+                .timer().count());
+        assertEquals(Thread.currentThread().getName(), inspector.slowQueries().get(0).scope());
+    }
+}
@@ -0,0 +1,156 @@
+import http from "k6/http";
+import { check, sleep } from "k6";
+
+// Charge authentifiée réaliste, partagée par les scripts steps / soak :
+// pool d'utilisateurs pré-créés (perf/seed-perf-users.sql) connectés dans setup(),
+// puis mélange historique / favoris / alertes / trades selon des ratios configurables.
+
+const API_URL = __ENV.API_URL || "http://localhost:8080";
+
+// taille du pool : login limité par IP (rate limit "login"), garder <= capacité du bucket
+// ou augmenter RATE_LIMIT_LOGIN_CAPACITY côté API pour de gros pools
+const PERF_USERS = Number(__ENV.PERF_USERS || 20);
+const PERF_PASSWORD = __ENV.PERF_PASSWORD || "PerfUser1!";
+const ASSETS = (__ENV.PERF_ASSETS || "bitcoin,ethereum,tether,binancecoin,solana,ripple,cardano,dogecoin")
+  .split(",")
+  .map((a) => a.trim())
+  .filter((a) => a.length > 0);
+
+// Ratios du mélange (normalisés, pas besoin de faire 1.0)
+const RATIOS = normalize({
+  history: Number(__ENV.HISTORY_RATIO || 0.4),
+  favorites: Number(__ENV.FAVORITES_RATIO || 0.25),
+  alerts: Number(__ENV.ALERTS_RATIO || 0.15),
+  trades: Number(__ENV.TRADES_RATIO || 0.2),
+});
+
+// quantité par trade : petite devant les 100 unités seedées par actif
+const TRADE_QTY = Number(__ENV.TRADE_QTY || 0.001);
+
+function normalize(ratios) {
+  const total = Object.values(ratios).reduce((a, b) => a + Math.max(0, b), 0);
+  if (total <= 0) throw new Error("HISTORY/FAVORITES/ALERTS/TRADES_RATIO : au moins un ratio > 0");
+  let acc = 0;
+  return Object.entries(ratios).map(([name, r]) => {
+    acc += Math.max(0, r) / total;
+    return { name, upTo: acc };
+  });
+}
+
+function pick(list) {
+  return list[Math.floor(Math.random() * list.length)];
+}
+
+// Seuils par endpoint (à fusionner dans options.thresholds)
+export const authThresholds = {
+  "http_req_duration{endpoint:auth_login}": ["p(95)<800"],
+  "http_req_duration{endpoint:crypto_history}": ["p(95)<300", "p(99)<800"],
+  "http_req_duration{endpoint:portfolio_history}": ["p(95)<300", "p(99)<800"],
+  "http_req_duration{endpoint:favorites_read}": ["p(95)<200", "p(99)<500"],
+  "http_req_duration{endpoint:favorites_write}": ["p(95)<300", "p(99)<800"],
+  "http_req_duration{endpoint:alerts_read}": ["p(95)<200", "p(99)<500"],
+  "http_req_duration{endpoint:alerts_upsert}": ["p(95)<300", "p(99)<800"],
+  "http_req_duration{endpoint:trade_buy}": ["p(95)<500", "p(99)<1200"],
+  "http_req_duration{endpoint:trade_sell}": ["p(95)<500", "p(99)<1200"],
+  "checks{flow:auth}": ["rate>0.99"],
+};
+
+// Connexion du pool : 429 -> attente Retry-After puis nouvel essai
+export function loginPool() {
+  const users = [];
+  for (let i = 1; i <= PERF_USERS; i++) {
+    const username = `perf_user_${i}`;
+    for (let attempt = 0; attempt < 20; attempt++) {
+      const res = http.post(
+        `${API_URL}/api/auth/login`,
+        JSON.stringify({ username, password: PERF_PASSWORD }),
+        { headers: { "Content-Type": "application/json" }, tags: { endpoint: "auth_login" } }
+      );
+      if (res.status === 200) {
+        users.push({ username, token: res.json("token") });
+        break;
+      }
+      if (res.status !== 429) {
+        console.warn(`login ${username} -> ${res.status} (utilisateurs seedés ? make perf-seed)`);
+        break;
+      }
+      sleep(Number(res.headers["Retry-After"] || 5));
+    }
+  }
+  if (users.length === 0) throw new Error("Aucun utilisateur de test connecté : lancer make perf-seed");
+  return users;
+}
+
+export function authScenario(data) {
+  const user = data.users[(__VU + __ITER) % data.users.length];
+  const params = (endpoint) => ({
+    headers: { "Content-Type": "application/json", Authorization: `Bearer ${user.token}` },
+    tags: { endpoint, flow: "auth" },
+  });
+
+  const roll = Math.random();
+  const action = RATIOS.find((r) => roll < r.upTo) || RATIOS[RATIOS.length - 1];
+
+  switch (action.name) {
+    case "history":
+      history(params);
+      break;
+    case "favorites":
+      favorites(params);
+      break;
+    case "alerts":
+      alerts(params);
+      break;
+    default:
+      trade(params);
+  }
+}
+
+function ok(res, name) {
+  check(res, { [`${name} 2xx`]: (r) => r.status >= 200 && r.status < 300 }, { flow: "auth" });
+}
+
+function history(params) {
+  if (Math.random() < 0.7) {
+    const asset = pick(ASSETS);
+    ok(http.get(`${API_URL}/api/crypto/${asset}/history?vs=usd`, params("crypto_history")), "crypto history");
+  } else {
+    ok(http.get(`${API_URL}/api/me/portfolio/history`, params("portfolio_history")), "portfolio history");
+  }
+}
+
+function favorites(params) {
+  ok(http.get(`${API_URL}/api/me/favorites`, params("favorites_read")), "favorites read");
+  if (Math.random() < 0.3) {
+    const asset = pick(ASSETS);
+    const res = Math.random() < 0.5
+      ? http.post(`${API_URL}/api/me/favorites/${asset}`, null, params("favorites_write"))
+      : http.del(`${API_URL}/api/me/favorites/${asset}`, null, params("favorites_write"));
+    ok(res, "favorites write");
+  }
+}
+
+function alerts(params) {
+  if (Math.random() < 0.5) {
+    ok(http.get(`${API_URL}/api/me/alerts`, params("alerts_read")), "alerts read");
+  } else {
+    // seuils hors d'atteinte : l'alerte est évaluée à chaque passage mais ne déclenche jamais d'email
+    const body = JSON.stringify({
+      externalId: pick(ASSETS),
+      thresholdHigh: 1e12 + Math.floor(Math.random() * 1000),
+      thresholdLow: 1e-9,
+      active: true,
+    });
+    ok(http.put(`${API_URL}/api/me/alerts`, body, params("alerts_upsert")), "alerts upsert");
+  }
+}
+
+function trade(params) {
+  const asset = pick(ASSETS);
+  const body = JSON.stringify({ qty: TRADE_QTY });
+  if (Math.random() < 0.5) {
+    ok(http.post(`${API_URL}/api/me/trade/buy/${asset}`, body, params("trade_buy")), "trade buy");
+  } else {
+    ok(http.post(`${API_URL}/api/me/trade/sell/${asset}`, body, params("trade_sell")), "trade sell");
+  }
+}
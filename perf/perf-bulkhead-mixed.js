@@ -0,0 +1,120 @@
+import http from "k6/http";
+import { check } from "k6";
+import { htmlReport } from "https://raw.githubusercontent.com/benc-uk/k6-reporter/main/dist/bundle.js";
+
+// Scénario mixte "bulkheads" : trafic public constant (/api/cryptos) pendant qu'un pic
+// authentifié sature /api/me/*. Attendu : la latence publique tient son SLO, le pic
+// reçoit des 503 rapides (Retry-After) au lieu de faire la queue.
+// Rate limit désactivé pendant le run (toutes les requêtes publiques partent de la même IP) :
+// cf. make perf-bulkhead.
+
+const API_URL = __ENV.API_URL || "http://localhost:8080";
+
+const PUBLIC_RPS = Number(__ENV.PUBLIC_RPS || 100);
+const ME_BASE_RPS = Number(__ENV.ME_BASE_RPS || 20);
+const ME_PEAK_RPS = Number(__ENV.ME_PEAK_RPS || 600);
+const USERS = Number(__ENV.USERS || 50);
+const DURATION = __ENV.DURATION || "5m";
+
+const JSON_HEADERS = { "Content-Type": "application/json" };
+
+export const options = {
+  scenarios: {
+    public_baseline: {
+      executor: "constant-arrival-rate",
+      rate: PUBLIC_RPS,
+      timeUnit: "1s",
+      duration: DURATION,
+      preAllocatedVUs: 100,
+      maxVUs: 400,
+      exec: "publicScenario",
+      tags: { class: "public", test: "bulkhead" },
+    },
+    me_spike: {
+      executor: "ramping-arrival-rate",
+      startRate: ME_BASE_RPS,
+      timeUnit: "1s",
+      stages: [
+        { target: ME_BASE_RPS, duration: "1m" },
+        { target: ME_PEAK_RPS, duration: "30s" },
+        { target: ME_PEAK_RPS, duration: "2m" },
+        { target: ME_BASE_RPS, duration: "30s" },
+        { target: ME_BASE_RPS, duration: "1m" },
+      ],
+      preAllocatedVUs: 200,
+      maxVUs: 1500,
+      exec: "meScenario",
+      tags: { class: "me", test: "bulkhead" },
+    },
+  },
+
+  thresholds: {
+    // SLO public inchangé pendant le pic
+    "http_req_duration{class:public}": ["p(95)<200", "p(99)<500"],
+    "http_req_failed{class:public}": ["rate<0.01"],
+    // côté /api/me : les refus doivent être rapides, pas des timeouts
+    "http_req_duration{class:me,status:503}": ["p(99)<300"],
+    checks: ["rate>0.99"],
+  },
+
+  summaryTrendStats: ["avg", "min", "med", "max", "p(90)", "p(95)", "p(99)"],
+};
+
+export function setup() {
+  const run = Date.now().toString(36);
+  const tokens = [];
+  for (let i = 0; i < USERS; i++) {
+    const username = `bh_${run}_${i}`;
+    const res = http.post(
+      `${API_URL}/api/auth/register`,
+      JSON.stringify({ username, email: `${username}@perf.fr`, password: "Password1!" }),
+      { headers: JSON_HEADERS, tags: { class: "setup" } }
+    );
+    if (res.status !== 200) continue;
+    const token = res.json("token");
+    // un peu de solde pour les achats
+    http.post(`${API_URL}/api/me/balance/add`, JSON.stringify({ amount: 1000000 }), {
+      headers: { ...JSON_HEADERS, Authorization: `Bearer ${token}` },
+      tags: { class: "setup" },
+    });
+    tokens.push(token);
+  }
+  if (tokens.length === 0) throw new Error("Aucun utilisateur de test créé");
+  return { tokens };
+}
+
+export function publicScenario() {
+  const res = http.get(`${API_URL}/api/cryptos`);
+
+  check(res, { "public status 200": (r) => r.status === 200 });
+}
+
+export function meScenario(data) {
+  const token = data.tokens[Math.floor(Math.random() * data.tokens.length)];
+  const params = { headers: { ...JSON_HEADERS, Authorization: `Bearer ${token}` } };
+
+  const roll = Math.random();
+  let res;
+  if (roll < 0.4) {
+    res = http.get(`${API_URL}/api/me/portfolio`, params);
+  } else if (roll < 0.7) {
+    res = http.get(`${API_URL}/api/me/trades?limit=50`, params);
+  } else if (roll < 0.9) {
+    res = http.get(`${API_URL}/api/me/holdings`, params);
+  } else {
+    res = http.post(`${API_URL}/api/me/trade/buy/bitcoin`, JSON.stringify({ qty: 0.0001 }), params);
+  }
+
+  // 503 = bulkhead plein : refus attendu pendant le pic
+  check(res, {
+    "me status 2xx/503": (r) => (r.status >= 200 && r.status < 300) || r.status === 503,
+    "me 503 has Retry-After": (r) => r.status !== 503 || !!r.headers["Retry-After"],
+  });
+}
+
+export function handleSummary(data) {
+  return {
+    "/results/report.html": htmlReport(data),
+    "/results/summary.pretty.json": JSON.stringify(data, null, 2),
+  };
+}
@@ -1,6 +1,7 @@
 import http from "k6/http";
 import { check } from "k6";
 import { htmlReport } from "https://raw.githubusercontent.com/benc-uk/k6-reporter/main/dist/bundle.js";
+import { authScenario, authThresholds, loginPool } from "./auth-workload.js";
 
 const API_URL = __ENV.API_URL || "http://localhost:8080";
 const COLLECTOR_URL = __ENV.COLLECTOR_URL || "http://localhost:8081";
@@ -10,15 +11,17 @@ const FRONT_URL = __ENV.FRONT_URL || "http://localhost:3000";
 const SOAK_RPS = Number(__ENV.SOAK_RPS || 150);
 
 // répartition du trafic
-const API_SHARE = Number(__ENV.API_SHARE || 0.7);
+const API_SHARE = Number(__ENV.API_SHARE || 0.4);
+const AUTH_SHARE = Number(__ENV.AUTH_SHARE || 0.3); // utilisateurs connectés (auth-workload.js)
 const FRONT_SHARE = Number(__ENV.FRONT_SHARE || 0.2);
 const COLLECTOR_SHARE = Number(__ENV.COLLECTOR_SHARE || 0.1);
 
 function split(rps) {
   const api = Math.max(1, Math.round(rps * API_SHARE));
+  const auth = Math.max(1, Math.round(rps * AUTH_SHARE));
   const front = Math.max(1, Math.round(rps * FRONT_SHARE));
-  const collector = Math.max(1, rps - api - front);
-  return { api, front, collector };
+  const collector = Math.max(1, rps - api - auth - front);
+  return { api, auth, front, collector };
 }
 
 const R = split(SOAK_RPS);
@@ -35,6 +38,16 @@ export const options = {
       exec: "apiScenario",
       tags: { endpoint: "api_cryptos", test: "soak" },
     },
+    auth_soak: {
+      executor: "constant-arrival-rate",
+      rate: R.auth,
+      timeUnit: "1s",
+      duration: "30m",
+      preAllocatedVUs: 100,
+      maxVUs: 500,
+      exec: "authScenario",
+      tags: { test: "soak" },
+    },
     front_soak: {
       executor: "constant-arrival-rate",
       rate: R.front,
@@ -63,11 +76,20 @@ export const options = {
     "http_req_duration{endpoint:front_home}": ["p(95)<500", "p(99)<1200"],
     "http_req_duration{endpoint:collector_health}": ["p(95)<150"],
     checks: ["rate>0.99"],
+    ...authThresholds,
   },
 
+  // connexion du pool d'utilisateurs (429 du rate limit login -> attente Retry-After)
+  setupTimeout: "5m",
   summaryTrendStats: ["avg", "min", "med", "max", "p(90)", "p(95)", "p(99)"],
 };
 
+export function setup() {
+  return { users: loginPool() };
+}
+
+export { authScenario };
+
 export function apiScenario() {
   const res = http.get(`${API_URL}/api/cryptos`, { tags: { endpoint: "api_cryptos" } });
 
@@ -85,7 +107,7 @@ export function apiScenario() {
 }
 
 export function collectorScenario() {
-  let res = http.get(`${COLLECTOR_URL}/actuator/health`, { tags: { endpoint: "collector_health" } });
+  let res = http.get(`${COLLECTOR_URL}/readyz`, { tags: { endpoint: "collector_health" } });
   if (res.status === 404) {
     res = http.get(`${COLLECTOR_URL}/health`, { tags: { endpoint: "collector_health" } });
   }
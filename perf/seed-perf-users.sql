@@ -0,0 +1,54 @@
+-- Utilisateurs des tests de charge authentifiés (perf/auth-workload.js)
+--   perf_user_1 .. perf_user_N, mot de passe "PerfUser1!" (BCrypt, coût 10)
+--   solde remis à 1 000 000, 100 unités des 10 premiers actifs (ventes possibles), 5 favoris
+-- Idempotent : relancer remet les comptes dans le même état.
+--   psql -v users=200 -f perf/seed-perf-users.sql      (cf. make perf-seed)
+
+\set ON_ERROR_STOP on
+\if :{?users}
+\else
+  \set users 200
+\endif
+
+BEGIN;
+
+INSERT INTO roles (name) VALUES ('ROLE_USER') ON CONFLICT (name) DO NOTHING;
+
+INSERT INTO users (username, email, password, enabled, balance)
+SELECT 'perf_user_' || i,
+       'perf_user_' || i || '@perf.fr',
+       '$2a$10$yOiH0UuOGMlfjIWO.zohZ.AAQ7TUiB3Vejwhk2t6MwlQwhz0U6WEG',
+       TRUE,
+       1000000
+FROM generate_series(1, :users) AS i
+ON CONFLICT (username) DO UPDATE
+  SET password = EXCLUDED.password,
+      enabled  = TRUE,
+      balance  = EXCLUDED.balance;
+
+CREATE TEMP TABLE perf_users ON COMMIT DROP AS
+SELECT id FROM users
+WHERE username IN (SELECT 'perf_user_' || i FROM generate_series(1, :users) AS i);
+
+CREATE TEMP TABLE perf_assets ON COMMIT DROP AS
+SELECT id, row_number() OVER (ORDER BY market_cap_rank NULLS LAST, id) AS rank
+FROM crypto_assets
+ORDER BY market_cap_rank NULLS LAST, id
+LIMIT 10;
+
+INSERT INTO user_roles (user_id, role_id)
+SELECT u.id, r.id FROM perf_users u, roles r WHERE r.name = 'ROLE_USER'
+ON CONFLICT DO NOTHING;
+
+INSERT INTO user_holdings (user_id, asset_id, quantity)
+SELECT u.id, a.id, 100 FROM perf_users u, perf_assets a
+ON CONFLICT (user_id, asset_id) DO UPDATE SET quantity = EXCLUDED.quantity;
+
+INSERT INTO user_favorites (user_id, asset_id)
+SELECT u.id, a.id FROM perf_users u, perf_assets a WHERE a.rank <= 5
+ON CONFLICT DO NOTHING;
+
+SELECT (SELECT count(*) FROM perf_users)  AS perf_users,
+       (SELECT count(*) FROM perf_assets) AS assets_seeded;
+
+COMMIT;